@@ -0,0 +1,33 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * BitmapPreviewListener.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.listeners;
+
+import com.finium.core.drivers.zebra.model.MonochromeBitmap;
+import com.finium.core.drivers.zebra.model.ZebraLabel;
+
+/**
+ * Receives the previews of a batch of labels rendered without AWT (see
+ * {@link com.finium.core.drivers.zebra.model.LabelPreviewRenderer#renderBitmaps(Iterable, BitmapPreviewListener)}).
+ *
+ * @author Cristian Ramírez
+ */
+public interface BitmapPreviewListener {
+
+    /**
+     * Invoked for every label of the batch, in the order of the batch, on the
+     * thread rendering the batch.
+     *
+     * @param index      index of the label in the batch
+     * @param zebraLabel label rendered
+     * @param bitmap     preview of the label
+     */
+    void previewRendered(int index, ZebraLabel zebraLabel, MonochromeBitmap bitmap);
+}
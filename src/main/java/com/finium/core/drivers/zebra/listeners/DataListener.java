@@ -46,4 +46,17 @@ public interface DataListener {
      *            The message to be send when error occurred.
      */
     void messageSendFailed(ConnectionClientException exception, String messageToSend);
+
+    /**
+     * Invoked when a job of labels has been sent (the message itself is
+     * notified by {@link #messageSent(String)}). Identical labels may be sent
+     * once with a quantity, so formatCount may be lower than labelCount.
+     * 
+     * @param labelCount
+     *            Number of labels the printer will print.
+     * @param formatCount
+     *            Number of label formats sent.
+     */
+    default void labelsSent(int labelCount, int formatCount) {
+    }
 }
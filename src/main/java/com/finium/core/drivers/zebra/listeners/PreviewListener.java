@@ -0,0 +1,35 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * PreviewListener.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.listeners;
+
+import java.awt.image.BufferedImage;
+
+import com.finium.core.drivers.zebra.model.ZebraLabel;
+
+/**
+ * Receives the previews of a batch of labels (see
+ * {@link com.finium.core.drivers.zebra.model.LabelPreviewRenderer}).
+ *
+ * @author Cristian Ramírez
+ */
+public interface PreviewListener {
+
+    /**
+     * Invoked for every label of the batch, in the order of the batch, on the
+     * thread rendering the batch. The image is not kept by the renderer : it
+     * can be released (or reused) as soon as this method returns.
+     *
+     * @param index      index of the label in the batch
+     * @param zebraLabel label rendered
+     * @param image      preview of the label
+     */
+    void previewRendered(int index, ZebraLabel zebraLabel, BufferedImage image);
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * AwtLabelRaster.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.model;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.font.LineMetrics;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.finium.core.drivers.zebra.zpl.enums.ZebraFont;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraRotation;
+
+/**
+ * Raster drawing into a {@link BufferedImage} with Java 2D, one pixel per dot.
+ * Anti-aliasing is disabled so the same label always gives the same pixels.
+ * <p>
+ * A packed raster draws into a 1 bit per dot image (TYPE_BYTE_BINARY), 32
+ * times smaller than an ARGB image. Its bits are laid out as the data of
+ * <code>^GF</code> (a bit set is a black dot), so it converts to a
+ * {@link MonochromeBitmap} without reading the pixels.
+ * <p>
+ * Zebra fonts are approximated with the font returned by
+ * {@link ZebraFont#findBestEquivalentFontForPreview(ZebraFont)}, scaled to the
+ * height and width of the field font. Scaled fonts are shared by all rasters.
+ * <p>
+ * The Java 2D code of the elements lives here too, so the classes drawn by
+ * {@link PackedLabelRaster} never need AWT to load : they only name AWT types
+ * in the signatures of their legacy preview methods.
+ *
+ * @author Cristian Ramírez
+ */
+public class AwtLabelRaster extends LabelRaster {
+
+    /**
+     * Largest number of scaled fonts kept
+     */
+    private static final int MAX_FONTS = 256;
+
+    private static final FontRenderContext FONT_RENDER_CONTEXT = new FontRenderContext(null, false, false);
+
+    private static final Map<FieldFont, Font> FONTS = new ConcurrentHashMap<FieldFont, Font>();
+
+    /**
+     * Colors of a packed image : index 1 (bit set) is black
+     */
+    static final IndexColorModel PACKED_COLORS = new IndexColorModel(1, 2, new byte[] { -1, 0 },
+            new byte[] { -1, 0 }, new byte[] { -1, 0 });
+
+    private final BufferedImage image;
+
+    private final Graphics2D graphic;
+
+    private final boolean packed;
+
+    private boolean black = true;
+
+    /**
+     * Create an ARGB raster
+     *
+     * @param width  width in dots
+     * @param height height in dots
+     */
+    public AwtLabelRaster(int width, int height) {
+        this(width, height, false);
+    }
+
+    /**
+     * @param width  width in dots
+     * @param height height in dots
+     * @param packed true for a 1 bit per dot image, false for an ARGB image
+     */
+    public AwtLabelRaster(int width, int height, boolean packed) {
+        super(width, height);
+        this.packed = packed;
+        if (packed) {
+            this.image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY, PACKED_COLORS);
+        } else {
+            this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        }
+        this.graphic = image.createGraphics();
+        graphic.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+        graphic.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+        graphic.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_OFF);
+        graphic.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
+        graphic.setColor(Color.WHITE);
+        graphic.fillRect(0, 0, width, height);
+        graphic.setColor(Color.BLACK);
+    }
+
+    /**
+     * @return the image (its content changes while the raster is drawn)
+     */
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    /**
+     * @return true if the image has 1 bit per dot
+     */
+    public boolean isPacked() {
+        return packed;
+    }
+
+    /**
+     * @return the dots drawn so far, as a bitmap to print with ^GF (a copy of
+     *         the bits of a packed raster, the black pixels of an ARGB raster)
+     */
+    public MonochromeBitmap toBitmap() {
+        if (packed) {
+            return new MonochromeBitmap(getWidth(), getHeight(),
+                    ((DataBufferByte) image.getRaster().getDataBuffer()).getData());
+        }
+        return MonochromeBitmap.fromImage(image);
+    }
+
+    /**
+     * Release the graphic context, the image stays available
+     */
+    public void dispose() {
+        graphic.dispose();
+    }
+
+    /**
+     * Draw a text below a point of a Java 2D graphic, as the legacy previews
+     * of {@link ZebraElement#drawPreviewGraphic(PrinterOptions, Graphics2D)}
+     * do.
+     *
+     * @param graphic   graphic to draw into
+     * @param font      font of the text
+     * @param text      text to draw
+     * @param positionX left of the text
+     * @param positionY top of the text
+     */
+    public static void drawTopString(Graphics2D graphic, Font font, String text, int positionX, int positionY) {
+        graphic.setFont(font);
+        FontMetrics fm = graphic.getFontMetrics(font);
+        Rectangle2D rect = fm.getStringBounds(text, graphic);
+        int textHeight = (int) (rect.getHeight());
+        graphic.drawString(text, positionX, positionY + textHeight);
+    }
+
+    /**
+     * Draw a bitmap into a Java 2D graphic, scaled to a rectangle.
+     *
+     * @param graphic graphic to draw into
+     * @param bitmap  bitmap to draw
+     * @param x       left of the rectangle
+     * @param y       top of the rectangle
+     * @param width   width of the rectangle
+     * @param height  height of the rectangle
+     */
+    public static void drawBitmap(Graphics2D graphic, MonochromeBitmap bitmap, int x, int y, int width, int height) {
+        graphic.drawImage(bitmap.toImage(), x, y, width, height, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void fillRect(int x, int y, int width, int height, boolean black) {
+        setBlack(black);
+        graphic.fillRect(x, y, width, height);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void drawText(String text, int x, int y, FieldFont fieldFont) {
+        setBlack(true);
+        AffineTransform transform = graphic.getTransform();
+        graphic.translate(x, y);
+        switch (fieldFont.getZebraRotation()) {
+        case ROTATE_90:
+            graphic.rotate(Math.PI / 2);
+            break;
+        case INVERTED:
+            graphic.rotate(Math.PI);
+            break;
+        case READ_FROM_BOTTOM:
+            graphic.rotate(-Math.PI / 2);
+            break;
+        default:
+            break;
+        }
+        graphic.setFont(getFont(fieldFont));
+        graphic.drawString(text, 0, 0);
+        graphic.setTransform(transform);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getTextWidth(String text, FieldFont fieldFont) {
+        return (int) Math.round(getFont(fieldFont).getStringBounds(text, FONT_RENDER_CONTEXT).getWidth());
+    }
+
+    private void setBlack(boolean black) {
+        if (this.black != black) {
+            graphic.setColor(black ? Color.BLACK : Color.WHITE);
+            this.black = black;
+        }
+    }
+
+    private static Font getFont(FieldFont fieldFont) {
+        FieldFont key = fieldFont.withRotation(ZebraRotation.NORMAL);
+        Font font = FONTS.get(key);
+        if (font == null) {
+            if (FONTS.size() >= MAX_FONTS) {
+                FONTS.clear();
+            }
+            font = createFont(key);
+            FONTS.put(key, font);
+        }
+        return font;
+    }
+
+    /**
+     * Scale the equivalent font so its ascent and descent fill the height of
+     * the field font. A bitmap font is stretched to advance by its character
+     * width and gap, font 0 keeps its proportions when its height and width
+     * are equal.
+     */
+    private static Font createFont(FieldFont fieldFont) {
+        ZebraFont zebraFont = fieldFont.getZebraFont();
+        Font font = new Font(ZebraFont.findBestEquivalentFontForPreview(zebraFont), Font.BOLD, 100);
+        LineMetrics lineMetrics = font.getLineMetrics("Ag", FONT_RENDER_CONTEXT);
+        float size = 100 * fieldFont.getHeightDots() / (lineMetrics.getAscent() + lineMetrics.getDescent());
+        font = font.deriveFont(size);
+        double scaleX;
+        if (zebraFont.isScalable()) {
+            scaleX = fieldFont.getWidthDots() / (double) fieldFont.getHeightDots();
+        } else {
+            double advance = font.getStringBounds("M", FONT_RENDER_CONTEXT).getWidth();
+            scaleX = (fieldFont.getWidthDots() + fieldFont.getCharacterGapDots()) / advance;
+        }
+        return font.deriveFont(AffineTransform.getScaleInstance(scaleX, 1));
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * BarCodeSymbolCache.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.model;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.finium.core.drivers.zebra.zpl.enums.QRCodeCharacterMode;
+import com.finium.core.drivers.zebra.zpl.enums.QRCodeErrorCorrection;
+import com.finium.core.drivers.zebra.zpl.support.Code128Encoder;
+import com.finium.core.drivers.zebra.zpl.support.Code39Encoder;
+import com.finium.core.drivers.zebra.zpl.support.LinearSymbol;
+import com.finium.core.drivers.zebra.zpl.support.MatrixSymbol;
+import com.finium.core.drivers.zebra.zpl.support.QRCodeEncoder;
+import com.finium.core.drivers.zebra.zpl.support.QRCodeSegmenter;
+
+/**
+ * Cache of bar code symbols (bars and spaces, modules) keyed by their data and
+ * encoding parameters, so the geometry of a bar code checked for fit, sized and
+ * previewed is encoded once. The geometry does not depend on the module width
+ * or magnification : one symbol serves every size.
+ * <p>
+ * The cache is bounded by a number of symbols, the least recently used being
+ * evicted first. Bar code elements use the {@link #DEFAULT} cache.
+ * <p>
+ * The cache is thread safe.
+ *
+ * @author Cristian Ramírez
+ */
+public class BarCodeSymbolCache {
+
+    /**
+     * Default number of symbols
+     */
+    public static final int DEFAULT_MAX_SYMBOLS = 1024;
+
+    /**
+     * Cache shared by the bar code elements
+     */
+    public static final BarCodeSymbolCache DEFAULT = new BarCodeSymbolCache();
+
+    private static final char CODE_128 = 'C';
+
+    private static final char CODE_39 = '3';
+
+    private static final char QR_CODE = 'Q';
+
+    private final int maxSymbols;
+
+    private final Map<SymbolKey, Object> symbols = new LinkedHashMap<SymbolKey, Object>(16, 0.75f, true);
+
+    private long hitCount;
+
+    private long missCount;
+
+    /**
+     * Create a cache with the default number of symbols
+     */
+    public BarCodeSymbolCache() {
+        this(DEFAULT_MAX_SYMBOLS);
+    }
+
+    /**
+     * @param maxSymbols maximal number of symbols
+     */
+    public BarCodeSymbolCache(int maxSymbols) {
+        if (maxSymbols <= 0) {
+            throw new IllegalArgumentException("maxSymbols must be positive");
+        }
+        this.maxSymbols = maxSymbols;
+    }
+
+    /**
+     * @param fieldData field data of a ^BC bar code, with invocation codes
+     * @return bars and spaces of the Code 128 symbol
+     */
+    public LinearSymbol getCode128(String fieldData) {
+        SymbolKey key = new SymbolKey(CODE_128, fieldData, 0);
+        LinearSymbol symbol = (LinearSymbol) get(key);
+        if (symbol == null) {
+            symbol = Code128Encoder.encode(fieldData);
+            put(key, symbol);
+        }
+        return symbol;
+    }
+
+    /**
+     * @param data         data of a ^B3 bar code
+     * @param checkDigit43 true if the mod 43 check character is printed
+     * @return bars and spaces of the Code 39 symbol
+     * @throws IllegalArgumentException if a character can not be encoded
+     */
+    public LinearSymbol getCode39(String data, boolean checkDigit43) {
+        SymbolKey key = new SymbolKey(CODE_39, data, checkDigit43 ? 1 : 0);
+        LinearSymbol symbol = (LinearSymbol) get(key);
+        if (symbol == null) {
+            symbol = Code39Encoder.encode(data, checkDigit43);
+            put(key, symbol);
+        }
+        return symbol;
+    }
+
+    /**
+     * @param data            data of a ^BQ bar code (without the ^FD prefix)
+     * @param characterMode   character mode of the data
+     * @param errorCorrection error correction level
+     * @return modules of the QR code symbol
+     * @throws IllegalArgumentException if the data does not fit in a QR code
+     */
+    public MatrixSymbol getQRCode(String data, QRCodeCharacterMode characterMode,
+            QRCodeErrorCorrection errorCorrection) {
+        SymbolKey key = new SymbolKey(QR_CODE, data, characterMode.ordinal() << 4 | errorCorrection.ordinal());
+        MatrixSymbol symbol = (MatrixSymbol) get(key);
+        if (symbol == null) {
+            symbol = QRCodeEncoder.encode(data, characterMode, errorCorrection);
+            put(key, symbol);
+        }
+        return symbol;
+    }
+
+    /**
+     * @param data            data of a ^BQ bar code in automatic input mode
+     * @param errorCorrection error correction level
+     * @return modules of the QR code symbol predicted for the automatic input
+     *         of the printer, the data being split in the segments giving the
+     *         smallest symbol (see {@link QRCodeSegmenter})
+     * @throws IllegalArgumentException if the data does not fit in a QR code
+     */
+    public MatrixSymbol getAutomaticQRCode(String data, QRCodeErrorCorrection errorCorrection) {
+        SymbolKey key = new SymbolKey(QR_CODE, data, 0xf0 | errorCorrection.ordinal());
+        MatrixSymbol symbol = (MatrixSymbol) get(key);
+        if (symbol == null) {
+            symbol = QRCodeEncoder.encode(QRCodeSegmenter.segment(data, errorCorrection), errorCorrection,
+                    QRCodeEncoder.AUTOMATIC_MASK);
+            put(key, symbol);
+        }
+        return symbol;
+    }
+
+    private synchronized Object get(SymbolKey key) {
+        Object symbol = symbols.get(key);
+        if (symbol != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return symbol;
+    }
+
+    // Encoded outside the lock, two threads may encode the same symbol
+    private synchronized void put(SymbolKey key, Object symbol) {
+        symbols.put(key, symbol);
+        Iterator<Object> iterator = symbols.values().iterator();
+        while (symbols.size() > maxSymbols && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Remove every symbol (counters are kept)
+     */
+    public synchronized void clear() {
+        symbols.clear();
+    }
+
+    /**
+     * @return maximal number of symbols
+     */
+    public int getMaxSymbols() {
+        return maxSymbols;
+    }
+
+    /**
+     * @return number of cached symbols
+     */
+    public synchronized int getSize() {
+        return symbols.size();
+    }
+
+    /**
+     * @return number of symbols found in the cache
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return number of symbols encoded
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    private static final class SymbolKey {
+
+        private final char symbology;
+
+        private final String data;
+
+        private final int parameters;
+
+        private SymbolKey(char symbology, String data, int parameters) {
+            this.symbology = symbology;
+            this.data = data;
+            this.parameters = parameters;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof SymbolKey)) {
+                return false;
+            }
+            SymbolKey other = (SymbolKey) obj;
+            return symbology == other.symbology && parameters == other.parameters && data.equals(other.data);
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * symbology + parameters) * 31 + data.hashCode();
+        }
+    }
+}
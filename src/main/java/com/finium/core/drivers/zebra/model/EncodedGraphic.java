@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * EncodedGraphic.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.model;
+
+import com.finium.core.drivers.zebra.zpl.enums.ZebraGraphicCompression;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
+
+/**
+ * Converted image with its graphic data already encoded, as written after
+ * <code>^GFA,b,c,d,</code> : labels printing the same artwork copy the bytes
+ * instead of dithering and compressing the image again (see
+ * {@link GraphicCache}).
+ * <p>
+ * Compressed data is the encoding kept by the bitmap, shared rather than
+ * copied; hexadecimal data, which the bitmap does not keep, is held here.
+ *
+ * @author Cristian Ramírez
+ */
+public class EncodedGraphic {
+
+    private final MonochromeBitmap bitmap;
+
+    private final ZebraGraphicCompression compression;
+
+    /**
+     * Encoded data (shared with the bitmap when compressed)
+     */
+    private final byte[] data;
+
+    /**
+     * Encode a bitmap
+     *
+     * @param bitmap      converted image
+     * @param compression encoding of the data, null for the smallest encoding
+     */
+    public EncodedGraphic(MonochromeBitmap bitmap, ZebraGraphicCompression compression) {
+        this.bitmap = bitmap;
+        this.compression = compression != null ? compression : bitmap.getSmallestCompression();
+        if (this.compression == ZebraGraphicCompression.HEXADECIMAL) {
+            ZplWriter zplWriter = new ZplWriter(bitmap.getEncodedSize(this.compression));
+            bitmap.writeHexadecimal(zplWriter);
+            this.data = zplWriter.toByteArray();
+        } else {
+            this.data = bitmap.getEncoding(this.compression);
+        }
+    }
+
+    /**
+     * @return the converted image
+     */
+    public MonochromeBitmap getBitmap() {
+        return bitmap;
+    }
+
+    /**
+     * @return encoding of the data
+     */
+    public ZebraGraphicCompression getCompression() {
+        return compression;
+    }
+
+    /**
+     * @return number of bytes of the encoded data
+     */
+    public int getEncodedSize() {
+        return data.length;
+    }
+
+    /**
+     * @return approximate memory held by the graphic, in bytes : the bitmap
+     *         with the encodings it keeps, and the hexadecimal data
+     */
+    public long getSize() {
+        long size = bitmap.getRetainedSize();
+        if (compression == ZebraGraphicCompression.HEXADECIMAL) {
+            size += data.length;
+        }
+        return size;
+    }
+
+    /**
+     * Write the encoded data
+     *
+     * @param zplWriter writer receiving the code
+     */
+    public void writeData(ZplWriter zplWriter) {
+        zplWriter.append(data);
+    }
+}
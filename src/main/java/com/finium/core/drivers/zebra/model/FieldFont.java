@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * FieldFont.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.model;
+
+import com.finium.core.drivers.zebra.zpl.enums.ZebraFont;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraRotation;
+
+/**
+ * Font of a text field as the printer applies it (^A, ^CF) : the requested
+ * size of a bitmap font is rounded to a whole magnification of its matrix,
+ * font 0 is scaled to the requested size.
+ * <p>
+ * A field font is immutable.
+ *
+ * @author Cristian Ramírez
+ */
+public final class FieldFont {
+
+    /**
+     * Font of the printer when no ^CF is sent : font A, 9 x 5 dots
+     */
+    public static final FieldFont PRINTER_DEFAULT = new FieldFont(ZebraFont.ZEBRA_A, ZebraRotation.NORMAL, 0, 0);
+
+    private final ZebraFont zebraFont;
+
+    private final ZebraRotation zebraRotation;
+
+    private final int heightDots;
+
+    private final int widthDots;
+
+    /**
+     * @param zebraFont     font
+     * @param zebraRotation orientation of the text
+     * @param heightDots    requested height in dots, 0 for the default height
+     * @param widthDots     requested width in dots, 0 to follow the height
+     */
+    public FieldFont(ZebraFont zebraFont, ZebraRotation zebraRotation, int heightDots, int widthDots) {
+        this.zebraFont = zebraFont;
+        this.zebraRotation = zebraRotation != null ? zebraRotation : ZebraRotation.NORMAL;
+        int matrixHeight = zebraFont.getMatrixHeight();
+        int matrixWidth = zebraFont.getMatrixWidth();
+        if (zebraFont.isScalable()) {
+            this.heightDots = heightDots > 0 ? heightDots : (widthDots > 0 ? widthDots : matrixHeight);
+            this.widthDots = widthDots > 0 ? widthDots : this.heightDots;
+        } else {
+            int heightMagnification = heightDots > 0 ? Math.max(1, Math.round(heightDots / (float) matrixHeight)) : 0;
+            int widthMagnification = widthDots > 0 ? Math.max(1, Math.round(widthDots / (float) matrixWidth)) : 0;
+            if (heightMagnification == 0) {
+                heightMagnification = widthMagnification > 0 ? widthMagnification : 1;
+            }
+            if (widthMagnification == 0) {
+                widthMagnification = heightMagnification;
+            }
+            this.heightDots = matrixHeight * heightMagnification;
+            this.widthDots = matrixWidth * widthMagnification;
+        }
+    }
+
+    /**
+     * @return the font
+     */
+    public ZebraFont getZebraFont() {
+        return zebraFont;
+    }
+
+    /**
+     * @return orientation of the text
+     */
+    public ZebraRotation getZebraRotation() {
+        return zebraRotation;
+    }
+
+    /**
+     * @return printed height of a character, in dots
+     */
+    public int getHeightDots() {
+        return heightDots;
+    }
+
+    /**
+     * @return printed width of a character, in dots (the nominal width of
+     *         font 0, whose characters are proportional)
+     */
+    public int getWidthDots() {
+        return widthDots;
+    }
+
+    /**
+     * @return dots between two characters, 0 for font 0
+     */
+    public int getCharacterGapDots() {
+        return zebraFont.getCharacterGap() * widthDots / zebraFont.getMatrixWidth();
+    }
+
+    /**
+     * @param zebraRotation orientation of the text
+     * @return this font with another orientation
+     */
+    public FieldFont withRotation(ZebraRotation zebraRotation) {
+        if (zebraRotation == null || zebraRotation == this.zebraRotation) {
+            return this;
+        }
+        return new FieldFont(zebraFont, zebraRotation, heightDots, widthDots);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof FieldFont)) {
+            return false;
+        }
+        FieldFont other = (FieldFont) obj;
+        return zebraFont == other.zebraFont && zebraRotation == other.zebraRotation
+                && heightDots == other.heightDots && widthDots == other.widthDots;
+    }
+
+    @Override
+    public int hashCode() {
+        return ((zebraFont.ordinal() * 31 + zebraRotation.ordinal()) * 31 + heightDots) * 31 + widthDots;
+    }
+}
@@ -0,0 +1,408 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * FormatRegistry.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Objects stored on a printer (^DF formats, ~DG graphics...), with the hash
+ * of their content and their approximate size. An object already stored with
+ * the same content is not downloaded again.
+ * <p>
+ * The storage of the printer is bounded by a byte budget : when storing an
+ * object exceeds it, the least recently used objects are evicted and must be
+ * deleted from the printer (see
+ * {@link com.finium.core.drivers.zebra.model.element.DeleteObject}). Every use
+ * of an object (download or recall) makes it the most recently used, so hot
+ * formats stay resident.
+ * <p>
+ * Objects referenced by a batch being sent are pinned (see
+ * {@link #pin(Collection)}) : they are not evicted until the batch is sent, so
+ * an object downloaded for a label never deletes one recalled by an earlier
+ * label of the batch. A batch referencing more than the budget exceeds it
+ * until it is unpinned.
+ * <p>
+ * A format recalling graphics (^XG) depends on them : evicting a graphic also
+ * evicts the formats depending on it, which would print without it, and the
+ * graphics of a format being stored are not evicted.
+ * <p>
+ * Objects stored in RAM (R:) are lost when the printer reboots, and a
+ * reconnection is the only sign of a reboot : a registry must be reset every
+ * time the connection is established or lost, and when a message fails to be
+ * sent.
+ * <p>
+ * A registry is thread safe.
+ *
+ * @author Cristian Ramírez
+ */
+public class FormatRegistry {
+
+    /**
+     * Default byte budget : unbounded
+     */
+    public static final long DEFAULT_MAX_BYTES = Long.MAX_VALUE;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static final String[] NO_DEPENDENCIES = new String[0];
+
+    /**
+     * Stored objects by path (device, name and extension), least recently
+     * used first
+     */
+    private final Map<String, StoredObject> storedObjects = new LinkedHashMap<String, StoredObject>(16, 0.75f,
+            true);
+
+    /**
+     * Paths of the formats depending on an object, by path of the object
+     */
+    private final Map<String, Set<String>> dependents = new HashMap<String, Set<String>>();
+
+    /**
+     * Number of batches referencing an object, by path (stored or not yet)
+     */
+    private final Map<String, Integer> pinCounts = new HashMap<String, Integer>();
+
+    private long maxBytes;
+
+    private long currentBytes;
+
+    private long evictionCount;
+
+    /**
+     * Create a registry with the default byte budget
+     */
+    public FormatRegistry() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param maxBytes byte budget of the printer storage
+     */
+    public FormatRegistry(long maxBytes) {
+        setMaxBytes(maxBytes);
+    }
+
+    /**
+     * Forget every stored object, they will all be downloaded again (the
+     * budget, counters and pins are kept).
+     */
+    public synchronized void reset() {
+        storedObjects.clear();
+        dependents.clear();
+        currentBytes = 0;
+    }
+
+    /**
+     * Record a format as stored, if it is not already stored with the same
+     * content. The size of the format is not accounted.
+     *
+     * @param path        path of the format on the printer (R:NAME.ZPL)
+     * @param contentHash hash of the downloaded code (see
+     *                    {@link #contentHash(byte[])})
+     * @return true if the format must be downloaded
+     */
+    public boolean storeFormat(String path, long contentHash) {
+        return storeFormat(path, contentHash, 0, null, null);
+    }
+
+    /**
+     * Record an object without dependencies as used, and as stored if it is
+     * not already stored with the same content (see
+     * {@link #storeFormat(String, long, long, Collection, List)}).
+     *
+     * @param path         path of the object on the printer (R:NAME.ZPL)
+     * @param contentHash  hash of the downloaded code (see
+     *                     {@link #contentHash(byte[])})
+     * @param size         approximate size of the object on the printer
+     * @param evictedPaths receives the paths of the evicted objects, which
+     *                     must be deleted before the download. Null if the
+     *                     caller does not delete them.
+     * @return true if the object must be downloaded
+     */
+    public boolean storeFormat(String path, long contentHash, long size, List<String> evictedPaths) {
+        return storeFormat(path, contentHash, size, null, evictedPaths);
+    }
+
+    /**
+     * Record an object as used, and as stored if it is not already stored with
+     * the same content. Least recently used objects are evicted while the
+     * budget is exceeded; the object being stored, its dependencies and the
+     * pinned objects are never evicted.
+     *
+     * @param path         path of the object on the printer (R:NAME.ZPL)
+     * @param contentHash  hash of the downloaded code (see
+     *                     {@link #contentHash(byte[])})
+     * @param size         approximate size of the object on the printer
+     * @param dependencies paths of the objects the object refers to (graphics
+     *                     recalled by a format), null if none
+     * @param evictedPaths receives the paths of the evicted objects, which
+     *                     must be deleted before the download. Null if the
+     *                     caller does not delete them.
+     * @return true if the object must be downloaded
+     */
+    public synchronized boolean storeFormat(String path, long contentHash, long size,
+            Collection<String> dependencies, List<String> evictedPaths) {
+        StoredObject storedObject = storedObjects.get(path);
+        if (storedObject != null && storedObject.contentHash == contentHash) {
+            return false;
+        }
+        if (storedObject != null) {
+            currentBytes -= storedObject.size;
+            unlinkDependencies(path, storedObject);
+        }
+        String[] dependencyPaths = dependencies != null ? dependencies.toArray(new String[dependencies.size()])
+                : NO_DEPENDENCIES;
+        storedObjects.put(path, new StoredObject(contentHash, size, dependencyPaths));
+        for (String dependency : dependencyPaths) {
+            Set<String> dependentPaths = dependents.get(dependency);
+            if (dependentPaths == null) {
+                dependentPaths = new HashSet<String>();
+                dependents.put(dependency, dependentPaths);
+            }
+            dependentPaths.add(path);
+        }
+        currentBytes += size;
+        evict(path, dependencyPaths, evictedPaths);
+        return true;
+    }
+
+    private void evict(String keptPath, String[] keptDependencies, List<String> evictedPaths) {
+        while (currentBytes > maxBytes) {
+            String eldestPath = null;
+            for (String storedPath : storedObjects.keySet()) {
+                if (isEvictable(storedPath, keptPath, keptDependencies)) {
+                    eldestPath = storedPath;
+                    break;
+                }
+            }
+            if (eldestPath == null) {
+                return;
+            }
+            removeObject(eldestPath, evictedPaths, true);
+        }
+    }
+
+    /**
+     * An object can be evicted unless it is being stored or used by the
+     * object being stored, or it is used by a pinned object.
+     */
+    private boolean isEvictable(String path, String keptPath, String[] keptDependencies) {
+        if (path.equals(keptPath) || pinCounts.containsKey(path)) {
+            return false;
+        }
+        for (String keptDependency : keptDependencies) {
+            if (path.equals(keptDependency)) {
+                return false;
+            }
+        }
+        Set<String> dependentPaths = dependents.get(path);
+        if (dependentPaths != null) {
+            for (String dependentPath : dependentPaths) {
+                if (dependentPath.equals(keptPath) || pinCounts.containsKey(dependentPath)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Remove an object and the stored objects depending on it
+     */
+    private void removeObject(String path, List<String> evictedPaths, boolean evicted) {
+        StoredObject storedObject = storedObjects.remove(path);
+        if (storedObject != null) {
+            currentBytes -= storedObject.size;
+            unlinkDependencies(path, storedObject);
+            if (evicted) {
+                evictionCount++;
+            }
+            if (evictedPaths != null) {
+                evictedPaths.add(path);
+            }
+        }
+        Set<String> dependentPaths = dependents.remove(path);
+        if (dependentPaths != null) {
+            for (String dependentPath : new ArrayList<String>(dependentPaths)) {
+                removeObject(dependentPath, evictedPaths, evicted);
+            }
+        }
+    }
+
+    private void unlinkDependencies(String path, StoredObject storedObject) {
+        for (String dependency : storedObject.dependencies) {
+            Set<String> dependentPaths = dependents.get(dependency);
+            if (dependentPaths != null) {
+                dependentPaths.remove(path);
+                if (dependentPaths.isEmpty()) {
+                    dependents.remove(dependency);
+                }
+            }
+        }
+    }
+
+    /**
+     * Pin objects referenced by a batch : they are not evicted until unpinned,
+     * even if they are not stored yet. Pins are counted, every call must be
+     * followed by {@link #unpin(Collection)} once the batch is sent.
+     *
+     * @param paths paths of the objects referenced by the batch
+     */
+    public synchronized void pin(Collection<String> paths) {
+        for (String path : paths) {
+            Integer pinCount = pinCounts.get(path);
+            pinCounts.put(path, pinCount != null ? pinCount + 1 : 1);
+        }
+    }
+
+    /**
+     * Release the pins of a batch. Objects exceeding the budget are evicted
+     * when the next object is stored.
+     *
+     * @param paths paths given to {@link #pin(Collection)}
+     */
+    public synchronized void unpin(Collection<String> paths) {
+        for (String path : paths) {
+            Integer pinCount = pinCounts.get(path);
+            if (pinCount == null) {
+                continue;
+            }
+            if (pinCount > 1) {
+                pinCounts.put(path, pinCount - 1);
+            } else {
+                pinCounts.remove(path);
+            }
+        }
+    }
+
+    /**
+     * @param path path of the object on the printer
+     * @return true if a batch being sent references the object
+     */
+    public synchronized boolean isPinned(String path) {
+        return pinCounts.containsKey(path);
+    }
+
+    /**
+     * @param path        path of the object on the printer
+     * @param contentHash hash of the downloaded code
+     * @return true if the object is stored with this content (checking an
+     *         object counts as a use)
+     */
+    public synchronized boolean isStored(String path, long contentHash) {
+        StoredObject storedObject = storedObjects.get(path);
+        return storedObject != null && storedObject.contentHash == contentHash;
+    }
+
+    /**
+     * Forget an object deleted from the printer, and the formats depending on
+     * it (they are downloaded again with the object the next time they are
+     * used).
+     *
+     * @param path path of the object on the printer
+     */
+    public synchronized void remove(String path) {
+        removeObject(path, null, false);
+    }
+
+    /**
+     * @return byte budget of the printer storage
+     */
+    public synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Change the byte budget. Objects exceeding it are evicted when the next
+     * object is stored.
+     *
+     * @param maxBytes byte budget of the printer storage
+     */
+    public synchronized void setMaxBytes(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return approximate bytes used by the stored objects
+     */
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    /**
+     * @return number of stored objects
+     */
+    public synchronized int getSize() {
+        return storedObjects.size();
+    }
+
+    /**
+     * @return number of objects evicted to respect the byte budget
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @param code downloaded code of an object
+     * @return 64 bits FNV-1a hash of the code
+     */
+    public static long contentHash(byte[] code) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : code) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * @param contentHash hash of the content of an object
+     * @return name of the object on the printer : 8 base 36 digits of the
+     *         hash, so objects of different content do not share a name
+     */
+    public static String objectName(long contentHash) {
+        String digits = Long.toString(contentHash >>> 23, 36).toUpperCase();
+        StringBuilder name = new StringBuilder(8);
+        for (int i = digits.length(); i < 8; i++) {
+            name.append('0');
+        }
+        return name.append(digits).toString();
+    }
+
+    private static final class StoredObject {
+
+        private final long contentHash;
+
+        private final long size;
+
+        private final String[] dependencies;
+
+        private StoredObject(long contentHash, long size, String[] dependencies) {
+            this.contentHash = contentHash;
+            this.size = size;
+            this.dependencies = dependencies;
+        }
+    }
+}
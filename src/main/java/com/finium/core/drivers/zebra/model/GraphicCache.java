@@ -0,0 +1,298 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * GraphicCache.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.model;
+
+import java.awt.image.BufferedImage;
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.finium.core.drivers.zebra.zpl.enums.ZebraDithering;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraGraphicCompression;
+
+/**
+ * Cache of {@link EncodedGraphic} keyed by the content of the images, the
+ * dithering and the encoding, so artwork printed again and again (logos,
+ * compliance marks) is dithered and compressed once. Images are identified by
+ * the hash of their pixels : two images drawn alike share the same entry.
+ * Images are converted one pixel per dot, whatever the resolution of the
+ * printer, so printers of every resolution share the same entries.
+ *
+ * <pre>
+ * GraphicCache graphicCache = new GraphicCache();
+ * EncodedGraphic logo = graphicCache.getEncodedGraphic(image, ZebraDithering.THRESHOLD, null);
+ * zebraLabel.addElement(new ZebraGraphicField(10, 10, logo));
+ * </pre>
+ * <p>
+ * The cache is bounded by a byte budget (see EncodedGraphic.getSize()), the
+ * least recently used graphics being evicted first. With soft references, the
+ * graphics may also be reclaimed by the garbage collector when memory is
+ * short; they are then encoded again on the next use.
+ * <p>
+ * The cache is thread safe.
+ *
+ * @author Cristian Ramírez
+ */
+public class GraphicCache {
+
+    /**
+     * Default byte budget : 8 MB
+     */
+    public static final long DEFAULT_MAX_BYTES = 8L * 1024 * 1024;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long maxBytes;
+
+    private final boolean softReferences;
+
+    private final Map<GraphicKey, CacheEntry> entries = new LinkedHashMap<GraphicKey, CacheEntry>(16, 0.75f, true);
+
+    private long currentBytes;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private long evictionCount;
+
+    private long collectedCount;
+
+    /**
+     * Create a cache with the default byte budget, holding its graphics
+     * strongly
+     */
+    public GraphicCache() {
+        this(DEFAULT_MAX_BYTES, false);
+    }
+
+    /**
+     * @param maxBytes       byte budget of the cache
+     * @param softReferences true to let the garbage collector reclaim the
+     *                       graphics under memory pressure
+     */
+    public GraphicCache(long maxBytes, boolean softReferences) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        this.maxBytes = maxBytes;
+        this.softReferences = softReferences;
+    }
+
+    /**
+     * Get an image converted with a threshold at mid gray and encoded, from
+     * the cache or converted on a miss.
+     *
+     * @param image       image to convert
+     * @param dithering   conversion of the gray levels
+     * @param compression encoding of the data, null for the smallest encoding
+     * @return the encoded graphic
+     */
+    public EncodedGraphic getEncodedGraphic(BufferedImage image, ZebraDithering dithering,
+            ZebraGraphicCompression compression) {
+        GraphicKey key = new GraphicKey(imageHash(image), image.getWidth(), image.getHeight(), dithering,
+                compression);
+        synchronized (this) {
+            CacheEntry entry = entries.get(key);
+            if (entry != null) {
+                EncodedGraphic encodedGraphic = entry.get();
+                if (encodedGraphic != null) {
+                    hitCount++;
+                    return encodedGraphic;
+                }
+                entries.remove(key);
+                currentBytes -= entry.size;
+                collectedCount++;
+            }
+            missCount++;
+        }
+        // Convert outside the lock, two threads may convert the same image
+        EncodedGraphic encodedGraphic = new EncodedGraphic(MonochromeBitmap.fromImage(image, dithering),
+                compression);
+        long size = encodedGraphic.getSize();
+        if (size <= maxBytes) {
+            put(key, new CacheEntry(encodedGraphic, size, softReferences));
+        }
+        return encodedGraphic;
+    }
+
+    private synchronized void put(GraphicKey key, CacheEntry entry) {
+        CacheEntry previous = entries.put(key, entry);
+        if (previous != null) {
+            currentBytes -= previous.size;
+        }
+        currentBytes += entry.size;
+        Iterator<CacheEntry> iterator = entries.values().iterator();
+        while (currentBytes > maxBytes && iterator.hasNext()) {
+            CacheEntry eldest = iterator.next();
+            iterator.remove();
+            currentBytes -= eldest.size;
+            evictionCount++;
+        }
+    }
+
+    /**
+     * @param image image
+     * @return 64 bits FNV-1a hash of the pixels (ARGB) of the image
+     */
+    public static long imageHash(BufferedImage image) {
+        int width = image.getWidth();
+        int[] row = new int[width];
+        long hash = FNV_OFFSET_BASIS;
+        for (int y = 0; y < image.getHeight(); y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int argb : row) {
+                hash ^= argb & 0xffffffffL;
+                hash *= FNV_PRIME;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Remove every graphic (counters are kept)
+     */
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    /**
+     * @return byte budget of the cache
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @return true if the graphics are held by soft references
+     */
+    public boolean isSoftReferences() {
+        return softReferences;
+    }
+
+    /**
+     * @return bytes currently accounted for the cached graphics
+     */
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    /**
+     * @return number of cached graphics
+     */
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * @return number of graphics found in the cache
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return number of graphics converted and encoded
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return ratio of the graphics found in the cache, 0 if none was asked
+     */
+    public synchronized double getHitRate() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * @return number of graphics evicted to respect the byte budget
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return number of graphics found reclaimed by the garbage collector
+     */
+    public synchronized long getCollectedCount() {
+        return collectedCount;
+    }
+
+    private static final class GraphicKey {
+
+        private final long imageHash;
+
+        private final int width;
+
+        private final int height;
+
+        private final ZebraDithering dithering;
+
+        private final ZebraGraphicCompression compression;
+
+        private GraphicKey(long imageHash, int width, int height, ZebraDithering dithering,
+                ZebraGraphicCompression compression) {
+            this.imageHash = imageHash;
+            this.width = width;
+            this.height = height;
+            this.dithering = dithering;
+            this.compression = compression;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof GraphicKey)) {
+                return false;
+            }
+            GraphicKey other = (GraphicKey) obj;
+            return imageHash == other.imageHash && width == other.width && height == other.height
+                    && dithering == other.dithering
+                    && compression == other.compression;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = (int) (imageHash ^ (imageHash >>> 32));
+            result = 31 * result + width;
+            result = 31 * result + height;
+            result = 31 * result + (dithering != null ? dithering.hashCode() : 0);
+            return 31 * result + (compression != null ? compression.hashCode() : 0);
+        }
+    }
+
+    private static final class CacheEntry {
+
+        private final EncodedGraphic encodedGraphic;
+
+        private final SoftReference<EncodedGraphic> softGraphic;
+
+        private final long size;
+
+        private CacheEntry(EncodedGraphic encodedGraphic, long size, boolean softReference) {
+            this.encodedGraphic = softReference ? null : encodedGraphic;
+            this.softGraphic = softReference ? new SoftReference<EncodedGraphic>(encodedGraphic) : null;
+            this.size = size;
+        }
+
+        private EncodedGraphic get() {
+            return softGraphic != null ? softGraphic.get() : encodedGraphic;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * LabelFingerprint.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.model;
+
+import java.util.Arrays;
+
+/**
+ * Structural fingerprint of a label : dimensions, print mode, printer options,
+ * and type, position and layout attributes of every element, without their
+ * field data. Two labels with equal fingerprints only differ by their field
+ * data, so they can share a compiled {@link LabelTemplate}.
+ * <p>
+ * Attributes are kept as a sequence of ints (strings are added char by char),
+ * so equality is exact and not only based on a hash.
+ *
+ * @author Cristian Ramírez
+ */
+public final class LabelFingerprint {
+
+    private static final int NULL = 0x9E3779B9;
+
+    private int[] data = new int[64];
+
+    private int size;
+
+    private int hash = 1;
+
+    /**
+     * @param value value to add
+     * @return this fingerprint
+     */
+    public LabelFingerprint add(int value) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, size << 1);
+        }
+        data[size++] = value;
+        hash = 31 * hash + value;
+        return this;
+    }
+
+    /**
+     * @param value value to add (may be null)
+     * @return this fingerprint
+     */
+    public LabelFingerprint add(Integer value) {
+        if (value == null) {
+            return add(NULL);
+        }
+        return add(1).add(value.intValue());
+    }
+
+    /**
+     * @param value value to add
+     * @return this fingerprint
+     */
+    public LabelFingerprint add(boolean value) {
+        return add(value ? 1 : 2);
+    }
+
+    /**
+     * @param value value to add (may be null)
+     * @return this fingerprint
+     */
+    public LabelFingerprint add(Enum<?> value) {
+        return add(value == null ? NULL : value.ordinal());
+    }
+
+    /**
+     * @param value value to add (may be null)
+     * @return this fingerprint
+     */
+    public LabelFingerprint add(String value) {
+        if (value == null) {
+            return add(NULL);
+        }
+        add(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            add(value.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * @return approximate number of bytes held by this fingerprint
+     */
+    public int getSize() {
+        return size * 4 + 16;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof LabelFingerprint)) {
+            return false;
+        }
+        LabelFingerprint other = (LabelFingerprint) obj;
+        if (hash != other.hash || size != other.size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (data[i] != other.data[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
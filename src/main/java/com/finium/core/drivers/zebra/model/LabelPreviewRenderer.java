@@ -0,0 +1,196 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * LabelPreviewRenderer.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.model;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.function.Function;
+
+import com.finium.core.drivers.zebra.listeners.BitmapPreviewListener;
+import com.finium.core.drivers.zebra.listeners.PreviewListener;
+
+/**
+ * Renders the previews of a batch of labels on a pool of threads, and streams
+ * them in order to a {@link PreviewListener} (or, rendered without AWT, to a
+ * {@link BitmapPreviewListener}).
+ * <p>
+ * At most maxInFlight previews are rendered or waiting for the listener at any
+ * time : the labels are read from the batch only as previews are delivered, so
+ * the memory used does not depend on the size of the batch (a batch can be a
+ * lazy iterable).
+ *
+ * <pre>
+ * LabelPreviewRenderer renderer = new LabelPreviewRenderer(executor, 8, true);
+ * renderer.render(wave, (index, zebraLabel, image) -&gt; store(index, image));
+ * </pre>
+ *
+ * Labels must not be modified while their batch is rendered. A renderer is
+ * thread safe, several batches can be rendered at the same time.
+ *
+ * @author Cristian Ramírez
+ */
+public class LabelPreviewRenderer {
+
+    /**
+     * Default number of previews in flight : two per processor
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 2 * Runtime.getRuntime().availableProcessors();
+
+    private final Executor executor;
+
+    private final int maxInFlight;
+
+    private final boolean packed;
+
+    /**
+     * Render ARGB previews on the common fork/join pool, with the default
+     * number of previews in flight
+     */
+    public LabelPreviewRenderer() {
+        this(ForkJoinPool.commonPool(), DEFAULT_MAX_IN_FLIGHT, false);
+    }
+
+    /**
+     * @param executor    executor rendering the previews
+     * @param maxInFlight maximal number of previews rendered or waiting for the
+     *                    listener
+     * @param packed      true for 1 bit per dot previews (see
+     *                    {@link ZebraLabel#getMonochromePreview()}), false for
+     *                    ARGB previews (see {@link ZebraLabel#getImagePreview()})
+     */
+    public LabelPreviewRenderer(Executor executor, int maxInFlight, boolean packed) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.packed = packed;
+    }
+
+    /**
+     * @return maximal number of previews rendered or waiting for the listener
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * @return true if previews have 1 bit per dot
+     */
+    public boolean isPacked() {
+        return packed;
+    }
+
+    /**
+     * Render the previews of a batch of labels. The listener is invoked on the
+     * calling thread, in the order of the batch; this method returns once every
+     * preview was delivered.
+     * <p>
+     * If a label can not be rendered, the previews still in flight are
+     * cancelled and its exception is thrown.
+     *
+     * @param zebraLabels labels to render
+     * @param listener    listener receiving the previews
+     * @return number of previews delivered
+     * @throws InterruptedException if the calling thread is interrupted while
+     *                              waiting for a preview
+     */
+    public int render(Iterable<ZebraLabel> zebraLabels, PreviewListener listener) throws InterruptedException {
+        Function<ZebraLabel, BufferedImage> renderer = packed ? ZebraLabel::getMonochromePreview
+                : ZebraLabel::getImagePreview;
+        return render(zebraLabels, renderer, listener::previewRendered);
+    }
+
+    /**
+     * Render the previews of a batch of labels without AWT (see
+     * {@link ZebraLabel#getHeadlessPreview()}), as
+     * {@link #render(Iterable, PreviewListener)} does.
+     *
+     * @param zebraLabels labels to render
+     * @param listener    listener receiving the previews
+     * @return number of previews delivered
+     * @throws InterruptedException if the calling thread is interrupted while
+     *                              waiting for a preview
+     */
+    public int renderBitmaps(Iterable<ZebraLabel> zebraLabels, BitmapPreviewListener listener)
+            throws InterruptedException {
+        return render(zebraLabels, ZebraLabel::getHeadlessPreview, listener::previewRendered);
+    }
+
+    private <T> int render(Iterable<ZebraLabel> zebraLabels, Function<ZebraLabel, T> renderer,
+                           Delivery<T> delivery) throws InterruptedException {
+        ArrayDeque<PreviewTask<T>> inFlight = new ArrayDeque<PreviewTask<T>>(maxInFlight);
+        int index = 0;
+        try {
+            for (ZebraLabel zebraLabel : zebraLabels) {
+                if (inFlight.size() == maxInFlight) {
+                    deliver(inFlight.poll(), delivery);
+                }
+                PreviewTask<T> task = new PreviewTask<T>(index++, zebraLabel, renderer);
+                inFlight.add(task);
+                executor.execute(task);
+            }
+            while (!inFlight.isEmpty()) {
+                deliver(inFlight.poll(), delivery);
+            }
+        } finally {
+            for (PreviewTask<T> task : inFlight) {
+                task.cancel(false);
+            }
+        }
+        return index;
+    }
+
+    private static <T> void deliver(PreviewTask<T> task, Delivery<T> delivery) throws InterruptedException {
+        T preview;
+        try {
+            preview = task.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Preview of label " + task.index + " failed", cause);
+        }
+        delivery.previewRendered(task.index, task.zebraLabel, preview);
+    }
+
+    /**
+     * Listener of previews of any type
+     */
+    private interface Delivery<T> {
+
+        void previewRendered(int index, ZebraLabel zebraLabel, T preview);
+    }
+
+    /**
+     * Rendering of the preview of a label
+     */
+    private static final class PreviewTask<T> extends FutureTask<T> {
+
+        private final int index;
+
+        private final ZebraLabel zebraLabel;
+
+        private PreviewTask(int index, ZebraLabel zebraLabel, Function<ZebraLabel, T> renderer) {
+            super(() -> renderer.apply(zebraLabel));
+            this.index = index;
+            this.zebraLabel = zebraLabel;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * LabelRaster.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.model;
+
+import com.finium.core.drivers.zebra.zpl.support.MatrixSymbol;
+
+/**
+ * Surface receiving the dots of a label, at the resolution of the printer (one
+ * pixel per dot). Elements draw themselves with
+ * {@link ZebraElement#drawRaster(LabelRaster, RenderContext)}, only with
+ * rectangles and text : bars, modules, boxes and graphic dots are all
+ * rectangles, so the rendering is exact and does not depend on anti-aliasing.
+ * <p>
+ * The raster also holds the state a field inherits from the fields before it
+ * (font set by ^A, default font set by ^CF).
+ * <p>
+ * A raster is not thread safe : every label is drawn in its own raster.
+ *
+ * @author Cristian Ramírez
+ */
+public abstract class LabelRaster {
+
+    private final int width;
+
+    private final int height;
+
+    private FieldFont defaultFieldFont = FieldFont.PRINTER_DEFAULT;
+
+    /**
+     * Font set by ^A for the next element, and for the element being drawn
+     */
+    private FieldFont nextFieldFont;
+    private FieldFont fieldFont;
+
+    /**
+     * @param width  width in dots
+     * @param height height in dots
+     */
+    protected LabelRaster(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Raster size must be positive");
+        }
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * @return width in dots
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return height in dots
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Fill a rectangle, clipped to the raster
+     *
+     * @param x      left, in dots
+     * @param y      top, in dots
+     * @param width  width in dots
+     * @param height height in dots
+     * @param black  true to print the dots, false to clear them
+     */
+    public abstract void fillRect(int x, int y, int width, int height, boolean black);
+
+    /**
+     * Draw a text in black, clipped to the raster
+     *
+     * @param text      text to draw
+     * @param x         left of the baseline, in dots
+     * @param y         baseline, in dots
+     * @param fieldFont font, its rotation turns the text around (x, y)
+     */
+    public abstract void drawText(String text, int x, int y, FieldFont fieldFont);
+
+    /**
+     * @param text      text to measure
+     * @param fieldFont font
+     * @return advance of the text along its baseline, in dots
+     */
+    public abstract int getTextWidth(String text, FieldFont fieldFont);
+
+    /**
+     * Draw the black dots of a bitmap, white dots are left unchanged (as the
+     * printer does).
+     *
+     * @param bitmap         bitmap to draw
+     * @param x              left, in dots
+     * @param y              top, in dots
+     * @param magnificationX width of a bitmap dot, in dots
+     * @param magnificationY height of a bitmap dot, in dots
+     */
+    public void drawBitmap(MonochromeBitmap bitmap, int x, int y, int magnificationX, int magnificationY) {
+        int bitmapWidth = bitmap.getWidth();
+        for (int row = 0; row < bitmap.getHeight(); row++) {
+            int column = 0;
+            while (column < bitmapWidth) {
+                if (!bitmap.isBlack(column, row)) {
+                    column++;
+                    continue;
+                }
+                int start = column;
+                while (column < bitmapWidth && bitmap.isBlack(column, row)) {
+                    column++;
+                }
+                fillRect(x + start * magnificationX, y + row * magnificationY, (column - start) * magnificationX,
+                        magnificationY, true);
+            }
+        }
+    }
+
+    /**
+     * Draw the dark modules of a matrix symbol
+     *
+     * @param symbol        symbol to draw
+     * @param x             left, in dots
+     * @param y             top, in dots
+     * @param magnification side of a module, in dots
+     */
+    public void drawSymbol(MatrixSymbol symbol, int x, int y, int magnification) {
+        int size = symbol.getSize();
+        for (int row = 0; row < size; row++) {
+            int column = 0;
+            while (column < size) {
+                if (!symbol.isDark(column, row)) {
+                    column++;
+                    continue;
+                }
+                int start = column;
+                while (column < size && symbol.isDark(column, row)) {
+                    column++;
+                }
+                fillRect(x + start * magnification, y + row * magnification, (column - start) * magnification,
+                        magnification, true);
+            }
+        }
+    }
+
+    /**
+     * @return font of the fields without font (^CF), the font of the printer
+     *         by default
+     */
+    public FieldFont getDefaultFieldFont() {
+        return defaultFieldFont;
+    }
+
+    /**
+     * @param defaultFieldFont font of the fields without font (^CF)
+     */
+    public void setDefaultFieldFont(FieldFont defaultFieldFont) {
+        this.defaultFieldFont = defaultFieldFont != null ? defaultFieldFont : FieldFont.PRINTER_DEFAULT;
+    }
+
+    /**
+     * Set the font of the next element (^A)
+     *
+     * @param fieldFont font of the next element
+     */
+    public void setNextFieldFont(FieldFont fieldFont) {
+        this.nextFieldFont = fieldFont;
+    }
+
+    /**
+     * @return font of the element being drawn : set by ^A just before it, the
+     *         default font otherwise
+     */
+    public FieldFont getFieldFont() {
+        return fieldFont != null ? fieldFont : defaultFieldFont;
+    }
+
+    /**
+     * Called before drawing each element : a font set by ^A only applies to the
+     * element following it.
+     */
+    void beginElement() {
+        fieldFont = nextFieldFont;
+        nextFieldFont = null;
+    }
+}
@@ -0,0 +1,344 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * LabelTemplate.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
+
+/**
+ * Label compiled once into pre-encoded byte segments and variable slots.
+ * <p>
+ * Everything static in the label (^XA, ^MM, ^PW, ^LL, ^CF, boxes, font
+ * selectors, fields without name...) is encoded once when the template is
+ * created. The field data of elements having a field name (see
+ * {@link ZebraElement#setFieldName(String)}) become slots. Rendering a label
+ * is then a copy of the segments plus the encoding of the slot values.
+ * <p>
+ * A template compiled with all its fields as slots can also render any label
+ * having the same {@link LabelFingerprint}, using the field data of that label
+ * (see {@link LabelTemplateCache}).
+ * <p>
+ * A template is immutable and can be shared between threads.
+ *
+ * <pre>
+ * ZebraLabel zebraLabel = new ZebraLabel(912, 912);
+ * zebraLabel.addElement(new ZebraText(10, 84, "Product:", 14));
+ * zebraLabel.addElement(new ZebraText(395, 85, "Camera", 14).setFieldName("product"));
+ * LabelTemplate template = new LabelTemplate(zebraLabel);
+ * template.writeZpl(zplWriter, "Phone");
+ * </pre>
+ *
+ * @author Cristian Ramírez
+ */
+public class LabelTemplate {
+
+    /**
+     * Static segments, one more than slots : segment i is written before slot
+     * i, the last one after the last slot.
+     */
+    private final byte[][] segments;
+
+    private final String[] slotNames;
+
+    private final String[] slotPrefixes;
+
+    private final boolean[] slotHexaEscaped;
+
+    /**
+     * Values of the fields when the template was compiled
+     */
+    private final String[] defaultValues;
+
+    /**
+     * True when slots match one to one the elements having field data, so the
+     * template can render labels of the same structure
+     */
+    private final boolean labelBindable;
+
+    /**
+     * Length of the start of the label and its setup commands at the beginning
+     * of the first segment
+     */
+    private final int setupLength;
+
+    /**
+     * Compile a label into a template. The label is rendered once. Only named
+     * fields become slots.
+     *
+     * @param zebraLabel label to compile
+     */
+    public LabelTemplate(ZebraLabel zebraLabel) {
+        this(zebraLabel, false);
+    }
+
+    /**
+     * Compile a label into a template. The label is rendered once.
+     *
+     * @param zebraLabel label to compile
+     * @param allFields  true to turn every field data into a slot (unnamed
+     *                   fields get a null slot name), false for named fields
+     *                   only
+     */
+    public LabelTemplate(ZebraLabel zebraLabel, boolean allFields) {
+        TemplateCompiler compiler = new TemplateCompiler(allFields);
+        zebraLabel.writeZpl(compiler);
+        compiler.segments.add(compiler.toByteArray());
+
+        int slotCount = compiler.names.size();
+        this.segments = compiler.segments.toArray(new byte[slotCount + 1][]);
+        this.slotNames = compiler.names.toArray(new String[slotCount]);
+        this.slotPrefixes = compiler.prefixes.toArray(new String[slotCount]);
+        this.defaultValues = compiler.values.toArray(new String[slotCount]);
+        this.slotHexaEscaped = new boolean[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slotHexaEscaped[i] = compiler.hexaEscaped.get(i);
+        }
+        this.labelBindable = allFields && matchesFieldData(zebraLabel);
+
+        ZplWriter setupWriter = new ZplWriter(128);
+        zebraLabel.writeZplSetup(setupWriter, zebraLabel.getRenderContext(), null);
+        this.setupLength = setupWriter.size();
+    }
+
+    /**
+     * Check every slot comes from the next element having field data (an
+     * element writing its code without ZplWriter.writeFieldData would break
+     * the order).
+     */
+    private boolean matchesFieldData(ZebraLabel zebraLabel) {
+        int slot = 0;
+        for (ZebraElement zebraElement : zebraLabel.getZebraElements()) {
+            if (zebraElement.hasFieldData()) {
+                if (slot == defaultValues.length || !Objects.equals(zebraElement.getFieldData(), defaultValues[slot])) {
+                    return false;
+                }
+                slot++;
+            }
+        }
+        return slot == defaultValues.length;
+    }
+
+    /**
+     * @return true if this template can render labels having the fingerprint
+     *         of the compiled label (see {@link #writeZpl(ZplWriter, ZebraLabel)})
+     */
+    public boolean isLabelBindable() {
+        return labelBindable;
+    }
+
+    /**
+     * @return number of variable slots
+     */
+    public int getSlotCount() {
+        return slotNames.length;
+    }
+
+    /**
+     * @return names of the slots, in label order (a name is listed once per
+     *         element using it)
+     */
+    public List<String> getSlotNames() {
+        return Collections.unmodifiableList(Arrays.asList(slotNames));
+    }
+
+    /**
+     * @param slotName name of a field
+     * @return index of the first slot with this name, -1 if unknown
+     */
+    public int getSlotIndex(String slotName) {
+        for (int i = 0; i < slotNames.length; i++) {
+            if (slotName != null && slotName.equals(slotNames[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param segmentIndex index of a segment (0 to slot count)
+     * @return static bytes written before the slot of the same index (the
+     *         last segment ends the label)
+     */
+    byte[] getSegment(int segmentIndex) {
+        return segments[segmentIndex];
+    }
+
+    /**
+     * @param slotIndex index of a slot
+     * @return constant part of the field data written before the value
+     */
+    String getSlotPrefix(int slotIndex) {
+        return slotPrefixes[slotIndex];
+    }
+
+    /**
+     * @param slotIndex index of a slot
+     * @return true if the value of the slot is hexadecimal escaped
+     */
+    boolean isSlotHexaEscaped(int slotIndex) {
+        return slotHexaEscaped[slotIndex];
+    }
+
+    /**
+     * @param slotIndex index of a slot
+     * @return value of the field when the template was compiled
+     */
+    public String getDefaultValue(int slotIndex) {
+        return defaultValues[slotIndex];
+    }
+
+    /**
+     * @return number of bytes held by the static segments
+     */
+    public int getSize() {
+        int size = 0;
+        for (byte[] segment : segments) {
+            size += segment.length;
+        }
+        return size;
+    }
+
+    /**
+     * Write the label with values given by slot index.
+     *
+     * @param zplWriter writer receiving the code
+     * @param values    values by slot index. A missing or null value is
+     *                  replaced by the default value of the slot.
+     */
+    public void writeZpl(ZplWriter zplWriter, String... values) {
+        for (int i = 0; i < slotNames.length; i++) {
+            zplWriter.append(segments[i]);
+            String value = i < values.length ? values[i] : null;
+            writeSlot(zplWriter, i, value);
+        }
+        zplWriter.append(segments[slotNames.length]);
+    }
+
+    /**
+     * Write the label with values given by field name. All slots sharing a name
+     * get the same value.
+     *
+     * @param zplWriter writer receiving the code
+     * @param values    values by field name. A missing value is replaced by the
+     *                  default value of the slot.
+     */
+    public void writeZpl(ZplWriter zplWriter, Map<String, String> values) {
+        for (int i = 0; i < slotNames.length; i++) {
+            zplWriter.append(segments[i]);
+            writeSlot(zplWriter, i, slotNames[i] != null ? values.get(slotNames[i]) : null);
+        }
+        zplWriter.append(segments[slotNames.length]);
+    }
+
+    /**
+     * Write a label having the same fingerprint as the compiled label, using
+     * the field data of its elements as slot values.
+     *
+     * @param zplWriter  writer receiving the code
+     * @param zebraLabel label providing the field data
+     * @throws IllegalStateException if the template is not label bindable
+     */
+    public void writeZpl(ZplWriter zplWriter, ZebraLabel zebraLabel) {
+        writeZpl(zplWriter, zebraLabel, null);
+    }
+
+    /**
+     * Write a label having the same fingerprint as the compiled label, using
+     * the field data of its elements as slot values, and omitting the setup
+     * commands the printer already received.
+     *
+     * @param zplWriter    writer receiving the code
+     * @param zebraLabel   label providing the field data
+     * @param printerState setup of the printer, null to write every setup
+     *                     command
+     * @throws IllegalStateException if the template is not label bindable
+     */
+    public void writeZpl(ZplWriter zplWriter, ZebraLabel zebraLabel, PrinterState printerState) {
+        if (!labelBindable) {
+            throw new IllegalStateException("Template must be compiled with all fields to render labels");
+        }
+        int offset = 0;
+        if (printerState != null) {
+            zebraLabel.writeZplSetup(zplWriter, zebraLabel.getRenderContext(), printerState);
+            offset = setupLength;
+        }
+        List<ZebraElement> zebraElements = zebraLabel.getZebraElements();
+        int slot = 0;
+        for (int i = 0; i < zebraElements.size(); i++) {
+            ZebraElement zebraElement = zebraElements.get(i);
+            if (zebraElement.hasFieldData()) {
+                zplWriter.append(segments[slot], offset, segments[slot].length - offset);
+                offset = 0;
+                zplWriter.writeFieldData(null, slotPrefixes[slot], zebraElement.getFieldData(),
+                        slotHexaEscaped[slot]);
+                slot++;
+            }
+        }
+        zplWriter.append(segments[slot], offset, segments[slot].length - offset);
+    }
+
+    /**
+     * @param values values by field name
+     * @return Zpl code of the label
+     */
+    public String getZplCode(Map<String, String> values) {
+        ZplWriter zplWriter = new ZplWriter(getSize() + 64);
+        writeZpl(zplWriter, values);
+        return zplWriter.toString();
+    }
+
+    private void writeSlot(ZplWriter zplWriter, int slotIndex, String value) {
+        zplWriter.writeFieldData(null, slotPrefixes[slotIndex], value != null ? value : defaultValues[slotIndex],
+                slotHexaEscaped[slotIndex]);
+    }
+
+    /**
+     * Writer cutting a new segment for every named (or every) field data
+     */
+    private static class TemplateCompiler extends ZplWriter {
+
+        private final boolean allFields;
+        private final List<byte[]> segments = new ArrayList<byte[]>();
+        private final List<String> names = new ArrayList<String>();
+        private final List<String> prefixes = new ArrayList<String>();
+        private final List<String> values = new ArrayList<String>();
+        private final List<Boolean> hexaEscaped = new ArrayList<Boolean>();
+
+        TemplateCompiler(boolean allFields) {
+            this.allFields = allFields;
+        }
+
+        @Override
+        public ZplWriter writeFieldData(String fieldName, String prefix, String value, boolean hexaEscaped) {
+            if (fieldName == null && !allFields) {
+                return super.writeFieldData(fieldName, prefix, value, hexaEscaped);
+            }
+            segments.add(toByteArray());
+            reset();
+            names.add(fieldName);
+            prefixes.add(prefix);
+            values.add(value);
+            this.hexaEscaped.add(hexaEscaped);
+            return this;
+        }
+
+        @Override
+        public boolean acceptsMemoizedCode() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * LabelTemplateCache.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.model;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
+
+/**
+ * Cache of {@link LabelTemplate} keyed by the {@link LabelFingerprint} of the
+ * labels, so labels built again and again from the same layout are rendered
+ * from their compiled template.
+ * <p>
+ * The cache is bounded by a byte budget (size of the template segments plus
+ * size of the fingerprint), the least recently used templates being evicted
+ * first. Labels whose template cannot be bound to their elements (see
+ * {@link LabelTemplate#isLabelBindable()}) are rendered directly and counted as
+ * misses.
+ * <p>
+ * The cache is thread safe.
+ *
+ * @author Cristian Ramírez
+ */
+public class LabelTemplateCache {
+
+    /**
+     * Default byte budget : 4 MB
+     */
+    public static final long DEFAULT_MAX_BYTES = 4L * 1024 * 1024;
+
+    private final long maxBytes;
+
+    private final Map<LabelFingerprint, CacheEntry> entries = new LinkedHashMap<LabelFingerprint, CacheEntry>(16,
+            0.75f, true);
+
+    private long currentBytes;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private long evictionCount;
+
+    /**
+     * Create a cache with the default byte budget
+     */
+    public LabelTemplateCache() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param maxBytes byte budget of the cache
+     */
+    public LabelTemplateCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Write the code of a label, using (and caching) the template of its layout.
+     *
+     * @param zebraLabel label to render
+     * @param zplWriter  writer receiving the code
+     */
+    public void writeZpl(ZebraLabel zebraLabel, ZplWriter zplWriter) {
+        writeZpl(zebraLabel, zplWriter, null);
+    }
+
+    /**
+     * Write the code of a label, using (and caching) the template of its
+     * layout, and omitting the setup commands the printer already received.
+     *
+     * @param zebraLabel   label to render
+     * @param zplWriter    writer receiving the code
+     * @param printerState setup of the printer, null to write every setup
+     *                     command
+     */
+    public void writeZpl(ZebraLabel zebraLabel, ZplWriter zplWriter, PrinterState printerState) {
+        LabelTemplate template = getTemplate(zebraLabel);
+        if (template != null) {
+            template.writeZpl(zplWriter, zebraLabel, printerState);
+        } else {
+            zebraLabel.writeZpl(zplWriter, zebraLabel.getRenderContext(), printerState);
+        }
+    }
+
+    /**
+     * Get the template of the label layout, compiling it on a miss.
+     *
+     * @param zebraLabel label
+     * @return template able to render the label, null if the label can not be
+     *         rendered from a template
+     */
+    public LabelTemplate getTemplate(ZebraLabel zebraLabel) {
+        LabelFingerprint fingerprint = zebraLabel.getFingerprint();
+        synchronized (this) {
+            CacheEntry entry = entries.get(fingerprint);
+            if (entry != null) {
+                hitCount++;
+                return entry.template;
+            }
+            missCount++;
+        }
+        // Compile outside the lock, two threads may compile the same layout
+        LabelTemplate template = new LabelTemplate(zebraLabel, true);
+        if (!template.isLabelBindable()) {
+            return null;
+        }
+        long size = (long) template.getSize() + fingerprint.getSize();
+        if (size <= maxBytes) {
+            put(fingerprint, new CacheEntry(template, size));
+        }
+        return template;
+    }
+
+    private synchronized void put(LabelFingerprint fingerprint, CacheEntry entry) {
+        CacheEntry previous = entries.put(fingerprint, entry);
+        if (previous != null) {
+            currentBytes -= previous.size;
+        }
+        currentBytes += entry.size;
+        Iterator<CacheEntry> iterator = entries.values().iterator();
+        while (currentBytes > maxBytes && iterator.hasNext()) {
+            CacheEntry eldest = iterator.next();
+            iterator.remove();
+            currentBytes -= eldest.size;
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Remove every template (counters are kept)
+     */
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    /**
+     * @return byte budget of the cache
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @return bytes currently used by the cached templates
+     */
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    /**
+     * @return number of cached templates
+     */
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * @return number of labels rendered from a cached template
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return number of labels whose template was not cached
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return number of templates evicted to respect the byte budget
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    private static final class CacheEntry {
+
+        private final LabelTemplate template;
+
+        private final long size;
+
+        private CacheEntry(LabelTemplate template, long size) {
+            this.template = template;
+            this.size = size;
+        }
+    }
+}
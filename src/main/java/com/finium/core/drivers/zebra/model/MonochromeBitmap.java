@@ -0,0 +1,569 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * MonochromeBitmap.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.model;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+
+import com.finium.core.drivers.zebra.zpl.enums.ZebraDithering;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraGraphicCompression;
+import com.finium.core.drivers.zebra.zpl.support.GraphicEncoder;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
+
+/**
+ * Image converted to the black and white dots of a printer, packed 8 dots per
+ * byte as expected by <code>^GF</code> and <code>~DG</code> : rows are padded
+ * to a whole number of bytes, the left dot of a byte is its high bit, a bit set
+ * is a black dot.
+ * <p>
+ * Compressed encodings of the data (see {@link ZebraGraphicCompression}) are
+ * computed on first use and kept with the bitmap.
+ * <p>
+ * Converting an image reads its gray levels row by row, without keeping an
+ * ARGB copy. Large images (see {@link #PARALLEL_DOTS}) are converted by bands
+ * of rows on the common fork/join pool. Floyd–Steinberg dithering diffuses the
+ * error from row to row : its rows run in parallel as a wavefront, each row
+ * staying behind the row above it.
+ * <p>
+ * A bitmap is immutable and can be shared between threads.
+ *
+ * @author Cristian Ramírez
+ */
+public class MonochromeBitmap {
+
+    /**
+     * Default gray level under which a dot is black
+     */
+    public static final int DEFAULT_THRESHOLD = 128;
+
+    /**
+     * Minimal number of dots of an image converted in parallel
+     */
+    public static final int PARALLEL_DOTS = 1 << 20;
+
+    /**
+     * Number of rows converted by a single task
+     */
+    private static final int BAND_ROWS = 64;
+
+    /**
+     * Number of dots diffused between two publications of the progress of a
+     * row
+     */
+    private static final int DIFFUSION_STEP = 256;
+
+    /**
+     * 4x4 Bayer matrix, thresholds are (value + 0.5) * 16 around mid gray
+     */
+    private static final int[] BAYER_MATRIX = { 0, 8, 2, 10, 12, 4, 14, 6, 3, 11, 1, 9, 15, 7, 13, 5 };
+
+    private final int width;
+
+    private final int height;
+
+    private final int bytesPerRow;
+
+    private final byte[] data;
+
+    private final long contentHash;
+
+    /**
+     * Compressed encodings of the data, by compression ordinal
+     */
+    private final byte[][] encodings = new byte[ZebraGraphicCompression.values().length][];
+
+    private ZebraGraphicCompression smallestCompression;
+
+    /**
+     * @param width  width in dots
+     * @param height height in dots
+     * @param data   packed dots, height rows of (width + 7) / 8 bytes (copied)
+     */
+    public MonochromeBitmap(int width, int height, byte[] data) {
+        this(width, height, Arrays.copyOf(data, data.length), true);
+    }
+
+    /**
+     * Wrap packed dots owned by the bitmap (not copied)
+     */
+    private MonochromeBitmap(int width, int height, byte[] data, boolean owned) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("width and height must be positive");
+        }
+        this.width = width;
+        this.height = height;
+        this.bytesPerRow = (width + 7) / 8;
+        if (data.length != bytesPerRow * height) {
+            throw new IllegalArgumentException("data must hold " + (bytesPerRow * height) + " bytes");
+        }
+        this.data = data;
+        this.contentHash = FormatRegistry.contentHash(data);
+    }
+
+    /**
+     * Convert an image with a threshold at mid gray
+     *
+     * @param image image to convert
+     * @return the bitmap
+     */
+    public static MonochromeBitmap fromImage(BufferedImage image) {
+        return fromImage(image, ZebraDithering.THRESHOLD, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Convert an image
+     *
+     * @param image     image to convert
+     * @param dithering conversion of the gray levels
+     * @return the bitmap
+     */
+    public static MonochromeBitmap fromImage(BufferedImage image, ZebraDithering dithering) {
+        return fromImage(image, dithering, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Convert an image. Transparent pixels are white.
+     *
+     * @param image     image to convert
+     * @param dithering conversion of the gray levels
+     * @param threshold gray level (0 to 255) under which a dot is black
+     * @return the bitmap
+     */
+    public static MonochromeBitmap fromImage(BufferedImage image, ZebraDithering dithering, int threshold) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        byte[] data = new byte[(width + 7) / 8 * height];
+        byte[] grays = dithering.isParallelizable() ? null : new byte[width * height];
+        ConversionTask task = new ConversionTask(image, dithering, threshold, data, grays, 0, height);
+        if ((long) width * height >= PARALLEL_DOTS) {
+            ForkJoinPool.commonPool().invoke(task);
+        } else {
+            task.compute();
+        }
+        if (grays != null) {
+            diffuseError(grays, width, height, threshold, data);
+        }
+        return new MonochromeBitmap(width, height, data, true);
+    }
+
+    /**
+     * Floyd–Steinberg error diffusion : 7/16 to the right, 3/16 bottom left,
+     * 5/16 below, 1/16 bottom right. Large images are diffused by a wavefront
+     * of rows on the common fork/join pool, giving the same dots as a serial
+     * pass.
+     */
+    private static void diffuseError(byte[] grays, int width, int height, int threshold, byte[] data) {
+        int workers = Math.min(ForkJoinPool.getCommonPoolParallelism(), height);
+        if ((long) width * height < PARALLEL_DOTS || workers < 2) {
+            ErrorDiffusion diffusion = new ErrorDiffusion(grays, width, height, threshold, data, false);
+            for (int y = 0; y < height; y++) {
+                diffusion.diffuseRow(y);
+            }
+            return;
+        }
+        ErrorDiffusion diffusion = new ErrorDiffusion(grays, width, height, threshold, data, true);
+        List<DiffusionTask> tasks = new ArrayList<DiffusionTask>(workers);
+        for (int worker = 0; worker < workers; worker++) {
+            tasks.add(new DiffusionTask(diffusion, worker, workers));
+        }
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    /**
+     * @param argb pixel
+     * @return gray level of the pixel blended on white
+     */
+    private static int gray(int argb) {
+        int alpha = argb >>> 24;
+        int luminance = (((argb >> 16) & 0xff) * 299 + ((argb >> 8) & 0xff) * 587 + (argb & 0xff) * 114) / 1000;
+        return 255 - (alpha * (255 - luminance)) / 255;
+    }
+
+    /**
+     * @return width in dots
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return height in dots
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return number of bytes of a row
+     */
+    public int getBytesPerRow() {
+        return bytesPerRow;
+    }
+
+    /**
+     * @return total number of bytes
+     */
+    public int getByteCount() {
+        return data.length;
+    }
+
+    /**
+     * @return copy of the packed dots
+     */
+    public byte[] getData() {
+        return Arrays.copyOf(data, data.length);
+    }
+
+    /**
+     * @return 64 bits hash of the packed dots
+     */
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * @param x column
+     * @param y row
+     * @return true if the dot is black
+     */
+    public boolean isBlack(int x, int y) {
+        return (data[y * bytesPerRow + (x >> 3)] & (0x80 >>> (x & 7))) != 0;
+    }
+
+    /**
+     * Write the packed dots as ASCII hexadecimal (two digits per byte)
+     *
+     * @param zplWriter writer receiving the code
+     */
+    public void writeHexadecimal(ZplWriter zplWriter) {
+        GraphicEncoder.writeHexadecimal(zplWriter, data);
+    }
+
+    /**
+     * Write the packed dots with an encoding. Compressed encodings are computed
+     * once and kept by the bitmap.
+     *
+     * @param zplWriter   writer receiving the code
+     * @param compression encoding of the data
+     */
+    public void writeData(ZplWriter zplWriter, ZebraGraphicCompression compression) {
+        if (compression == ZebraGraphicCompression.HEXADECIMAL) {
+            writeHexadecimal(zplWriter);
+        } else {
+            zplWriter.append(getEncoding(compression));
+        }
+    }
+
+    /**
+     * @param compression encoding of the data
+     * @return number of characters of the encoded data
+     */
+    public int getEncodedSize(ZebraGraphicCompression compression) {
+        if (compression == ZebraGraphicCompression.HEXADECIMAL) {
+            return data.length * 2;
+        }
+        return getEncoding(compression).length;
+    }
+
+    /**
+     * Encode the data with every compression (once) and keep the smallest
+     * encoding only.
+     *
+     * @return the compression giving the smallest data
+     */
+    public synchronized ZebraGraphicCompression getSmallestCompression() {
+        if (smallestCompression == null) {
+            ZebraGraphicCompression smallest = ZebraGraphicCompression.HEXADECIMAL;
+            for (ZebraGraphicCompression compression : ZebraGraphicCompression.values()) {
+                if (getEncodedSize(compression) < getEncodedSize(smallest)) {
+                    smallest = compression;
+                }
+            }
+            for (ZebraGraphicCompression compression : ZebraGraphicCompression.values()) {
+                if (compression != smallest) {
+                    encodings[compression.ordinal()] = null;
+                }
+            }
+            smallestCompression = smallest;
+        }
+        return smallestCompression;
+    }
+
+    /**
+     * @param compression encoding of the data, other than hexadecimal
+     * @return the encoded data kept by the bitmap (not copied)
+     */
+    synchronized byte[] getEncoding(ZebraGraphicCompression compression) {
+        byte[] encoding = encodings[compression.ordinal()];
+        if (encoding == null) {
+            ZplWriter zplWriter = new ZplWriter(Math.max(64, data.length / 2));
+            GraphicEncoder.encode(zplWriter, data, bytesPerRow, compression);
+            encoding = zplWriter.toByteArray();
+            encodings[compression.ordinal()] = encoding;
+        }
+        return encoding;
+    }
+
+    /**
+     * @return approximate memory held by the bitmap, in bytes : the packed dots
+     *         and the encodings it keeps
+     */
+    public synchronized long getRetainedSize() {
+        long size = data.length;
+        for (byte[] encoding : encodings) {
+            if (encoding != null) {
+                size += encoding.length;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return black and white image of the bitmap
+     */
+    public BufferedImage toImage() {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY,
+                AwtLabelRaster.PACKED_COLORS);
+        byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        System.arraycopy(data, 0, pixels, 0, data.length);
+        return image;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof MonochromeBitmap)) {
+            return false;
+        }
+        MonochromeBitmap other = (MonochromeBitmap) obj;
+        return width == other.width && height == other.height && contentHash == other.contentHash
+                && Arrays.equals(data, other.data);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return (int) (contentHash ^ (contentHash >>> 32));
+    }
+
+    /**
+     * Fork/join task converting a band of rows : packed directly when rows are
+     * independent, into gray levels otherwise
+     */
+    private static final class ConversionTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient BufferedImage image;
+        private final ZebraDithering dithering;
+        private final int threshold;
+        private final byte[] data;
+        private final byte[] grays;
+        private final int fromRow;
+        private final int toRow;
+
+        ConversionTask(BufferedImage image, ZebraDithering dithering, int threshold, byte[] data, byte[] grays,
+                int fromRow, int toRow) {
+            this.image = image;
+            this.dithering = dithering;
+            this.threshold = threshold;
+            this.data = data;
+            this.grays = grays;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRow - fromRow > BAND_ROWS) {
+                int middle = (fromRow + toRow) >>> 1;
+                invokeAll(new ConversionTask(image, dithering, threshold, data, grays, fromRow, middle),
+                        new ConversionTask(image, dithering, threshold, data, grays, middle, toRow));
+                return;
+            }
+            int width = image.getWidth();
+            int bytesPerRow = (width + 7) / 8;
+            int[] row = new int[width];
+            for (int y = fromRow; y < toRow; y++) {
+                image.getRGB(0, y, width, 1, row, 0, width);
+                if (grays != null) {
+                    for (int x = 0; x < width; x++) {
+                        grays[y * width + x] = (byte) gray(row[x]);
+                    }
+                    continue;
+                }
+                int dataOffset = y * bytesPerRow;
+                for (int x = 0; x < width; x++) {
+                    int level = threshold;
+                    if (dithering == ZebraDithering.ORDERED) {
+                        level += (BAYER_MATRIX[((y & 3) << 2) | (x & 3)] * 2 + 1) * 8 - DEFAULT_THRESHOLD;
+                    }
+                    if (gray(row[x]) < level) {
+                        data[dataOffset + (x >> 3)] |= 0x80 >>> (x & 7);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Floyd–Steinberg state shared by the rows of an image. A row keeps the
+     * error of each of its dots; a dot only needs the errors of the three dots
+     * above it, so a row can run as soon as the row above is two dots ahead,
+     * and errors are kept for two rows only.
+     */
+    private static final class ErrorDiffusion {
+
+        private final byte[] grays;
+        private final int width;
+        private final int threshold;
+        private final byte[] data;
+        private final int bytesPerRow;
+        private final int[][] errors;
+
+        /**
+         * Number of dots diffused in each row, null for a serial pass
+         */
+        private final AtomicIntegerArray progress;
+
+        ErrorDiffusion(byte[] grays, int width, int height, int threshold, byte[] data, boolean parallel) {
+            this.grays = grays;
+            this.width = width;
+            this.threshold = threshold;
+            this.data = data;
+            this.bytesPerRow = (width + 7) / 8;
+            this.errors = new int[2][width];
+            this.progress = parallel ? new AtomicIntegerArray(height) : null;
+        }
+
+        void diffuseRow(int y) {
+            int[] above = y > 0 ? errors[(y - 1) & 1] : null;
+            int[] current = errors[y & 1];
+            int rowOffset = y * width;
+            int dataOffset = y * bytesPerRow;
+            int carry = 0;
+            for (int from = 0; from < width; from += DIFFUSION_STEP) {
+                int to = Math.min(width, from + DIFFUSION_STEP);
+                if (above != null && progress != null) {
+                    awaitProgress(y - 1, Math.min(width, to + 1));
+                }
+                for (int x = from; x < to; x++) {
+                    int value = (grays[rowOffset + x] & 0xff) + carry;
+                    if (above != null) {
+                        if (x > 0) {
+                            value += above[x - 1] / 16;
+                        }
+                        value += above[x] * 5 / 16;
+                        if (x + 1 < width) {
+                            value += above[x + 1] * 3 / 16;
+                        }
+                    }
+                    int error;
+                    if (value < threshold) {
+                        data[dataOffset + (x >> 3)] |= 0x80 >>> (x & 7);
+                        error = value;
+                    } else {
+                        error = value - 255;
+                    }
+                    current[x] = error;
+                    carry = error * 7 / 16;
+                }
+                if (progress != null) {
+                    progress.set(y, to);
+                }
+            }
+        }
+
+        /**
+         * Wait until a row has diffused a number of dots. The wait is managed
+         * so the pool keeps enough threads to run the rows above.
+         */
+        private void awaitProgress(final int y, final int dots) {
+            if (progress.get(y) >= dots) {
+                return;
+            }
+            boolean interrupted = false;
+            ForkJoinPool.ManagedBlocker blocker = new ForkJoinPool.ManagedBlocker() {
+
+                @Override
+                public boolean isReleasable() {
+                    return progress.get(y) >= dots;
+                }
+
+                @Override
+                public boolean block() {
+                    while (!isReleasable()) {
+                        LockSupport.parkNanos(1000L);
+                    }
+                    return true;
+                }
+            };
+            while (!blocker.isReleasable()) {
+                try {
+                    ForkJoinPool.managedBlock(blocker);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Fork/join task diffusing one row out of a step, from its first row. There
+     * is one task per worker.
+     */
+    private static final class DiffusionTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient ErrorDiffusion diffusion;
+        private final int firstRow;
+        private final int rowStep;
+
+        DiffusionTask(ErrorDiffusion diffusion, int firstRow, int rowStep) {
+            this.diffusion = diffusion;
+            this.firstRow = firstRow;
+            this.rowStep = rowStep;
+        }
+
+        @Override
+        protected void compute() {
+            for (int y = firstRow; y < diffusion.progress.length(); y += rowStep) {
+                diffusion.diffuseRow(y);
+            }
+        }
+    }
+}
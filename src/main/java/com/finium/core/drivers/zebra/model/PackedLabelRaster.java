@@ -0,0 +1,220 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * PackedLabelRaster.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.model;
+
+import java.util.Arrays;
+
+import com.finium.core.drivers.zebra.zpl.enums.ZebraFont;
+import com.finium.core.drivers.zebra.zpl.support.BitmapFont;
+
+/**
+ * Raster writing packed dots into a byte array, without AWT : no toolkit, no
+ * system font and no global lock, so it starts at once, runs in containers
+ * without fonts and renders labels concurrently.
+ * <p>
+ * The dots are laid out as the data of <code>^GF</code> (rows padded to whole
+ * bytes, the left dot in the high bit, a bit set is a black dot).
+ * <p>
+ * Texts are drawn with the glyphs of {@link BitmapFont}, stretched to the
+ * character matrix of the Zebra font at the size of the field font, and
+ * spaced by its character gap (see {@link ZebraFont}). Font 0 is approximated
+ * as a fixed pitch font of its 15 x 12 matrix.
+ *
+ * @author Cristian Ramírez
+ */
+public class PackedLabelRaster extends LabelRaster {
+
+    private final int bytesPerRow;
+
+    private final byte[] data;
+
+    /**
+     * @param width  width in dots
+     * @param height height in dots
+     */
+    public PackedLabelRaster(int width, int height) {
+        super(width, height);
+        this.bytesPerRow = (width + 7) / 8;
+        this.data = new byte[bytesPerRow * height];
+    }
+
+    /**
+     * @return number of bytes of a row
+     */
+    public int getBytesPerRow() {
+        return bytesPerRow;
+    }
+
+    /**
+     * @return the packed dots (not copied)
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * @param x column
+     * @param y row
+     * @return true if the dot is black
+     */
+    public boolean isBlack(int x, int y) {
+        return (data[y * bytesPerRow + (x >> 3)] & (0x80 >>> (x & 7))) != 0;
+    }
+
+    /**
+     * @return a copy of the dots drawn so far, as a bitmap to print with ^GF
+     */
+    public MonochromeBitmap toBitmap() {
+        return new MonochromeBitmap(getWidth(), getHeight(), data);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void fillRect(int x, int y, int width, int height, boolean black) {
+        int left = Math.max(x, 0);
+        int right = Math.min(x + width, getWidth());
+        int top = Math.max(y, 0);
+        int bottom = Math.min(y + height, getHeight());
+        if (left >= right || top >= bottom) {
+            return;
+        }
+        int firstByte = left >> 3;
+        int lastByte = (right - 1) >> 3;
+        int firstMask = 0xff >>> (left & 7);
+        int lastMask = 0xff << (7 - ((right - 1) & 7)) & 0xff;
+        for (int row = top; row < bottom; row++) {
+            int offset = row * bytesPerRow;
+            if (firstByte == lastByte) {
+                fillByte(offset + firstByte, firstMask & lastMask, black);
+            } else {
+                fillByte(offset + firstByte, firstMask, black);
+                Arrays.fill(data, offset + firstByte + 1, offset + lastByte, black ? (byte) 0xff : 0);
+                fillByte(offset + lastByte, lastMask, black);
+            }
+        }
+    }
+
+    private void fillByte(int index, int mask, boolean black) {
+        if (black) {
+            data[index] |= mask;
+        } else {
+            data[index] &= ~mask;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void drawText(String text, int x, int y, FieldFont fieldFont) {
+        int glyphWidth = getGlyphWidth(fieldFont);
+        int glyphHeight = fieldFont.getHeightDots();
+        int advance = getAdvance(fieldFont);
+        int top = -glyphHeight * BitmapFont.BASELINE / BitmapFont.GLYPH_HEIGHT;
+        for (int i = 0; i < text.length(); i++) {
+            long glyph = BitmapFont.getGlyph(text.charAt(i));
+            int glyphLeft = i * advance;
+            for (int row = 0; row < BitmapFont.GLYPH_HEIGHT; row++) {
+                int rowBits = BitmapFont.getRow(glyph, row);
+                if (rowBits == 0) {
+                    continue;
+                }
+                int v = top + row * glyphHeight / BitmapFont.GLYPH_HEIGHT;
+                int rowHeight = top + (row + 1) * glyphHeight / BitmapFont.GLYPH_HEIGHT - v;
+                int column = 0;
+                while (column < BitmapFont.GLYPH_WIDTH) {
+                    if ((rowBits & (0x10 >>> column)) == 0) {
+                        column++;
+                        continue;
+                    }
+                    int start = column;
+                    while (column < BitmapFont.GLYPH_WIDTH && (rowBits & (0x10 >>> column)) != 0) {
+                        column++;
+                    }
+                    int u = glyphLeft + start * glyphWidth / BitmapFont.GLYPH_WIDTH;
+                    int runWidth = glyphLeft + column * glyphWidth / BitmapFont.GLYPH_WIDTH - u;
+                    fillRotated(x, y, fieldFont, u, v, runWidth, rowHeight);
+                }
+            }
+        }
+    }
+
+    /**
+     * Fill a rectangle given from the origin of the text (u along the
+     * baseline, v downwards), turned with the text around its origin
+     */
+    private void fillRotated(int x, int y, FieldFont fieldFont, int u, int v, int width, int height) {
+        switch (fieldFont.getZebraRotation()) {
+        case ROTATE_90:
+            fillRect(x - v - height, y + u, height, width, true);
+            break;
+        case INVERTED:
+            fillRect(x - u - width, y - v - height, width, height, true);
+            break;
+        case READ_FROM_BOTTOM:
+            fillRect(x + v, y - u - width, height, width, true);
+            break;
+        default:
+            fillRect(x + u, y + v, width, height, true);
+            break;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getTextWidth(String text, FieldFont fieldFont) {
+        if (text.isEmpty()) {
+            return 0;
+        }
+        int advance = getAdvance(fieldFont);
+        return text.length() * advance - (advance - getGlyphWidth(fieldFont));
+    }
+
+    /**
+     * @return width of a character cell : the matrix width of the font at the
+     *         size of the field font. The width of font 0 is given in units of
+     *         its height, so its cell keeps the proportion of its matrix.
+     */
+    private static int getCellWidth(FieldFont fieldFont) {
+        ZebraFont zebraFont = fieldFont.getZebraFont();
+        if (zebraFont.isScalable()) {
+            return Math.max(1, fieldFont.getWidthDots() * zebraFont.getMatrixWidth() / zebraFont.getMatrixHeight());
+        }
+        return fieldFont.getWidthDots();
+    }
+
+    /**
+     * @return width of the glyphs : the whole cell of a font with a character
+     *         gap, the part of the cell left of a one column gap (as font A)
+     *         for a font whose cell holds its own spacing
+     */
+    private static int getGlyphWidth(FieldFont fieldFont) {
+        int cellWidth = getCellWidth(fieldFont);
+        if (fieldFont.getZebraFont().getCharacterGap() > 0) {
+            return cellWidth;
+        }
+        return Math.max(1, cellWidth * BitmapFont.GLYPH_WIDTH / (BitmapFont.GLYPH_WIDTH + 1));
+    }
+
+    /**
+     * @return distance between the left sides of two characters : the cell and
+     *         the character gap of the font, scaled as its matrix
+     */
+    private static int getAdvance(FieldFont fieldFont) {
+        ZebraFont zebraFont = fieldFont.getZebraFont();
+        int cellWidth = getCellWidth(fieldFont);
+        return cellWidth + zebraFont.getCharacterGap() * cellWidth / zebraFont.getMatrixWidth();
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * PrinterState.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.model;
+
+import com.finium.core.drivers.zebra.zpl.command.ZebraPrintMode;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraFont;
+
+/**
+ * Setup last sent to a printer on a connection : media mode (^MM), print width
+ * (^PW), label length (^LL) and default font (^CF). Labels rendered with a
+ * state (see {@link ZebraLabel#writeZpl(com.finium.core.drivers.zebra.zpl.support.ZplWriter, PrinterState)})
+ * only write the setup commands whose value changed.
+ * <p>
+ * A state is updated when a label is rendered, so the code must then be sent
+ * in the same order. It must be reset every time the printer may have lost
+ * or changed its setup (new connection, failed send, raw ZPL sent...), a reset
+ * state being unknown so every command is written again.
+ * <p>
+ * A state is thread safe.
+ *
+ * @author Cristian Ramírez
+ */
+public class PrinterState {
+
+    private ZebraPrintMode printMode;
+
+    private Integer printWidth;
+
+    private Integer labelLength;
+
+    private ZebraFont defaultFont;
+
+    private int defaultFontHeight;
+
+    private int defaultFontWidth;
+
+    /**
+     * Create an unknown state
+     */
+    public PrinterState() {
+        super();
+    }
+
+    /**
+     * Create a copy of a state
+     *
+     * @param printerState state to copy
+     */
+    public PrinterState(PrinterState printerState) {
+        copyFrom(printerState);
+    }
+
+    /**
+     * Forget the setup of the printer, next label will write all its setup
+     * commands.
+     */
+    public synchronized void reset() {
+        printMode = null;
+        printWidth = null;
+        labelLength = null;
+        defaultFont = null;
+        defaultFontHeight = 0;
+        defaultFontWidth = 0;
+    }
+
+    /**
+     * @param printerState state to copy into this one
+     */
+    public void copyFrom(PrinterState printerState) {
+        synchronized (printerState) {
+            synchronized (this) {
+                printMode = printerState.printMode;
+                printWidth = printerState.printWidth;
+                labelLength = printerState.labelLength;
+                defaultFont = printerState.defaultFont;
+                defaultFontHeight = printerState.defaultFontHeight;
+                defaultFontWidth = printerState.defaultFontWidth;
+            }
+        }
+    }
+
+    /**
+     * @param zebraPrintMode media mode of the next label
+     * @return true if ^MM must be written
+     */
+    public synchronized boolean changePrintMode(ZebraPrintMode zebraPrintMode) {
+        if (printMode == zebraPrintMode) {
+            return false;
+        }
+        printMode = zebraPrintMode;
+        return true;
+    }
+
+    /**
+     * @param widthDots print width of the next label
+     * @return true if ^PW must be written
+     */
+    public synchronized boolean changePrintWidth(int widthDots) {
+        if (printWidth != null && printWidth == widthDots) {
+            return false;
+        }
+        printWidth = widthDots;
+        return true;
+    }
+
+    /**
+     * @param heightDots label length of the next label
+     * @return true if ^LL must be written
+     */
+    public synchronized boolean changeLabelLength(int heightDots) {
+        if (labelLength != null && labelLength == heightDots) {
+            return false;
+        }
+        labelLength = heightDots;
+        return true;
+    }
+
+    /**
+     * @param zebraFont  default font of the next label
+     * @param heightDots height of the default font (in dots)
+     * @param widthDots  width of the default font (in dots)
+     * @return true if ^CF must be written
+     */
+    public synchronized boolean changeDefaultFont(ZebraFont zebraFont, int heightDots, int widthDots) {
+        if (defaultFont == zebraFont && defaultFontHeight == heightDots && defaultFontWidth == widthDots) {
+            return false;
+        }
+        defaultFont = zebraFont;
+        defaultFontHeight = heightDots;
+        defaultFontWidth = widthDots;
+        return true;
+    }
+
+    /**
+     * @return true if no setup is known
+     */
+    public synchronized boolean isUnknown() {
+        return printMode == null && printWidth == null && labelLength == null && defaultFont == null;
+    }
+}
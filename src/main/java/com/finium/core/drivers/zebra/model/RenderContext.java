@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * RenderContext.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.model;
+
+import com.finium.core.drivers.zebra.zpl.enums.ZebraFont;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraPPP;
+
+/**
+ * Immutable snapshot of the {@link PrinterOptions} of a label, passed down to
+ * its elements while they are rendered (see
+ * {@link ZebraElement#writeZpl(com.finium.core.drivers.zebra.zpl.support.ZplWriter, RenderContext)}).
+ * <p>
+ * Since rendering never modifies elements, a label can be rendered by several
+ * threads at once and elements can be shared between labels.
+ *
+ * @author Cristian Ramírez
+ */
+public final class RenderContext {
+
+    /**
+     * Context of default printer options (300 dpi, no default font)
+     */
+    public static final RenderContext DEFAULT = new RenderContext(ZebraPPP.DPI_300, null, null);
+
+    private final ZebraPPP zebraPPP;
+
+    private final ZebraFont defaultZebraFont;
+
+    private final Integer defaultFontSize;
+
+    /**
+     * @param zebraPPP         resolution of the printer
+     * @param defaultZebraFont default font (may be null)
+     * @param defaultFontSize  default font size (may be null)
+     */
+    public RenderContext(ZebraPPP zebraPPP, ZebraFont defaultZebraFont, Integer defaultFontSize) {
+        this.zebraPPP = zebraPPP;
+        this.defaultZebraFont = defaultZebraFont;
+        this.defaultFontSize = defaultFontSize;
+    }
+
+    /**
+     * @param printerOptions printer options (may be null)
+     * @return a snapshot of the printer options, {@link #DEFAULT} if null
+     */
+    public static RenderContext of(PrinterOptions printerOptions) {
+        if (printerOptions == null) {
+            return DEFAULT;
+        }
+        return new RenderContext(printerOptions.getZebraPPP(), printerOptions.getDefaultZebraFont(),
+                printerOptions.getDefaultFontSize());
+    }
+
+    /**
+     * @param printerOptions printer options
+     * @return true if this context is still a snapshot of the printer options
+     */
+    public boolean matches(PrinterOptions printerOptions) {
+        if (printerOptions == null) {
+            return this == DEFAULT;
+        }
+        return zebraPPP == printerOptions.getZebraPPP() && defaultZebraFont == printerOptions.getDefaultZebraFont()
+                && (defaultFontSize == null ? printerOptions.getDefaultFontSize() == null
+                        : defaultFontSize.equals(printerOptions.getDefaultFontSize()));
+    }
+
+    /**
+     * @return a new mutable PrinterOptions holding the values of this context
+     */
+    public PrinterOptions toPrinterOptions() {
+        return new PrinterOptions(zebraPPP).setDefaultZebraFont(defaultZebraFont).setDefaultFontSize(defaultFontSize);
+    }
+
+    /**
+     * @return the zebraPPP
+     */
+    public ZebraPPP getZebraPPP() {
+        return zebraPPP;
+    }
+
+    /**
+     * @return the defaultZebraFont
+     */
+    public ZebraFont getDefaultZebraFont() {
+        return defaultZebraFont;
+    }
+
+    /**
+     * @return the defaultFontSize
+     */
+    public Integer getDefaultFontSize() {
+        return defaultFontSize;
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * StoredFormat.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.model;
+
+import java.util.List;
+
+import com.finium.core.drivers.zebra.zpl.support.ZplUtils;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
+
+/**
+ * Layout of a label stored on the printer.
+ * <p>
+ * The label is compiled into a <code>^DF</code> format where the field data of
+ * every element is replaced by a <code>^FN</code> field number. Once the
+ * format is downloaded, labels having the same {@link LabelFingerprint} are
+ * printed with <code>^XF</code> followed by their field data only.
+ *
+ * <pre>
+ * ^XA
+ * ^DFR:LBL1.ZPL^FS
+ * ^MMT
+ * ^FT10,84^A0N,58,57^FN1^FS
+ * ^XZ
+ *
+ * ^XA
+ * ^XFR:LBL1.ZPL^FS
+ * ^FN1^FH\^FDCamera^FS
+ * ^XZ
+ * </pre>
+ *
+ * A stored format is immutable and can be shared between threads.
+ *
+ * @author Cristian Ramírez
+ */
+public class StoredFormat {
+
+    private static final int START_LABEL_LENGTH = "^XA\n".length();
+
+    private static final int END_LABEL_LENGTH = "^XZ\n".length();
+
+    private final LabelTemplate template;
+
+    private final String device;
+
+    private final String name;
+
+    /**
+     * Pre-encoded <code>^XA^XFd:o.ZPL^FS</code>
+     */
+    private final byte[] recallHeader;
+
+    /**
+     * Hash of the downloaded code (see {@link FormatRegistry#contentHash(byte[])})
+     */
+    private final long contentHash;
+
+    /**
+     * Size of the downloaded code
+     */
+    private final int downloadSize;
+
+    /**
+     * Compile a label into a stored format.
+     *
+     * @param zebraLabel label to compile
+     * @param device     device storing the format (R:, E:, B: or A:)
+     * @param name       name of the format (1 to 8 alphanumeric characters)
+     */
+    public StoredFormat(ZebraLabel zebraLabel, String device, String name) {
+        this(new LabelTemplate(zebraLabel, true), device, name);
+    }
+
+    /**
+     * Create a stored format from a template compiled with all its fields,
+     * named from its content (see {@link #nameOf(LabelTemplate)}).
+     *
+     * @param template template of the label
+     * @param device   device storing the format (R:, E:, B: or A:)
+     */
+    public StoredFormat(LabelTemplate template, String device) {
+        this(template, device, nameOf(template));
+    }
+
+    /**
+     * Create a stored format from a template compiled with all its fields.
+     *
+     * @param template template of the label
+     * @param device   device storing the format (R:, E:, B: or A:)
+     * @param name     name of the format (1 to 8 alphanumeric characters)
+     */
+    public StoredFormat(LabelTemplate template, String device, String name) {
+        this.template = template;
+        this.device = device;
+        this.name = name;
+
+        ZplWriter headerWriter = new ZplWriter(32);
+        ZplUtils.zplCommand(headerWriter, "XA").newLine();
+        writeFormatPath(headerWriter, "XF");
+        this.recallHeader = headerWriter.toByteArray();
+
+        ZplWriter downloadWriter = new ZplWriter(template.getSize() + 64);
+        writeDownload(downloadWriter);
+        this.contentHash = FormatRegistry.contentHash(downloadWriter.toByteArray());
+        this.downloadSize = downloadWriter.size();
+    }
+
+    /**
+     * Name of a format derived from its content : a layout always gets the same
+     * name, so a layout compiled again is not downloaded again while the
+     * printer stores it, and two layouts never share a name.
+     *
+     * @param template template of the label
+     * @return name of 8 base 36 digits
+     */
+    public static String nameOf(LabelTemplate template) {
+        ZplWriter zplWriter = new ZplWriter(template.getSize() + 64);
+        writeSegments(zplWriter, template);
+        return FormatRegistry.objectName(FormatRegistry.contentHash(zplWriter.toByteArray()));
+    }
+
+    /**
+     * @return true if labels can be printed with this format (see
+     *         {@link LabelTemplate#isLabelBindable()})
+     */
+    public boolean isLabelBindable() {
+        return template.isLabelBindable();
+    }
+
+    /**
+     * @return the device storing the format
+     */
+    public String getDevice() {
+        return device;
+    }
+
+    /**
+     * @return the name of the format
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return path of the format on the printer (R:NAME.ZPL)
+     */
+    public String getPath() {
+        return device + name + ".ZPL";
+    }
+
+    /**
+     * @return hash of the downloaded code
+     */
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * @return size of the downloaded code, approximate size of the format on
+     *         the printer
+     */
+    public int getDownloadSize() {
+        return downloadSize;
+    }
+
+    /**
+     * @return number of field numbers of the format
+     */
+    public int getSlotCount() {
+        return template.getSlotCount();
+    }
+
+    /**
+     * Write the <code>^DF</code> format downloading the layout to the printer.
+     *
+     * @param zplWriter writer receiving the code
+     */
+    public void writeDownload(ZplWriter zplWriter) {
+        ZplUtils.zplCommand(zplWriter, "XA").newLine();
+        writeFormatPath(zplWriter, "DF");
+        writeSegments(zplWriter, template);
+        ZplUtils.zplCommand(zplWriter, "XZ").newLine();
+    }
+
+    /**
+     * Write the layout of a template, its fields replaced by field numbers
+     */
+    private static void writeSegments(ZplWriter zplWriter, LabelTemplate template) {
+        int slotCount = template.getSlotCount();
+        for (int i = 0; i <= slotCount; i++) {
+            byte[] segment = template.getSegment(i);
+            int offset = i == 0 ? START_LABEL_LENGTH : 0;
+            int length = segment.length - offset - (i == slotCount ? END_LABEL_LENGTH : 0);
+            zplWriter.append(segment, offset, length);
+            if (i < slotCount) {
+                ZplUtils.zplCommand(zplWriter, "FN", i + 1);
+            }
+        }
+    }
+
+    /**
+     * Write a label recalling this format with the field data of the label.
+     *
+     * @param zplWriter  writer receiving the code
+     * @param zebraLabel label having the fingerprint of the compiled label
+     * @throws IllegalStateException if the format is not label bindable
+     */
+    public void writeRecall(ZplWriter zplWriter, ZebraLabel zebraLabel) {
+        if (!template.isLabelBindable()) {
+            throw new IllegalStateException("Format must be compiled from a label bindable template");
+        }
+        zplWriter.append(recallHeader);
+        List<ZebraElement> zebraElements = zebraLabel.getZebraElements();
+        int slot = 0;
+        for (int i = 0; i < zebraElements.size(); i++) {
+            ZebraElement zebraElement = zebraElements.get(i);
+            if (zebraElement.hasFieldData()) {
+                ZplUtils.zplCommand(zplWriter, "FN", slot + 1);
+                zplWriter.writeFieldData(null, template.getSlotPrefix(slot), zebraElement.getFieldData(),
+                        template.isSlotHexaEscaped(slot));
+                ZplUtils.zplCommand(zplWriter, "FS").newLine();
+                slot++;
+            }
+        }
+        ZplUtils.zplCommand(zplWriter, "XZ").newLine();
+    }
+
+    private void writeFormatPath(ZplWriter zplWriter, String command) {
+        ZplUtils.zplCommand(zplWriter, command).append(device).append(name).append(".ZPL");
+        ZplUtils.zplCommand(zplWriter, "FS").newLine();
+    }
+}
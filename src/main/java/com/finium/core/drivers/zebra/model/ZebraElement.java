@@ -12,11 +12,10 @@ package com.finium.core.drivers.zebra.model;
 
 import java.awt.Color;
 import java.awt.Font;
-import java.awt.FontMetrics;
 import java.awt.Graphics2D;
-import java.awt.geom.Rectangle2D;
 
 import com.finium.core.drivers.zebra.zpl.support.ZplUtils;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
 
 /**
  * @author Venkaiah Chowdary Koneru
@@ -41,6 +40,22 @@ public abstract class ZebraElement {
 
     protected PrinterOptions printerOptions;
 
+    /**
+     * Name of the variable field data of this element (optional). Named fields
+     * become slots when the label is compiled into a {@link LabelTemplate}.
+     */
+    protected String fieldName;
+
+    /**
+     * Incremented by setters every time the code of this element changes
+     */
+    private int version;
+
+    /**
+     * Code rendered by the last call to writeZplMemoized (null if none)
+     */
+    private volatile Memo memo;
+
     /**
      * @return the positionX
      */
@@ -53,6 +68,7 @@ public abstract class ZebraElement {
      */
     public ZebraElement setPositionX(int positionX) {
         this.positionX = positionX;
+        invalidate();
         return this;
     }
 
@@ -68,10 +84,31 @@ public abstract class ZebraElement {
      */
     public ZebraElement setPositionY(int positionY) {
         this.positionY = positionY;
+        invalidate();
+        return this;
+    }
+
+    /**
+     * @return the fieldName
+     */
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    /**
+     * @param fieldName the fieldName to set
+     */
+    public ZebraElement setFieldName(String fieldName) {
+        this.fieldName = fieldName;
+        invalidate();
         return this;
     }
 
     /**
+     * Printer options used by {@link #getZplCode()} and
+     * {@link #writeZpl(ZplWriter)} when the element is rendered on its own.
+     * Labels do not set them, they pass a {@link RenderContext} instead.
+     *
      * @return the printerOptions
      */
     public PrinterOptions getPrinterOptions() {
@@ -94,6 +131,158 @@ public abstract class ZebraElement {
         return "";
     }
 
+    /**
+     * Write Zpl code for this Element into a writer.
+     * <p>
+     * Default implementation writes the result of {@link #getZplCode()}, child
+     * class should overload it to avoid the intermediate String.
+     *
+     * @param zplWriter writer receiving the code
+     */
+    public void writeZpl(ZplWriter zplWriter) {
+        zplWriter.append(getZplCode());
+    }
+
+    /**
+     * Write Zpl code for this Element, rendered inside a label, into a writer.
+     * <p>
+     * The context must be used instead of {@link #printerOptions}, and the
+     * element must not be modified, so it can be rendered by several threads
+     * and shared between labels. Default implementation calls
+     * {@link #writeZpl(ZplWriter)}, child class depending on printer options
+     * should overload it.
+     *
+     * @param zplWriter     writer receiving the code
+     * @param renderContext printer options of the label
+     */
+    public void writeZpl(ZplWriter zplWriter, RenderContext renderContext) {
+        writeZpl(zplWriter);
+    }
+
+    /**
+     * Render {@link #writeZpl(ZplWriter)} into a String. Used by child class
+     * implementing writeZpl to keep getZplCode available.
+     *
+     * @return
+     */
+    protected String renderZplCode() {
+        ZplWriter zplWriter = new ZplWriter(128);
+        writeZpl(zplWriter);
+        return zplWriter.toString();
+    }
+
+    /**
+     * @return version of this element, incremented every time a setter changes
+     *         its code
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Mark the code of this element as changed. Called by every setter of
+     * memoizable elements.
+     */
+    protected void invalidate() {
+        version++;
+        memo = null;
+    }
+
+    /**
+     * Memoizable elements keep their rendered code when their label is
+     * memoized (see {@link ZebraLabel#setMemoized(boolean)}).
+     * <p>
+     * Child class returning true must call {@link #invalidate()} every time
+     * their code changes. Default is false.
+     *
+     * @return true if the code of this element can be memoized
+     */
+    protected boolean isMemoizable() {
+        return false;
+    }
+
+    /**
+     * Write the code of this element, reusing the code rendered the last time
+     * if neither the element nor the context changed.
+     *
+     * @param zplWriter     writer receiving the code
+     * @param renderContext printer options of the label
+     */
+    void writeZplMemoized(ZplWriter zplWriter, RenderContext renderContext) {
+        if (!isMemoizable() || !zplWriter.acceptsMemoizedCode()) {
+            writeZpl(zplWriter, renderContext);
+            return;
+        }
+        int currentVersion = version;
+        Memo current = memo;
+        if (current == null || current.version != currentVersion || current.renderContext != renderContext) {
+            ZplWriter elementWriter = new ZplWriter(128);
+            writeZpl(elementWriter, renderContext);
+            current = new Memo(currentVersion, renderContext, elementWriter.toByteArray());
+            memo = current;
+        }
+        zplWriter.append(current.code);
+    }
+
+    /**
+     * @return true if the printer increments the data of this element from one
+     *         label to the next (^SN, ^SF)
+     */
+    public boolean isSerialized() {
+        return false;
+    }
+
+    /**
+     * @return true if this element writes field data (text or bar code data)
+     */
+    public boolean hasFieldData() {
+        return false;
+    }
+
+    /**
+     * @return the field data written by this element, null if it has none
+     */
+    public String getFieldData() {
+        return null;
+    }
+
+    /**
+     * Add the layout of this element (everything except its field data) to a
+     * label fingerprint.
+     * <p>
+     * Default implementation adds the whole Zpl code, child class should
+     * overload it with their attributes.
+     *
+     * @param fingerprint fingerprint of the label
+     */
+    protected void addToFingerprint(LabelFingerprint fingerprint) {
+        fingerprint.add(getClass().getName());
+        fingerprint.add(getZplCode());
+    }
+
+    /**
+     * Add type and position of this element to a label fingerprint. Used by
+     * child class overloading {@link #addToFingerprint(LabelFingerprint)}.
+     *
+     * @param fingerprint fingerprint of the label
+     */
+    protected void addPositionToFingerprint(LabelFingerprint fingerprint) {
+        fingerprint.add(getClass().getName());
+        fingerprint.add(positionX);
+        fingerprint.add(positionY);
+    }
+
+    /**
+     * Add the layout of another element to a label fingerprint. Used by child
+     * class wrapping an element.
+     *
+     * @param zebraElement element to add
+     * @param fingerprint  fingerprint of the label
+     */
+    protected static void addElementToFingerprint(ZebraElement zebraElement, LabelFingerprint fingerprint) {
+        zebraElement.addToFingerprint(fingerprint);
+    }
+
     /**
      * Function used by child class if you want to set position before draw your
      * element.
@@ -109,6 +298,18 @@ public abstract class ZebraElement {
         return zpl.toString();
     }
 
+    /**
+     * Function used by child class if you want to set position before draw your
+     * element.
+     *
+     * @param zplWriter writer receiving the code
+     */
+    protected void writeZplCodePosition(ZplWriter zplWriter) {
+        if (positionX != null && positionY != null) {
+            ZplUtils.zplCommand(zplWriter, "FT", positionX, positionY);
+        }
+    }
+
     /**
      * Used to draw label preview. This method should be overloader by child
      * class.
@@ -134,6 +335,19 @@ public abstract class ZebraElement {
         }
     }
 
+    /**
+     * Draw the element as the printer prints it, in dots (see
+     * {@link ZebraLabel#getImagePreview()}).
+     * <p>
+     * Default draws nothing : commands without printed content, and native ZPL
+     * this library does not interpret.
+     *
+     * @param raster        raster of the label
+     * @param renderContext printer options of the label
+     */
+    public void drawRaster(LabelRaster raster, RenderContext renderContext) {
+    }
+
     /**
      * Function to draw Element, based on top position.
      * <p>
@@ -146,11 +360,24 @@ public abstract class ZebraElement {
      * @param positionY
      */
     protected void drawTopString(Graphics2D graphic, Font font, String text, int positionX, int positionY) {
-        graphic.setFont(font);
-        FontMetrics fm = graphic.getFontMetrics(font);
-        Rectangle2D rect = fm.getStringBounds(text, graphic);
-        int textHeight = (int) (rect.getHeight());
-        positionY = positionY + textHeight;
-        graphic.drawString(text, positionX, positionY); // Draw the string.
+        AwtLabelRaster.drawTopString(graphic, font, text, positionX, positionY);
+    }
+
+    /**
+     * Rendered code of an element (immutable)
+     */
+    private static final class Memo {
+
+        private final int version;
+
+        private final RenderContext renderContext;
+
+        private final byte[] code;
+
+        private Memo(int version, RenderContext renderContext, byte[] code) {
+            this.version = version;
+            this.renderContext = renderContext;
+            this.code = code;
+        }
     }
 }
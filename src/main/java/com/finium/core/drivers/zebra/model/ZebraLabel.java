@@ -10,18 +10,15 @@
  */
 package com.finium.core.drivers.zebra.model;
 
-import java.awt.AlphaComposite;
-import java.awt.Color;
-import java.awt.Font;
-import java.awt.Graphics2D;
-import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
 
 import com.finium.core.drivers.zebra.zpl.command.ZebraPrintMode;
 import com.finium.core.drivers.zebra.zpl.enums.ZebraFont;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraRotation;
 import com.finium.core.drivers.zebra.zpl.support.ZplUtils;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
 
 /**
  * @author Venkaiah Chowdary Koneru
@@ -45,10 +42,49 @@ public class ZebraLabel {
 
     private ZebraPrintMode zebraPrintMode = ZebraPrintMode.TEAR_OFF;
 
+    /**
+     * Number of labels printed (^PQ), null to let the printer print one
+     */
+    private Integer quantity;
+
     private PrinterOptions printerOptions = new PrinterOptions();
 
+    /**
+     * Last snapshot of printerOptions (immutable, so it can be read and
+     * replaced by any thread)
+     */
+    private RenderContext renderContext;
+
     private List<ZebraElement> zebraElements = new ArrayList<ZebraElement>();
 
+    /**
+     * Keep the rendered code between two renderings (see
+     * {@link #setMemoized(boolean)})
+     */
+    private boolean memoized;
+
+    /**
+     * Incremented by setters of the label
+     */
+    private int modCount;
+
+    /**
+     * Version of the label and state of the label when it was computed
+     */
+    private long version;
+    private int versionModCount = -1;
+    private RenderContext versionRenderContext;
+    private ZebraElement[] versionElements = new ZebraElement[0];
+    private int[] versionElementVersions = new int[0];
+
+    /**
+     * Body (elements and end of label) rendered by the last memoized
+     * rendering, with the version and the context it was rendered for
+     */
+    private byte[] memoCode;
+    private long memoVersion;
+    private RenderContext memoRenderContext;
+
     public ZebraLabel() {
         super();
         zebraElements = new ArrayList<ZebraElement>();
@@ -94,6 +130,7 @@ public class ZebraLabel {
      */
     public ZebraLabel addElement(ZebraElement zebraElement) {
         zebraElements.add(zebraElement);
+        modCount++;
         return this;
     }
 
@@ -104,6 +141,7 @@ public class ZebraLabel {
      */
     public ZebraLabel setDefaultZebraFont(ZebraFont defaultZebraFont) {
         printerOptions.setDefaultZebraFont(defaultZebraFont);
+        modCount++;
         return this;
     }
 
@@ -115,6 +153,7 @@ public class ZebraLabel {
      */
     public ZebraLabel setDefaultFontSize(Integer defaultFontSize) {
         printerOptions.setDefaultFontSize(defaultFontSize);
+        modCount++;
         return this;
     }
 
@@ -133,6 +172,7 @@ public class ZebraLabel {
      */
     public ZebraLabel setWidthDots(Integer widthDots) {
         this.widthDots = widthDots;
+        modCount++;
         return this;
     }
 
@@ -151,6 +191,7 @@ public class ZebraLabel {
      */
     public ZebraLabel setHeightDots(Integer heightDots) {
         this.heightDots = heightDots;
+        modCount++;
         return this;
     }
 
@@ -160,6 +201,22 @@ public class ZebraLabel {
 
     public void setPrinterOptions(PrinterOptions printerOptions) {
         this.printerOptions = printerOptions;
+        modCount++;
+    }
+
+    /**
+     * Snapshot of the printer options of this label. The snapshot is kept
+     * while the printer options do not change.
+     *
+     * @return the render context of this label
+     */
+    public RenderContext getRenderContext() {
+        RenderContext context = renderContext;
+        if (context == null || !context.matches(printerOptions)) {
+            context = RenderContext.of(printerOptions);
+            renderContext = context;
+        }
+        return context;
     }
 
     /**
@@ -174,9 +231,47 @@ public class ZebraLabel {
      */
     public ZebraLabel setZebraPrintMode(ZebraPrintMode zebraPrintMode) {
         this.zebraPrintMode = zebraPrintMode;
+        modCount++;
+        return this;
+    }
+
+    /**
+     * @return the quantity of labels printed, null if not specified
+     */
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Print the label several times (^PQ). Serialized fields (see
+     * {@link com.finium.core.drivers.zebra.model.element.ZebraSerializedField})
+     * are incremented by the printer for each copy.
+     *
+     * @param quantity quantity of labels printed, null for one label without
+     *                 ^PQ
+     * @return the label
+     */
+    public ZebraLabel setQuantity(Integer quantity) {
+        if (quantity != null && quantity < 1) {
+            throw new IllegalArgumentException("quantity must be positive");
+        }
+        this.quantity = quantity;
+        modCount++;
         return this;
     }
 
+    /**
+     * @return true if one of the elements is serialized
+     */
+    public boolean isSerialized() {
+        for (int i = 0; i < zebraElements.size(); i++) {
+            if (zebraElements.get(i).isSerialized()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * @return the zebraElements
      */
@@ -189,63 +284,311 @@ public class ZebraLabel {
      */
     public void setZebraElements(List<ZebraElement> zebraElements) {
         this.zebraElements = zebraElements;
+        modCount++;
     }
 
     public String getZplCode() {
-        StringBuilder zpl = new StringBuilder();
+        ZplWriter zplWriter = new ZplWriter();
+        writeZpl(zplWriter);
+        return zplWriter.toString();
+    }
+
+    /**
+     * Write Zpl code of the label (and of all its elements) into a writer.
+     * <p>
+     * The code is encoded once, straight into the writer buffer.
+     *
+     * @param zplWriter writer receiving the code
+     */
+    public void writeZpl(ZplWriter zplWriter) {
+        writeZpl(zplWriter, getRenderContext());
+    }
 
-        zpl.append(ZplUtils.zplCommandSautLigne("XA"));// Start Label
-        zpl.append(zebraPrintMode.getZplCode());
+    /**
+     * Write Zpl code of the label into a writer, with the given printer
+     * options instead of the label ones.
+     * <p>
+     * Neither the label nor its elements are modified, so a label can be
+     * rendered by several threads at once.
+     *
+     * @param zplWriter     writer receiving the code
+     * @param renderContext printer options to use
+     */
+    public void writeZpl(ZplWriter zplWriter, RenderContext renderContext) {
+        writeZpl(zplWriter, renderContext, null);
+    }
+
+    /**
+     * Write Zpl code of the label into a writer, omitting the setup commands
+     * (^MM, ^PW, ^LL and ^CF) the printer already received.
+     *
+     * @param zplWriter    writer receiving the code
+     * @param printerState setup of the printer the code is sent to, updated
+     *                     with the setup of this label
+     */
+    public void writeZpl(ZplWriter zplWriter, PrinterState printerState) {
+        writeZpl(zplWriter, getRenderContext(), printerState);
+    }
+
+    /**
+     * Write Zpl code of the label into a writer.
+     *
+     * @param zplWriter     writer receiving the code
+     * @param renderContext printer options to use
+     * @param printerState  setup of the printer the code is sent to, null to
+     *                      write every setup command
+     */
+    public void writeZpl(ZplWriter zplWriter, RenderContext renderContext, PrinterState printerState) {
+        writeZplSetup(zplWriter, renderContext, printerState);
+        if (memoized && zplWriter.acceptsMemoizedCode()) {
+            writeZplBodyMemoized(zplWriter, renderContext);
+        } else {
+            writeZplBody(zplWriter, renderContext, false);
+        }
+    }
+
+    /**
+     * Write the start of the label and its setup commands (the part of the
+     * label depending on the printer state).
+     *
+     * @param zplWriter     writer receiving the code
+     * @param renderContext printer options to use
+     * @param printerState  setup of the printer, null to write every command
+     */
+    void writeZplSetup(ZplWriter zplWriter, RenderContext renderContext, PrinterState printerState) {
+        ZplUtils.zplCommand(zplWriter, "XA").newLine();// Start Label
+        if (printerState == null || printerState.changePrintMode(zebraPrintMode)) {
+            zebraPrintMode.writeZpl(zplWriter);
+        }
 
-        if (widthDots != null) {
+        if (widthDots != null && (printerState == null || printerState.changePrintWidth(widthDots))) {
             // Define width for label
-            zpl.append(ZplUtils.zplCommandSautLigne("PW", widthDots));
+            ZplUtils.zplCommand(zplWriter, "PW", widthDots).newLine();
         }
 
-        if (heightDots != null) {
-            zpl.append(ZplUtils.zplCommandSautLigne("LL", heightDots));
+        if (heightDots != null && (printerState == null || printerState.changeLabelLength(heightDots))) {
+            ZplUtils.zplCommand(zplWriter, "LL", heightDots).newLine();
         }
 
         // Default Font and Size
-        if (printerOptions.getDefaultZebraFont() != null && printerOptions.getDefaultFontSize() != null) {
-            zpl.append(ZplUtils.zplCommandSautLigne("CF",
-                    (Object[]) ZplUtils.extractDotsFromFont(printerOptions.getDefaultZebraFont(),
-                            printerOptions.getDefaultFontSize(), printerOptions.getZebraPPP())));
+        ZebraFont defaultZebraFont = renderContext.getDefaultZebraFont();
+        if (defaultZebraFont != null && renderContext.getDefaultFontSize() != null) {
+            int heightFontDots = ZplUtils.extractHeightDotsFromFont(defaultZebraFont,
+                    renderContext.getDefaultFontSize(), renderContext.getZebraPPP());
+            int widthFontDots = ZplUtils.extractWidthDotsFromFont(defaultZebraFont,
+                    renderContext.getDefaultFontSize(), renderContext.getZebraPPP());
+            if (printerState == null
+                    || printerState.changeDefaultFont(defaultZebraFont, heightFontDots, widthFontDots)) {
+                ZplUtils.zplCommand(zplWriter, "CF", defaultZebraFont.getLetter());
+                ZplUtils.zplVariable(zplWriter, heightFontDots);
+                ZplUtils.zplVariable(zplWriter, widthFontDots).newLine();
+            }
         }
+    }
 
-        for (ZebraElement zebraElement : zebraElements) {
-            zebraElement.setPrinterOptions(printerOptions);
-            zpl.append(zebraElement.getZplCode());
+    /**
+     * Append the body rendered the last time if the label did not change,
+     * render it again (reusing the code of unchanged elements) otherwise.
+     */
+    private void writeZplBodyMemoized(ZplWriter zplWriter, RenderContext renderContext) {
+        long currentVersion = getVersion();
+        byte[] code;
+        synchronized (this) {
+            code = memoVersion == currentVersion && memoRenderContext == renderContext ? memoCode : null;
+        }
+        if (code == null) {
+            ZplWriter labelWriter = new ZplWriter(memoCode != null ? memoCode.length + 64 : 1024);
+            writeZplBody(labelWriter, renderContext, true);
+            code = labelWriter.toByteArray();
+            synchronized (this) {
+                memoCode = code;
+                memoVersion = currentVersion;
+                memoRenderContext = renderContext;
+            }
+        }
+        zplWriter.append(code);
+    }
+
+    /**
+     * Write the elements and the end of the label
+     */
+    private void writeZplBody(ZplWriter zplWriter, RenderContext renderContext, boolean memoizedElements) {
+        // Indexed loop : no iterator allocated per label
+        for (int i = 0; i < zebraElements.size(); i++) {
+            if (memoizedElements) {
+                zebraElements.get(i).writeZplMemoized(zplWriter, renderContext);
+            } else {
+                zebraElements.get(i).writeZpl(zplWriter, renderContext);
+            }
+        }
+        if (quantity != null) {
+            ZplUtils.zplCommand(zplWriter, "PQ", quantity.intValue()).newLine();
+        }
+        ZplUtils.zplCommand(zplWriter, "XZ").newLine();// End Label
+    }
+
+    /**
+     * Version of the label, changed every time the label, its printer options
+     * or one of its elements changes (elements added or removed, setters
+     * called...). Checking it costs one comparison per element.
+     *
+     * @return version of the label
+     */
+    public synchronized long getVersion() {
+        RenderContext currentRenderContext = getRenderContext();
+        boolean changed = versionModCount != modCount || versionRenderContext != currentRenderContext
+                || versionElements.length != zebraElements.size();
+        for (int i = 0; !changed && i < versionElements.length; i++) {
+            ZebraElement zebraElement = zebraElements.get(i);
+            changed = versionElements[i] != zebraElement || versionElementVersions[i] != zebraElement.getVersion();
+        }
+        if (changed) {
+            version++;
+            versionModCount = modCount;
+            versionRenderContext = currentRenderContext;
+            int size = zebraElements.size();
+            if (versionElements.length != size) {
+                versionElements = new ZebraElement[size];
+                versionElementVersions = new int[size];
+            }
+            for (int i = 0; i < size; i++) {
+                versionElements[i] = zebraElements.get(i);
+                versionElementVersions[i] = versionElements[i].getVersion();
+            }
+        }
+        return version;
+    }
+
+    /**
+     * @return true if the rendered code is kept between two renderings
+     */
+    public boolean isMemoized() {
+        return memoized;
+    }
+
+    /**
+     * Keep the rendered code of the label and of its memoizable elements. When
+     * the label is rendered again, the code is reused if the label did not
+     * change (see {@link #getVersion()}), otherwise only the changed elements
+     * are rendered again.
+     *
+     * @param memoized true to keep the rendered code
+     */
+    public ZebraLabel setMemoized(boolean memoized) {
+        this.memoized = memoized;
+        if (!memoized) {
+            synchronized (this) {
+                memoCode = null;
+                memoRenderContext = null;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Structural fingerprint of this label : everything but the field data of
+     * its elements.
+     *
+     * @return a new fingerprint
+     */
+    public LabelFingerprint getFingerprint() {
+        LabelFingerprint fingerprint = new LabelFingerprint();
+        fingerprint.add(widthDots).add(heightDots).add(zebraPrintMode).add(quantity);
+        fingerprint.add(printerOptions.getZebraPPP()).add(printerOptions.getDefaultZebraFont())
+                .add(printerOptions.getDefaultFontSize());
+        fingerprint.add(zebraElements.size());
+        for (int i = 0; i < zebraElements.size(); i++) {
+            zebraElements.get(i).addToFingerprint(fingerprint);
         }
-        zpl.append(ZplUtils.zplCommandSautLigne("XZ"));// End Label
-        return zpl.toString();
+        return fingerprint;
     }
 
     /**
-     * Function use to have a preview of label rendering (not reflects reality).
+     * Render the label as the printer prints it, at its resolution : one pixel
+     * per dot, black dots on a white background. Bar codes are drawn module by
+     * module, boxes and graphics dot by dot; texts use an equivalent font
+     * scaled to the Zebra font size (see {@link AwtLabelRaster}).
      * <p>
-     * Use it just to see disposition on label
+     * The rendering is deterministic : the same label always gives the same
+     * image.
      *
-     * @return Graphics2D
+     * @return image of widthDots x heightDots pixels
      */
     public BufferedImage getImagePreview() {
+        return drawPreview(false).getImage();
+    }
+
+    /**
+     * Render the label as {@link #getImagePreview()}, into a 1 bit per dot
+     * image (TYPE_BYTE_BINARY) : 32 times less memory than ARGB.
+     *
+     * @return black and white image of widthDots x heightDots pixels
+     */
+    public BufferedImage getMonochromePreview() {
+        return drawPreview(true).getImage();
+    }
+
+    /**
+     * Render the label as {@link #getImagePreview()}, into packed dots : the
+     * bitmap can be printed as a graphic field (see
+     * {@link com.finium.core.drivers.zebra.model.element.ZebraGraphicField}).
+     *
+     * @return bitmap of widthDots x heightDots dots
+     */
+    public MonochromeBitmap getBitmapPreview() {
+        return drawPreview(true).toBitmap();
+    }
+
+    /**
+     * Render the label without AWT (see {@link PackedLabelRaster}) : texts are
+     * drawn with built-in bitmap glyphs instead of system fonts, everything
+     * else as {@link #getImagePreview()}. No AWT class is loaded, so it also
+     * runs on a runtime without the java.desktop module.
+     *
+     * @return bitmap of widthDots x heightDots dots
+     */
+    public MonochromeBitmap getHeadlessPreview() {
+        if (widthDots != null && heightDots != null) {
+            PackedLabelRaster raster = new PackedLabelRaster(widthDots, heightDots);
+            drawRaster(raster);
+            return raster.toBitmap();
+        } else {
+            throw new UnsupportedOperationException("Graphics Preview is only available ont label sized");
+        }
+    }
+
+    private AwtLabelRaster drawPreview(boolean packed) {
         if (widthDots != null && heightDots != null) {
-            int widthPx = ZplUtils.convertPointInPixel(widthDots);
-            int heightPx = ZplUtils.convertPointInPixel(heightDots);
-            BufferedImage image = new BufferedImage(widthPx, heightPx, BufferedImage.TYPE_INT_ARGB);
-            Graphics2D graphic = image.createGraphics();
-            graphic.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            graphic.setComposite(AlphaComposite.Src);
-            graphic.fillRect(0, 0, widthPx, heightPx);
-
-            graphic.setColor(Color.BLACK);
-            graphic.setFont(new Font("Arial", Font.BOLD, 11));
-            for (ZebraElement zebraElement : zebraElements) {
-                zebraElement.drawPreviewGraphic(printerOptions, graphic);
+            AwtLabelRaster raster = new AwtLabelRaster(widthDots, heightDots, packed);
+            try {
+                drawRaster(raster);
+            } finally {
+                raster.dispose();
             }
-            return image;
+            return raster;
         } else {
             throw new UnsupportedOperationException("Graphics Preview is only available ont label sized");
         }
     }
+
+    /**
+     * Draw the elements of the label into a raster, with the default font of
+     * the label (^CF).
+     *
+     * @param raster raster of the size of the label
+     */
+    public void drawRaster(LabelRaster raster) {
+        RenderContext renderContext = getRenderContext();
+        ZebraFont defaultZebraFont = renderContext.getDefaultZebraFont();
+        if (defaultZebraFont != null && renderContext.getDefaultFontSize() != null) {
+            int defaultFontSize = renderContext.getDefaultFontSize();
+            raster.setDefaultFieldFont(new FieldFont(defaultZebraFont, ZebraRotation.NORMAL,
+                    ZplUtils.extractHeightDotsFromFont(defaultZebraFont, defaultFontSize, renderContext.getZebraPPP()),
+                    ZplUtils.extractWidthDotsFromFont(defaultZebraFont, defaultFontSize, renderContext.getZebraPPP())));
+        }
+        for (ZebraElement zebraElement : zebraElements) {
+            raster.beginElement();
+            zebraElement.drawRaster(raster, renderContext);
+        }
+    }
 }
@@ -0,0 +1,192 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * CompiledRecallFormat.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.model.element;
+
+import static com.finium.core.drivers.zebra.zpl.command.ZebraCommonCodes.END_FMT;
+import static com.finium.core.drivers.zebra.zpl.command.ZebraCommonCodes.FIELD_DATA;
+import static com.finium.core.drivers.zebra.zpl.command.ZebraCommonCodes.FIELD_SEPERATOR;
+import static com.finium.core.drivers.zebra.zpl.command.ZebraCommonCodes.RECALL_FORMAT;
+import static com.finium.core.drivers.zebra.zpl.command.ZebraCommonCodes.START_FMT;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.finium.core.drivers.zebra.zpl.support.ZplUtils;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
+
+/**
+ * {@link RecallFormat} compiled once into pre-encoded bytes.
+ * <p>
+ * Field numbers are resolved to dense slot indexes when the format is
+ * compiled. Printing a label binds its values into an array indexed by slot
+ * (which can be reused from one label to the next) and copies the
+ * pre-encoded <code>^XF</code> header and <code>^FNn^FD</code> prefixes
+ * around them, without hashing or intermediate strings.
+ *
+ * <pre>
+ * CompiledRecallFormat recallFormat = new CompiledRecallFormat("R:", "SHIP", ".ZPL", "FN1", "FN2");
+ * int product = recallFormat.getSlotIndex("FN1");
+ * String[] values = recallFormat.newValues();
+ * values[product] = "Camera";
+ * recallFormat.writeZpl(zplWriter, values);
+ * </pre>
+ *
+ * A compiled recall format is immutable and can be shared between threads.
+ *
+ * @author Cristian Ramírez
+ */
+public class CompiledRecallFormat {
+
+    private final String[] fieldNumbers;
+
+    /**
+     * Pre-encoded <code>^XA^XFd:o.x</code>
+     */
+    private final byte[] header;
+
+    /**
+     * Pre-encoded <code>^FNn^FD</code>, by slot
+     */
+    private final byte[][] fieldPrefixes;
+
+    /**
+     * Pre-encoded <code>^FS</code>
+     */
+    private final byte[] fieldSeparator;
+
+    /**
+     * Pre-encoded <code>^XZ</code>
+     */
+    private final byte[] footer;
+
+    /**
+     * Compile a recall format.
+     *
+     * @param deviceToStoreImage device storing the format (R:, E:, B: or A:)
+     * @param imageName          name of the format
+     * @param extension          extension of the format (.ZPL)
+     * @param fieldNumbers       field number commands (FN1, FN2...), each
+     *                           becoming the slot of its index
+     */
+    public CompiledRecallFormat(String deviceToStoreImage, String imageName, String extension,
+            String... fieldNumbers) {
+        this(deviceToStoreImage, imageName, extension, Arrays.asList(fieldNumbers));
+    }
+
+    /**
+     * Compile a recall format.
+     *
+     * @param deviceToStoreImage device storing the format (R:, E:, B: or A:)
+     * @param imageName          name of the format
+     * @param extension          extension of the format (.ZPL)
+     * @param fieldNumbers       field number commands (FN1, FN2...), each
+     *                           becoming the slot of its iteration index
+     */
+    public CompiledRecallFormat(String deviceToStoreImage, String imageName, String extension,
+            Collection<String> fieldNumbers) {
+        this.fieldNumbers = fieldNumbers.toArray(new String[fieldNumbers.size()]);
+
+        ZplWriter zplWriter = new ZplWriter(64);
+        ZplUtils.zplCommand(zplWriter, START_FMT.getCode()).newLine();
+        ZplUtils.zplCommand(zplWriter, RECALL_FORMAT.getCode());
+        zplWriter.append(deviceToStoreImage);
+        zplWriter.append(imageName);
+        zplWriter.append(extension);
+        zplWriter.newLine();
+        this.header = zplWriter.toByteArray();
+
+        this.fieldPrefixes = new byte[this.fieldNumbers.length][];
+        for (int i = 0; i < this.fieldNumbers.length; i++) {
+            zplWriter.reset();
+            ZplUtils.zplCommand(zplWriter, this.fieldNumbers[i]);
+            ZplUtils.zplCommand(zplWriter, FIELD_DATA.getCode());
+            fieldPrefixes[i] = zplWriter.toByteArray();
+        }
+
+        zplWriter.reset();
+        ZplUtils.zplCommand(zplWriter, FIELD_SEPERATOR.getCode()).newLine();
+        this.fieldSeparator = zplWriter.toByteArray();
+
+        zplWriter.reset();
+        ZplUtils.zplCommand(zplWriter, END_FMT.getCode()).newLine();
+        this.footer = zplWriter.toByteArray();
+    }
+
+    /**
+     * @return number of slots
+     */
+    public int getSlotCount() {
+        return fieldNumbers.length;
+    }
+
+    /**
+     * @return field numbers, by slot index
+     */
+    public List<String> getFieldNumbers() {
+        return Collections.unmodifiableList(Arrays.asList(fieldNumbers));
+    }
+
+    /**
+     * Resolve a field number to its slot. Meant to be called once, the index
+     * being then used for every label.
+     *
+     * @param fieldNumber field number command (FN1...)
+     * @return index of the slot, -1 if unknown
+     */
+    public int getSlotIndex(String fieldNumber) {
+        for (int i = 0; i < fieldNumbers.length; i++) {
+            if (fieldNumbers[i].equals(fieldNumber)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return an array of values by slot index, to be filled and reused for
+     *         every label
+     */
+    public String[] newValues() {
+        return new String[fieldNumbers.length];
+    }
+
+    /**
+     * Write the recall format with values given by slot index.
+     *
+     * @param zplWriter writer receiving the code
+     * @param values    values by slot index. A missing or null value is not
+     *                  sent, the field keeps the data of the stored format.
+     */
+    public void writeZpl(ZplWriter zplWriter, String... values) {
+        zplWriter.append(header);
+        int count = Math.min(values.length, fieldNumbers.length);
+        for (int i = 0; i < count; i++) {
+            if (values[i] != null) {
+                zplWriter.append(fieldPrefixes[i]);
+                zplWriter.append(values[i]);
+                zplWriter.append(fieldSeparator);
+            }
+        }
+        zplWriter.append(footer);
+    }
+
+    /**
+     * @param values values by slot index
+     * @return Zpl code of the recall format
+     */
+    public String getZplCode(String... values) {
+        ZplWriter zplWriter = new ZplWriter(128);
+        writeZpl(zplWriter, values);
+        return zplWriter.toString();
+    }
+}
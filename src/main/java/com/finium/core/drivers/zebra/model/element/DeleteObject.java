@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * DeleteObject.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.model.element;
+
+import static com.finium.core.drivers.zebra.zpl.command.ZebraCommonCodes.END_FMT;
+import static com.finium.core.drivers.zebra.zpl.command.ZebraCommonCodes.FIELD_SEPERATOR;
+import static com.finium.core.drivers.zebra.zpl.command.ZebraCommonCodes.OBJECT_DELETE;
+import static com.finium.core.drivers.zebra.zpl.command.ZebraCommonCodes.START_FMT;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import com.finium.core.drivers.zebra.zpl.support.ZplUtils;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
+
+/**
+ * This command deletes objects (stored formats, graphics, fonts...) from the
+ * storage of the printer. Objects are given by their full path, the name and
+ * extension may use the <code>*</code> wildcard. <br>
+ * <br>
+ * <b>Format: <br>
+ * <code>^IDd:o.x</b><br>
+ * d = device holding the object. Accepted Values: R:, E:, B:, and A: Default
+ * Value: R: <br>
+ * o = object name. Accepted Values: 1 to 8 alphanumeric characters<br>
+ * x = extension. Accepted Values: any extension conforming to Zebra
+ * conventions<br>
+ * </code>
+ *
+ * @author Cristian Ramírez
+ */
+public class DeleteObject {
+    private final String[] paths;
+
+    /**
+     * @param paths paths of the objects to delete (R:LBL1.ZPL...)
+     */
+    public DeleteObject(String... paths) {
+        this.paths = paths;
+    }
+
+    /**
+     * @param paths paths of the objects to delete (R:LBL1.ZPL...)
+     */
+    public DeleteObject(Collection<String> paths) {
+        this.paths = paths.toArray(new String[paths.size()]);
+    }
+
+    /**
+     * @return the paths of the objects to delete
+     */
+    public String[] getPaths() {
+        return Arrays.copyOf(paths, paths.length);
+    }
+
+    /**
+     * @return
+     */
+    public String getZplCode() {
+        ZplWriter zplWriter = new ZplWriter(64);
+        writeZpl(zplWriter);
+        return zplWriter.toString();
+    }
+
+    /**
+     * Write one format deleting every object
+     *
+     * @param zplWriter writer receiving the code
+     */
+    public void writeZpl(ZplWriter zplWriter) {
+        ZplUtils.zplCommand(zplWriter, START_FMT.getCode()).newLine();
+        for (String path : paths) {
+            ZplUtils.zplCommand(zplWriter, OBJECT_DELETE.getCode());
+            zplWriter.append(path);
+            ZplUtils.zplCommand(zplWriter, FIELD_SEPERATOR.getCode()).newLine();
+        }
+        ZplUtils.zplCommand(zplWriter, END_FMT.getCode()).newLine();
+    }
+}
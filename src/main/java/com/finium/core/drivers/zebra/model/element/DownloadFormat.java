@@ -15,8 +15,13 @@ import static com.finium.core.drivers.zebra.zpl.command.ZebraCommonCodes.END_FMT
 import static com.finium.core.drivers.zebra.zpl.command.ZebraCommonCodes.FIELD_SEPERATOR;
 import static com.finium.core.drivers.zebra.zpl.command.ZebraCommonCodes.START_FMT;
 
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import com.finium.core.drivers.zebra.model.LabelFingerprint;
 import com.finium.core.drivers.zebra.model.ZebraElement;
 import com.finium.core.drivers.zebra.zpl.support.ZplUtils;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
 
 /**
  * This command saves <code>ZPL II</code> format commands as text strings to be
@@ -54,7 +59,7 @@ public class DownloadFormat extends ZebraElement {
      *
      */
     public DownloadFormat(String imageName, String text) {
-        if (imageName != null && imageName.trim().isEmpty()) {
+        if (imageName != null && !imageName.trim().isEmpty()) {
             this.imageName = imageName.trim();
         }
         this.text = text;
@@ -72,6 +77,7 @@ public class DownloadFormat extends ZebraElement {
      */
     public void setDeviceToStoreImage(String deviceToStoreImage) {
         this.deviceToStoreImage = deviceToStoreImage;
+        invalidate();
     }
 
     /**
@@ -85,11 +91,12 @@ public class DownloadFormat extends ZebraElement {
      * @param imageName the imageName to set
      */
     public void setImageName(String imageName) {
-        if (imageName != null && imageName.trim().isEmpty()) {
+        if (imageName != null && !imageName.trim().isEmpty()) {
             this.imageName = imageName.trim();
         } else {
             this.imageName = "UNKNOWN";
         }
+        invalidate();
     }
 
     /**
@@ -104,6 +111,14 @@ public class DownloadFormat extends ZebraElement {
      */
     public void setExtension(String extension) {
         this.extension = extension;
+        invalidate();
+    }
+
+    /**
+     * @return path of the format on the printer (R:UNKNOWN.ZPL)
+     */
+    public String getPath() {
+        return deviceToStoreImage + imageName + extension;
     }
 
     /**
@@ -118,6 +133,42 @@ public class DownloadFormat extends ZebraElement {
      */
     public void setText(String text) {
         this.text = text;
+        invalidate();
+    }
+
+    /**
+     * Graphics recalled by the format (<code>^XGd:o.x</code>), which must stay
+     * on the printer as long as the format is stored. The device defaults to
+     * R: and the extension to .GRF, as on the printer.
+     *
+     * @return paths of the recalled graphics (R:NAME.GRF)
+     */
+    public Set<String> getGraphicPaths() {
+        Set<String> graphicPaths = new LinkedHashSet<String>();
+        if (text == null) {
+            return graphicPaths;
+        }
+        int index = text.indexOf("^XG");
+        while (index >= 0) {
+            int start = index + 3;
+            int end = start;
+            while (end < text.length() && text.charAt(end) != ',' && text.charAt(end) != '^'
+                    && !Character.isWhitespace(text.charAt(end))) {
+                end++;
+            }
+            if (end > start) {
+                String path = text.substring(start, end);
+                if (path.indexOf(':') < 0) {
+                    path = "R:" + path;
+                }
+                if (path.indexOf('.') < 0) {
+                    path += ".GRF";
+                }
+                graphicPaths.add(path);
+            }
+            index = text.indexOf("^XG", end);
+        }
+        return graphicPaths;
     }
 
     /**
@@ -125,16 +176,39 @@ public class DownloadFormat extends ZebraElement {
      */
     @Override
     public String getZplCode() {
-        StringBuilder zpl = new StringBuilder(ZplUtils.zplCommandSautLigne(START_FMT.name()));
-        zpl.append(ZplUtils.zplCommand(DOWNLOAD_FMT.getCode()));
-        zpl.append(this.deviceToStoreImage);
-        zpl.append(this.imageName);
-        zpl.append(this.extension);
-        zpl.append(ZplUtils.zplCommandSautLigne(FIELD_SEPERATOR.getCode()));
-        zpl.append(this.text);
-        zpl.append("\n");
-        zpl.append(ZplUtils.zplCommandSautLigne(END_FMT.getCode()));
-
-        return zpl.toString();
+        return renderZplCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isMemoizable() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void addToFingerprint(LabelFingerprint fingerprint) {
+        addPositionToFingerprint(fingerprint);
+        fingerprint.add(deviceToStoreImage).add(imageName).add(extension).add(text);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeZpl(ZplWriter zplWriter) {
+        ZplUtils.zplCommand(zplWriter, START_FMT.getCode()).newLine();
+        ZplUtils.zplCommand(zplWriter, DOWNLOAD_FMT.getCode());
+        zplWriter.append(this.deviceToStoreImage);
+        zplWriter.append(this.imageName);
+        zplWriter.append(this.extension);
+        ZplUtils.zplCommand(zplWriter, FIELD_SEPERATOR.getCode()).newLine();
+        zplWriter.append(this.text);
+        zplWriter.newLine();
+        ZplUtils.zplCommand(zplWriter, END_FMT.getCode()).newLine();
     }
 }
@@ -0,0 +1,160 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * DownloadGraphic.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.model.element;
+
+import com.finium.core.drivers.zebra.model.FormatRegistry;
+import com.finium.core.drivers.zebra.model.MonochromeBitmap;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraGraphicCompression;
+import com.finium.core.drivers.zebra.zpl.support.ZplUtils;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
+
+/**
+ * This command downloads a graphic image to the storage of the printer, to be
+ * printed by any later label with <code>^XG</code> (see
+ * {@link ZebraRecallGraphic}). <br>
+ * <br>
+ * The name of the graphic is derived from the content hash of its bitmap, so a
+ * graphic is downloaded once whatever the label it comes from. <br>
+ * <br>
+ * <b>Format: <br>
+ * <code>~DGd:o.x,t,w,data<br>
+ * </b> <br>
+ * d = device to store image. Accepted Values: R:, E:, B:, and A: Default Value:
+ * R: <br>
+ * o = image name. Accepted Values: 1 to 8 alphanumeric characters<br>
+ * x = extension. Fixed Value: .GRF<br>
+ * t = total number of bytes in graphic<br>
+ * w = number of bytes per row<br>
+ * data = ASCII hexadecimal string defining image (or compressed)<br>
+ * </code>
+ *
+ * @author Cristian Ramírez
+ */
+public class DownloadGraphic {
+    private String deviceToStoreImage = "R:";
+    private String imageName;
+    private String extension = ".GRF";
+    private MonochromeBitmap bitmap;
+    private ZebraGraphicCompression compression;
+
+    /**
+     * @param bitmap graphic to download, named from its content hash
+     */
+    public DownloadGraphic(MonochromeBitmap bitmap) {
+        this.bitmap = bitmap;
+        this.imageName = imageNameOf(bitmap);
+    }
+
+    /**
+     * @param bitmap graphic
+     * @return name of the graphic : 8 base 36 digits of its content hash
+     */
+    public static String imageNameOf(MonochromeBitmap bitmap) {
+        return FormatRegistry.objectName(bitmap.getContentHash());
+    }
+
+    /**
+     * @return the deviceToStoreImage
+     */
+    public String getDeviceToStoreImage() {
+        return deviceToStoreImage;
+    }
+
+    /**
+     * @param deviceToStoreImage the deviceToStoreImage to set
+     */
+    public void setDeviceToStoreImage(String deviceToStoreImage) {
+        this.deviceToStoreImage = deviceToStoreImage;
+    }
+
+    /**
+     * @return the imageName
+     */
+    public String getImageName() {
+        return imageName;
+    }
+
+    /**
+     * @return the extension
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * @return path of the graphic on the printer (R:NAME.GRF)
+     */
+    public String getPath() {
+        return deviceToStoreImage + imageName + extension;
+    }
+
+    /**
+     * @return the bitmap
+     */
+    public MonochromeBitmap getBitmap() {
+        return bitmap;
+    }
+
+    /**
+     * @return the compression, null if the smallest encoding is used
+     */
+    public ZebraGraphicCompression getCompression() {
+        return compression;
+    }
+
+    /**
+     * @param compression the compression to use, null for the smallest
+     *                    encoding
+     */
+    public void setCompression(ZebraGraphicCompression compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * @return the compression used to write the data
+     */
+    private ZebraGraphicCompression getEffectiveCompression() {
+        return compression != null ? compression : bitmap.getSmallestCompression();
+    }
+
+    /**
+     * @return approximate size of the download, in bytes
+     */
+    public int getSize() {
+        return bitmap.getEncodedSize(getEffectiveCompression()) + 32;
+    }
+
+    /**
+     * @return
+     */
+    public String getZplCode() {
+        ZplWriter zplWriter = new ZplWriter(getSize());
+        writeZpl(zplWriter);
+        return zplWriter.toString();
+    }
+
+    /**
+     * Write the download command into a writer
+     *
+     * @param zplWriter writer receiving the code
+     */
+    public void writeZpl(ZplWriter zplWriter) {
+        zplWriter.append("~DG");
+        zplWriter.append(this.deviceToStoreImage);
+        zplWriter.append(this.imageName);
+        zplWriter.append(this.extension);
+        ZplUtils.zplVariable(zplWriter, bitmap.getByteCount());
+        ZplUtils.zplVariable(zplWriter, bitmap.getBytesPerRow());
+        zplWriter.append(',');
+        bitmap.writeData(zplWriter, getEffectiveCompression());
+        zplWriter.newLine();
+    }
+}
@@ -19,6 +19,7 @@ import static com.finium.core.drivers.zebra.zpl.command.ZebraCommonCodes.START_F
 import java.util.Map;
 
 import com.finium.core.drivers.zebra.zpl.support.ZplUtils;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
 
 /**
  * This command recalls a stored format to be merged with variable data. There
@@ -54,7 +55,7 @@ public class RecallFormat {
      *
      */
     public RecallFormat(String imageName) {
-        if (imageName != null && imageName.trim().isEmpty()) {
+        if (imageName != null && !imageName.trim().isEmpty()) {
             this.imageName = imageName.trim();
         }
     }
@@ -84,7 +85,7 @@ public class RecallFormat {
      * @param imageName the imageName to set
      */
     public void setImageName(String imageName) {
-        if (imageName != null && imageName.trim().isEmpty()) {
+        if (imageName != null && !imageName.trim().isEmpty()) {
             this.imageName = imageName.trim();
         } else {
             this.imageName = "UNKNOWN";
@@ -119,25 +120,44 @@ public class RecallFormat {
         this.fieldNumbers = fieldNumbers;
     }
 
+    /**
+     * Compile this recall format, its field numbers becoming slots in the
+     * iteration order of the map.
+     *
+     * @return the compiled recall format
+     */
+    public CompiledRecallFormat compile() {
+        return new CompiledRecallFormat(deviceToStoreImage, imageName, extension, fieldNumbers.keySet());
+    }
+
     /**
      * @return
      */
     public String getZplCode() {
-        StringBuilder zpl = new StringBuilder(ZplUtils.zplCommandSautLigne(START_FMT.getCode()));
-        zpl.append(ZplUtils.zplCommand(RECALL_FORMAT.getCode()));
-        zpl.append(this.deviceToStoreImage);
-        zpl.append(this.imageName);
-        zpl.append(this.extension);
-        zpl.append("\n");
+        ZplWriter zplWriter = new ZplWriter(128);
+        writeZpl(zplWriter);
+        return zplWriter.toString();
+    }
+
+    /**
+     * Write the recall format into a writer
+     *
+     * @param zplWriter writer receiving the code
+     */
+    public void writeZpl(ZplWriter zplWriter) {
+        ZplUtils.zplCommand(zplWriter, START_FMT.getCode()).newLine();
+        ZplUtils.zplCommand(zplWriter, RECALL_FORMAT.getCode());
+        zplWriter.append(this.deviceToStoreImage);
+        zplWriter.append(this.imageName);
+        zplWriter.append(this.extension);
+        zplWriter.newLine();
 
         fieldNumbers.forEach((key, value) -> {
-            zpl.append(ZplUtils.zplCommand(key));
-            zpl.append(ZplUtils.zplCommand(FIELD_DATA.getCode()));
-            zpl.append(value);
-            zpl.append(ZplUtils.zplCommandSautLigne(FIELD_SEPERATOR.getCode()));
+            ZplUtils.zplCommand(zplWriter, key);
+            ZplUtils.zplCommand(zplWriter, FIELD_DATA.getCode());
+            zplWriter.append(value);
+            ZplUtils.zplCommand(zplWriter, FIELD_SEPERATOR.getCode()).newLine();
         });
-        zpl.append(ZplUtils.zplCommandSautLigne(END_FMT.getCode()));
-
-        return zpl.toString();
+        ZplUtils.zplCommand(zplWriter, END_FMT.getCode()).newLine();
     }
 }
@@ -10,10 +10,15 @@
  */
 package com.finium.core.drivers.zebra.model.element;
 
+import com.finium.core.drivers.zebra.model.FieldFont;
+import com.finium.core.drivers.zebra.model.LabelFingerprint;
+import com.finium.core.drivers.zebra.model.LabelRaster;
+import com.finium.core.drivers.zebra.model.RenderContext;
 import com.finium.core.drivers.zebra.model.ZebraElement;
 import com.finium.core.drivers.zebra.zpl.enums.ZebraFont;
 import com.finium.core.drivers.zebra.zpl.enums.ZebraRotation;
 import com.finium.core.drivers.zebra.zpl.support.ZplUtils;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
 
 /**
  * Element to set a font and size (explain in dot).
@@ -80,7 +85,41 @@ public class ZebraAFontElement extends ZebraElement {
      */
     @Override
     public String getZplCode() {
-        return ZplUtils.zplCommandSautLigne("A", zebraFont.getLetter(), zebraRotation.getLetter(), dotHeigth, dotsWidth)
-                .toString();
+        return renderZplCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isMemoizable() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void addToFingerprint(LabelFingerprint fingerprint) {
+        addPositionToFingerprint(fingerprint);
+        fingerprint.add(zebraFont).add(zebraRotation).add(dotHeigth).add(dotsWidth);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeZpl(ZplWriter zplWriter) {
+        ZplUtils.zplCommand(zplWriter, "A", zebraFont.getLetter()).append(zebraRotation.getLetter());
+        ZplUtils.zplVariable(zplWriter, dotHeigth);
+        ZplUtils.zplVariable(zplWriter, dotsWidth).newLine();
+    }
+
+    /**
+     * Set the font of the next element, nothing is printed.
+     */
+    @Override
+    public void drawRaster(LabelRaster raster, RenderContext renderContext) {
+        raster.setNextFieldFont(new FieldFont(zebraFont, zebraRotation, dotHeigth, dotsWidth));
     }
 }
@@ -14,10 +14,17 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics2D;
 
+import com.finium.core.drivers.zebra.model.FieldFont;
+import com.finium.core.drivers.zebra.model.LabelFingerprint;
+import com.finium.core.drivers.zebra.model.LabelRaster;
 import com.finium.core.drivers.zebra.model.PrinterOptions;
+import com.finium.core.drivers.zebra.model.RenderContext;
 import com.finium.core.drivers.zebra.model.ZebraElement;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraFont;
 import com.finium.core.drivers.zebra.zpl.enums.ZebraRotation;
+import com.finium.core.drivers.zebra.zpl.support.LinearSymbol;
 import com.finium.core.drivers.zebra.zpl.support.ZplUtils;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
 
 /**
  * Abstract Zebra element to represent a bar code instruction
@@ -28,6 +35,31 @@ import com.finium.core.drivers.zebra.zpl.support.ZplUtils;
  */
 public abstract class ZebraBarCode extends ZebraElement {
 
+    /**
+     * Module width of the printer when ^BY is not written, in dots
+     */
+    public static final int DEFAULT_MODULE_WIDTH = 2;
+
+    /**
+     * Wide bar ratio of the printer when it is not written
+     */
+    public static final int DEFAULT_WIDE_BAR_RATIO = 3;
+
+    /**
+     * Largest module width accepted by ^BY, in dots
+     */
+    public static final int MAX_MODULE_WIDTH = 10;
+
+    /**
+     * Bar height of the printer when ^BY is not written, in dots
+     */
+    public static final int DEFAULT_BAR_HEIGHT = 10;
+
+    /**
+     * Dots between the bars and the interpretation line
+     */
+    private static final int INTERPRETATION_GAP = 2;
+
     private Integer barCodeHeigth;
 
     private Integer moduleWidth;
@@ -146,6 +178,64 @@ public abstract class ZebraBarCode extends ZebraElement {
         return zpl;
     }
 
+    /**
+     * Write position and ^BY command (if module width is defined) common to
+     * all bar codes.
+     *
+     * @param zplWriter writer receiving the code
+     */
+    protected void writeStartZplCode(ZplWriter zplWriter) {
+        writeZplCodePosition(zplWriter);
+        zplWriter.newLine();
+        if (moduleWidth != null) {
+            ZplUtils.zplCommand(zplWriter, "BY", moduleWidth);
+            ZplUtils.zplVariable(zplWriter, wideBarRatio);
+            ZplUtils.zplVariable(zplWriter, barCodeHeigth).newLine();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getZplCode() {
+        return renderZplCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasFieldData() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getFieldData() {
+        return text;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isMemoizable() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void addToFingerprint(LabelFingerprint fingerprint) {
+        addPositionToFingerprint(fingerprint);
+        fingerprint.add(barCodeHeigth).add(moduleWidth).add(wideBarRatio).add(zebraRotation);
+        fingerprint.add(showTextInterpretation).add(showTextInterpretationAbove);
+    }
+
     /**
      * Used to draw label preview. This method should be overloader by child
      * class.
@@ -167,13 +257,176 @@ public abstract class ZebraBarCode extends ZebraElement {
 
         Font font = new Font("Arial", Font.BOLD, barCodeHeigth / 2);
 
-        graphic.drawRect(left, top,
-                ZplUtils.convertPointInPixel(Math.round(moduleWidth * wideBarRatio * 9 * text.length())),
+        Integer widthDots;
+        try {
+            widthDots = getWidthDots();
+        } catch (IllegalArgumentException e) {
+            // Data the symbology can not encode, the printer will not print it
+            widthDots = null;
+        }
+        if (widthDots == null) {
+            widthDots = Math.round(getEffectiveModuleWidth() * getEffectiveWideBarRatio() * 9 * text.length());
+        }
+        graphic.drawRect(left, top, ZplUtils.convertPointInPixel(widthDots),
                 ZplUtils.convertPointInPixel(barCodeHeigth));
 
         drawTopString(graphic, font, text, left, top);
     }
 
+    /**
+     * Draw the bars from the bottom left corner of the bars (^FT), and the
+     * interpretation line in font A magnified by the module width. Rotated bar
+     * codes are drawn in the same box, turned around its top left corner.
+     */
+    @Override
+    public void drawRaster(LabelRaster raster, RenderContext renderContext) {
+        LinearSymbol symbol;
+        try {
+            symbol = getSymbol();
+        } catch (IllegalArgumentException e) {
+            // Data the symbology can not encode, the printer will not print it
+            return;
+        }
+        if (symbol == null) {
+            return;
+        }
+        int effectiveModuleWidth = getEffectiveModuleWidth();
+        int effectiveWideBarRatio = getEffectiveWideBarRatio();
+        int barHeight = barCodeHeigth != null ? barCodeHeigth : DEFAULT_BAR_HEIGHT;
+        int symbolWidth = symbol.getWidthDots(effectiveModuleWidth, effectiveWideBarRatio);
+        FieldFont font = new FieldFont(ZebraFont.ZEBRA_A, zebraRotation, 0, 5 * effectiveModuleWidth);
+        int textHeight = showTextInterpretation ? font.getHeightDots() + INTERPRETATION_GAP : 0;
+        int barTop = showTextInterpretationAbove ? textHeight : 0;
+        int boxHeight = barHeight + textHeight;
+        boolean turned = zebraRotation == ZebraRotation.ROTATE_90
+                || zebraRotation == ZebraRotation.READ_FROM_BOTTOM;
+        int left = positionX != null ? positionX : 0;
+        int top = (positionY != null ? positionY : 0) - (turned ? symbolWidth : barTop + barHeight);
+
+        int x = 0;
+        for (int i = 0; i < symbol.getElementCount(); i++) {
+            int elementWidth = symbol.getElementWidthDots(i, effectiveModuleWidth, effectiveWideBarRatio);
+            if (symbol.isBar(i)) {
+                fillRotated(raster, left, top, symbolWidth, boxHeight, x, barTop, elementWidth, barHeight);
+            }
+            x += elementWidth;
+        }
+        if (showTextInterpretation) {
+            String interpretation = getInterpretationLine();
+            int textX = (symbolWidth - raster.getTextWidth(interpretation, font)) / 2;
+            int baseline = showTextInterpretationAbove ? font.getHeightDots() : boxHeight;
+            switch (zebraRotation) {
+            case ROTATE_90:
+                raster.drawText(interpretation, left + boxHeight - baseline, top + textX, font);
+                break;
+            case INVERTED:
+                raster.drawText(interpretation, left + symbolWidth - textX, top + boxHeight - baseline, font);
+                break;
+            case READ_FROM_BOTTOM:
+                raster.drawText(interpretation, left + baseline, top + symbolWidth - textX, font);
+                break;
+            default:
+                raster.drawText(interpretation, left + textX, top + baseline, font);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Fill a rectangle of the bar code box, turned with the bar code
+     */
+    private void fillRotated(LabelRaster raster, int left, int top, int boxWidth, int boxHeight, int x, int y,
+                             int width, int height) {
+        switch (zebraRotation) {
+        case ROTATE_90:
+            raster.fillRect(left + boxHeight - y - height, top + x, height, width, true);
+            break;
+        case INVERTED:
+            raster.fillRect(left + boxWidth - x - width, top + boxHeight - y - height, width, height, true);
+            break;
+        case READ_FROM_BOTTOM:
+            raster.fillRect(left + y, top + boxWidth - x - width, height, width, true);
+            break;
+        default:
+            raster.fillRect(left + x, top + y, width, height, true);
+            break;
+        }
+    }
+
+    /**
+     * @return text printed with the bars
+     */
+    protected String getInterpretationLine() {
+        return text;
+    }
+
+    /**
+     * Bars and spaces of the printed symbol, to size the bar code before
+     * printing it. Symbols are cached (see
+     * {@link com.finium.core.drivers.zebra.model.BarCodeSymbolCache}).
+     *
+     * @return the symbol, null if the geometry of this symbology is not known
+     */
+    public LinearSymbol getSymbol() {
+        return null;
+    }
+
+    /**
+     * Width of the printed symbol, without quiet zones. When no module width is
+     * set, the default module width of the printer is assumed (a previous ^BY
+     * of the label may change it).
+     *
+     * @return width of the symbol in dots, null if its geometry is not known
+     */
+    public Integer getWidthDots() {
+        LinearSymbol symbol = getSymbol();
+        if (symbol == null) {
+            return null;
+        }
+        return symbol.getWidthDots(getEffectiveModuleWidth(), getEffectiveWideBarRatio());
+    }
+
+    /**
+     * @param maxWidthDots available width, in dots
+     * @return true if the symbol fits in the width, false if it does not or if
+     *         its geometry is not known
+     */
+    public boolean fitsWidth(int maxWidthDots) {
+        Integer widthDots = getWidthDots();
+        return widthDots != null && widthDots <= maxWidthDots;
+    }
+
+    /**
+     * Select the largest module width with which the symbol fits in a width :
+     * wider modules scan better.
+     *
+     * @param maxWidthDots available width, in dots
+     * @return true if a module width was selected, false if the symbol does not
+     *         fit with 1 dot modules or its geometry is not known (the module
+     *         width is then unchanged)
+     */
+    public boolean fitModuleWidth(int maxWidthDots) {
+        LinearSymbol symbol = getSymbol();
+        if (symbol == null) {
+            return false;
+        }
+        int moduleCount = symbol.getModuleCount(getEffectiveWideBarRatio());
+        int fittingWidth = Math.min(maxWidthDots / moduleCount, MAX_MODULE_WIDTH);
+        if (fittingWidth < 1) {
+            return false;
+        }
+        setBarCodeWidth(fittingWidth);
+        return true;
+    }
+
+    protected int getEffectiveModuleWidth() {
+        return moduleWidth != null ? moduleWidth : DEFAULT_MODULE_WIDTH;
+    }
+
+    protected int getEffectiveWideBarRatio() {
+        return wideBarRatio != null ? wideBarRatio : DEFAULT_WIDE_BAR_RATIO;
+    }
+
     public Integer getBarCodeWidth() {
         return moduleWidth;
     }
@@ -204,36 +457,43 @@ public abstract class ZebraBarCode extends ZebraElement {
 
     public ZebraBarCode setBarCodeWidth(Integer barCodeWidth) {
         this.moduleWidth = barCodeWidth;
+        invalidate();
         return this;
     }
 
     public ZebraBarCode setBarCodeHeigth(Integer barCodeHeigth) {
         this.barCodeHeigth = barCodeHeigth;
+        invalidate();
         return this;
     }
 
     public ZebraBarCode setWideBarRatio(Integer wideBarRatio) {
         this.wideBarRatio = wideBarRatio;
+        invalidate();
         return this;
     }
 
     public ZebraBarCode setZebraRotation(ZebraRotation zebraRotation) {
         this.zebraRotation = zebraRotation;
+        invalidate();
         return this;
     }
 
     public ZebraBarCode setShowTextInterpretation(boolean showTextInterpretation) {
         this.showTextInterpretation = showTextInterpretation;
+        invalidate();
         return this;
     }
 
     public ZebraBarCode setShowTextInterpretationAbove(boolean showTextInterpretationAbove) {
         this.showTextInterpretationAbove = showTextInterpretationAbove;
+        invalidate();
         return this;
     }
 
     public ZebraBarCode setText(String text) {
         this.text = text;
+        invalidate();
         return this;
     }
 
@@ -10,22 +10,39 @@
  */
 package com.finium.core.drivers.zebra.model.element;
 
-import static com.finium.core.drivers.zebra.zpl.command.ZebraCommonCodes.FIELD_DATA;
 import static com.finium.core.drivers.zebra.zpl.command.ZebraCommonCodes.FIELD_SEPERATOR;
 
+import com.finium.core.drivers.zebra.model.BarCodeSymbolCache;
+import com.finium.core.drivers.zebra.model.LabelFingerprint;
+import com.finium.core.drivers.zebra.zpl.support.Code128SubsetOptimizer;
+import com.finium.core.drivers.zebra.zpl.support.LinearSymbol;
 import com.finium.core.drivers.zebra.zpl.support.ZplUtils;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
 
 /**
  * Element to create a bar code 128
  * 
  * Zpl command : ^BC
  * 
+ * When subsets are optimized, the data is written with the subsets giving the
+ * narrowest symbol (see {@link Code128SubsetOptimizer}). The symbol gets
+ * narrower, so it is not done by default : labels laid out around the width of
+ * their bar codes keep their layout.
+ * 
  * @author Venkaiah Chowdary Koneru
  */
 public class ZebraBarCode128 extends ZebraBarCode {
 
     private boolean checkDigit43 = false;
 
+    private boolean subsetOptimized = false;
+
+    /**
+     * Text optimized last with its field data (null if none), published as a
+     * whole so labels rendered by several threads never mix two texts
+     */
+    private volatile OptimizedData optimizedData;
+
     public ZebraBarCode128(int positionX, int positionY, String text) {
 	super(positionX, positionY, text);
     }
@@ -56,14 +73,49 @@ public class ZebraBarCode128 extends ZebraBarCode {
     }
 
     @Override
-    public String getZplCode() {
-	StringBuilder zpl = getStartZplCodeBuilder();
-	zpl.append(ZplUtils.zplCommandSautLigne("BC", getZebraRotation().getLetter(), getBarCodeHeigth(),
-		isShowTextInterpretation(), isShowTextInterpretationAbove(), checkDigit43));
-	zpl.append(ZplUtils.zplCommand(FIELD_DATA.name()));
-	zpl.append(getText());
-	zpl.append(ZplUtils.zplCommandSautLigne(FIELD_SEPERATOR.name()));
-	return zpl.toString();
+    public void writeZpl(ZplWriter zplWriter) {
+	writeStartZplCode(zplWriter);
+	ZplUtils.zplCommand(zplWriter, "BC", getZebraRotation().getLetter());
+	ZplUtils.zplVariable(zplWriter, getBarCodeHeigth());
+	ZplUtils.zplVariable(zplWriter, isShowTextInterpretation());
+	ZplUtils.zplVariable(zplWriter, isShowTextInterpretationAbove());
+	ZplUtils.zplVariable(zplWriter, checkDigit43).newLine();
+	zplWriter.writeFieldData(fieldName, null, getFieldData(), false);
+	ZplUtils.zplCommand(zplWriter, FIELD_SEPERATOR.getCode()).newLine();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void addToFingerprint(LabelFingerprint fingerprint) {
+	super.addToFingerprint(fingerprint);
+	fingerprint.add(checkDigit43).add(subsetOptimized);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LinearSymbol getSymbol() {
+	return BarCodeSymbolCache.DEFAULT.getCode128(getFieldData());
+    }
+
+    /**
+     * @return the text, with subset invocation codes if optimized
+     */
+    @Override
+    public String getFieldData() {
+	String text = getText();
+	if (!subsetOptimized) {
+	    return text;
+	}
+	OptimizedData current = optimizedData;
+	if (current == null || current.text != text) {
+	    current = new OptimizedData(text, Code128SubsetOptimizer.optimize(text));
+	    optimizedData = current;
+	}
+	return current.fieldData;
     }
 
     public boolean isCheckDigit43() {
@@ -72,7 +124,38 @@ public class ZebraBarCode128 extends ZebraBarCode {
 
     public ZebraBarCode128 setCheckDigit43(boolean checkDigit43) {
 	this.checkDigit43 = checkDigit43;
+	invalidate();
+	return this;
+    }
+
+    public boolean isSubsetOptimized() {
+	return subsetOptimized;
+    }
+
+    /**
+     * @param subsetOptimized
+     *            true to write the text with the subsets giving the narrowest
+     *            symbol, false to write it as is (printer default subset, or
+     *            invocation codes written by the caller)
+     */
+    public ZebraBarCode128 setSubsetOptimized(boolean subsetOptimized) {
+	this.subsetOptimized = subsetOptimized;
+	invalidate();
 	return this;
     }
 
+    /**
+     * Optimized field data of a text (immutable)
+     */
+    private static final class OptimizedData {
+
+	private final String text;
+
+	private final String fieldData;
+
+	private OptimizedData(String text, String fieldData) {
+	    this.text = text;
+	    this.fieldData = fieldData;
+	}
+    }
 }
@@ -10,8 +10,11 @@
  */
 package com.finium.core.drivers.zebra.model.element;
 
+import com.finium.core.drivers.zebra.model.BarCodeSymbolCache;
+import com.finium.core.drivers.zebra.model.LabelFingerprint;
+import com.finium.core.drivers.zebra.zpl.support.LinearSymbol;
 import com.finium.core.drivers.zebra.zpl.support.ZplUtils;
-import static com.finium.core.drivers.zebra.zpl.command.ZebraCommonCodes.FIELD_DATA;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
 import static com.finium.core.drivers.zebra.zpl.command.ZebraCommonCodes.FIELD_SEPERATOR;
 
 /**
@@ -46,14 +49,43 @@ public class ZebraBarCode39 extends ZebraBarCode {
     }
 
     @Override
-    public String getZplCode() {
-        StringBuilder zpl = getStartZplCodeBuilder();
-        zpl.append(ZplUtils.zplCommandSautLigne("B3", getZebraRotation(), getBarCodeHeigth(), checkDigit43,
-                isShowTextInterpretation(), isShowTextInterpretationAbove()));
-        zpl.append(ZplUtils.zplCommandSautLigne(FIELD_DATA.getCode()));
-        zpl.append(getText());
-        zpl.append(ZplUtils.zplCommandSautLigne(FIELD_SEPERATOR.getCode()));
-        return zpl.toString();
+    public void writeZpl(ZplWriter zplWriter) {
+        writeStartZplCode(zplWriter);
+        ZplUtils.zplCommand(zplWriter, "B3", getZebraRotation().getLetter());
+        ZplUtils.zplVariable(zplWriter, checkDigit43);
+        ZplUtils.zplVariable(zplWriter, getBarCodeHeigth());
+        ZplUtils.zplVariable(zplWriter, isShowTextInterpretation());
+        ZplUtils.zplVariable(zplWriter, isShowTextInterpretationAbove()).newLine();
+        zplWriter.writeFieldData(fieldName, null, getText(), false);
+        ZplUtils.zplCommand(zplWriter, FIELD_SEPERATOR.getCode()).newLine();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void addToFingerprint(LabelFingerprint fingerprint) {
+        super.addToFingerprint(fingerprint);
+        fingerprint.add(checkDigit43);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException if a character is not allowed in Code 39
+     */
+    @Override
+    public LinearSymbol getSymbol() {
+        return BarCodeSymbolCache.DEFAULT.getCode39(getText(), checkDigit43);
+    }
+
+    /**
+     * The printer frames the interpretation line with the start and stop
+     * characters
+     */
+    @Override
+    protected String getInterpretationLine() {
+        return "*" + getText() + "*";
     }
 
     public boolean isCheckDigit43() {
@@ -62,6 +94,7 @@ public class ZebraBarCode39 extends ZebraBarCode {
 
     public ZebraBarCode39 setCheckDigit43(boolean checkDigit43) {
         this.checkDigit43 = checkDigit43;
+        invalidate();
         return this;
     }
 
@@ -16,6 +16,7 @@ import com.finium.core.drivers.zebra.model.ZebraElement;
 import com.finium.core.drivers.zebra.zpl.enums.ZebraFont;
 import com.finium.core.drivers.zebra.zpl.enums.ZebraRotation;
 import com.finium.core.drivers.zebra.zpl.support.ZplUtils;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
 
 public class ZebraCustomCommand {
     private String command;
@@ -66,13 +67,17 @@ public class ZebraCustomCommand {
     }
 
     public String getZplCode() {
-        StringBuilder zpl = new StringBuilder(ZplUtils.zplCommand(FIELD_ORIGIN.getCode()));
-        zpl.append(posX);
-        zpl.append(",");
-        zpl.append(posY);
-        zpl.append(",");
-        zpl.append(posZ);
+        ZplWriter zplWriter = new ZplWriter(32);
+        writeZpl(zplWriter);
+        return zplWriter.toString();
+    }
 
-        return zpl.toString();
+    public void writeZpl(ZplWriter zplWriter) {
+        ZplUtils.zplCommand(zplWriter, FIELD_ORIGIN.getCode());
+        zplWriter.append(String.valueOf(posX));
+        zplWriter.append(',');
+        zplWriter.append(String.valueOf(posY));
+        zplWriter.append(',');
+        zplWriter.append(String.valueOf(posZ));
     }
 }
\ No newline at end of file
@@ -10,8 +10,12 @@
  */
 package com.finium.core.drivers.zebra.model.element;
 
+import com.finium.core.drivers.zebra.model.LabelFingerprint;
+import com.finium.core.drivers.zebra.model.LabelRaster;
+import com.finium.core.drivers.zebra.model.RenderContext;
 import com.finium.core.drivers.zebra.model.ZebraElement;
 import com.finium.core.drivers.zebra.zpl.support.ZplUtils;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
 
 /**
  * Zebra element to create a box (or line)
@@ -43,13 +47,62 @@ public class ZebraGraficBox extends ZebraElement {
      */
     @Override
     public String getZplCode() {
-	StringBuilder zpl = new StringBuilder();
-	zpl.append(getZplCodePosition());
-	zpl.append("\n");
-	zpl.append(ZplUtils.zplCommand("GB", width, height, borderTickness, lineColor));
-	zpl.append("^FS");
-	zpl.append("\n");
-	return zpl.toString();
+	return renderZplCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeZpl(ZplWriter zplWriter) {
+	writeZplCodePosition(zplWriter);
+	zplWriter.newLine();
+	ZplUtils.zplCommand(zplWriter, "GB", width);
+	ZplUtils.zplVariable(zplWriter, height);
+	ZplUtils.zplVariable(zplWriter, borderTickness);
+	ZplUtils.zplVariable(zplWriter, lineColor);
+	zplWriter.append("^FS");
+	zplWriter.newLine();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isMemoizable() {
+	return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void addToFingerprint(LabelFingerprint fingerprint) {
+	addPositionToFingerprint(fingerprint);
+	fingerprint.add(width).add(height).add(borderTickness).add(lineColor);
+    }
+
+    /**
+     * Draw the border as the printer does : width and height are at least the
+     * thickness, a box thicker than half its size is filled. Color W clears
+     * the dots.
+     */
+    @Override
+    public void drawRaster(LabelRaster raster, RenderContext renderContext) {
+	int thickness = borderTickness != null && borderTickness > 0 ? borderTickness : 1;
+	int boxWidth = width != null ? Math.max(width, thickness) : thickness;
+	int boxHeight = height != null ? Math.max(height, thickness) : thickness;
+	boolean black = !"W".equalsIgnoreCase(lineColor);
+	int left = positionX != null ? positionX : 0;
+	int top = positionY != null ? positionY : 0;
+	if (2 * thickness >= boxWidth || 2 * thickness >= boxHeight) {
+	    raster.fillRect(left, top, boxWidth, boxHeight, black);
+	} else {
+	    raster.fillRect(left, top, boxWidth, thickness, black);
+	    raster.fillRect(left, top + boxHeight - thickness, boxWidth, thickness, black);
+	    raster.fillRect(left, top + thickness, thickness, boxHeight - 2 * thickness, black);
+	    raster.fillRect(left + boxWidth - thickness, top + thickness, thickness, boxHeight - 2 * thickness, black);
+	}
     }
 
     protected String getZplCodePosition() {
@@ -60,4 +113,11 @@ public class ZebraGraficBox extends ZebraElement {
 	return zpl.toString();
     }
 
+    @Override
+    protected void writeZplCodePosition(ZplWriter zplWriter) {
+	if (positionX != null && positionY != null) {
+	    ZplUtils.zplCommand(zplWriter, "FO", positionX, positionY);
+	}
+    }
+
 }
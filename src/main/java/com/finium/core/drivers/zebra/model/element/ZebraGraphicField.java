@@ -0,0 +1,213 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * ZebraGraphicField.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.model.element;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import com.finium.core.drivers.zebra.model.AwtLabelRaster;
+import com.finium.core.drivers.zebra.model.EncodedGraphic;
+import com.finium.core.drivers.zebra.model.LabelFingerprint;
+import com.finium.core.drivers.zebra.model.LabelRaster;
+import com.finium.core.drivers.zebra.model.MonochromeBitmap;
+import com.finium.core.drivers.zebra.model.PrinterOptions;
+import com.finium.core.drivers.zebra.model.RenderContext;
+import com.finium.core.drivers.zebra.model.ZebraElement;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraDithering;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraGraphicCompression;
+import com.finium.core.drivers.zebra.zpl.support.ZplUtils;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
+
+/**
+ * Zebra element to print an image (logo, picture...). The image is converted
+ * once to a {@link MonochromeBitmap}, only the packed dots are kept.
+ * <p>
+ * Zpl command : ^GF (graphic field). The data is written with the smallest
+ * encoding (see {@link ZebraGraphicCompression}) unless a compression is set.
+ * <p>
+ * <b>Format: <br>
+ * <code>^GFa,b,c,d,data</b><br>
+ * a = compression type (A : ASCII, hexadecimal or compressed) <br>
+ * b = binary byte count <br>
+ * c = graphic field count (total number of bytes) <br>
+ * d = bytes per row <br>
+ * </code>
+ *
+ * @author Cristian Ramírez
+ */
+public class ZebraGraphicField extends ZebraElement {
+
+    private MonochromeBitmap bitmap;
+
+    /**
+     * Encoding of the data, null for the smallest one
+     */
+    private ZebraGraphicCompression compression;
+
+    /**
+     * Data already encoded (see
+     * {@link com.finium.core.drivers.zebra.model.GraphicCache}), null to encode
+     * the bitmap
+     */
+    private EncodedGraphic encodedGraphic;
+
+    /**
+     * @param positionX top left corner
+     * @param positionY top left corner
+     * @param image     image, converted with a threshold at mid gray
+     */
+    public ZebraGraphicField(int positionX, int positionY, BufferedImage image) {
+        this(positionX, positionY, MonochromeBitmap.fromImage(image));
+    }
+
+    /**
+     * @param positionX top left corner
+     * @param positionY top left corner
+     * @param image     image to convert
+     * @param dithering conversion of the gray levels
+     */
+    public ZebraGraphicField(int positionX, int positionY, BufferedImage image, ZebraDithering dithering) {
+        this(positionX, positionY, MonochromeBitmap.fromImage(image, dithering));
+    }
+
+    /**
+     * @param positionX top left corner
+     * @param positionY top left corner
+     * @param bitmap    converted image
+     */
+    public ZebraGraphicField(int positionX, int positionY, MonochromeBitmap bitmap) {
+        this.positionX = positionX;
+        this.positionY = positionY;
+        this.bitmap = bitmap;
+    }
+
+    /**
+     * @param positionX      top left corner
+     * @param positionY      top left corner
+     * @param encodedGraphic converted image with its data already encoded
+     */
+    public ZebraGraphicField(int positionX, int positionY, EncodedGraphic encodedGraphic) {
+        this(positionX, positionY, encodedGraphic.getBitmap());
+        this.compression = encodedGraphic.getCompression();
+        this.encodedGraphic = encodedGraphic;
+    }
+
+    /**
+     * @return the bitmap
+     */
+    public MonochromeBitmap getBitmap() {
+        return bitmap;
+    }
+
+    /**
+     * @param bitmap the bitmap to set
+     */
+    public ZebraGraphicField setBitmap(MonochromeBitmap bitmap) {
+        this.bitmap = bitmap;
+        this.encodedGraphic = null;
+        invalidate();
+        return this;
+    }
+
+    /**
+     * @return the compression, null if the smallest encoding is used
+     */
+    public ZebraGraphicCompression getCompression() {
+        return compression;
+    }
+
+    /**
+     * @param compression the compression to use, null for the smallest
+     *                    encoding
+     */
+    public ZebraGraphicField setCompression(ZebraGraphicCompression compression) {
+        this.compression = compression;
+        this.encodedGraphic = null;
+        invalidate();
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getZplCode() {
+        return renderZplCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeZpl(ZplWriter zplWriter) {
+        writeZplCodePosition(zplWriter);
+        int byteCount = bitmap.getByteCount();
+        ZplUtils.zplCommand(zplWriter, "GF", "A");
+        ZplUtils.zplVariable(zplWriter, byteCount);
+        ZplUtils.zplVariable(zplWriter, byteCount);
+        ZplUtils.zplVariable(zplWriter, bitmap.getBytesPerRow());
+        zplWriter.append(',');
+        if (encodedGraphic != null) {
+            encodedGraphic.writeData(zplWriter);
+        } else {
+            bitmap.writeData(zplWriter, compression != null ? compression : bitmap.getSmallestCompression());
+        }
+        ZplUtils.zplCommand(zplWriter, "FS").newLine();
+    }
+
+    @Override
+    protected void writeZplCodePosition(ZplWriter zplWriter) {
+        if (positionX != null && positionY != null) {
+            ZplUtils.zplCommand(zplWriter, "FO", positionX, positionY);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isMemoizable() {
+        return true;
+    }
+
+    /**
+     * The bitmap is identified by its size and its 64 bits content hash, so
+     * fingerprinting a label does not read every dot.
+     */
+    @Override
+    protected void addToFingerprint(LabelFingerprint fingerprint) {
+        addPositionToFingerprint(fingerprint);
+        long contentHash = bitmap.getContentHash();
+        fingerprint.add(bitmap.getWidth()).add(bitmap.getHeight()).add((int) contentHash)
+                .add((int) (contentHash >>> 32)).add(compression);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void drawRaster(LabelRaster raster, RenderContext renderContext) {
+        raster.drawBitmap(bitmap, positionX != null ? positionX : 0, positionY != null ? positionY : 0, 1, 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void drawPreviewGraphic(PrinterOptions printerOptions, Graphics2D graphic) {
+        if (defaultDrawGraphic) {
+            int left = positionX != null ? ZplUtils.convertPointInPixel(positionX) : 0;
+            int top = positionY != null ? ZplUtils.convertPointInPixel(positionY) : 0;
+            AwtLabelRaster.drawBitmap(graphic, bitmap, left, top, ZplUtils.convertPointInPixel(bitmap.getWidth()),
+                    ZplUtils.convertPointInPixel(bitmap.getHeight()));
+        }
+    }
+}
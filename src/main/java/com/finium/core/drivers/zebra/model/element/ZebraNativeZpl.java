@@ -10,7 +10,9 @@
  */
 package com.finium.core.drivers.zebra.model.element;
 
+import com.finium.core.drivers.zebra.model.LabelFingerprint;
 import com.finium.core.drivers.zebra.model.ZebraElement;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
 
 /**
  * Object use if you want add Zpl Code not supported by this library
@@ -37,4 +39,29 @@ public class ZebraNativeZpl extends ZebraElement {
     public String getZplCode() {
         return zplCode;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isMemoizable() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void addToFingerprint(LabelFingerprint fingerprint) {
+        addPositionToFingerprint(fingerprint);
+        fingerprint.add(zplCode);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeZpl(ZplWriter zplWriter) {
+        zplWriter.append(zplCode);
+    }
 }
@@ -11,15 +11,25 @@
  */
 package com.finium.core.drivers.zebra.model.element;
 
+import java.util.Collections;
+
+import com.finium.core.drivers.zebra.model.BarCodeSymbolCache;
+import com.finium.core.drivers.zebra.model.LabelFingerprint;
+import com.finium.core.drivers.zebra.model.LabelRaster;
+import com.finium.core.drivers.zebra.model.RenderContext;
 import com.finium.core.drivers.zebra.model.ZebraElement;
 import com.finium.core.drivers.zebra.zpl.enums.QRCodeCharacterMode;
 import com.finium.core.drivers.zebra.zpl.enums.QRCodeDataInputMode;
 import com.finium.core.drivers.zebra.zpl.enums.QRCodeErrorCorrection;
 import com.finium.core.drivers.zebra.zpl.enums.QRCodeModel;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraPPP;
 import com.finium.core.drivers.zebra.zpl.enums.ZebraRotation;
+import com.finium.core.drivers.zebra.zpl.support.MatrixSymbol;
+import com.finium.core.drivers.zebra.zpl.support.QRCodeEncoder;
+import com.finium.core.drivers.zebra.zpl.support.QRCodeSegmenter;
 import com.finium.core.drivers.zebra.zpl.support.ZplUtils;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
 
-import static com.finium.core.drivers.zebra.zpl.command.ZebraCommonCodes.FIELD_DATA;
 import static com.finium.core.drivers.zebra.zpl.command.ZebraCommonCodes.FIELD_SEPERATOR;
 import static com.finium.core.drivers.zebra.zpl.command.ZebraCommonCodes.QR_CODE;
 import static com.finium.core.drivers.zebra.zpl.enums.QRCodeCharacterMode.A;
@@ -84,6 +94,11 @@ import static com.finium.core.drivers.zebra.zpl.enums.ZebraRotation.NORMAL;
  * Modified and reformatted by Cristian Ramírez
  */
 public class ZebraQRCode extends ZebraElement {
+
+    /**
+     * Largest magnification accepted by ^BQ
+     */
+    public static final int MAX_MAGNIFICATION = 10;
     private ZebraRotation zebraRotation;
     private QRCodeModel model;
     private QRCodeDataInputMode inputMode;
@@ -93,6 +108,18 @@ public class ZebraQRCode extends ZebraElement {
 
     private String text;
 
+    /**
+     * True to choose the input and character modes from the text
+     */
+    private boolean optimizedEncoding;
+
+    /**
+     * Text encoded last with its modes and field data (null if none),
+     * published as a whole so labels rendered by several threads never mix two
+     * texts. Reset when a mode changes.
+     */
+    private volatile Encoding encoding;
+
     /**
      * @param text and load default config
      */
@@ -137,29 +164,223 @@ public class ZebraQRCode extends ZebraElement {
      */
     @Override
     public String getZplCode() {
-        StringBuilder zpl = new StringBuilder(ZplUtils.zplCommand(QR_CODE.getCode()));
-        zpl.append(zebraRotation.getLetter());
-        zpl.append(",");
-        zpl.append(model.getModel());
-        zpl.append(",");
-        zpl.append(magnification +",");
-        zpl.append(errorCorrection.getLetter());
-        zpl.append("\n");
-        zpl.append(ZplUtils.zplCommand(FIELD_DATA.getCode()));
-        zpl.append(errorCorrection.getLetter());
-        zpl.append(inputMode.name());
-        zpl.append(",");
+        return renderZplCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeZpl(ZplWriter zplWriter) {
+        ZplUtils.zplCommand(zplWriter, QR_CODE.getCode(), zebraRotation.getLetter());
+        ZplUtils.zplVariable(zplWriter, model.getModel());
+        ZplUtils.zplVariable(zplWriter, magnification);
+        ZplUtils.zplVariable(zplWriter, errorCorrection.getLetter()).newLine();
+        Encoding current = getEncoding();
+        zplWriter.writeFieldData(fieldName, current.fieldDataPrefix, current.fieldData, false);
+        ZplUtils.zplCommand(zplWriter, FIELD_SEPERATOR.getCode()).newLine();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasFieldData() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getFieldData() {
+        return getEncoding().fieldData;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isMemoizable() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void addToFingerprint(LabelFingerprint fingerprint) {
+        addPositionToFingerprint(fingerprint);
+        fingerprint.add(zebraRotation).add(model).add(inputMode).add(characterMode).add(errorCorrection);
+        fingerprint.add(magnification).add(optimizedEncoding);
+    }
 
+    /**
+     * @return encoding of the current text, computed once per text
+     */
+    private Encoding getEncoding() {
+        String currentText = text;
+        Encoding current = encoding;
+        if (current == null || current.text != currentText) {
+            current = optimizedEncoding ? encodeOptimized(currentText) : encode(currentText);
+            encoding = current;
+        }
+        return current;
+    }
+
+    /**
+     * Encoding with the modes set : error correction, input mode and character
+     * mode are written before the text in ^FD.
+     */
+    private Encoding encode(String currentText) {
+        String prefix = errorCorrection.getLetter() + inputMode.name() + ",";
         if (inputMode.equals(QRCodeDataInputMode.M)) {
-            zpl.append(characterMode.name());
+            prefix += characterMode.name();
+        }
+        return new Encoding(currentText, inputMode, characterMode, prefix, currentText);
+    }
+
+    /**
+     * Modules of the printed symbol (model 2), to size the QR code before
+     * printing it. Symbols are cached (see {@link BarCodeSymbolCache}). In
+     * automatic input mode the printer chooses the segments itself : the
+     * symbol is a prediction made with the optimal segments (see
+     * {@link QRCodeSegmenter}), the printer may choose a larger one.
+     *
+     * @return the symbol
+     * @throws IllegalArgumentException if the text does not fit in a QR code
+     */
+    public MatrixSymbol getSymbol() {
+        Encoding current = getEncoding();
+        if (current.inputMode == QRCodeDataInputMode.A) {
+            return BarCodeSymbolCache.DEFAULT.getAutomaticQRCode(current.text, errorCorrection);
+        }
+        return BarCodeSymbolCache.DEFAULT.getQRCode(current.text, current.characterMode, errorCorrection);
+    }
+
+    /**
+     * Choose the modes giving the smallest symbol : the most compact character
+     * mode holding the whole text (manual input), or the printer splitting the
+     * text in numeric, alphanumeric and byte segments (automatic input) when it
+     * gives a smaller version. The modes depend on the text, they are written
+     * with it after the error correction.
+     * <p>
+     * The segments are not written : in a single symbol ^BQ only accepts one
+     * manual character mode, segments of several modes need the mixed mode
+     * (<code>D</code>), which is the structured append of 2 to 16 symbols.
+     * The optimal segments only predict the automatic input of the printer, so
+     * ties go to the manual mode, whose symbol is known.
+     */
+    private Encoding encodeOptimized(String text) {
+        QRCodeCharacterMode singleMode = QRCodeCharacterMode.BXXX;
+        if (QRCodeEncoder.canEncode(QRCodeCharacterMode.N, text)) {
+            singleMode = QRCodeCharacterMode.N;
+        } else if (QRCodeEncoder.canEncode(QRCodeCharacterMode.A, text)) {
+            singleMode = QRCodeCharacterMode.A;
+        }
+        QRCodeEncoder.Segment singleSegment = new QRCodeEncoder.Segment(singleMode, text);
+        int manualVersion = QRCodeEncoder.getVersion(Collections.singletonList(singleSegment), errorCorrection);
+        int automaticVersion;
+        try {
+            automaticVersion = QRCodeEncoder.getVersion(QRCodeSegmenter.segment(text, errorCorrection),
+                    errorCorrection);
+        } catch (IllegalArgumentException e) {
+            automaticVersion = -1;
+        }
+        String prefix = errorCorrection.getLetter();
+        if (manualVersion > 0 && (automaticVersion < 0 || manualVersion <= automaticVersion)) {
+            StringBuilder fieldData = new StringBuilder(text.length() + 8).append("M,");
+            if (singleMode == QRCodeCharacterMode.BXXX) {
+                // Byte mode : B and the number of bytes on 4 digits
+                String byteCount = Integer.toString(10000 + singleSegment.getCharacterCount());
+                fieldData.append('B').append(byteCount, 1, 5);
+            } else {
+                fieldData.append(singleMode.name());
+            }
+            return new Encoding(text, QRCodeDataInputMode.M, singleMode, prefix, fieldData.append(text).toString());
+        }
+        return new Encoding(text, QRCodeDataInputMode.A, null, prefix, "A," + text);
+    }
+
+    /**
+     * @param zebraPPP resolution of the printer
+     * @return magnification printed by a printer of this resolution : the one
+     *         set, or the default of the resolution
+     */
+    public int getEffectiveMagnification(ZebraPPP zebraPPP) {
+        if (magnification != null && !magnification.trim().isEmpty()) {
+            try {
+                return Integer.parseInt(magnification.trim());
+            } catch (NumberFormatException e) {
+                // The printer uses its default
+            }
+        }
+        switch (zebraPPP) {
+        case DPI_203:
+            return 2;
+        case DPI_600:
+            return 6;
+        default:
+            return 3;
+        }
+    }
+
+    /**
+     * Draw the modules from the field origin : no position is written, so the
+     * printer draws the symbol at the top left corner of the label.
+     */
+    @Override
+    public void drawRaster(LabelRaster raster, RenderContext renderContext) {
+        MatrixSymbol symbol;
+        try {
+            symbol = getSymbol();
+        } catch (IllegalArgumentException e) {
+            // Data too long for a QR code, the printer will not print it
+            return;
         }
+        raster.drawSymbol(symbol, 0, 0, getEffectiveMagnification(renderContext.getZebraPPP()));
+    }
 
-        zpl.append(text);
-        zpl.append(ZplUtils.zplCommandSautLigne(FIELD_SEPERATOR.getCode()));
+    /**
+     * @param zebraPPP resolution of the printer (the default magnification
+     *                 depends on it)
+     * @return width (and height) of the printed symbol, in dots
+     * @throws IllegalArgumentException if the text does not fit in a QR code
+     */
+    public int getWidthDots(ZebraPPP zebraPPP) {
+        return getSymbol().getWidthDots(getEffectiveMagnification(zebraPPP));
+    }
 
-        return zpl.toString();
+    /**
+     * @param maxDots  side of the available square, in dots
+     * @param zebraPPP resolution of the printer
+     * @return true if the symbol fits
+     */
+    public boolean fitsIn(int maxDots, ZebraPPP zebraPPP) {
+        return getWidthDots(zebraPPP) <= maxDots;
     }
 
+    /**
+     * Select the largest magnification with which the symbol fits in a square :
+     * every smaller magnification fits too, down to 1, and larger modules print
+     * and scan more reliably. The box is thus filled by the smallest symbol
+     * version (see {@link #setOptimizedEncoding(boolean)}) at the largest
+     * module size. The magnification is set, so the result does not depend on
+     * the printer resolution.
+     *
+     * @param maxDots side of the available square, in dots
+     * @return true if a magnification was selected, false if the symbol does
+     *         not fit with a magnification of 1 (the magnification is then
+     *         unchanged)
+     */
+    public boolean fitMagnification(int maxDots) {
+        int fittingMagnification = Math.min(maxDots / getSymbol().getSize(), MAX_MAGNIFICATION);
+        if (fittingMagnification < 1) {
+            return false;
+        }
+        setMagnification(Integer.toString(fittingMagnification));
+        return true;
+    }
 
     public ZebraRotation getZebraRotation() {
         return zebraRotation;
@@ -167,6 +388,7 @@ public class ZebraQRCode extends ZebraElement {
 
     public void setZebraRotation(ZebraRotation zebraRotation) {
         this.zebraRotation = zebraRotation;
+        invalidate();
     }
 
     public QRCodeModel getModel() {
@@ -175,6 +397,7 @@ public class ZebraQRCode extends ZebraElement {
 
     public void setModel(QRCodeModel model) {
         this.model = model;
+        invalidate();
     }
 
     public QRCodeDataInputMode getInputMode() {
@@ -183,6 +406,8 @@ public class ZebraQRCode extends ZebraElement {
 
     public void setInputMode(QRCodeDataInputMode inputMode) {
         this.inputMode = inputMode;
+        this.encoding = null;
+        invalidate();
     }
 
     public QRCodeCharacterMode getCharacterMode() {
@@ -191,6 +416,26 @@ public class ZebraQRCode extends ZebraElement {
 
     public void setCharacterMode(QRCodeCharacterMode characterMode) {
         this.characterMode = characterMode;
+        this.encoding = null;
+        invalidate();
+    }
+
+    public boolean isOptimizedEncoding() {
+        return optimizedEncoding;
+    }
+
+    /**
+     * @param optimizedEncoding true to choose the input and character modes
+     *                          giving the smallest symbol for the text, instead
+     *                          of the input and character modes set. When the
+     *                          automatic input is chosen, the printer segments
+     *                          the text and {@link #getSymbol()} is a
+     *                          prediction.
+     */
+    public void setOptimizedEncoding(boolean optimizedEncoding) {
+        this.optimizedEncoding = optimizedEncoding;
+        this.encoding = null;
+        invalidate();
     }
 
     public QRCodeErrorCorrection getErrorCorrection() {
@@ -199,6 +444,8 @@ public class ZebraQRCode extends ZebraElement {
 
     public void setErrorCorrection(QRCodeErrorCorrection errorCorrection) {
         this.errorCorrection = errorCorrection;
+        this.encoding = null;
+        invalidate();
     }
 
     public String getMagnification() {
@@ -207,6 +454,7 @@ public class ZebraQRCode extends ZebraElement {
 
     public void setMagnification(String magnification) {
         this.magnification = magnification;
+        invalidate();
     }
 
     public String getText() {
@@ -215,5 +463,31 @@ public class ZebraQRCode extends ZebraElement {
 
     public void setText(String text) {
         this.text = text;
+        invalidate();
+    }
+
+    /**
+     * Modes and field data of a text (immutable)
+     */
+    private static final class Encoding {
+
+        private final String text;
+
+        private final QRCodeDataInputMode inputMode;
+
+        private final QRCodeCharacterMode characterMode;
+
+        private final String fieldDataPrefix;
+
+        private final String fieldData;
+
+        private Encoding(String text, QRCodeDataInputMode inputMode, QRCodeCharacterMode characterMode,
+                String fieldDataPrefix, String fieldData) {
+            this.text = text;
+            this.inputMode = inputMode;
+            this.characterMode = characterMode;
+            this.fieldDataPrefix = fieldDataPrefix;
+            this.fieldData = fieldData;
+        }
     }
 }
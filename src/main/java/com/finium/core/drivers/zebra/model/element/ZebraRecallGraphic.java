@@ -0,0 +1,183 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * ZebraRecallGraphic.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.model.element;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import com.finium.core.drivers.zebra.model.AwtLabelRaster;
+import com.finium.core.drivers.zebra.model.LabelFingerprint;
+import com.finium.core.drivers.zebra.model.LabelRaster;
+import com.finium.core.drivers.zebra.model.MonochromeBitmap;
+import com.finium.core.drivers.zebra.model.PrinterOptions;
+import com.finium.core.drivers.zebra.model.RenderContext;
+import com.finium.core.drivers.zebra.model.ZebraElement;
+import com.finium.core.drivers.zebra.zpl.support.ZplUtils;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
+
+/**
+ * Zebra element printing a graphic stored on the printer. The label only
+ * carries a reference to the graphic, the graphic itself is downloaded once
+ * per printer (see {@link DownloadGraphic}) : printers download it before the
+ * first label using it, and again after a reconnection or once it was evicted
+ * from the storage budget. The graphics of a batch are pinned until the batch
+ * is sent (see {@link com.finium.core.drivers.zebra.model.FormatRegistry}), so
+ * a graphic is never deleted before the labels recalling it.
+ * <p>
+ * Zpl command : ^XG (recall graphic)
+ * <p>
+ * <b>Format: <br>
+ * <code>^XGd:o.x,mx,my</b><br>
+ * d = device storing the image <br>
+ * o = image name <br>
+ * x = extension (.GRF) <br>
+ * mx, my = magnification factors (1 to 10) <br>
+ * </code>
+ *
+ * @author Cristian Ramírez
+ */
+public class ZebraRecallGraphic extends ZebraElement {
+
+    private final DownloadGraphic downloadGraphic;
+
+    private int magnificationX = 1;
+
+    private int magnificationY = 1;
+
+    /**
+     * @param positionX top left corner
+     * @param positionY top left corner
+     * @param image     image, converted with a threshold at mid gray
+     */
+    public ZebraRecallGraphic(int positionX, int positionY, BufferedImage image) {
+        this(positionX, positionY, MonochromeBitmap.fromImage(image));
+    }
+
+    /**
+     * @param positionX top left corner
+     * @param positionY top left corner
+     * @param bitmap    converted image, stored in RAM (R:)
+     */
+    public ZebraRecallGraphic(int positionX, int positionY, MonochromeBitmap bitmap) {
+        this(positionX, positionY, new DownloadGraphic(bitmap));
+    }
+
+    /**
+     * @param positionX       top left corner
+     * @param positionY       top left corner
+     * @param downloadGraphic download of the graphic (device, compression)
+     */
+    public ZebraRecallGraphic(int positionX, int positionY, DownloadGraphic downloadGraphic) {
+        this.positionX = positionX;
+        this.positionY = positionY;
+        this.downloadGraphic = downloadGraphic;
+    }
+
+    /**
+     * @return download of the recalled graphic
+     */
+    public DownloadGraphic getDownloadGraphic() {
+        return downloadGraphic;
+    }
+
+    /**
+     * @return the magnificationX
+     */
+    public int getMagnificationX() {
+        return magnificationX;
+    }
+
+    /**
+     * @return the magnificationY
+     */
+    public int getMagnificationY() {
+        return magnificationY;
+    }
+
+    /**
+     * @param magnificationX horizontal magnification (1 to 10)
+     * @param magnificationY vertical magnification (1 to 10)
+     */
+    public ZebraRecallGraphic setMagnification(int magnificationX, int magnificationY) {
+        this.magnificationX = magnificationX;
+        this.magnificationY = magnificationY;
+        invalidate();
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getZplCode() {
+        return renderZplCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeZpl(ZplWriter zplWriter) {
+        writeZplCodePosition(zplWriter);
+        ZplUtils.zplCommand(zplWriter, "XG", downloadGraphic.getPath());
+        ZplUtils.zplVariable(zplWriter, magnificationX);
+        ZplUtils.zplVariable(zplWriter, magnificationY);
+        ZplUtils.zplCommand(zplWriter, "FS").newLine();
+    }
+
+    @Override
+    protected void writeZplCodePosition(ZplWriter zplWriter) {
+        if (positionX != null && positionY != null) {
+            ZplUtils.zplCommand(zplWriter, "FO", positionX, positionY);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isMemoizable() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void addToFingerprint(LabelFingerprint fingerprint) {
+        addPositionToFingerprint(fingerprint);
+        fingerprint.add(downloadGraphic.getPath()).add(magnificationX).add(magnificationY);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void drawRaster(LabelRaster raster, RenderContext renderContext) {
+        raster.drawBitmap(downloadGraphic.getBitmap(), positionX != null ? positionX : 0,
+                positionY != null ? positionY : 0, magnificationX, magnificationY);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void drawPreviewGraphic(PrinterOptions printerOptions, Graphics2D graphic) {
+        if (defaultDrawGraphic) {
+            MonochromeBitmap bitmap = downloadGraphic.getBitmap();
+            int left = positionX != null ? ZplUtils.convertPointInPixel(positionX) : 0;
+            int top = positionY != null ? ZplUtils.convertPointInPixel(positionY) : 0;
+            AwtLabelRaster.drawBitmap(graphic, bitmap, left, top,
+                    ZplUtils.convertPointInPixel(bitmap.getWidth() * magnificationX),
+                    ZplUtils.convertPointInPixel(bitmap.getHeight() * magnificationY));
+        }
+    }
+}
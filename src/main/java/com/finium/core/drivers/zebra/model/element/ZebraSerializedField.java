@@ -0,0 +1,219 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * ZebraSerializedField.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.model.element;
+
+import java.awt.Graphics2D;
+
+import com.finium.core.drivers.zebra.model.LabelFingerprint;
+import com.finium.core.drivers.zebra.model.LabelRaster;
+import com.finium.core.drivers.zebra.model.PrinterOptions;
+import com.finium.core.drivers.zebra.model.RenderContext;
+import com.finium.core.drivers.zebra.model.ZebraElement;
+import com.finium.core.drivers.zebra.zpl.support.ZplUtils;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
+
+/**
+ * Field (text, bar code...) incremented by the printer for every label printed,
+ * so a run of sequential labels (serial numbers, carton counters) is sent as a
+ * single label with a quantity (see
+ * {@link com.finium.core.drivers.zebra.model.ZebraLabel#setQuantity(Integer)}).
+ * <p>
+ * The field data of the wrapped element is the first value. Two commands are
+ * available :
+ * <ul>
+ * <li><code>^SNv,n,z</code> (serialization data) replaces the field data :
+ * v = starting value, n = increment (negative to decrement), z = Y to keep
+ * leading zeros. For fields without constant prefix (text, Code 128...)</li>
+ * <li><code>^SFa,b</code> (serialization field) follows the field data :
+ * a = mask aligned on the right of the data (D decimal, H hexadecimal, O
+ * octal, A alphabetic, N alphanumeric, % not incremented), b = increment
+ * string</li>
+ * </ul>
+ *
+ * <pre>
+ * ZebraLabel zebraLabel = new ZebraLabel(912, 912);
+ * zebraLabel.addElement(new ZebraSerializedField(new ZebraText(10, 84, "0001", 14), 1, true));
+ * zebraLabel.setQuantity(1000);
+ * </pre>
+ *
+ * The field data of a serialized field belongs to the layout of the label :
+ * templates and stored formats keep it constant.
+ *
+ * @author Cristian Ramírez
+ */
+public class ZebraSerializedField extends ZebraElement {
+
+    private final ZebraElement field;
+
+    private final String increment;
+
+    private final boolean leadingZeros;
+
+    /**
+     * Mask of ^SF, null for ^SN
+     */
+    private final String mask;
+
+    /**
+     * Serialize a field with <code>^SN</code>
+     *
+     * @param field        element writing the first value as field data
+     * @param increment    value added for each label (negative to decrement)
+     * @param leadingZeros true to keep the leading zeros of the value
+     */
+    public ZebraSerializedField(ZebraElement field, int increment, boolean leadingZeros) {
+        this.field = field;
+        this.increment = Integer.toString(increment);
+        this.leadingZeros = leadingZeros;
+        this.mask = null;
+    }
+
+    /**
+     * Serialize a field with <code>^SF</code>
+     *
+     * @param field     element writing the first value as field data
+     * @param mask      serialization mask (DDDD, %%DD...)
+     * @param increment increment string, aligned with the mask
+     */
+    public ZebraSerializedField(ZebraElement field, String mask, String increment) {
+        this.field = field;
+        this.increment = increment;
+        this.leadingZeros = false;
+        this.mask = mask;
+    }
+
+    /**
+     * @return the serialized element
+     */
+    public ZebraElement getField() {
+        return field;
+    }
+
+    /**
+     * @return the increment
+     */
+    public String getIncrement() {
+        return increment;
+    }
+
+    /**
+     * @return the mask of ^SF, null if serialized with ^SN
+     */
+    public String getMask() {
+        return mask;
+    }
+
+    /**
+     * @return true if leading zeros are kept (^SN)
+     */
+    public boolean isLeadingZeros() {
+        return leadingZeros;
+    }
+
+    /**
+     * Version of the serialized element, so labels see its changes
+     *
+     * @return version of the wrapped element
+     */
+    @Override
+    public int getVersion() {
+        return super.getVersion() + field.getVersion();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isSerialized() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getZplCode() {
+        return renderZplCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeZpl(ZplWriter zplWriter) {
+        writeZpl(zplWriter, RenderContext.of(printerOptions));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeZpl(ZplWriter zplWriter, RenderContext renderContext) {
+        SerializationWriter serializationWriter = new SerializationWriter();
+        field.writeZpl(serializationWriter, renderContext);
+        zplWriter.append(serializationWriter);
+    }
+
+    /**
+     * Layout of the wrapped element and serialization settings. The first
+     * value is added too, since templates keep it constant.
+     */
+    @Override
+    protected void addToFingerprint(LabelFingerprint fingerprint) {
+        fingerprint.add(getClass().getName());
+        addElementToFingerprint(field, fingerprint);
+        fingerprint.add(field.getFieldData()).add(increment).add(mask).add(leadingZeros);
+    }
+
+    /**
+     * Draw the first value
+     */
+    @Override
+    public void drawRaster(LabelRaster raster, RenderContext renderContext) {
+        field.drawRaster(raster, renderContext);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void drawPreviewGraphic(PrinterOptions printerOptions, Graphics2D graphic) {
+        field.drawPreviewGraphic(printerOptions, graphic);
+    }
+
+    /**
+     * Writer replacing (^SN) or completing (^SF) the field data of the wrapped
+     * element
+     */
+    private class SerializationWriter extends ZplWriter {
+
+        SerializationWriter() {
+            super(128);
+        }
+
+        @Override
+        public ZplWriter writeFieldData(String fieldName, String prefix, String value, boolean hexaEscaped) {
+            if (mask == null) {
+                ZplUtils.zplCommand(this, "SN", value).append(',').append(increment).append(',')
+                        .append(leadingZeros ? 'Y' : 'N');
+            } else {
+                super.writeFieldData(fieldName, prefix, value, hexaEscaped);
+                ZplUtils.zplCommand(this, "SF", mask).append(',').append(increment);
+            }
+            return this;
+        }
+
+        @Override
+        public boolean acceptsMemoizedCode() {
+            return false;
+        }
+    }
+}
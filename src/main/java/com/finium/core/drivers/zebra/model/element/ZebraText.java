@@ -13,11 +13,16 @@ package com.finium.core.drivers.zebra.model.element;
 import java.awt.Font;
 import java.awt.Graphics2D;
 
+import com.finium.core.drivers.zebra.model.FieldFont;
+import com.finium.core.drivers.zebra.model.LabelFingerprint;
+import com.finium.core.drivers.zebra.model.LabelRaster;
 import com.finium.core.drivers.zebra.model.PrinterOptions;
+import com.finium.core.drivers.zebra.model.RenderContext;
 import com.finium.core.drivers.zebra.model.ZebraElement;
 import com.finium.core.drivers.zebra.zpl.enums.ZebraFont;
 import com.finium.core.drivers.zebra.zpl.enums.ZebraRotation;
 import com.finium.core.drivers.zebra.zpl.support.ZplUtils;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
 
 /**
  * Zebra element to add Text to specified position.
@@ -95,28 +100,120 @@ public class ZebraText extends ZebraElement {
      */
     @Override
     public String getZplCode() {
-        StringBuffer zpl = new StringBuffer();
-        zpl.append(this.getZplCodePosition());
+        return renderZplCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeZpl(ZplWriter zplWriter) {
+        writeZpl(zplWriter, RenderContext.of(printerOptions));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeZpl(ZplWriter zplWriter, RenderContext renderContext) {
+        writeZplCodePosition(zplWriter);
 
         if (fontSize != null && zebraFont != null) {
             // This element has specified size and font
-            Integer[] dimension = ZplUtils.extractDotsFromFont(zebraFont, fontSize, printerOptions.getZebraPPP());
-            zpl.append(ZplUtils.zplCommand("A", zebraFont.getLetter() + zebraRotation.getLetter(), dimension[0],
-                    dimension[1]));
-        } else if (fontSize != null && printerOptions.getDefaultZebraFont() != null) {
+            writeZplCodeFont(zplWriter, zebraFont, renderContext);
+        } else if (fontSize != null && renderContext.getDefaultZebraFont() != null) {
             // This element has specified size, but with default font
-            Integer[] dimension = ZplUtils.extractDotsFromFont(printerOptions.getDefaultZebraFont(), fontSize,
-                    printerOptions.getZebraPPP());
-            zpl.append(ZplUtils.zplCommand("A",
-                    printerOptions.getDefaultZebraFont().getLetter() + zebraRotation.getLetter(), dimension[0],
-                    dimension[1]));
+            writeZplCodeFont(zplWriter, renderContext.getDefaultZebraFont(), renderContext);
+        }
+
+        zplWriter.writeFieldData(fieldName, null, text, true);// We allow hexadecimal and start element
+        ZplUtils.zplCommand(zplWriter, "FS").newLine();
+    }
+
+    /**
+     * Write ^A command with the font of this element
+     *
+     * @param zplWriter writer receiving the code
+     * @param font          font to use
+     * @param renderContext printer options of the label
+     */
+    private void writeZplCodeFont(ZplWriter zplWriter, ZebraFont font, RenderContext renderContext) {
+        ZplUtils.zplCommand(zplWriter, "A", font.getLetter()).append(zebraRotation.getLetter());
+        ZplUtils.zplVariable(zplWriter,
+                ZplUtils.extractHeightDotsFromFont(font, fontSize, renderContext.getZebraPPP()));
+        ZplUtils.zplVariable(zplWriter,
+                ZplUtils.extractWidthDotsFromFont(font, fontSize, renderContext.getZebraPPP()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasFieldData() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getFieldData() {
+        return text;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isMemoizable() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void addToFingerprint(LabelFingerprint fingerprint) {
+        addPositionToFingerprint(fingerprint);
+        fingerprint.add(zebraFont).add(fontSize).add(zebraRotation);
+    }
+
+    /**
+     * Draw the text from its baseline (^FT), with the font written by
+     * {@link #writeZpl(ZplWriter, RenderContext)}, or the font inherited from
+     * the fields before it.
+     */
+    @Override
+    public void drawRaster(LabelRaster raster, RenderContext renderContext) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        ZebraFont font = zebraFont != null ? zebraFont : renderContext.getDefaultZebraFont();
+        FieldFont fieldFont;
+        if (fontSize != null && font != null) {
+            fieldFont = new FieldFont(font, zebraRotation,
+                    ZplUtils.extractHeightDotsFromFont(font, fontSize, renderContext.getZebraPPP()),
+                    ZplUtils.extractWidthDotsFromFont(font, fontSize, renderContext.getZebraPPP()));
+        } else {
+            fieldFont = raster.getFieldFont();
         }
+        raster.drawText(text, positionX != null ? positionX : 0, positionY != null ? positionY : 0, fieldFont);
+    }
 
-        zpl.append("^FH\\^FD");// We allow hexadecimal and start element
-        zpl.append(ZplUtils.convertAccentToZplAsciiHexa(text));
-        zpl.append(ZplUtils.zplCommandSautLigne("FS"));
+    /**
+     * @return the text
+     */
+    public String getText() {
+        return text;
+    }
 
-        return zpl.toString();
+    /**
+     * @param text the text to set
+     */
+    public ZebraText setText(String text) {
+        this.text = text;
+        invalidate();
+        return this;
     }
 
     /**
@@ -10,19 +10,95 @@
  */
 package com.finium.core.drivers.zebra.printer;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
+import com.finium.core.drivers.zebra.model.FormatRegistry;
+import com.finium.core.drivers.zebra.model.LabelFingerprint;
+import com.finium.core.drivers.zebra.model.LabelTemplate;
+import com.finium.core.drivers.zebra.model.LabelTemplateCache;
+import com.finium.core.drivers.zebra.model.PrinterState;
+import com.finium.core.drivers.zebra.model.StoredFormat;
+import com.finium.core.drivers.zebra.model.ZebraElement;
 import com.finium.core.drivers.zebra.model.ZebraLabel;
+import com.finium.core.drivers.zebra.model.element.DeleteObject;
+import com.finium.core.drivers.zebra.model.element.DownloadFormat;
+import com.finium.core.drivers.zebra.model.element.DownloadGraphic;
+import com.finium.core.drivers.zebra.model.element.ZebraRecallGraphic;
 import com.finium.core.drivers.zebra.printer.connection.ZebraConnectionClient;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
 import com.finium.core.drivers.zebra.zpl.support.exceptions.ZebraPrintException;
 
 /**
+ * A printer can be shared between threads : labels and downloads are written
+ * and sent one message at a time, so objects registered as stored on the
+ * printer are sent before any label recalling them.
+ * 
  * @author Venkaiah Chowdary Koneru
  */
 public abstract class AbstractZebraPrinter {
 
+    /**
+     * Default minimal number of labels rendered in parallel
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 256;
+
+    /**
+     * Largest number of compiled formats kept by a printer
+     */
+    public static final int MAX_STORED_FORMATS = 256;
+
     private ZebraConnectionClient connectionClient;
 
+    private ForkJoinPool renderPool;
+
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    private LabelTemplateCache templateCache;
+
+    private boolean trackPrinterState;
+
+    private boolean coalesceLabels;
+
+    private boolean storedFormatMode;
+
+    private String storedFormatDevice = "R:";
+
+    /**
+     * Formats compiled from the most recently printed label layouts. Formats
+     * are named from their content : a layout dropped from this map gets the
+     * same name when it is compiled again, and is not downloaded again while
+     * the format registry holds it.
+     */
+    private final Map<LabelFingerprint, StoredFormat> storedFormats = new LinkedHashMap<LabelFingerprint, StoredFormat>(
+	    16, 0.75f, true) {
+
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	protected boolean removeEldestEntry(Map.Entry<LabelFingerprint, StoredFormat> eldest) {
+	    return size() > MAX_STORED_FORMATS;
+	}
+    };
+
+    /**
+     * Formats stored on the printer, when the connection client does not track
+     * them. Reset on connection, disconnection and failed sends, as a client
+     * registry.
+     */
+    private final FormatRegistry formatRegistry = new FormatRegistry();
+
+    /**
+     * Lock held from the registration of the objects of a message to its send
+     */
+    private final Object sendLock = new Object();
+
     /**
      * Constructor
      */
@@ -35,6 +111,7 @@ public abstract class AbstractZebraPrinter {
      */
     public void connect() {
 	this.connectionClient.connect();
+	formatRegistry.reset();
     }
 
     /**
@@ -42,6 +119,7 @@ public abstract class AbstractZebraPrinter {
      */
     public void disconnect() {
 	this.connectionClient.disconnect();
+	formatRegistry.reset();
     }
 
     /**
@@ -52,8 +130,150 @@ public abstract class AbstractZebraPrinter {
 	return connectionClient;
     }
 
+    /**
+     * 
+     * @return cache of label templates, null if labels are always rendered
+     *         from scratch
+     */
+    public LabelTemplateCache getTemplateCache() {
+	return templateCache;
+    }
+
+    /**
+     * Labels printed by this printer are rendered from templates cached by
+     * layout (see LabelTemplateCache). A cache may be shared between printers.
+     * 
+     * @param templateCache
+     *            cache of label templates, null to disable it
+     */
+    public void setTemplateCache(LabelTemplateCache templateCache) {
+	this.templateCache = templateCache;
+    }
+
+    /**
+     * 
+     * @return true if setup commands already sent on the connection are
+     *         omitted
+     */
+    public boolean isTrackPrinterState() {
+	return trackPrinterState;
+    }
+
+    /**
+     * Omit the setup commands (^MM, ^PW, ^LL and ^CF) of a label when the
+     * previous label sent on the same connection had the same values. Needs a
+     * connection client tracking the printer state (see
+     * ZebraConnectionClient.getPrinterState()).
+     * 
+     * @param trackPrinterState
+     *            true to omit repeated setup commands
+     */
+    public void setTrackPrinterState(boolean trackPrinterState) {
+	this.trackPrinterState = trackPrinterState;
+    }
+
+    /**
+     * 
+     * @return true if consecutive identical labels are printed with a ^PQ
+     *         quantity
+     */
+    public boolean isCoalesceLabels() {
+	return coalesceLabels;
+    }
+
+    /**
+     * Collapse consecutive labels of a batch whose code is byte identical into
+     * a single label printed with a ^PQ quantity. Batches are then rendered on
+     * the caller thread.
+     * 
+     * @param coalesceLabels
+     *            true to coalesce identical labels
+     */
+    public void setCoalesceLabels(boolean coalesceLabels) {
+	this.coalesceLabels = coalesceLabels;
+    }
+
+    /**
+     * 
+     * @return true if labels are printed with formats stored on the printer
+     */
+    public boolean isStoredFormatMode() {
+	return storedFormatMode;
+    }
+
+    /**
+     * Print labels with formats stored on the printer : the first label of a
+     * layout downloads it as a ^DF format (see StoredFormat), following labels
+     * of this layout only send ^XF and their field data. Labels are then
+     * rendered on the caller thread, without coalescing.
+     * 
+     * @param storedFormatMode
+     *            true to store label layouts on the printer
+     */
+    public void setStoredFormatMode(boolean storedFormatMode) {
+	this.storedFormatMode = storedFormatMode;
+    }
+
+    /**
+     * 
+     * @return device storing the formats
+     */
+    public String getStoredFormatDevice() {
+	return storedFormatDevice;
+    }
+
+    /**
+     * 
+     * @param storedFormatDevice
+     *            device storing the formats (R:, E:, B: or A:), R: by default
+     */
+    public void setStoredFormatDevice(String storedFormatDevice) {
+	this.storedFormatDevice = storedFormatDevice;
+    }
+
+    /**
+     * 
+     * @return pool rendering batches of labels, null if batches are rendered
+     *         on the caller thread
+     */
+    public ForkJoinPool getRenderPool() {
+	return renderPool;
+    }
+
+    /**
+     * Render batches of labels in parallel (see {@link #printZpl(List)}).
+     * 
+     * @param renderPool
+     *            pool rendering batches of labels (ForkJoinPool.commonPool() for
+     *            instance), null to render on the caller thread
+     */
+    public void setRenderPool(ForkJoinPool renderPool) {
+	this.renderPool = renderPool;
+    }
+
+    /**
+     * 
+     * @return minimal number of labels of a batch rendered in parallel
+     */
+    public int getParallelThreshold() {
+	return parallelThreshold;
+    }
+
+    /**
+     * 
+     * @param parallelThreshold
+     *            minimal number of labels of a batch rendered in parallel,
+     *            smaller batches are rendered on the caller thread
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+	this.parallelThreshold = parallelThreshold;
+    }
+
     /**
      * prints a zebraLabel
+     * <p>
+     * Graphics recalled by the label (^XG) are downloaded first if the printer
+     * does not store them.
      * 
      * @param zebraLabel
      *            zebraLabel
@@ -61,11 +281,42 @@ public abstract class AbstractZebraPrinter {
      *             if zpl could not be printed
      */
     public void printZpl(ZebraLabel zebraLabel) throws ZebraPrintException {
-	printZpl(zebraLabel.getZplCode());
+	List<ZebraLabel> zebraLabels = Collections.singletonList(zebraLabel);
+	synchronized (sendLock) {
+	    Map<String, DownloadGraphic> downloadGraphics = getDownloadGraphics(zebraLabels);
+	    Set<String> pinnedPaths = pinObjects(zebraLabels, downloadGraphics);
+	    try {
+		ZplWriter zplWriter = new ZplWriter();
+		writeGraphicDownloads(downloadGraphics, zplWriter);
+		if (storedFormatMode) {
+		    writeStoredLabel(zebraLabel, zplWriter);
+		} else {
+		    writeLabel(zebraLabel, getTrackedPrinterState(), zplWriter);
+		}
+		this.connectionClient.send(zplWriter, labelCount(zebraLabel), 1);
+	    } catch (RuntimeException e) {
+		forgetStoredObjects();
+		throw e;
+	    } finally {
+		unpinObjects(pinnedPaths);
+	    }
+	}
     }
 
     /**
      * prints multiple zebraLabels
+     * <p>
+     * When labels are coalesced, consecutive identical labels are sent once
+     * with a ^PQ quantity.
+     * <p>
+     * When a render pool is set and the list holds at least parallelThreshold
+     * labels, labels are rendered concurrently by chunks and sent in the list
+     * order.
+     * <p>
+     * Graphics recalled by the labels (^XG) are downloaded once, before the
+     * first label. The graphics and formats of the batch are pinned in the
+     * format registry until the batch is sent, so storing one of them never
+     * deletes another one the batch uses.
      * 
      * @param zebraLabels
      *            list of zebra labels
@@ -73,11 +324,132 @@ public abstract class AbstractZebraPrinter {
      *             if zpl could not be printed
      */
     public void printZpl(List<ZebraLabel> zebraLabels) throws ZebraPrintException {
-	StringBuilder zpl = new StringBuilder();
+	synchronized (sendLock) {
+	    Map<String, DownloadGraphic> downloadGraphics = getDownloadGraphics(zebraLabels);
+	    Set<String> pinnedPaths = pinObjects(zebraLabels, downloadGraphics);
+	    try {
+		writeBatch(zebraLabels, downloadGraphics);
+	    } catch (RuntimeException e) {
+		forgetStoredObjects();
+		throw e;
+	    } finally {
+		unpinObjects(pinnedPaths);
+	    }
+	}
+    }
+
+    private void writeBatch(List<ZebraLabel> zebraLabels, Map<String, DownloadGraphic> downloadGraphics)
+	    throws ZebraPrintException {
+	PrinterState printerState = getTrackedPrinterState();
+	ZplWriter zplWriter = new ZplWriter();
+	writeGraphicDownloads(downloadGraphics, zplWriter);
+	int formatCount = zebraLabels.size();
+	int labelCount = 0;
 	for (ZebraLabel zebraLabel : zebraLabels) {
-	    zpl.append(zebraLabel.getZplCode());
+	    labelCount += labelCount(zebraLabel);
+	}
+	if (storedFormatMode) {
+	    for (ZebraLabel zebraLabel : zebraLabels) {
+		writeStoredLabel(zebraLabel, zplWriter);
+	    }
+	} else if (coalesceLabels) {
+	    formatCount = new LabelCoalescer(templateCache, printerState).write(zebraLabels, zplWriter);
+	} else if (renderPool != null && zebraLabels.size() >= parallelThreshold) {
+	    zplWriter = renderParallel(zebraLabels, printerState, zplWriter);
+	} else {
+	    for (ZebraLabel zebraLabel : zebraLabels) {
+		writeLabel(zebraLabel, printerState, zplWriter);
+	    }
+	}
+	this.connectionClient.send(zplWriter, labelCount, formatCount);
+    }
+
+    private ZplWriter renderParallel(List<ZebraLabel> zebraLabels, PrinterState printerState,
+	    ZplWriter prefixWriter) {
+	byte[][] chunks = new byte[LabelBatchTask.chunkCount(zebraLabels.size())][];
+	PrinterState[] chunkStates = null;
+	if (printerState != null) {
+	    chunkStates = new PrinterState[chunks.length];
+	    chunkStates[0] = new PrinterState(printerState);
+	}
+	renderPool.invoke(new LabelBatchTask(zebraLabels, templateCache, chunks, chunkStates, 0, zebraLabels.size()));
+	if (printerState != null) {
+	    printerState.copyFrom(chunkStates[chunks.length - 1]);
+	}
+	int size = prefixWriter.size();
+	for (byte[] chunk : chunks) {
+	    size += chunk.length;
+	}
+	ZplWriter zplWriter = new ZplWriter(size);
+	zplWriter.append(prefixWriter);
+	for (byte[] chunk : chunks) {
+	    zplWriter.append(chunk);
+	}
+	return zplWriter;
+    }
+
+    /**
+     * Downloads a format to the printer, unless the printer already stores it
+     * with the same content. Formats are downloaded again once the connection
+     * is lost or a message fails to be sent (see
+     * ZebraConnectionClient.getFormatRegistry()). Least recently
+     * used objects exceeding the storage budget are deleted first, except the
+     * graphics the format recalls.
+     * 
+     * @param downloadFormat
+     *            format to store on the printer
+     * @return true if the format was sent
+     * @throws ZebraPrintException
+     *             if zpl could not be printed
+     */
+    public boolean downloadFormat(DownloadFormat downloadFormat) throws ZebraPrintException {
+	ZplWriter downloadWriter = new ZplWriter();
+	downloadFormat.writeZpl(downloadWriter);
+	synchronized (sendLock) {
+	    List<String> evictedPaths = new ArrayList<String>();
+	    if (!getFormatRegistry().storeFormat(downloadFormat.getPath(),
+		    FormatRegistry.contentHash(downloadWriter.toByteArray()), downloadWriter.size(),
+		    downloadFormat.getGraphicPaths(), evictedPaths)) {
+		return false;
+	    }
+	    ZplWriter zplWriter = new ZplWriter(downloadWriter.size() + 64);
+	    writeDeleteObjects(evictedPaths, zplWriter);
+	    zplWriter.append(downloadWriter);
+	    try {
+		this.connectionClient.send(zplWriter);
+	    } catch (RuntimeException e) {
+		forgetStoredObjects();
+		throw e;
+	    }
+	    return true;
+	}
+    }
+
+    /**
+     * Downloads a graphic to the printer (~DG), unless the printer already
+     * stores it : its name is derived from its content. Graphics are
+     * downloaded again once the connection is lost, like formats.
+     * 
+     * @param downloadGraphic
+     *            graphic to store on the printer
+     * @return true if the graphic was sent
+     * @throws ZebraPrintException
+     *             if zpl could not be printed
+     */
+    public boolean downloadGraphic(DownloadGraphic downloadGraphic) throws ZebraPrintException {
+	ZplWriter zplWriter = new ZplWriter(downloadGraphic.getSize() + 64);
+	synchronized (sendLock) {
+	    if (!writeGraphicDownload(downloadGraphic, zplWriter)) {
+		return false;
+	    }
+	    try {
+		this.connectionClient.send(zplWriter);
+	    } catch (RuntimeException e) {
+		forgetStoredObjects();
+		throw e;
+	    }
+	    return true;
 	}
-	printZpl(zpl.toString());
     }
 
     /**
@@ -89,6 +461,190 @@ public abstract class AbstractZebraPrinter {
      *             if zpl could not be printed
      */
     public void printZpl(String zpl) throws ZebraPrintException {
-	this.connectionClient.send(zpl);
+	synchronized (sendLock) {
+	    resetPrinterState();
+	    this.connectionClient.send(zpl);
+	}
+    }
+
+    /**
+     * prints zpl already encoded into a writer
+     * 
+     * @param zplWriter
+     *            writer holding the code Zpl to print
+     * @throws ZebraPrintException
+     *             if zpl could not be printed
+     */
+    public void printZpl(ZplWriter zplWriter) throws ZebraPrintException {
+	synchronized (sendLock) {
+	    resetPrinterState();
+	    this.connectionClient.send(zplWriter);
+	}
+    }
+
+    /**
+     * A message registering objects as stored could not be written or sent :
+     * the printer may not store them, forget every stored object.
+     */
+    private void forgetStoredObjects() {
+	getFormatRegistry().reset();
+    }
+
+    /**
+     * @return state of the printer if tracked, null otherwise
+     */
+    private PrinterState getTrackedPrinterState() {
+	return trackPrinterState ? connectionClient.getPrinterState() : null;
+    }
+
+    /**
+     * The storage budget of the printer is set on this registry (see
+     * FormatRegistry.setMaxBytes(long)).
+     * 
+     * @return objects stored on the printer, tracked by the connection client
+     *         if it can, by this printer otherwise (reset by
+     *         {@link #connect()}, {@link #disconnect()} and failed sends)
+     */
+    public FormatRegistry getFormatRegistry() {
+	FormatRegistry clientRegistry = connectionClient.getFormatRegistry();
+	return clientRegistry != null ? clientRegistry : formatRegistry;
+    }
+
+    /**
+     * Raw zpl may change the setup of the printer : forget it
+     */
+    private void resetPrinterState() {
+	PrinterState printerState = connectionClient.getPrinterState();
+	if (printerState != null) {
+	    printerState.reset();
+	}
+    }
+
+    /**
+     * Write a label recalling the format of its layout, downloading the format
+     * first if the printer does not store it. Formats contain setup commands,
+     * so the printer state is reset. The format depends on the graphics the
+     * label recalls : evicting one of them evicts the format.
+     */
+    private void writeStoredLabel(ZebraLabel zebraLabel, ZplWriter zplWriter) {
+	resetPrinterState();
+	StoredFormat storedFormat = getStoredFormat(zebraLabel);
+	if (!storedFormat.isLabelBindable()) {
+	    writeLabel(zebraLabel, null, zplWriter);
+	    return;
+	}
+	List<String> evictedPaths = new ArrayList<String>(0);
+	if (getFormatRegistry().storeFormat(storedFormat.getPath(), storedFormat.getContentHash(),
+		storedFormat.getDownloadSize(), getDownloadGraphics(Collections.singletonList(zebraLabel)).keySet(),
+		evictedPaths)) {
+	    writeDeleteObjects(evictedPaths, zplWriter);
+	    storedFormat.writeDownload(zplWriter);
+	}
+	storedFormat.writeRecall(zplWriter, zebraLabel);
+    }
+
+    /**
+     * @return the format of the label layout, compiled the first time the
+     *         layout is printed
+     */
+    private StoredFormat getStoredFormat(ZebraLabel zebraLabel) {
+	LabelFingerprint fingerprint = zebraLabel.getFingerprint();
+	synchronized (storedFormats) {
+	    StoredFormat storedFormat = storedFormats.get(fingerprint);
+	    if (storedFormat == null) {
+		LabelTemplate template = templateCache != null ? templateCache.getTemplate(zebraLabel) : null;
+		if (template == null) {
+		    template = new LabelTemplate(zebraLabel, true);
+		}
+		storedFormat = new StoredFormat(template, storedFormatDevice);
+		storedFormats.put(fingerprint, storedFormat);
+	    }
+	    return storedFormat;
+	}
+    }
+
+    /**
+     * @return the downloads of the graphics recalled by labels, each graphic
+     *         once, by path
+     */
+    private static Map<String, DownloadGraphic> getDownloadGraphics(List<ZebraLabel> zebraLabels) {
+	Map<String, DownloadGraphic> downloadGraphics = Collections.emptyMap();
+	for (ZebraLabel zebraLabel : zebraLabels) {
+	    for (ZebraElement zebraElement : zebraLabel.getZebraElements()) {
+		if (zebraElement instanceof ZebraRecallGraphic) {
+		    DownloadGraphic downloadGraphic = ((ZebraRecallGraphic) zebraElement).getDownloadGraphic();
+		    if (downloadGraphics.isEmpty()) {
+			downloadGraphics = new LinkedHashMap<String, DownloadGraphic>();
+		    }
+		    if (!downloadGraphics.containsKey(downloadGraphic.getPath())) {
+			downloadGraphics.put(downloadGraphic.getPath(), downloadGraphic);
+		    }
+		}
+	    }
+	}
+	return downloadGraphics;
+    }
+
+    /**
+     * Pin the graphics and formats a batch uses, so none of them is evicted
+     * while the batch is written and sent.
+     * 
+     * @return the pinned paths, to unpin once the batch is sent
+     */
+    private Set<String> pinObjects(List<ZebraLabel> zebraLabels, Map<String, DownloadGraphic> downloadGraphics) {
+	Set<String> pinnedPaths = new LinkedHashSet<String>(downloadGraphics.keySet());
+	if (storedFormatMode) {
+	    for (ZebraLabel zebraLabel : zebraLabels) {
+		StoredFormat storedFormat = getStoredFormat(zebraLabel);
+		if (storedFormat.isLabelBindable()) {
+		    pinnedPaths.add(storedFormat.getPath());
+		}
+	    }
+	}
+	if (!pinnedPaths.isEmpty()) {
+	    getFormatRegistry().pin(pinnedPaths);
+	}
+	return pinnedPaths;
+    }
+
+    private void unpinObjects(Set<String> pinnedPaths) {
+	if (!pinnedPaths.isEmpty()) {
+	    getFormatRegistry().unpin(pinnedPaths);
+	}
+    }
+
+    /**
+     * Write the download of the graphics not stored on the printer
+     */
+    private void writeGraphicDownloads(Map<String, DownloadGraphic> downloadGraphics, ZplWriter zplWriter) {
+	for (DownloadGraphic downloadGraphic : downloadGraphics.values()) {
+	    writeGraphicDownload(downloadGraphic, zplWriter);
+	}
+    }
+
+    private boolean writeGraphicDownload(DownloadGraphic downloadGraphic, ZplWriter zplWriter) {
+	List<String> evictedPaths = new ArrayList<String>(0);
+	if (!getFormatRegistry().storeFormat(downloadGraphic.getPath(), downloadGraphic.getBitmap().getContentHash(),
+		downloadGraphic.getSize(), evictedPaths)) {
+	    return false;
+	}
+	writeDeleteObjects(evictedPaths, zplWriter);
+	downloadGraphic.writeZpl(zplWriter);
+	return true;
+    }
+
+    private static int labelCount(ZebraLabel zebraLabel) {
+	Integer quantity = zebraLabel.getQuantity();
+	return quantity != null ? quantity.intValue() : 1;
+    }
+
+    private void writeDeleteObjects(List<String> evictedPaths, ZplWriter zplWriter) {
+	if (!evictedPaths.isEmpty()) {
+	    new DeleteObject(evictedPaths).writeZpl(zplWriter);
+	}
+    }
+
+    private void writeLabel(ZebraLabel zebraLabel, PrinterState printerState, ZplWriter zplWriter) {
+	LabelBatchTask.writeLabel(zebraLabel, templateCache, printerState, zplWriter);
     }
 }
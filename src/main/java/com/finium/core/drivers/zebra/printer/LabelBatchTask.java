@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ * 
+ * LabelBatchTask.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.printer;
+
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+import com.finium.core.drivers.zebra.model.LabelTemplateCache;
+import com.finium.core.drivers.zebra.model.PrinterState;
+import com.finium.core.drivers.zebra.model.ZebraLabel;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
+
+/**
+ * Fork/join task rendering a range of labels. The range is split until it
+ * holds at most one chunk of labels, every chunk is rendered into its own
+ * writer and stored at its index, so chunks can be stitched back in order.
+ * <p>
+ * When the printer state is tracked, the first chunk starts from the state of
+ * the printer, other chunks from an unknown state (so the first label of a
+ * chunk writes all its setup commands). The state at the end of every chunk is
+ * kept, the printer ends in the state of the last chunk.
+ * 
+ * @author Cristian Ramírez
+ */
+class LabelBatchTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Number of labels rendered by a single task
+     */
+    static final int CHUNK_SIZE = 64;
+
+    private final List<ZebraLabel> zebraLabels;
+
+    private final LabelTemplateCache templateCache;
+
+    private final byte[][] chunks;
+
+    private final PrinterState[] chunkStates;
+
+    private final int fromIndex;
+
+    private final int toIndex;
+
+    /**
+     * Constructor
+     * 
+     * @param zebraLabels
+     *            labels to render
+     * @param templateCache
+     *            cache of templates (may be null)
+     * @param chunks
+     *            rendered chunks, one per CHUNK_SIZE labels
+     * @param chunkStates
+     *            printer states at the end of every chunk, the first one
+     *            holding the initial state (null if states are not tracked)
+     * @param fromIndex
+     *            first label of the range (multiple of CHUNK_SIZE)
+     * @param toIndex
+     *            end of the range (exclusive)
+     */
+    LabelBatchTask(List<ZebraLabel> zebraLabels, LabelTemplateCache templateCache, byte[][] chunks,
+	    PrinterState[] chunkStates, int fromIndex, int toIndex) {
+	this.zebraLabels = zebraLabels;
+	this.templateCache = templateCache;
+	this.chunks = chunks;
+	this.chunkStates = chunkStates;
+	this.fromIndex = fromIndex;
+	this.toIndex = toIndex;
+    }
+
+    /**
+     * @param labelCount
+     *            number of labels
+     * @return number of chunks needed to render them
+     */
+    static int chunkCount(int labelCount) {
+	return (labelCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    @Override
+    protected void compute() {
+	int length = toIndex - fromIndex;
+	if (length <= CHUNK_SIZE) {
+	    int chunkIndex = fromIndex / CHUNK_SIZE;
+	    PrinterState printerState = null;
+	    if (chunkStates != null) {
+		printerState = chunkIndex == 0 ? chunkStates[0] : new PrinterState();
+		chunkStates[chunkIndex] = printerState;
+	    }
+	    ZplWriter zplWriter = new ZplWriter();
+	    for (int i = fromIndex; i < toIndex; i++) {
+		writeLabel(zebraLabels.get(i), templateCache, printerState, zplWriter);
+	    }
+	    chunks[chunkIndex] = zplWriter.toByteArray();
+	} else {
+	    int middle = fromIndex + chunkCount(length / 2) * CHUNK_SIZE;
+	    invokeAll(new LabelBatchTask(zebraLabels, templateCache, chunks, chunkStates, fromIndex, middle),
+		    new LabelBatchTask(zebraLabels, templateCache, chunks, chunkStates, middle, toIndex));
+	}
+    }
+
+    /**
+     * Render a label, from its template if a cache is given, omitting the setup
+     * commands already sent if a printer state is given
+     */
+    static void writeLabel(ZebraLabel zebraLabel, LabelTemplateCache templateCache, PrinterState printerState,
+	    ZplWriter zplWriter) {
+	if (templateCache != null) {
+	    templateCache.writeZpl(zebraLabel, zplWriter, printerState);
+	} else {
+	    zebraLabel.writeZpl(zplWriter, printerState);
+	}
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ * 
+ * LabelCoalescer.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.printer;
+
+import java.util.List;
+
+import com.finium.core.drivers.zebra.model.LabelTemplateCache;
+import com.finium.core.drivers.zebra.model.PrinterState;
+import com.finium.core.drivers.zebra.model.ZebraLabel;
+import com.finium.core.drivers.zebra.zpl.support.ZplUtils;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
+
+/**
+ * Render a batch of labels, collapsing consecutive labels whose code is byte
+ * identical into a single label printed with a ^PQ quantity.
+ * <p>
+ * Every label is rendered with all its setup commands and compared with the
+ * previous one (length first, then bytes). Labels with a quantity or
+ * serialized fields are never coalesced. When a run of identical labels
+ * ends, its first label is written (rendered again with the printer state if
+ * the state is tracked) with <code>^PQ</code> inserted before
+ * <code>^XZ</code>.
+ * <p>
+ * A coalescer is not thread safe.
+ * 
+ * @author Cristian Ramírez
+ */
+class LabelCoalescer {
+
+    private static final String END_LABEL = "^XZ\n";
+
+    private final LabelTemplateCache templateCache;
+
+    private final PrinterState printerState;
+
+    private ZplWriter previous = new ZplWriter();
+
+    private ZplWriter current = new ZplWriter();
+
+    private ZplWriter stateWriter;
+
+    private int formatCount;
+
+    /**
+     * Constructor
+     * 
+     * @param templateCache
+     *            cache of templates (may be null)
+     * @param printerState
+     *            state of the printer (null if not tracked)
+     */
+    LabelCoalescer(LabelTemplateCache templateCache, PrinterState printerState) {
+	this.templateCache = templateCache;
+	this.printerState = printerState;
+    }
+
+    /**
+     * Render labels into a writer
+     * 
+     * @param zebraLabels
+     *            labels to render
+     * @param zplWriter
+     *            writer receiving the code
+     * @return number of label formats written
+     */
+    int write(List<ZebraLabel> zebraLabels, ZplWriter zplWriter) {
+	formatCount = 0;
+	ZebraLabel runLabel = null;
+	int runQuantity = 0;
+	for (int i = 0; i < zebraLabels.size(); i++) {
+	    ZebraLabel zebraLabel = zebraLabels.get(i);
+	    current.reset();
+	    LabelBatchTask.writeLabel(zebraLabel, templateCache, null, current);
+	    if (runLabel != null && isCoalescable(zebraLabel) && current.contentEquals(previous)) {
+		runQuantity++;
+	    } else {
+		if (runLabel != null) {
+		    writeRun(runLabel, runQuantity, zplWriter);
+		}
+		ZplWriter swap = previous;
+		previous = current;
+		current = swap;
+		runLabel = zebraLabel;
+		runQuantity = 1;
+	    }
+	}
+	if (runLabel != null) {
+	    writeRun(runLabel, runQuantity, zplWriter);
+	}
+	return formatCount;
+    }
+
+    /**
+     * Labels having their own quantity or serialized fields print different
+     * labels once multiplied by ^PQ
+     */
+    private static boolean isCoalescable(ZebraLabel zebraLabel) {
+	return zebraLabel.getQuantity() == null && !zebraLabel.isSerialized();
+    }
+
+    /**
+     * Write the first label of a run (held by previous) with its quantity
+     */
+    private void writeRun(ZebraLabel runLabel, int runQuantity, ZplWriter zplWriter) {
+	ZplWriter runWriter = previous;
+	if (printerState != null) {
+	    if (stateWriter == null) {
+		stateWriter = new ZplWriter();
+	    }
+	    stateWriter.reset();
+	    LabelBatchTask.writeLabel(runLabel, templateCache, printerState, stateWriter);
+	    runWriter = stateWriter;
+	}
+	formatCount++;
+	if (runQuantity > 1 && runWriter.endsWith(END_LABEL)) {
+	    zplWriter.append(runWriter, 0, runWriter.size() - END_LABEL.length());
+	    ZplUtils.zplCommand(zplWriter, "PQ", runQuantity).newLine();
+	    zplWriter.append(END_LABEL);
+	} else {
+	    for (int i = 0; i < runQuantity; i++) {
+		zplWriter.append(runWriter);
+	    }
+	    formatCount += runQuantity - 1;
+	}
+    }
+}
@@ -25,6 +25,9 @@ import java.util.concurrent.Executors;
 
 import com.finium.core.drivers.zebra.listeners.ClientListener;
 import com.finium.core.drivers.zebra.listeners.DataListener;
+import com.finium.core.drivers.zebra.model.FormatRegistry;
+import com.finium.core.drivers.zebra.model.PrinterState;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
 
 /**
  * This class is an implementation of <code>ZebraConnectionClient</code> That
@@ -60,6 +63,16 @@ public class SocketZebraConnectionClient implements ZebraConnectionClient {
     private boolean connected = false;
     private boolean alive = false;
 
+    /**
+     * Setup sent to the printer since the connection was established
+     */
+    private final PrinterState printerState = new PrinterState();
+
+    /**
+     * Formats downloaded to the printer since the connection was established
+     */
+    private final FormatRegistry formatRegistry = new FormatRegistry();
+
     /**
      * Constructor
      * 
@@ -93,20 +106,21 @@ public class SocketZebraConnectionClient implements ZebraConnectionClient {
 			while (keys.hasNext()) {
 			    SelectionKey key = keys.next();
 			    keys.remove();
-			    if (!key.isValid()) {
-				continue;
-			    } else if (key.isConnectable()) {
+			    // Only the connection is registered with the selector
+			    if (key.isValid() && key.isConnectable()) {
 				makeConnect(key);
+				printerState.reset();
+				formatRegistry.reset();
 				connected = true;
 				notifyConnected();
-			    } else {
-				System.out.println("Unrecognized valid key");
 			    }
 			}
 		    }
 		} catch (IOException ioe) {
 		    notifyFailConnect(ioe);
 		} finally {
+		    printerState.reset();
+		    formatRegistry.reset();
 		    if (connected) {
 			notifyDisconnected();
 		    }
@@ -182,6 +196,20 @@ public class SocketZebraConnectionClient implements ZebraConnectionClient {
 	}
     }
 
+    private void notifyLabelsSent(final int labelCount, final int formatCount) {
+	/*
+	 * For each listener, create a separate independent thread for firing
+	 * the listener methods.
+	 */
+	for (final DataListener l : dataListeners) {
+	    executorService.execute(new Runnable() {
+		public void run() {
+		    l.labelsSent(labelCount, formatCount);
+		}
+	    });
+	}
+    }
+
     private void notifyMessageSendFailed(final ConnectionClientException exception, final String messageToSend) {
 	/*
 	 * For each listener, create a separate independent thread for firing
@@ -231,10 +259,14 @@ public class SocketZebraConnectionClient implements ZebraConnectionClient {
     /**
      * {@inheritDoc}
      * 
+     * Raw zpl may change the setup of the printer (^MM, ^PW, ^LL, ^CF), so the
+     * printer state is reset : the next label writes its whole setup.
+     * 
      * @throws IOException
      */
     @Override
     public void send(String zplMessage) {
+	printerState.reset();
 	try {
 	    ByteBuffer bb = ByteBuffer.wrap(zplMessage.getBytes(Charset.forName("US-ASCII")));
 	    while (bb.hasRemaining()) {
@@ -242,15 +274,66 @@ public class SocketZebraConnectionClient implements ZebraConnectionClient {
 	    }
 	    notifyMessageSent(zplMessage);
 	} catch (IOException ioe) {
+	    printerState.reset();
+	    formatRegistry.reset();
 	    notifyMessageSendFailed(new ConnectionClientException("Failed to send message.", ioe), zplMessage);
 	}
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * The bytes of the writer are written to the socket as they are, the
+     * message is only decoded when data listeners are registered.
+     */
+    @Override
+    public void send(ZplWriter zplWriter) {
+	send(zplWriter, 0, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void send(ZplWriter zplWriter, int labelCount, int formatCount) {
+	try {
+	    zplWriter.writeTo(channel);
+	    if (!dataListeners.isEmpty()) {
+		notifyMessageSent(zplWriter.toString());
+		if (labelCount > 0) {
+		    notifyLabelsSent(labelCount, formatCount);
+		}
+	    }
+	} catch (IOException ioe) {
+	    printerState.reset();
+	    formatRegistry.reset();
+	    notifyMessageSendFailed(new ConnectionClientException("Failed to send message.", ioe), zplWriter.toString());
+	}
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PrinterState getPrinterState() {
+	return printerState;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FormatRegistry getFormatRegistry() {
+	return formatRegistry;
+    }
+
     /**
      * {@inheritDoc}
      */
     public void connect() {
 	if (!alive) {
+	    printerState.reset();
+	    formatRegistry.reset();
 	    commExecutorService.execute(commRunnable);
 	}
     }
@@ -261,6 +344,8 @@ public class SocketZebraConnectionClient implements ZebraConnectionClient {
     public void disconnect() {
 	if (alive) {
 	    alive = false;
+	    printerState.reset();
+	    formatRegistry.reset();
 	}
 
     }
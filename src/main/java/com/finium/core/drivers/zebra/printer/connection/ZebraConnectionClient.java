@@ -12,6 +12,9 @@ package com.finium.core.drivers.zebra.printer.connection;
 
 import com.finium.core.drivers.zebra.listeners.ClientListener;
 import com.finium.core.drivers.zebra.listeners.DataListener;
+import com.finium.core.drivers.zebra.model.FormatRegistry;
+import com.finium.core.drivers.zebra.model.PrinterState;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
 
 /**
  * This interface define the Connection level contract with the zebra system.
@@ -82,4 +85,59 @@ public interface ZebraConnectionClient {
      *            The message to send.
      */
     void send(String zplMessage);
+
+    /**
+     * Instruct the client to send ZPL communication message already encoded
+     * into a writer. Default implementation decodes the writer and calls
+     * {@link #send(String)}, implementations should overload it to send the
+     * bytes as they are.
+     * 
+     * @param zplWriter
+     *            The writer holding the message to send.
+     */
+    default void send(ZplWriter zplWriter) {
+	send(zplWriter.toString());
+    }
+
+    /**
+     * Instruct the client to send labels already encoded into a writer. Data
+     * listeners are notified of the number of labels sent (see
+     * {@link DataListener#labelsSent(int, int)}). Default implementation calls
+     * {@link #send(ZplWriter)} without notification.
+     * 
+     * @param zplWriter
+     *            The writer holding the labels to send.
+     * @param labelCount
+     *            number of labels printed by the message (quantities
+     *            included)
+     * @param formatCount
+     *            number of label formats in the message
+     */
+    default void send(ZplWriter zplWriter, int labelCount, int formatCount) {
+	send(zplWriter);
+    }
+
+    /**
+     * Setup last sent to the printer on this connection. Implementations
+     * tracking it must reset it every time the connection is established or
+     * lost, and when a message fails to be sent.
+     * 
+     * @return the printer state, or <code>null</code> if this client does not
+     *         track it (default)
+     */
+    default PrinterState getPrinterState() {
+	return null;
+    }
+
+    /**
+     * Formats stored on the printer since the connection was established.
+     * Implementations tracking them must reset the registry every time the
+     * connection is established or lost, and when a message fails to be sent.
+     * 
+     * @return the format registry, or <code>null</code> if this client does
+     *         not track it (default)
+     */
+    default FormatRegistry getFormatRegistry() {
+	return null;
+    }
 }
@@ -39,6 +39,11 @@ public enum ZebraCommonCodes {
      */
     RECALL_FORMAT("XF",
             "Recall Format"),
+    /**
+     * Deletes objects (formats, graphics...) stored on a device.
+     * Format: ^IDd:o.x
+     */
+    OBJECT_DELETE("ID", "Object Delete"),
     /**
      * A matrix symbology consisting of an array of
      * nominally square modules arranged in an overall
@@ -10,6 +10,8 @@
  */
 package com.finium.core.drivers.zebra.zpl.command;
 
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
+
 /**
  * Command to determine this action the printer takes after a label or group of
  * label has been printed.
@@ -70,4 +72,14 @@ public enum ZebraPrintMode {
     public String getZplCode() {
 	return "^MM" + desiredMode + prePeelSelect + "\n";
     }
+
+    /**
+     * Write ^MM command into a writer
+     * 
+     * @param zplWriter
+     *            writer receiving the code
+     */
+    public void writeZpl(ZplWriter zplWriter) {
+	zplWriter.append("^MM").append(desiredMode).append(prePeelSelect).newLine();
+    }
 }
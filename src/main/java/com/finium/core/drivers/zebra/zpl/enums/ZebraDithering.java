@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ * 
+ * ZebraDithering.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.zpl.enums;
+
+/**
+ * Conversion of the gray levels of an image to the black and white dots of a
+ * printer.
+ * 
+ * @author Cristian Ramírez
+ */
+public enum ZebraDithering {
+
+    /**
+     * Dots darker than the threshold are black. Best for logos and text.
+     */
+    THRESHOLD(true),
+
+    /**
+     * Threshold varying with a 4x4 Bayer matrix. Regular pattern, every dot
+     * computed independently.
+     */
+    ORDERED(true),
+
+    /**
+     * Floyd–Steinberg error diffusion. Best for photos, each dot depends on the
+     * previous ones.
+     */
+    FLOYD_STEINBERG(false);
+
+    boolean parallelizable;
+
+    /**
+     * 
+     * @param parallelizable
+     */
+    private ZebraDithering(boolean parallelizable) {
+	this.parallelizable = parallelizable;
+    }
+
+    /**
+     * @return true if rows can be dithered independently
+     */
+    public boolean isParallelizable() {
+	return parallelizable;
+    }
+}
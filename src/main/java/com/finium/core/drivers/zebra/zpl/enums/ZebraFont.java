@@ -17,16 +17,38 @@ package com.finium.core.drivers.zebra.zpl.enums;
  */
 public enum ZebraFont {
 
-    ZEBRA_ZERO("0"), ZEBRA_A("A"), ZEBRA_B("B"), ZEBRA_C("C"), ZEBRA_D("D"), ZEBRA_F("F"), ZEBRA_G("G");
+    ZEBRA_ZERO("0", 15, 12, 0), ZEBRA_A("A", 9, 5, 1), ZEBRA_B("B", 11, 7, 2), ZEBRA_C("C", 18, 10, 2),
+    ZEBRA_D("D", 18, 10, 2), ZEBRA_F("F", 26, 13, 3), ZEBRA_G("G", 60, 40, 8);
 
     String letter;
 
+    /**
+     * Height of the character matrix in dots (default height of font 0)
+     */
+    private int matrixHeight;
+
+    /**
+     * Width of the character matrix in dots (default width of font 0)
+     */
+    private int matrixWidth;
+
+    /**
+     * Dots between two characters of a bitmap font, 0 for font 0
+     */
+    private int characterGap;
+
     /**
      * 
      * @param letter
+     * @param matrixHeight
+     * @param matrixWidth
+     * @param characterGap
      */
-    private ZebraFont(String letter) {
+    private ZebraFont(String letter, int matrixHeight, int matrixWidth, int characterGap) {
 	this.letter = letter;
+	this.matrixHeight = matrixHeight;
+	this.matrixWidth = matrixWidth;
+	this.characterGap = characterGap;
     }
 
     /**
@@ -36,6 +58,39 @@ public enum ZebraFont {
 	return letter;
     }
 
+    /**
+     * @return height of the character matrix in dots (default height of
+     *         scalable font 0)
+     */
+    public int getMatrixHeight() {
+	return matrixHeight;
+    }
+
+    /**
+     * @return width of the character matrix in dots (default width of scalable
+     *         font 0)
+     */
+    public int getMatrixWidth() {
+	return matrixWidth;
+    }
+
+    /**
+     * @return dots between two characters of a bitmap font, at magnification 1
+     */
+    public int getCharacterGap() {
+	return characterGap;
+    }
+
+    /**
+     * Font 0 is scaled to any size, bitmap fonts are magnified by a whole
+     * factor of their matrix.
+     * 
+     * @return true for font 0
+     */
+    public boolean isScalable() {
+	return this == ZEBRA_ZERO;
+    }
+
     /**
      * use for preview to find an equivalent font compatible with Graphic2D
      * 
@@ -43,7 +98,7 @@ public enum ZebraFont {
      * @return
      */
     public static String findBestEquivalentFontForPreview(ZebraFont zebraFont) {
-	return "Arial";
+	return zebraFont == null || zebraFont.isScalable() ? "Arial" : "Monospaced";
     }
 
 }
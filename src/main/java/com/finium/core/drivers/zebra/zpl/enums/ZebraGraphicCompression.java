@@ -0,0 +1,35 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ * 
+ * ZebraGraphicCompression.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.zpl.enums;
+
+/**
+ * Encodings of the data of a graphic (^GF, ~DG), all written as ASCII.
+ * 
+ * @author Cristian Ramírez
+ */
+public enum ZebraGraphicCompression {
+
+    /**
+     * Two hexadecimal digits per byte
+     */
+    HEXADECIMAL,
+
+    /**
+     * ASCII compression scheme : hexadecimal digits with repeat counts (G-Y,
+     * g-z), end of row filled with zeros (,) or ones (!), row repeated (:)
+     */
+    ACS,
+
+    /**
+     * :Z64: deflate compression, base 64 encoded, followed by a CRC16
+     */
+    Z64;
+}
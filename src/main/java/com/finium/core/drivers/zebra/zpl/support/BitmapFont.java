@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * BitmapFont.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.zpl.support;
+
+import java.text.Normalizer;
+
+/**
+ * Built-in 5 x 9 dots glyphs of the printable ASCII characters, used to draw
+ * texts without any system font. Capitals and digits are 7 dots high above the
+ * baseline, the 2 rows below hold the descenders (like the matrix of Zebra
+ * font A).
+ * <p>
+ * Accented letters are drawn as their base letter, other characters as a box.
+ *
+ * @author Cristian Ramírez
+ */
+public final class BitmapFont {
+
+    /**
+     * Columns of a glyph
+     */
+    public static final int GLYPH_WIDTH = 5;
+
+    /**
+     * Rows of a glyph, descenders included
+     */
+    public static final int GLYPH_HEIGHT = 9;
+
+    /**
+     * Rows of a glyph above the baseline
+     */
+    public static final int BASELINE = 7;
+
+    private static final char FIRST_CHARACTER = ' ';
+
+    /**
+     * Glyphs from the space to the tilde : 9 rows of 5 bits, the top row in
+     * the high bits, the left column in the high bit of a row
+     */
+    private static final long[] GLYPHS = {
+            0x000000000000L, 0x042108401000L, 0x0a5280000000L, 0x0a57d5f52800L, //   ! " #
+            0x047d1c5f1000L, 0x18c888898c00L, 0x0c9511593400L, 0x042200000000L, // $ % & '
+            0x022210820800L, 0x082084222000L, 0x00255d520000L, 0x00213e420000L, // ( ) * +
+            0x000000c22000L, 0x00003e000000L, 0x000000063000L, 0x000888880000L, // , - . /
+            0x0e8ceb98b800L, 0x046108423800L, 0x0e8844447c00L, 0x1f110418b800L, // 0 1 2 3
+            0x0232a5f10800L, 0x1f878218b800L, 0x06443d18b800L, 0x1f0888842000L, // 4 5 6 7
+            0x0e8c5d18b800L, 0x0e8c5e113000L, 0x006300c60000L, 0x006300c22000L, // 8 9 : ;
+            0x022220820800L, 0x0007c1f00000L, 0x082082222000L, 0x0e8844401000L, // < = > ?
+            0x0e885b5ab800L, 0x0e8c63f8c400L, 0x1e8c7d18f800L, 0x0e8c2108b800L, // @ A B C
+            0x1c9463197000L, 0x1f843d087c00L, 0x1f843d084000L, 0x0e8c2f18bc00L, // D E F G
+            0x118c7f18c400L, 0x0e2108423800L, 0x071084293000L, 0x119531494400L, // H I J K
+            0x108421087c00L, 0x11dd6b18c400L, 0x118e6b38c400L, 0x0e8c6318b800L, // L M N O
+            0x1e8c7d084000L, 0x0e8c63593400L, 0x1e8c7d494400L, 0x0f841c10f800L, // P Q R S
+            0x1f2108421000L, 0x118c6318b800L, 0x118c63151000L, 0x118c6b5aa800L, // T U V W
+            0x118a88a8c400L, 0x118c54421000L, 0x1f0888887c00L, 0x0e4210843800L, // X Y Z [
+            0x008208208000L, 0x0e1084213800L, 0x045440000000L, 0x000000007c00L, // \ ] ^ _
+            0x082080000000L, 0x000382f8bc00L, 0x1085b318f800L, 0x0003a108b800L, // ` a b c
+            0x010b6718bc00L, 0x0003a3f83800L, 0x064a38842000L, 0x0003e317862eL, // d e f g
+            0x1085b318c400L, 0x040308423800L, 0x020184210a4cL, 0x1084a98a4800L, // h i j k
+            0x0c2108423800L, 0x0006ab58c400L, 0x0005b318c400L, 0x0003a318b800L, // l m n o
+            0x0007a31f4210L, 0x0003e3178421L, 0x0005b3084000L, 0x0003a0e0f800L, // p q r s
+            0x084710849800L, 0x00046319b400L, 0x000463151000L, 0x0004635aa800L, // t u v w
+            0x000454454400L, 0x00046317862eL, 0x0007c4447c00L, 0x022110420800L, // x y z {
+            0x042108421000L, 0x082104422000L, 0x00022a200000L // | } ~
+    };
+
+    /**
+     * Glyph of the characters without glyph : a box
+     */
+    private static final long MISSING_GLYPH = 0x1f8c6318fc00L;
+
+    private BitmapFont() {
+    }
+
+    /**
+     * @param c character
+     * @return glyph of the character
+     */
+    public static long getGlyph(char c) {
+        if (c >= FIRST_CHARACTER && c < FIRST_CHARACTER + GLYPHS.length) {
+            return GLYPHS[c - FIRST_CHARACTER];
+        }
+        if (c > 0x7f && Character.isLetter(c)) {
+            // Base letter of an accented letter
+            char base = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD).charAt(0);
+            if (base >= FIRST_CHARACTER && base < FIRST_CHARACTER + GLYPHS.length) {
+                return GLYPHS[base - FIRST_CHARACTER];
+            }
+        }
+        return MISSING_GLYPH;
+    }
+
+    /**
+     * @param glyph glyph of a character
+     * @param row   row, from 0 (top) to {@link #GLYPH_HEIGHT} - 1
+     * @return dots of the row, the left column in bit 4
+     */
+    public static int getRow(long glyph, int row) {
+        return (int) (glyph >>> (GLYPH_WIDTH * (GLYPH_HEIGHT - 1 - row))) & 0x1f;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * Code128Encoder.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.zpl.support;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Encoder of the field data of a Code 128 bar code (^BC, mode N) into its bars
+ * and spaces : the invocation codes are read like the printer does (start in
+ * subset B unless a start code is given), the check character is computed and
+ * the stop pattern added.
+ * <p>
+ * Data the current subset cannot hold (an odd digit in subset C, a lower case
+ * letter in subset A...) is encoded after an implicit switch of subset, which
+ * gives the width of the symbol the printer prints.
+ *
+ * @author Cristian Ramírez
+ */
+public final class Code128Encoder {
+
+    private static final int SUBSET_A = 0;
+
+    private static final int SUBSET_B = 1;
+
+    private static final int SUBSET_C = 2;
+
+    private static final int CODE_C = 99;
+
+    private static final int CODE_B = 100;
+
+    private static final int CODE_A = 101;
+
+    private static final int SHIFT = 98;
+
+    private static final int FNC4 = 100;
+
+    private static final int START_A = 103;
+
+    private static final int STOP = 106;
+
+    /**
+     * Widths of the bars and spaces of the symbol characters (106 is stop)
+     */
+    private static final String[] PATTERNS = { "212222", "222122", "222221", "121223", "121322", "131222",
+            "122213", "122312", "132212", "221213", "221312", "231212", "112232", "122132", "122231", "113222",
+            "123122", "123221", "223211", "221132", "221231", "213212", "223112", "312131", "311222", "321122",
+            "321221", "312212", "322112", "322211", "212123", "212321", "232121", "111323", "131123", "131321",
+            "112313", "132113", "132311", "211313", "231113", "231311", "112133", "112331", "132131", "113123",
+            "113321", "133121", "313121", "211331", "231131", "213113", "213311", "213131", "311123", "311321",
+            "331121", "312113", "312311", "332111", "314111", "221411", "431111", "111224", "111422", "121124",
+            "121421", "141122", "141221", "112214", "112412", "122114", "122411", "142112", "142211", "241211",
+            "221114", "413111", "241112", "134111", "111242", "121142", "121241", "114212", "124112", "124211",
+            "411212", "421112", "421211", "212141", "214121", "412121", "111143", "111341", "131141", "114113",
+            "114311", "411113", "411311", "113141", "114131", "311141", "411131", "211412", "211214", "211232",
+            "2331112" };
+
+    private Code128Encoder() {
+    }
+
+    /**
+     * @param fieldData field data, with invocation codes
+     * @return bars and spaces of the symbol
+     */
+    public static LinearSymbol encode(String fieldData) {
+        int[] values = new int[fieldData.length() + 8];
+        int count = 0;
+        int subset = SUBSET_B;
+        int index = 0;
+        if (fieldData.length() >= 2 && fieldData.charAt(0) == '>' && fieldData.charAt(1) >= '9'
+                && fieldData.charAt(1) <= ';') {
+            subset = fieldData.charAt(1) - '9';
+            index = 2;
+        }
+        values[count++] = START_A + subset;
+        boolean shifted = false;
+        while (index < fieldData.length()) {
+            // A character takes at most 4 values (switches, FNC4)
+            values = ensureCapacity(values, count + 4);
+            char c = fieldData.charAt(index);
+            if (c == '>' && index + 1 < fieldData.length()) {
+                int value = invocationValue(fieldData.charAt(index + 1));
+                index += 2;
+                if (value < 0) {
+                    continue;
+                }
+                values[count++] = value;
+                if (value == CODE_C && subset != SUBSET_C) {
+                    subset = SUBSET_C;
+                } else if (value == CODE_B && subset != SUBSET_B) {
+                    subset = SUBSET_B;
+                } else if (value == CODE_A && subset != SUBSET_A) {
+                    subset = SUBSET_A;
+                } else if (value == SHIFT && subset != SUBSET_C) {
+                    shifted = true;
+                    continue;
+                }
+                shifted = false;
+                continue;
+            }
+            int charSubset = shifted ? SUBSET_A + SUBSET_B - subset : subset;
+            shifted = false;
+            if (charSubset == SUBSET_C) {
+                if (index + 1 < fieldData.length() && isDigit(c) && isDigit(fieldData.charAt(index + 1))) {
+                    values[count++] = (c - '0') * 10 + fieldData.charAt(index + 1) - '0';
+                    index += 2;
+                    continue;
+                }
+                subset = charSubset = c < 32 ? SUBSET_A : SUBSET_B;
+                values[count++] = charSubset == SUBSET_A ? CODE_A : CODE_B;
+            }
+            if (c > 127) {
+                values[count++] = FNC4;
+                c -= 128;
+            }
+            if (charSubset == SUBSET_A && c >= 96 || charSubset == SUBSET_B && c < 32) {
+                subset = charSubset = SUBSET_A + SUBSET_B - charSubset;
+                values[count++] = charSubset == SUBSET_A ? CODE_A : CODE_B;
+            }
+            values[count++] = c < 32 ? c + 64 : c - 32;
+            index++;
+        }
+        int checksum = values[0];
+        for (int i = 1; i < count; i++) {
+            checksum += values[i] * i;
+        }
+        values = ensureCapacity(values, count + 2);
+        values[count++] = checksum % 103;
+        values[count++] = STOP;
+
+        ByteArrayOutputStream elements = new ByteArrayOutputStream(count * 6 + 1);
+        for (int i = 0; i < count; i++) {
+            String pattern = PATTERNS[values[i]];
+            for (int j = 0; j < pattern.length(); j++) {
+                elements.write(pattern.charAt(j) - '0');
+            }
+        }
+        return new LinearSymbol(elements.toByteArray());
+    }
+
+    /**
+     * @return value of the invocation code, -1 if unknown
+     */
+    private static int invocationValue(char code) {
+        switch (code) {
+        case '<':
+            return '>' - 32;
+        case '0':
+            return 30;
+        case '=':
+            return 94;
+        default:
+            if (code >= '1' && code <= '8') {
+                return 95 + code - '1';
+            }
+            return -1;
+        }
+    }
+
+    private static int[] ensureCapacity(int[] values, int capacity) {
+        if (capacity <= values.length) {
+            return values;
+        }
+        int[] larger = new int[Math.max(capacity, values.length * 2)];
+        System.arraycopy(values, 0, larger, 0, values.length);
+        return larger;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * Code128SubsetOptimizer.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.zpl.support;
+
+/**
+ * Chooses the subsets of a Code 128 bar code (^BC, mode N) giving the
+ * narrowest symbol, and writes the field data with the matching invocation
+ * codes : <code>&gt;9</code>, <code>&gt;:</code>, <code>&gt;;</code> start in
+ * subset A, B, C; <code>&gt;7</code>, <code>&gt;6</code>, <code>&gt;5</code>
+ * switch to subset A, B, C. Subset C packs two digits per symbol character,
+ * so runs of digits take half the width.
+ * <p>
+ * The choice minimizes the number of symbol characters (data characters plus
+ * switches), by dynamic programming over the data. The printer starts in
+ * subset B, so no start code is written when subset B is chosen first.
+ *
+ * @author Cristian Ramírez
+ */
+public final class Code128SubsetOptimizer {
+
+    private static final int SUBSET_A = 0;
+
+    private static final int SUBSET_B = 1;
+
+    private static final int SUBSET_C = 2;
+
+    /**
+     * Order of the subsets when they give the same width : subset B is the
+     * default of the printer
+     */
+    private static final int[] PREFERRED_SUBSETS = { SUBSET_B, SUBSET_C, SUBSET_A };
+
+    private static final String[] START_CODES = { ">9", ">:", ">;" };
+
+    private static final String[] SWITCH_CODES = { ">7", ">6", ">5" };
+
+    private Code128SubsetOptimizer() {
+    }
+
+    /**
+     * Write data with the subsets giving the narrowest symbol.
+     * <p>
+     * Data holding invocation codes already (a <code>&gt;</code> character) or
+     * characters outside ASCII is returned unchanged.
+     *
+     * @param data data of the bar code
+     * @return field data with invocation codes
+     */
+    public static String optimize(String data) {
+        if (data == null || data.isEmpty() || data.indexOf('>') >= 0) {
+            return data;
+        }
+        int length = data.length();
+        for (int i = 0; i < length; i++) {
+            if (data.charAt(i) > 127) {
+                return data;
+            }
+        }
+        // costs[i][s] : symbol characters encoding data from i, the character
+        // i being encoded in subset s; nextSubsets[i][s] subset of the next one
+        int[][] costs = new int[length + 1][3];
+        int[][] nextSubsets = new int[length + 1][3];
+        for (int i = length - 1; i >= 0; i--) {
+            for (int subset = SUBSET_A; subset <= SUBSET_C; subset++) {
+                int next = i + characterCount(subset);
+                if (!encodes(data, i, subset)) {
+                    costs[i][subset] = Integer.MAX_VALUE;
+                } else if (next == length) {
+                    costs[i][subset] = 1;
+                } else {
+                    int bestCost = costs[next][subset];
+                    int bestSubset = subset;
+                    for (int other : PREFERRED_SUBSETS) {
+                        if (other != subset && costs[next][other] != Integer.MAX_VALUE
+                                && costs[next][other] + 1 < bestCost) {
+                            bestCost = costs[next][other] + 1;
+                            bestSubset = other;
+                        }
+                    }
+                    costs[i][subset] = bestCost == Integer.MAX_VALUE ? bestCost : bestCost + 1;
+                    nextSubsets[i][subset] = bestSubset;
+                }
+            }
+        }
+        int subset = SUBSET_B;
+        for (int other : PREFERRED_SUBSETS) {
+            if (costs[0][other] < costs[0][subset]) {
+                subset = other;
+            }
+        }
+        if (costs[0][subset] == Integer.MAX_VALUE) {
+            return data;
+        }
+        StringBuilder builder = new StringBuilder(length + 8);
+        if (subset != SUBSET_B) {
+            builder.append(START_CODES[subset]);
+        }
+        int i = 0;
+        while (true) {
+            int next = i + characterCount(subset);
+            builder.append(data, i, next);
+            if (next == length) {
+                return builder.toString();
+            }
+            int nextSubset = nextSubsets[i][subset];
+            if (nextSubset != subset) {
+                builder.append(SWITCH_CODES[nextSubset]);
+            }
+            subset = nextSubset;
+            i = next;
+        }
+    }
+
+    private static int characterCount(int subset) {
+        return subset == SUBSET_C ? 2 : 1;
+    }
+
+    /**
+     * @return true if the character (two digits for subset C) at index can be
+     *         encoded in the subset
+     */
+    private static boolean encodes(String data, int index, int subset) {
+        char c = data.charAt(index);
+        switch (subset) {
+        case SUBSET_A:
+            return c < 96;
+        case SUBSET_B:
+            return c >= 32;
+        default:
+            return index + 1 < data.length() && isDigit(c) && isDigit(data.charAt(index + 1));
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * Code39Encoder.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.zpl.support;
+
+/**
+ * Encoder of the data of a Code 39 bar code (^B3) into its bars and spaces :
+ * start and stop characters (*), optional mod 43 check character, and a narrow
+ * space between characters. A character is 5 bars and 4 spaces, 3 of them
+ * wide.
+ *
+ * @author Cristian Ramírez
+ */
+public final class Code39Encoder {
+
+    private static final String ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ-. $/+%";
+
+    /**
+     * Wide elements of each character of the alphabet, first element in the
+     * high bit
+     */
+    private static final int[] PATTERNS = { 0x034, 0x121, 0x061, 0x160, 0x031, 0x130, 0x070, 0x025, 0x124, 0x064,
+            0x109, 0x049, 0x148, 0x019, 0x118, 0x058, 0x00D, 0x10C, 0x04C, 0x01C, 0x103, 0x043, 0x142, 0x013, 0x112,
+            0x052, 0x007, 0x106, 0x046, 0x016, 0x181, 0x0C1, 0x1C0, 0x091, 0x190, 0x0D0, 0x085, 0x184, 0x0C4, 0x0A8,
+            0x0A2, 0x08A, 0x02A };
+
+    private static final int START_STOP = 0x094;
+
+    private Code39Encoder() {
+    }
+
+    /**
+     * @param data         data of the bar code, without start and stop
+     *                     characters
+     * @param checkDigit43 true to add the mod 43 check character
+     * @return bars and spaces of the symbol
+     * @throws IllegalArgumentException if a character can not be encoded
+     */
+    public static LinearSymbol encode(String data, boolean checkDigit43) {
+        int characterCount = data.length() + (checkDigit43 ? 3 : 2);
+        byte[] elements = new byte[characterCount * 10 - 1];
+        int offset = writeCharacter(elements, 0, START_STOP);
+        int checksum = 0;
+        for (int i = 0; i < data.length(); i++) {
+            int value = ALPHABET.indexOf(data.charAt(i));
+            if (value < 0) {
+                throw new IllegalArgumentException("Character '" + data.charAt(i) + "' not allowed in Code 39");
+            }
+            checksum += value;
+            offset = writeCharacter(elements, offset, PATTERNS[value]);
+        }
+        if (checkDigit43) {
+            offset = writeCharacter(elements, offset, PATTERNS[checksum % 43]);
+        }
+        writeCharacter(elements, offset, START_STOP);
+        return new LinearSymbol(elements);
+    }
+
+    /**
+     * Write the 9 elements of a character, and the space following it (except
+     * the stop character)
+     *
+     * @return offset of the next character
+     */
+    private static int writeCharacter(byte[] elements, int offset, int pattern) {
+        for (int i = 0; i < 9; i++) {
+            elements[offset++] = (pattern & (0x100 >> i)) != 0 ? LinearSymbol.WIDE : 1;
+        }
+        if (offset < elements.length) {
+            elements[offset++] = 1;
+        }
+        return offset;
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * GraphicEncoder.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.zpl.support;
+
+import java.util.zip.Deflater;
+
+import com.finium.core.drivers.zebra.zpl.enums.ZebraGraphicCompression;
+
+/**
+ * Encoders of packed graphic data (8 dots per byte, rows padded to whole
+ * bytes) written straight into a {@link ZplWriter}, without intermediate
+ * strings.
+ *
+ * @author Cristian Ramírez
+ */
+public final class GraphicEncoder {
+
+    private static final char[] HEXA_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private static final char[] BASE64_DIGITS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/"
+            .toCharArray();
+
+    private static final char[] CRC_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Largest repeat count of one ACS count (z = 400, Y = 19)
+     */
+    private static final int MAX_REPEAT = 419;
+
+    private static final int[] CRC16_TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int crc = i << 8;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 0x8000) != 0 ? (crc << 1) ^ 0x1021 : crc << 1;
+            }
+            CRC16_TABLE[i] = crc & 0xffff;
+        }
+    }
+
+    private GraphicEncoder() {
+    }
+
+    /**
+     * Write graphic data
+     *
+     * @param zplWriter   writer receiving the code
+     * @param data        packed dots
+     * @param bytesPerRow number of bytes of a row
+     * @param compression encoding to use
+     */
+    public static void encode(ZplWriter zplWriter, byte[] data, int bytesPerRow, ZebraGraphicCompression compression) {
+        switch (compression) {
+        case ACS:
+            writeAsciiCompressed(zplWriter, data, bytesPerRow);
+            break;
+        case Z64:
+            writeZ64(zplWriter, data);
+            break;
+        default:
+            writeHexadecimal(zplWriter, data);
+            break;
+        }
+    }
+
+    /**
+     * Write two hexadecimal digits per byte
+     *
+     * @param zplWriter writer receiving the code
+     * @param data      packed dots
+     */
+    public static void writeHexadecimal(ZplWriter zplWriter, byte[] data) {
+        for (int i = 0; i < data.length; i++) {
+            zplWriter.append(HEXA_DIGITS[(data[i] >> 4) & 0x0f]).append(HEXA_DIGITS[data[i] & 0x0f]);
+        }
+    }
+
+    /**
+     * Write the data with the ASCII compression scheme, row by row : a row
+     * equal to the previous one is a colon, trailing zeros (or ones) a comma
+     * (or an exclamation mark), runs of a digit a repeat count followed by the
+     * digit.
+     *
+     * @param zplWriter   writer receiving the code
+     * @param data        packed dots
+     * @param bytesPerRow number of bytes of a row
+     */
+    public static void writeAsciiCompressed(ZplWriter zplWriter, byte[] data, int bytesPerRow) {
+        int digitsPerRow = bytesPerRow * 2;
+        for (int rowOffset = 0; rowOffset < data.length; rowOffset += bytesPerRow) {
+            if (rowOffset > 0 && sameRow(data, rowOffset - bytesPerRow, rowOffset, bytesPerRow)) {
+                zplWriter.append(':');
+                continue;
+            }
+            int end = digitsPerRow;
+            int lastDigit = digit(data, rowOffset, digitsPerRow - 1);
+            if (lastDigit == 0 || lastDigit == 0x0f) {
+                while (end > 0 && digit(data, rowOffset, end - 1) == lastDigit) {
+                    end--;
+                }
+                if (digitsPerRow - end < 2) {
+                    end = digitsPerRow;
+                }
+            }
+            int index = 0;
+            while (index < end) {
+                int value = digit(data, rowOffset, index);
+                int run = 1;
+                while (index + run < end && digit(data, rowOffset, index + run) == value) {
+                    run++;
+                }
+                writeRun(zplWriter, HEXA_DIGITS[value], run);
+                index += run;
+            }
+            if (end < digitsPerRow) {
+                zplWriter.append(lastDigit == 0 ? ',' : '!');
+            }
+        }
+    }
+
+    private static void writeRun(ZplWriter zplWriter, char digit, int run) {
+        while (run > 0) {
+            int count = Math.min(run, MAX_REPEAT);
+            if (count <= 2) {
+                zplWriter.append(digit);
+                if (count == 2) {
+                    zplWriter.append(digit);
+                }
+            } else {
+                if (count >= 20) {
+                    zplWriter.append((char) ('g' + count / 20 - 1));
+                }
+                if (count % 20 > 0) {
+                    zplWriter.append((char) ('G' + count % 20 - 1));
+                }
+                zplWriter.append(digit);
+            }
+            run -= count;
+        }
+    }
+
+    /**
+     * @return hexadecimal digit of index digitIndex in the row
+     */
+    private static int digit(byte[] data, int rowOffset, int digitIndex) {
+        int b = data[rowOffset + (digitIndex >> 1)];
+        return (digitIndex & 1) == 0 ? (b >> 4) & 0x0f : b & 0x0f;
+    }
+
+    private static boolean sameRow(byte[] data, int previousOffset, int rowOffset, int bytesPerRow) {
+        for (int i = 0; i < bytesPerRow; i++) {
+            if (data[previousOffset + i] != data[rowOffset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write the data as <code>:Z64:base64:crc</code> : the data is deflated
+     * (zlib format), base 64 encoded, and followed by the CRC16 (CCITT,
+     * XModem) of the base 64 characters.
+     *
+     * @param zplWriter writer receiving the code
+     * @param data      packed dots
+     */
+    public static void writeZ64(ZplWriter zplWriter, byte[] data) {
+        zplWriter.append(":Z64:");
+        Base64Output output = new Base64Output(zplWriter);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                for (int i = 0; i < length; i++) {
+                    output.write(buffer[i]);
+                }
+            }
+        } finally {
+            deflater.end();
+        }
+        output.finish();
+        zplWriter.append(':');
+        int crc = output.crc;
+        for (int shift = 12; shift >= 0; shift -= 4) {
+            zplWriter.append(CRC_DIGITS[(crc >> shift) & 0x0f]);
+        }
+    }
+
+    /**
+     * Base 64 encoder writing into a writer and computing the CRC16 of what it
+     * writes
+     */
+    private static final class Base64Output {
+
+        private final ZplWriter zplWriter;
+        private int bits;
+        private int bitCount;
+        private int crc;
+
+        Base64Output(ZplWriter zplWriter) {
+            this.zplWriter = zplWriter;
+        }
+
+        void write(byte b) {
+            bits = (bits << 8) | (b & 0xff);
+            bitCount += 8;
+            if (bitCount == 24) {
+                writeDigits(4);
+                bits = 0;
+                bitCount = 0;
+            }
+        }
+
+        void finish() {
+            if (bitCount == 8) {
+                bits <<= 16;
+                writeDigits(2);
+                writeChar('=');
+                writeChar('=');
+            } else if (bitCount == 16) {
+                bits <<= 8;
+                writeDigits(3);
+                writeChar('=');
+            }
+        }
+
+        private void writeDigits(int count) {
+            for (int i = 0; i < count; i++) {
+                writeChar(BASE64_DIGITS[(bits >> (18 - 6 * i)) & 0x3f]);
+            }
+        }
+
+        private void writeChar(char c) {
+            zplWriter.append(c);
+            crc = ((crc << 8) ^ CRC16_TABLE[((crc >> 8) ^ c) & 0xff]) & 0xffff;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * LinearSymbol.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.zpl.support;
+
+/**
+ * Bars and spaces of a linear bar code, as printed (start and stop
+ * characters, check characters), without quiet zones. Elements alternate,
+ * starting with a bar; an element is a number of modules, or a wide element
+ * whose width is the module width times the wide bar ratio (^BY).
+ * <p>
+ * A symbol is immutable.
+ *
+ * @author Cristian Ramírez
+ */
+public final class LinearSymbol {
+
+    /**
+     * Width of a wide element
+     */
+    public static final byte WIDE = 0;
+
+    private final byte[] elements;
+
+    private final int narrowModules;
+
+    private final int wideElements;
+
+    /**
+     * @param elements widths of the bars and spaces, in modules or
+     *                 {@link #WIDE}
+     */
+    public LinearSymbol(byte[] elements) {
+        this.elements = elements;
+        int narrow = 0;
+        int wide = 0;
+        for (byte element : elements) {
+            if (element == WIDE) {
+                wide++;
+            } else {
+                narrow += element;
+            }
+        }
+        this.narrowModules = narrow;
+        this.wideElements = wide;
+    }
+
+    /**
+     * @return number of bars and spaces
+     */
+    public int getElementCount() {
+        return elements.length;
+    }
+
+    /**
+     * @param index index of the element
+     * @return true for a bar, false for a space
+     */
+    public boolean isBar(int index) {
+        return (index & 1) == 0;
+    }
+
+    /**
+     * @param index        index of the element
+     * @param moduleWidth  width of a module, in dots
+     * @param wideBarRatio width of a wide element, in modules
+     * @return width of the element, in dots
+     */
+    public int getElementWidthDots(int index, int moduleWidth, int wideBarRatio) {
+        byte element = elements[index];
+        return element == WIDE ? moduleWidth * wideBarRatio : moduleWidth * element;
+    }
+
+    /**
+     * @param wideBarRatio width of a wide element, in modules
+     * @return width of the symbol, in modules
+     */
+    public int getModuleCount(int wideBarRatio) {
+        return narrowModules + wideElements * wideBarRatio;
+    }
+
+    /**
+     * @param moduleWidth  width of a module, in dots
+     * @param wideBarRatio width of a wide element, in modules
+     * @return width of the symbol, in dots
+     */
+    public int getWidthDots(int moduleWidth, int wideBarRatio) {
+        return moduleWidth * getModuleCount(wideBarRatio);
+    }
+
+    /**
+     * @return true if the width depends on the wide bar ratio
+     */
+    public boolean hasWideElements() {
+        return wideElements > 0;
+    }
+}
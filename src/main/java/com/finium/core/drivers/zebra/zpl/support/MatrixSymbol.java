@@ -0,0 +1,68 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * MatrixSymbol.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.zpl.support;
+
+/**
+ * Square modules of a matrix bar code (QR code), without quiet zone. A symbol
+ * is immutable.
+ *
+ * @author Cristian Ramírez
+ */
+public final class MatrixSymbol {
+
+    private final int version;
+
+    private final int size;
+
+    private final boolean[] modules;
+
+    /**
+     * @param version version of the symbol
+     * @param size    number of modules of a side
+     * @param modules dark modules, row by row
+     */
+    public MatrixSymbol(int version, int size, boolean[] modules) {
+        this.version = version;
+        this.size = size;
+        this.modules = modules;
+    }
+
+    /**
+     * @return version of the symbol (1 to 40 for a QR code)
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return number of modules of a side
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @param x column
+     * @param y row
+     * @return true if the module is dark
+     */
+    public boolean isDark(int x, int y) {
+        return modules[y * size + x];
+    }
+
+    /**
+     * @param magnification width of a module, in dots
+     * @return width (and height) of the symbol, in dots
+     */
+    public int getWidthDots(int magnification) {
+        return size * magnification;
+    }
+}
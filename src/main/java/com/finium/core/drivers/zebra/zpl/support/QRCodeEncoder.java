@@ -0,0 +1,730 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * QRCodeEncoder.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.zpl.support;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import com.finium.core.drivers.zebra.zpl.enums.QRCodeCharacterMode;
+import com.finium.core.drivers.zebra.zpl.enums.QRCodeErrorCorrection;
+
+/**
+ * Encoder of QR codes (model 2) into their modules : segments of data, the
+ * smallest version holding them, Reed-Solomon error correction, function
+ * patterns and mask.
+ * <p>
+ * Kanji segments are encoded as bytes.
+ *
+ * @author Cristian Ramírez
+ */
+public final class QRCodeEncoder {
+
+    /**
+     * Mask chosen from the penalty rules of the specification
+     */
+    public static final int AUTOMATIC_MASK = -1;
+
+    public static final int MIN_VERSION = 1;
+
+    public static final int MAX_VERSION = 40;
+
+    static final String ALPHANUMERIC_CHARSET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ $%*+-./:";
+
+    private static final Charset SHIFT_JIS = charset("Shift_JIS");
+
+    // Error correction codewords per block and number of blocks, by level (L,
+    // M, Q, H) and version
+    private static final byte[][] ECC_CODEWORDS_PER_BLOCK = {
+            { -1, 7, 10, 15, 20, 26, 18, 20, 24, 30, 18, 20, 24, 26, 30, 22, 24, 28, 30, 28, 28, 28, 28, 30, 30, 26,
+                    28, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30 },
+            { -1, 10, 16, 26, 18, 24, 16, 18, 22, 22, 26, 30, 22, 22, 24, 24, 28, 28, 26, 26, 26, 26, 28, 28, 28, 28,
+                    28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28 },
+            { -1, 13, 22, 18, 26, 18, 24, 18, 22, 20, 24, 28, 26, 24, 20, 30, 24, 28, 28, 26, 30, 28, 30, 30, 30, 30,
+                    28, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30 },
+            { -1, 17, 28, 22, 16, 22, 28, 26, 26, 24, 28, 24, 28, 22, 24, 24, 30, 28, 28, 26, 28, 30, 24, 30, 30, 30,
+                    30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30 } };
+
+    private static final byte[][] ERROR_CORRECTION_BLOCKS = {
+            { -1, 1, 1, 1, 1, 1, 2, 2, 2, 2, 4, 4, 4, 4, 4, 6, 6, 6, 6, 7, 8, 8, 9, 9, 10, 12, 12, 12, 13, 14, 15, 16,
+                    17, 18, 19, 19, 20, 21, 22, 24, 25 },
+            { -1, 1, 1, 1, 2, 2, 4, 4, 4, 5, 5, 5, 8, 9, 9, 10, 10, 11, 13, 14, 16, 17, 17, 18, 20, 21, 23, 25, 26,
+                    28, 29, 31, 33, 35, 37, 38, 40, 43, 45, 47, 49 },
+            { -1, 1, 1, 2, 2, 4, 4, 6, 6, 8, 8, 8, 10, 12, 16, 12, 17, 16, 18, 21, 20, 23, 23, 25, 27, 29, 34, 34,
+                    35, 38, 40, 43, 45, 48, 51, 53, 56, 59, 62, 65, 68 },
+            { -1, 1, 1, 2, 4, 4, 4, 5, 6, 8, 8, 11, 11, 16, 16, 18, 16, 19, 21, 25, 25, 25, 34, 30, 32, 35, 37, 40,
+                    42, 45, 48, 51, 54, 57, 60, 63, 66, 70, 74, 77, 81 } };
+
+    /**
+     * Format bits of the levels L, M, Q, H
+     */
+    private static final int[] FORMAT_BITS = { 1, 0, 3, 2 };
+
+    private QRCodeEncoder() {
+    }
+
+    /**
+     * Encode data in one segment, as bytes if the character mode can not hold
+     * it
+     *
+     * @param data            data of the bar code
+     * @param characterMode   character mode of the data
+     * @param errorCorrection error correction level
+     * @return modules of the symbol
+     * @throws IllegalArgumentException if the data does not fit in a QR code
+     */
+    public static MatrixSymbol encode(String data, QRCodeCharacterMode characterMode,
+            QRCodeErrorCorrection errorCorrection) {
+        QRCodeCharacterMode mode = canEncode(characterMode, data) ? characterMode : QRCodeCharacterMode.BXXX;
+        return encode(Collections.singletonList(new Segment(mode, data)), errorCorrection, AUTOMATIC_MASK);
+    }
+
+    /**
+     * @param segments        data of the bar code
+     * @param errorCorrection error correction level
+     * @param mask            mask (0 to 7), or {@link #AUTOMATIC_MASK}
+     * @return modules of the symbol
+     * @throws IllegalArgumentException if the data does not fit in a QR code
+     */
+    public static MatrixSymbol encode(List<Segment> segments, QRCodeErrorCorrection errorCorrection, int mask) {
+        int level = levelIndex(errorCorrection);
+        int version = getVersion(segments, errorCorrection);
+        if (version < 0) {
+            throw new IllegalArgumentException("Data too long for a QR code");
+        }
+        int dataCapacityBits = getDataCodewords(version, level) * 8;
+        BitBuffer bits = new BitBuffer(dataCapacityBits);
+        for (Segment segment : segments) {
+            segment.writeBits(bits, version);
+        }
+        bits.append(0, Math.min(4, dataCapacityBits - bits.length));
+        bits.append(0, (8 - bits.length % 8) % 8);
+        for (int padByte = 0xEC; bits.length < dataCapacityBits; padByte ^= 0xEC ^ 0x11) {
+            bits.append(padByte, 8);
+        }
+        Matrix matrix = new Matrix(version);
+        matrix.drawCodewords(addEccAndInterleave(bits.toBytes(), version, level));
+        int chosenMask = mask;
+        if (mask == AUTOMATIC_MASK) {
+            int minPenalty = Integer.MAX_VALUE;
+            for (int candidate = 0; candidate < 8; candidate++) {
+                matrix.applyMask(candidate);
+                matrix.drawFormatBits(level, candidate);
+                int penalty = matrix.getPenaltyScore();
+                if (penalty < minPenalty) {
+                    chosenMask = candidate;
+                    minPenalty = penalty;
+                }
+                matrix.applyMask(candidate);
+            }
+        }
+        matrix.applyMask(chosenMask);
+        matrix.drawFormatBits(level, chosenMask);
+        return new MatrixSymbol(version, matrix.size, matrix.modules);
+    }
+
+    /**
+     * @param segments        data of the bar code
+     * @param errorCorrection error correction level
+     * @return smallest version holding the data, -1 if none
+     */
+    public static int getVersion(List<Segment> segments, QRCodeErrorCorrection errorCorrection) {
+        int level = levelIndex(errorCorrection);
+        for (int version = MIN_VERSION; version <= MAX_VERSION; version++) {
+            int bitLength = getBitLength(segments, version);
+            if (bitLength >= 0 && bitLength <= getDataCodewords(version, level) * 8) {
+                return version;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param segments data of the bar code
+     * @param version  version of the symbol
+     * @return number of data bits of the segments, -1 if a character count
+     *         does not fit
+     */
+    public static int getBitLength(List<Segment> segments, int version) {
+        int bitLength = 0;
+        for (Segment segment : segments) {
+            int countBits = segment.getCountBits(version);
+            if (segment.getCharacterCount() >= 1 << countBits) {
+                return -1;
+            }
+            bitLength += 4 + countBits + segment.getDataBits();
+        }
+        return bitLength;
+    }
+
+    /**
+     * @param version         version of the symbol
+     * @param errorCorrection error correction level
+     * @return number of data codewords of a symbol
+     */
+    public static int getDataCodewords(int version, QRCodeErrorCorrection errorCorrection) {
+        return getDataCodewords(version, levelIndex(errorCorrection));
+    }
+
+    /**
+     * @param characterMode character mode
+     * @param data          data
+     * @return true if the character mode can hold the data
+     */
+    public static boolean canEncode(QRCodeCharacterMode characterMode, String data) {
+        switch (characterMode) {
+        case N:
+            for (int i = 0; i < data.length(); i++) {
+                if (data.charAt(i) < '0' || data.charAt(i) > '9') {
+                    return false;
+                }
+            }
+            return true;
+        case A:
+            for (int i = 0; i < data.length(); i++) {
+                if (ALPHANUMERIC_CHARSET.indexOf(data.charAt(i)) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        default:
+            return true;
+        }
+    }
+
+    private static int getDataCodewords(int version, int level) {
+        return getRawDataModules(version) / 8
+                - ECC_CODEWORDS_PER_BLOCK[level][version] * ERROR_CORRECTION_BLOCKS[level][version];
+    }
+
+    /**
+     * @return number of modules holding data and error correction
+     */
+    private static int getRawDataModules(int version) {
+        int result = (16 * version + 128) * version + 64;
+        if (version >= 2) {
+            int alignmentCount = version / 7 + 2;
+            result -= (25 * alignmentCount - 10) * alignmentCount - 55;
+            if (version >= 7) {
+                result -= 36;
+            }
+        }
+        return result;
+    }
+
+    private static int levelIndex(QRCodeErrorCorrection errorCorrection) {
+        switch (errorCorrection) {
+        case HIGH_DENSITY:
+            return 0;
+        case HIGH:
+            return 2;
+        case ULTRA_HIGH:
+            return 3;
+        default:
+            return 1;
+        }
+    }
+
+    private static byte[] addEccAndInterleave(byte[] data, int version, int level) {
+        int blockCount = ERROR_CORRECTION_BLOCKS[level][version];
+        int blockEccLength = ECC_CODEWORDS_PER_BLOCK[level][version];
+        int rawCodewords = getRawDataModules(version) / 8;
+        int shortBlockCount = blockCount - rawCodewords % blockCount;
+        int shortBlockLength = rawCodewords / blockCount;
+        byte[] divisor = reedSolomonDivisor(blockEccLength);
+        byte[][] blocks = new byte[blockCount][];
+        for (int i = 0, offset = 0; i < blockCount; i++) {
+            int dataLength = shortBlockLength - blockEccLength + (i < shortBlockCount ? 0 : 1);
+            byte[] block = new byte[shortBlockLength + 1];
+            System.arraycopy(data, offset, block, 0, dataLength);
+            byte[] ecc = reedSolomonRemainder(data, offset, dataLength, divisor);
+            System.arraycopy(ecc, 0, block, block.length - blockEccLength, blockEccLength);
+            offset += dataLength;
+            blocks[i] = block;
+        }
+        byte[] result = new byte[rawCodewords];
+        int index = 0;
+        for (int i = 0; i < shortBlockLength + 1; i++) {
+            for (int j = 0; j < blockCount; j++) {
+                // The short blocks have no codeword at the end of the data
+                if (i != shortBlockLength - blockEccLength || j >= shortBlockCount) {
+                    result[index++] = blocks[j][i];
+                }
+            }
+        }
+        return result;
+    }
+
+    private static byte[] reedSolomonDivisor(int degree) {
+        byte[] result = new byte[degree];
+        result[degree - 1] = 1;
+        int root = 1;
+        for (int i = 0; i < degree; i++) {
+            for (int j = 0; j < result.length; j++) {
+                result[j] = (byte) multiply(result[j] & 0xff, root);
+                if (j + 1 < result.length) {
+                    result[j] ^= result[j + 1];
+                }
+            }
+            root = multiply(root, 0x02);
+        }
+        return result;
+    }
+
+    private static byte[] reedSolomonRemainder(byte[] data, int offset, int length, byte[] divisor) {
+        byte[] result = new byte[divisor.length];
+        for (int i = offset; i < offset + length; i++) {
+            int factor = (data[i] ^ result[0]) & 0xff;
+            System.arraycopy(result, 1, result, 0, result.length - 1);
+            result[result.length - 1] = 0;
+            for (int j = 0; j < result.length; j++) {
+                result[j] ^= multiply(divisor[j] & 0xff, factor);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Product in GF(2^8) modulo x^8 + x^4 + x^3 + x^2 + 1
+     */
+    private static int multiply(int x, int y) {
+        int z = 0;
+        for (int i = 7; i >= 0; i--) {
+            z = (z << 1) ^ ((z >>> 7) * 0x11D);
+            z ^= ((y >>> i) & 1) * x;
+        }
+        return z;
+    }
+
+    private static Charset charset(String name) {
+        try {
+            return Charset.forName(name);
+        } catch (RuntimeException e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    /**
+     * Data encoded with one character mode
+     */
+    public static final class Segment {
+
+        private final QRCodeCharacterMode characterMode;
+
+        private final String data;
+
+        private final byte[] bytes;
+
+        /**
+         * @param characterMode character mode, able to hold the data
+         * @param data          data
+         */
+        public Segment(QRCodeCharacterMode characterMode, String data) {
+            if (!canEncode(characterMode, data)) {
+                throw new IllegalArgumentException("Data not allowed in mode " + characterMode + ": " + data);
+            }
+            this.characterMode = characterMode;
+            this.data = data;
+            this.bytes = isByteMode() ? toBytes(characterMode, data) : null;
+        }
+
+        private static byte[] toBytes(QRCodeCharacterMode characterMode, String data) {
+            if (characterMode == QRCodeCharacterMode.K) {
+                return data.getBytes(SHIFT_JIS);
+            }
+            for (int i = 0; i < data.length(); i++) {
+                if (data.charAt(i) > 0xff) {
+                    return data.getBytes(StandardCharsets.UTF_8);
+                }
+            }
+            return data.getBytes(StandardCharsets.ISO_8859_1);
+        }
+
+        private boolean isByteMode() {
+            return characterMode != QRCodeCharacterMode.N && characterMode != QRCodeCharacterMode.A;
+        }
+
+        /**
+         * @return the character mode
+         */
+        public QRCodeCharacterMode getCharacterMode() {
+            return characterMode;
+        }
+
+        /**
+         * @return the data
+         */
+        public String getData() {
+            return data;
+        }
+
+        /**
+         * @return number of characters (bytes in byte mode)
+         */
+        public int getCharacterCount() {
+            return bytes != null ? bytes.length : data.length();
+        }
+
+        /**
+         * @return number of bits of the data, without mode and count
+         */
+        public int getDataBits() {
+            int count = getCharacterCount();
+            switch (characterMode) {
+            case N:
+                return count / 3 * 10 + (count % 3 == 0 ? 0 : count % 3 == 1 ? 4 : 7);
+            case A:
+                return count / 2 * 11 + count % 2 * 6;
+            default:
+                return count * 8;
+            }
+        }
+
+        /**
+         * @param version version of the symbol
+         * @return number of bits of the character count
+         */
+        public int getCountBits(int version) {
+            int group = version <= 9 ? 0 : version <= 26 ? 1 : 2;
+            switch (characterMode) {
+            case N:
+                return 10 + 2 * group;
+            case A:
+                return 9 + 2 * group;
+            default:
+                return group == 0 ? 8 : 16;
+            }
+        }
+
+        private void writeBits(BitBuffer bits, int version) {
+            switch (characterMode) {
+            case N:
+                bits.append(0x1, 4);
+                bits.append(data.length(), getCountBits(version));
+                for (int i = 0; i < data.length(); i += 3) {
+                    int length = Math.min(3, data.length() - i);
+                    bits.append(Integer.parseInt(data.substring(i, i + length)), length * 3 + 1);
+                }
+                break;
+            case A:
+                bits.append(0x2, 4);
+                bits.append(data.length(), getCountBits(version));
+                for (int i = 0; i < data.length(); i += 2) {
+                    int value = ALPHANUMERIC_CHARSET.indexOf(data.charAt(i));
+                    if (i + 1 < data.length()) {
+                        bits.append(value * 45 + ALPHANUMERIC_CHARSET.indexOf(data.charAt(i + 1)), 11);
+                    } else {
+                        bits.append(value, 6);
+                    }
+                }
+                break;
+            default:
+                bits.append(0x4, 4);
+                bits.append(bytes.length, getCountBits(version));
+                for (byte b : bytes) {
+                    bits.append(b & 0xff, 8);
+                }
+                break;
+            }
+        }
+    }
+
+    private static final class BitBuffer {
+
+        private final byte[] bytes;
+
+        private int length;
+
+        private BitBuffer(int capacityBits) {
+            bytes = new byte[(capacityBits + 7) / 8];
+        }
+
+        private void append(int value, int bitCount) {
+            for (int i = bitCount - 1; i >= 0; i--, length++) {
+                if (((value >>> i) & 1) != 0) {
+                    bytes[length >>> 3] |= 0x80 >>> (length & 7);
+                }
+            }
+        }
+
+        private byte[] toBytes() {
+            return bytes;
+        }
+    }
+
+    /**
+     * Modules of a symbol being built, with the function modules flagged
+     */
+    private static final class Matrix {
+
+        private final int version;
+
+        private final int size;
+
+        private final boolean[] modules;
+
+        private final boolean[] functions;
+
+        private Matrix(int version) {
+            this.version = version;
+            this.size = version * 4 + 17;
+            this.modules = new boolean[size * size];
+            this.functions = new boolean[size * size];
+            drawFunctionPatterns();
+        }
+
+        private void set(int x, int y, boolean dark) {
+            modules[y * size + x] = dark;
+            functions[y * size + x] = true;
+        }
+
+        private boolean get(int x, int y) {
+            return modules[y * size + x];
+        }
+
+        private void drawFunctionPatterns() {
+            for (int i = 0; i < size; i++) {
+                set(6, i, i % 2 == 0);
+                set(i, 6, i % 2 == 0);
+            }
+            drawFinderPattern(3, 3);
+            drawFinderPattern(size - 4, 3);
+            drawFinderPattern(3, size - 4);
+            int[] positions = getAlignmentPositions();
+            int last = positions.length - 1;
+            for (int i = 0; i < positions.length; i++) {
+                for (int j = 0; j < positions.length; j++) {
+                    if (!(i == 0 && j == 0 || i == 0 && j == last || i == last && j == 0)) {
+                        drawAlignmentPattern(positions[i], positions[j]);
+                    }
+                }
+            }
+            // Reserve the format area, drawn once the mask is known
+            drawFormatBits(0, 0);
+            drawVersion();
+        }
+
+        private void drawFinderPattern(int x, int y) {
+            for (int dy = -4; dy <= 4; dy++) {
+                for (int dx = -4; dx <= 4; dx++) {
+                    int distance = Math.max(Math.abs(dx), Math.abs(dy));
+                    int xx = x + dx;
+                    int yy = y + dy;
+                    if (0 <= xx && xx < size && 0 <= yy && yy < size) {
+                        set(xx, yy, distance != 2 && distance != 4);
+                    }
+                }
+            }
+        }
+
+        private void drawAlignmentPattern(int x, int y) {
+            for (int dy = -2; dy <= 2; dy++) {
+                for (int dx = -2; dx <= 2; dx++) {
+                    set(x + dx, y + dy, Math.max(Math.abs(dx), Math.abs(dy)) != 1);
+                }
+            }
+        }
+
+        private int[] getAlignmentPositions() {
+            if (version == 1) {
+                return new int[0];
+            }
+            int count = version / 7 + 2;
+            int step = version == 32 ? 26 : (version * 4 + count * 2 + 1) / (count * 2 - 2) * 2;
+            int[] result = new int[count];
+            result[0] = 6;
+            for (int i = count - 1, position = size - 7; i >= 1; i--, position -= step) {
+                result[i] = position;
+            }
+            return result;
+        }
+
+        private void drawFormatBits(int level, int mask) {
+            int data = FORMAT_BITS[level] << 3 | mask;
+            int remainder = data;
+            for (int i = 0; i < 10; i++) {
+                remainder = (remainder << 1) ^ ((remainder >>> 9) * 0x537);
+            }
+            int bits = (data << 10 | remainder) ^ 0x5412;
+            for (int i = 0; i <= 5; i++) {
+                set(8, i, bit(bits, i));
+            }
+            set(8, 7, bit(bits, 6));
+            set(8, 8, bit(bits, 7));
+            set(7, 8, bit(bits, 8));
+            for (int i = 9; i < 15; i++) {
+                set(14 - i, 8, bit(bits, i));
+            }
+            for (int i = 0; i < 8; i++) {
+                set(size - 1 - i, 8, bit(bits, i));
+            }
+            for (int i = 8; i < 15; i++) {
+                set(8, size - 15 + i, bit(bits, i));
+            }
+            set(8, size - 8, true);
+        }
+
+        private void drawVersion() {
+            if (version < 7) {
+                return;
+            }
+            int remainder = version;
+            for (int i = 0; i < 12; i++) {
+                remainder = (remainder << 1) ^ ((remainder >>> 11) * 0x1F25);
+            }
+            int bits = version << 12 | remainder;
+            for (int i = 0; i < 18; i++) {
+                boolean dark = bit(bits, i);
+                int a = size - 11 + i % 3;
+                int b = i / 3;
+                set(a, b, dark);
+                set(b, a, dark);
+            }
+        }
+
+        private void drawCodewords(byte[] codewords) {
+            int i = 0;
+            for (int right = size - 1; right >= 1; right -= 2) {
+                if (right == 6) {
+                    right = 5;
+                }
+                for (int vertical = 0; vertical < size; vertical++) {
+                    for (int j = 0; j < 2; j++) {
+                        int x = right - j;
+                        boolean upward = ((right + 1) & 2) == 0;
+                        int y = upward ? size - 1 - vertical : vertical;
+                        if (!functions[y * size + x] && i < codewords.length * 8) {
+                            modules[y * size + x] = bit(codewords[i >>> 3], 7 - (i & 7));
+                            i++;
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Invert the data modules selected by a mask (applying it twice
+         * removes it)
+         */
+        private void applyMask(int mask) {
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    boolean invert;
+                    switch (mask) {
+                    case 0:
+                        invert = (x + y) % 2 == 0;
+                        break;
+                    case 1:
+                        invert = y % 2 == 0;
+                        break;
+                    case 2:
+                        invert = x % 3 == 0;
+                        break;
+                    case 3:
+                        invert = (x + y) % 3 == 0;
+                        break;
+                    case 4:
+                        invert = (x / 3 + y / 2) % 2 == 0;
+                        break;
+                    case 5:
+                        invert = x * y % 2 + x * y % 3 == 0;
+                        break;
+                    case 6:
+                        invert = (x * y % 2 + x * y % 3) % 2 == 0;
+                        break;
+                    default:
+                        invert = ((x + y) % 2 + x * y % 3) % 2 == 0;
+                        break;
+                    }
+                    int index = y * size + x;
+                    modules[index] ^= invert && !functions[index];
+                }
+            }
+        }
+
+        private int getPenaltyScore() {
+            int result = 0;
+            int dark = 0;
+            for (int y = 0; y < size; y++) {
+                result += getLinePenalty(y, true) + getLinePenalty(y, false);
+                for (int x = 0; x < size; x++) {
+                    boolean color = get(x, y);
+                    if (color) {
+                        dark++;
+                    }
+                    if (x + 1 < size && y + 1 < size && color == get(x + 1, y) && color == get(x, y + 1)
+                            && color == get(x + 1, y + 1)) {
+                        result += 3;
+                    }
+                }
+            }
+            int total = size * size;
+            int k = (Math.abs(dark * 20 - total * 10) + total - 1) / total - 1;
+            return result + k * 10;
+        }
+
+        /**
+         * Penalty of the runs and finder like patterns of a row (or column)
+         */
+        private int getLinePenalty(int line, boolean row) {
+            int result = 0;
+            int runLength = 0;
+            boolean runColor = false;
+            for (int i = 0; i < size; i++) {
+                boolean color = row ? get(i, line) : get(line, i);
+                if (i > 0 && color == runColor) {
+                    runLength++;
+                    if (runLength == 5) {
+                        result += 3;
+                    } else if (runLength > 5) {
+                        result++;
+                    }
+                } else {
+                    runColor = color;
+                    runLength = 1;
+                }
+                if (i + 7 <= size && isFinderLike(line, row, i)
+                        && (isLight(line, row, i - 4, i) || isLight(line, row, i + 7, i + 11))) {
+                    result += 40;
+                }
+            }
+            return result;
+        }
+
+        private boolean isFinderLike(int line, boolean row, int start) {
+            for (int i = 0; i < 7; i++) {
+                boolean color = row ? get(start + i, line) : get(line, start + i);
+                if (color != (i != 1 && i != 5)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return true if the modules from start (inclusive) to end (exclusive)
+         *         are light, modules outside the symbol being light
+         */
+        private boolean isLight(int line, boolean row, int start, int end) {
+            for (int i = Math.max(start, 0); i < Math.min(end, size); i++) {
+                if (row ? get(i, line) : get(line, i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean bit(int value, int index) {
+            return ((value >>> index) & 1) != 0;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * QRCodeSegmenter.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.zpl.support;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.finium.core.drivers.zebra.zpl.enums.QRCodeCharacterMode;
+import com.finium.core.drivers.zebra.zpl.enums.QRCodeErrorCorrection;
+
+/**
+ * Splits QR code data into numeric, alphanumeric and byte segments giving the
+ * fewest bits, so mixed payloads (a numeric serial behind a text prefix...)
+ * get the smallest version. Every segment costs a header (mode and character
+ * count), so short runs stay in the surrounding mode.
+ * <p>
+ * The choice is made by dynamic programming over the characters, for each
+ * range of versions sharing the same character count sizes.
+ * <p>
+ * The segments are not sent to the printer : ^BQ writes segments of several
+ * modes only in its mixed mode, the structured append of 2 to 16 symbols. The
+ * segmenter predicts the symbol the printer builds in automatic input mode,
+ * for previews and fit checks. A printer splitting the data less carefully
+ * prints a larger symbol than predicted.
+ *
+ * @author Cristian Ramírez
+ */
+public final class QRCodeSegmenter {
+
+    private static final QRCodeCharacterMode[] MODES = { QRCodeCharacterMode.BXXX, QRCodeCharacterMode.A,
+            QRCodeCharacterMode.N };
+
+    /**
+     * Last version of each range of versions with the same character count
+     * sizes
+     */
+    private static final int[] RANGE_VERSIONS = { 9, 26, 40 };
+
+    private QRCodeSegmenter() {
+    }
+
+    /**
+     * @param data            data of the bar code
+     * @param errorCorrection error correction level
+     * @return segments giving the smallest symbol
+     * @throws IllegalArgumentException if the data does not fit in a QR code
+     */
+    public static List<QRCodeEncoder.Segment> segment(String data, QRCodeErrorCorrection errorCorrection) {
+        if (data.isEmpty()) {
+            return Collections.singletonList(new QRCodeEncoder.Segment(QRCodeCharacterMode.BXXX, data));
+        }
+        for (int version : RANGE_VERSIONS) {
+            List<QRCodeEncoder.Segment> segments = segment(data, version);
+            int bitLength = QRCodeEncoder.getBitLength(segments, version);
+            if (bitLength >= 0 && bitLength <= QRCodeEncoder.getDataCodewords(version, errorCorrection) * 8) {
+                return segments;
+            }
+        }
+        throw new IllegalArgumentException("Data too long for a QR code");
+    }
+
+    /**
+     * @param data    data of the bar code, not empty
+     * @param version version of the symbol (character count sizes)
+     * @return segments giving the fewest bits for the version
+     */
+    public static List<QRCodeEncoder.Segment> segment(String data, int version) {
+        int length = data.length();
+        // Costs in sixths of bits : a digit is 10 / 3 bits, an alphanumeric
+        // character 11 / 2 bits
+        int[] headerCosts = new int[MODES.length];
+        for (int i = 0; i < MODES.length; i++) {
+            headerCosts[i] = (4 + new QRCodeEncoder.Segment(MODES[i], "").getCountBits(version)) * 6;
+        }
+        int[][] previousModes = new int[length][MODES.length];
+        int[] previousCosts = headerCosts.clone();
+        for (int i = 0; i < length; i++) {
+            char c = data.charAt(i);
+            int[] costs = new int[MODES.length];
+            for (int mode = 0; mode < MODES.length; mode++) {
+                costs[mode] = Integer.MAX_VALUE;
+                previousModes[i][mode] = -1;
+            }
+            costs[0] = previousCosts[0] + byteLength(c) * 8 * 6;
+            previousModes[i][0] = 0;
+            if (QRCodeEncoder.ALPHANUMERIC_CHARSET.indexOf(c) >= 0) {
+                costs[1] = previousCosts[1] + 33;
+                previousModes[i][1] = 1;
+            }
+            if (c >= '0' && c <= '9') {
+                costs[2] = previousCosts[2] + 20;
+                previousModes[i][2] = 2;
+            }
+            // Start a segment after this character : the previous segment
+            // ends on a whole bit
+            for (int toMode = 0; toMode < MODES.length; toMode++) {
+                for (int fromMode = 0; fromMode < MODES.length; fromMode++) {
+                    if (costs[fromMode] == Integer.MAX_VALUE) {
+                        continue;
+                    }
+                    int cost = (costs[fromMode] + 5) / 6 * 6 + headerCosts[toMode];
+                    if (previousModes[i][fromMode] >= 0 && cost < costs[toMode]) {
+                        costs[toMode] = cost;
+                        previousModes[i][toMode] = fromMode;
+                    }
+                }
+            }
+            previousCosts = costs;
+        }
+        int mode = 0;
+        for (int i = 1; i < MODES.length; i++) {
+            if (previousCosts[i] < previousCosts[mode]) {
+                mode = i;
+            }
+        }
+        // Walk back to the first character, from the mode of the last one
+        int[] characterModes = new int[length];
+        for (int i = length - 1; i >= 0; i--) {
+            int fromMode = previousModes[i][mode];
+            characterModes[i] = fromMode;
+            mode = fromMode;
+        }
+        List<QRCodeEncoder.Segment> segments = new ArrayList<QRCodeEncoder.Segment>();
+        int start = 0;
+        for (int i = 1; i <= length; i++) {
+            if (i == length || characterModes[i] != characterModes[start]) {
+                segments.add(new QRCodeEncoder.Segment(MODES[characterModes[start]], data.substring(start, i)));
+                start = i;
+            }
+        }
+        return segments;
+    }
+
+    private static int byteLength(char c) {
+        if (c <= 0xff) {
+            return 1;
+        }
+        return String.valueOf(c).getBytes(StandardCharsets.UTF_8).length;
+    }
+}
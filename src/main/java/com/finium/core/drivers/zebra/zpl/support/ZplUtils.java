@@ -116,6 +116,179 @@ public class ZplUtils {
 	return zpl;
     }
 
+    /**
+     * Write a zpl command (^ + command) into a caller supplied writer, without
+     * any intermediate allocation.
+     * 
+     * @param zplWriter
+     *            writer receiving the code
+     * @param command
+     *            Command (without ^)
+     * @return the writer
+     */
+    public static ZplWriter zplCommand(ZplWriter zplWriter, String command) {
+	return zplWriter.append('^').append(command);
+    }
+
+    /**
+     * Write a zpl command with one variable into a caller supplied writer.
+     * Digits are written directly as ASCII.
+     * 
+     * @param zplWriter
+     *            writer receiving the code
+     * @param command
+     *            Command (without ^)
+     * @param variable
+     *            first variable
+     * @return the writer
+     */
+    public static ZplWriter zplCommand(ZplWriter zplWriter, String command, int variable) {
+	return zplCommand(zplWriter, command).append(variable);
+    }
+
+    /**
+     * Write a zpl command with one variable (empty if null) into a caller
+     * supplied writer.
+     * 
+     * @param zplWriter
+     *            writer receiving the code
+     * @param command
+     *            Command (without ^)
+     * @param variable
+     *            first variable
+     * @return the writer
+     */
+    public static ZplWriter zplCommand(ZplWriter zplWriter, String command, Integer variable) {
+	zplCommand(zplWriter, command);
+	if (variable != null) {
+	    zplWriter.append(variable.intValue());
+	}
+	return zplWriter;
+    }
+
+    /**
+     * Write a zpl command with one variable into a caller supplied writer.
+     * 
+     * @param zplWriter
+     *            writer receiving the code
+     * @param command
+     *            Command (without ^)
+     * @param variable
+     *            first variable
+     * @return the writer
+     */
+    public static ZplWriter zplCommand(ZplWriter zplWriter, String command, String variable) {
+	return zplCommand(zplWriter, command).append(variable);
+    }
+
+    /**
+     * Write a zpl command with two variables into a caller supplied writer.
+     * Digits are written directly as ASCII.
+     * 
+     * @param zplWriter
+     *            writer receiving the code
+     * @param command
+     *            Command (without ^)
+     * @param variable1
+     *            first variable
+     * @param variable2
+     *            second variable
+     * @return the writer
+     */
+    public static ZplWriter zplCommand(ZplWriter zplWriter, String command, int variable1, int variable2) {
+	return zplCommand(zplWriter, command).append(variable1).append(',').append(variable2);
+    }
+
+    /**
+     * Write a zpl command with three variables into a caller supplied writer.
+     * Digits are written directly as ASCII.
+     * 
+     * @param zplWriter
+     *            writer receiving the code
+     * @param command
+     *            Command (without ^)
+     * @param variable1
+     *            first variable
+     * @param variable2
+     *            second variable
+     * @param variable3
+     *            third variable
+     * @return the writer
+     */
+    public static ZplWriter zplCommand(ZplWriter zplWriter, String command, int variable1, int variable2,
+	    int variable3) {
+	return zplCommand(zplWriter, command, variable1, variable2).append(',').append(variable3);
+    }
+
+    /**
+     * Write the next variable (prefixed by ,) of a zpl command
+     * 
+     * @param zplWriter
+     *            writer receiving the code
+     * @param variable
+     *            variable
+     * @return the writer
+     */
+    public static ZplWriter zplVariable(ZplWriter zplWriter, int variable) {
+	return zplWriter.append(',').append(variable);
+    }
+
+    /**
+     * Write the next variable (prefixed by ,) of a zpl command, empty if null
+     * 
+     * @param zplWriter
+     *            writer receiving the code
+     * @param variable
+     *            variable
+     * @return the writer
+     */
+    public static ZplWriter zplVariable(ZplWriter zplWriter, Integer variable) {
+	zplWriter.append(',');
+	if (variable != null) {
+	    zplWriter.append(variable.intValue());
+	}
+	return zplWriter;
+    }
+
+    /**
+     * Write the next variable (prefixed by ,) of a zpl command as Y or N
+     * 
+     * @param zplWriter
+     *            writer receiving the code
+     * @param variable
+     *            variable
+     * @return the writer
+     */
+    public static ZplWriter zplVariable(ZplWriter zplWriter, boolean variable) {
+	return zplWriter.append(',').append(variable ? 'Y' : 'N');
+    }
+
+    /**
+     * Write the next variable (prefixed by ,) of a zpl command
+     * 
+     * @param zplWriter
+     *            writer receiving the code
+     * @param variable
+     *            variable
+     * @return the writer
+     */
+    public static ZplWriter zplVariable(ZplWriter zplWriter, char variable) {
+	return zplWriter.append(',').append(variable);
+    }
+
+    /**
+     * Write the next variable (prefixed by ,) of a zpl command, empty if null
+     * 
+     * @param zplWriter
+     *            writer receiving the code
+     * @param variable
+     *            variable
+     * @return the writer
+     */
+    public static ZplWriter zplVariable(ZplWriter zplWriter, String variable) {
+	return zplWriter.append(',').append(variable);
+    }
+
     /**
      * Extract from font, fontSize and PPP the height and width in dots.
      * 
@@ -129,17 +302,46 @@ public class ZplUtils {
      */
     public static Integer[] extractDotsFromFont(ZebraFont zebraFont, int fontSize, ZebraPPP zebraPPP) {
 	Integer[] array = new Integer[2];
+	array[0] = extractHeightDotsFromFont(zebraFont, fontSize, zebraPPP);
+	array[1] = extractWidthDotsFromFont(zebraFont, fontSize, zebraPPP);
+	return array;
+    }
 
-	if (ZebraFont.ZEBRA_ZERO.equals(zebraFont) && ZebraPPP.DPI_300.equals(zebraPPP)) {
-	    // We use ratio to converted (based on ratio used by Zebra Designer
-	    // Tools)
-	    array[0] = Math.round(fontSize * 4.16F);// Heigth
-	    array[1] = Math.round(fontSize * 4.06F);// With
-	} else {
+    /**
+     * Extract from font, fontSize and PPP the height in dots (without
+     * allocating an array).
+     * 
+     * @param zebraFont
+     * @param fontSize
+     * @param zebraPPP
+     * @return height in dots
+     */
+    public static int extractHeightDotsFromFont(ZebraFont zebraFont, int fontSize, ZebraPPP zebraPPP) {
+	checkFontSupported(zebraFont, zebraPPP);
+	// We use ratio to converted (based on ratio used by Zebra Designer
+	// Tools)
+	return Math.round(fontSize * 4.16F);
+    }
+
+    /**
+     * Extract from font, fontSize and PPP the width in dots (without
+     * allocating an array).
+     * 
+     * @param zebraFont
+     * @param fontSize
+     * @param zebraPPP
+     * @return width in dots
+     */
+    public static int extractWidthDotsFromFont(ZebraFont zebraFont, int fontSize, ZebraPPP zebraPPP) {
+	checkFontSupported(zebraFont, zebraPPP);
+	return Math.round(fontSize * 4.06F);
+    }
+
+    private static void checkFontSupported(ZebraFont zebraFont, ZebraPPP zebraPPP) {
+	if (!ZebraFont.ZEBRA_ZERO.equals(zebraFont) || !ZebraPPP.DPI_300.equals(zebraPPP)) {
 	    throw new UnsupportedOperationException(
 		    "This PPP and this font are not yet supported. Please use ZebraAFontElement.");
 	}
-	return array;
     }
 
     /**
@@ -168,4 +370,33 @@ public class ZplUtils {
 	}
 	return str;
     }
+
+    /**
+     * Write a String into a writer, converting ASCII >127 in \\hexaCode
+     * accepted by ZPL language on the fly (same conversion as
+     * {@link #convertAccentToZplAsciiHexa(String)}).
+     * 
+     * @param zplWriter
+     *            writer receiving the code
+     * @param str
+     *            str
+     * @return the writer
+     */
+    public static ZplWriter convertAccentToZplAsciiHexa(ZplWriter zplWriter, String str) {
+	if (str != null) {
+	    for (int i = 0; i < str.length(); i++) {
+		char c = str.charAt(i);
+		if (c == 'é') {
+		    zplWriter.append("\\82");
+		} else if (c == 'à') {
+		    zplWriter.append("\\85");
+		} else if (c == 'è') {
+		    zplWriter.append("\\8A");
+		} else {
+		    zplWriter.append(c);
+		}
+	    }
+	}
+	return zplWriter;
+    }
 }
@@ -0,0 +1,416 @@
+/*
+ * Copyright © 2016, Finium Sdn Bhd, All Rights Reserved
+ *
+ * ZplWriter.java
+ * Modification History
+ * *************************************************************
+ * Date			Author		Comment
+ * 17-Oct-2026		Cristian Ramírez		Created
+ * *************************************************************
+ */
+package com.finium.core.drivers.zebra.zpl.support;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Byte sink used to render ZPL code. Characters are encoded to US-ASCII as
+ * they are appended (non ASCII characters are replaced by <code>?</code>, the
+ * same way <code>String.getBytes("US-ASCII")</code> does), so a label is
+ * encoded exactly once on its way to the printer.
+ * <p>
+ * A writer either keeps everything in its own growable buffer (see
+ * {@link #ZplWriter()}), or drains its buffer into a target
+ * <code>ByteBuffer</code>, <code>OutputStream</code> or
+ * <code>WritableByteChannel</code> every time it is full and on
+ * {@link #flush()}.
+ * <p>
+ * Writers are not thread safe. They can be reused with {@link #reset()}.
+ *
+ * @author Cristian Ramírez
+ */
+public class ZplWriter {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private byte[] buffer;
+
+    private int count;
+
+    private ByteBuffer targetBuffer;
+
+    private OutputStream outputStream;
+
+    private WritableByteChannel channel;
+
+    /**
+     * Create a writer keeping the ZPL code in memory
+     */
+    public ZplWriter() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a writer keeping the ZPL code in memory
+     *
+     * @param initialCapacity initial size of the buffer (in bytes)
+     */
+    public ZplWriter(int initialCapacity) {
+        this.buffer = new byte[initialCapacity > 0 ? initialCapacity : DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Create a writer draining into a ByteBuffer. A
+     * <code>BufferOverflowException</code> is thrown if the target is too small.
+     *
+     * @param targetBuffer buffer receiving the ZPL code
+     */
+    public ZplWriter(ByteBuffer targetBuffer) {
+        this(DEFAULT_CAPACITY);
+        this.targetBuffer = targetBuffer;
+    }
+
+    /**
+     * Create a writer draining into an OutputStream. I/O errors are thrown as
+     * <code>UncheckedIOException</code>.
+     *
+     * @param outputStream stream receiving the ZPL code
+     */
+    public ZplWriter(OutputStream outputStream) {
+        this(DEFAULT_CAPACITY);
+        this.outputStream = outputStream;
+    }
+
+    /**
+     * Create a writer draining into a channel. I/O errors are thrown as
+     * <code>UncheckedIOException</code>.
+     *
+     * @param channel channel receiving the ZPL code
+     */
+    public ZplWriter(WritableByteChannel channel) {
+        this(DEFAULT_CAPACITY);
+        this.channel = channel;
+    }
+
+    /**
+     * Append a single character
+     *
+     * @param c character to append
+     * @return this writer
+     */
+    public ZplWriter append(char c) {
+        if (count == buffer.length) {
+            makeRoom(1);
+        }
+        buffer[count++] = c < 0x80 ? (byte) c : (byte) '?';
+        return this;
+    }
+
+    /**
+     * Append the characters of a String (or any CharSequence)
+     *
+     * @param str characters to append, nothing is written if null
+     * @return this writer
+     */
+    public ZplWriter append(CharSequence str) {
+        if (str == null) {
+            return this;
+        }
+        int length = str.length();
+        int i = 0;
+        while (i < length) {
+            if (count == buffer.length) {
+                makeRoom(Math.min(length - i, buffer.length));
+            }
+            int end = Math.min(length, i + buffer.length - count);
+            for (; i < end; i++) {
+                char c = str.charAt(i);
+                buffer[count++] = c < 0x80 ? (byte) c : (byte) '?';
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Append the decimal representation of an integer
+     *
+     * @param value integer to append
+     * @return this writer
+     */
+    public ZplWriter append(int value) {
+        if (value < 0) {
+            if (value == Integer.MIN_VALUE) {
+                return append("-2147483648");
+            }
+            append('-');
+            value = -value;
+        }
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        if (buffer.length - count < digits) {
+            makeRoom(digits);
+        }
+        int position = count + digits;
+        do {
+            buffer[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        count += digits;
+        return this;
+    }
+
+    /**
+     * Append already encoded bytes
+     *
+     * @param bytes bytes to append
+     * @return this writer
+     */
+    public ZplWriter append(byte[] bytes) {
+        return append(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Append already encoded bytes
+     *
+     * @param bytes  source array
+     * @param offset first byte to append
+     * @param length number of bytes to append
+     * @return this writer
+     */
+    public ZplWriter append(byte[] bytes, int offset, int length) {
+        while (length > 0) {
+            if (count == buffer.length) {
+                makeRoom(Math.min(length, buffer.length));
+            }
+            int chunk = Math.min(length, buffer.length - count);
+            System.arraycopy(bytes, offset, buffer, count, chunk);
+            count += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+        return this;
+    }
+
+    /**
+     * Append the bytes buffered by another writer
+     *
+     * @param source writer holding the bytes to append
+     * @return this writer
+     */
+    public ZplWriter append(ZplWriter source) {
+        return append(source.buffer, 0, source.count);
+    }
+
+    /**
+     * Append part of the bytes buffered by another writer
+     *
+     * @param source writer holding the bytes to append
+     * @param offset first buffered byte to append
+     * @param length number of bytes to append
+     * @return this writer
+     */
+    public ZplWriter append(ZplWriter source, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > source.count) {
+            throw new IndexOutOfBoundsException("Range out of the buffered bytes");
+        }
+        return append(source.buffer, offset, length);
+    }
+
+    /**
+     * Append a line feed
+     *
+     * @return this writer
+     */
+    public ZplWriter newLine() {
+        return append('\n');
+    }
+
+    /**
+     * Write the field data of an element : <code>^FD</code> (preceded by
+     * <code>^FH\</code> when the value is hexadecimal escaped), the prefix and
+     * the value. The closing <code>^FS</code> is written by the element.
+     * <p>
+     * Elements always write their field data through this method, so child
+     * class can handle variable data differently (see LabelTemplate).
+     *
+     * @param fieldName    name of the variable field, null if not named
+     * @param prefix       constant part of the data written before the value
+     *                     (may be null)
+     * @param value        value of the field
+     * @param hexaEscaped  true to allow hexadecimal and convert accents of the
+     *                     value
+     * @return this writer
+     */
+    public ZplWriter writeFieldData(String fieldName, String prefix, String value, boolean hexaEscaped) {
+        if (hexaEscaped) {
+            append("^FH\\");
+        }
+        append("^FD");
+        append(prefix);
+        if (hexaEscaped) {
+            ZplUtils.convertAccentToZplAsciiHexa(this, value);
+        } else {
+            append(value);
+        }
+        return this;
+    }
+
+    /**
+     * Memoized labels and elements append the code they rendered before
+     * instead of rendering it again. Writers overloading
+     * {@link #writeFieldData(String, String, String, boolean)} must return
+     * false, so every field data goes through them.
+     *
+     * @return true if memoized code can be appended to this writer
+     */
+    public boolean acceptsMemoizedCode() {
+        return true;
+    }
+
+    /**
+     * @return number of bytes currently held by this writer (not yet drained
+     *         to its target)
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Drop the buffered bytes, so the writer can be reused for another label
+     */
+    public void reset() {
+        count = 0;
+    }
+
+    /**
+     * Drain the buffered bytes into the target of this writer. Does nothing for
+     * a writer keeping the ZPL code in memory.
+     */
+    public void flush() {
+        if (hasTarget()) {
+            drain();
+            if (outputStream != null) {
+                try {
+                    outputStream.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to flush ZPL code", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the buffered bytes into a channel
+     *
+     * @param targetChannel channel receiving the bytes
+     * @throws IOException if the channel failed
+     */
+    public void writeTo(WritableByteChannel targetChannel) throws IOException {
+        ByteBuffer bb = ByteBuffer.wrap(buffer, 0, count);
+        while (bb.hasRemaining()) {
+            targetChannel.write(bb);
+        }
+    }
+
+    /**
+     * Write the buffered bytes into a stream
+     *
+     * @param targetStream stream receiving the bytes
+     * @throws IOException if the stream failed
+     */
+    public void writeTo(OutputStream targetStream) throws IOException {
+        targetStream.write(buffer, 0, count);
+    }
+
+    /**
+     * @param other another writer
+     * @return true if both writers buffer the same bytes
+     */
+    public boolean contentEquals(ZplWriter other) {
+        if (count != other.count) {
+            return false;
+        }
+        for (int i = count - 1; i >= 0; i--) {
+            if (buffer[i] != other.buffer[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param suffix ASCII characters
+     * @return true if the buffered bytes end with the suffix
+     */
+    public boolean endsWith(String suffix) {
+        int length = suffix.length();
+        if (length > count) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer[count - length + i] != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return a copy of the buffered bytes
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, count);
+    }
+
+    /**
+     * @return the buffered bytes decoded as a String
+     */
+    @Override
+    public String toString() {
+        return new String(buffer, 0, count, StandardCharsets.US_ASCII);
+    }
+
+    private boolean hasTarget() {
+        return targetBuffer != null || outputStream != null || channel != null;
+    }
+
+    /**
+     * Called when the buffer lacks room for the next bytes : drain it into the
+     * target, or grow it when the ZPL code is kept in memory.
+     */
+    private void makeRoom(int needed) {
+        if (hasTarget()) {
+            drain();
+            if (buffer.length - count >= needed) {
+                return;
+            }
+        }
+        int newCapacity = Math.max(buffer.length << 1, count + needed);
+        buffer = Arrays.copyOf(buffer, newCapacity);
+    }
+
+    private void drain() {
+        if (count == 0) {
+            return;
+        }
+        try {
+            if (targetBuffer != null) {
+                targetBuffer.put(buffer, 0, count);
+            } else if (outputStream != null) {
+                writeTo(outputStream);
+            } else {
+                writeTo(channel);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write ZPL code", e);
+        }
+        count = 0;
+    }
+}
@@ -0,0 +1,163 @@
+package com.finium.core.drivers.zebra.zpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.finium.core.drivers.zebra.model.BarCodeSymbolCache;
+import com.finium.core.drivers.zebra.model.element.ZebraBarCode128;
+import com.finium.core.drivers.zebra.model.element.ZebraBarCode39;
+import com.finium.core.drivers.zebra.model.element.ZebraQRCode;
+import com.finium.core.drivers.zebra.zpl.enums.QRCodeCharacterMode;
+import com.finium.core.drivers.zebra.zpl.enums.QRCodeErrorCorrection;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraPPP;
+import com.finium.core.drivers.zebra.zpl.support.Code128Encoder;
+import com.finium.core.drivers.zebra.zpl.support.Code39Encoder;
+import com.finium.core.drivers.zebra.zpl.support.LinearSymbol;
+import com.finium.core.drivers.zebra.zpl.support.MatrixSymbol;
+import com.finium.core.drivers.zebra.zpl.support.QRCodeEncoder;
+
+/**
+ * Test the geometry of bar codes computed before printing
+ */
+public class BarCodeGeometryTest {
+
+    private static final String TRACKING_NUMBER = "0235600703875191516022937128";
+
+    private void assertCode128Characters(LinearSymbol symbol, int characterCount) {
+	// Start, data and check characters : 6 elements of 11 modules, stop : 7
+	// elements of 13 modules
+	assertEquals(characterCount * 6 + 7, symbol.getElementCount());
+	assertEquals(characterCount * 11 + 13, symbol.getModuleCount(3));
+	assertFalse(symbol.hasWideElements());
+	int modules = 0;
+	for (int i = 0; i < symbol.getElementCount() - 7; i++) {
+	    modules += symbol.getElementWidthDots(i, 1, 3);
+	    if (i % 6 == 5) {
+		assertEquals(11, modules);
+		modules = 0;
+	    }
+	}
+    }
+
+    @Test
+    public void testCode128() {
+	LinearSymbol subsetB = Code128Encoder.encode(TRACKING_NUMBER);
+	assertCode128Characters(subsetB, 1 + 28 + 1);
+	LinearSymbol subsetC = Code128Encoder.encode(">;" + TRACKING_NUMBER);
+	assertCode128Characters(subsetC, 1 + 14 + 1);
+	assertEquals(189, subsetC.getModuleCount(3));
+	// Start B : 211214
+	assertEquals(2, subsetB.getElementWidthDots(0, 1, 3));
+	assertEquals(4, subsetB.getElementWidthDots(5, 1, 3));
+
+	assertCode128Characters(Code128Encoder.encode("CA>5201212>6AA"), 1 + 2 + 1 + 3 + 1 + 2 + 1);
+	// An odd digit in subset C switches to subset B
+	assertCode128Characters(Code128Encoder.encode(">;123"), 1 + 1 + 1 + 1 + 1);
+	// >< is a single >
+	assertCode128Characters(Code128Encoder.encode("A><B"), 1 + 3 + 1);
+    }
+
+    @Test
+    public void testCode39() {
+	LinearSymbol symbol = Code39Encoder.encode("ABC", false);
+	assertEquals(5 * 10 - 1, symbol.getElementCount());
+	assertTrue(symbol.hasWideElements());
+	assertEquals(5 * 15 + 4, symbol.getModuleCount(3));
+	assertEquals(5 * 12 + 4, symbol.getModuleCount(2));
+	assertEquals(2 * (6 * 15 + 5), Code39Encoder.encode("ABC", true).getWidthDots(2, 3));
+	try {
+	    Code39Encoder.encode("abc", false);
+	} catch (IllegalArgumentException e) {
+	    return;
+	}
+	throw new AssertionError("lower case letters are not allowed");
+    }
+
+    @Test
+    public void testQRCodeVersions() {
+	MatrixSymbol symbol = QRCodeEncoder.encode("HELLO WORLD", QRCodeCharacterMode.A,
+		QRCodeErrorCorrection.STANDARD);
+	assertEquals(1, symbol.getVersion());
+	assertEquals(21, symbol.getSize());
+	// Finder pattern and timing pattern
+	assertTrue(symbol.isDark(0, 0) && symbol.isDark(6, 6) && !symbol.isDark(7, 7) && symbol.isDark(2, 2));
+	assertTrue(symbol.isDark(8, 6) && !symbol.isDark(9, 6) && symbol.isDark(10, 6));
+
+	StringBuilder digits = new StringBuilder();
+	for (int i = 0; i < 100; i++) {
+	    digits.append(i % 10);
+	}
+	assertEquals(3, QRCodeEncoder.encode(digits.toString(), QRCodeCharacterMode.N,
+		QRCodeErrorCorrection.HIGH_DENSITY).getVersion());
+	assertEquals(2, QRCodeEncoder.encode("HELLO WORLD HELLO WORLD", QRCodeCharacterMode.A,
+		QRCodeErrorCorrection.STANDARD).getVersion());
+	// Lower case letters are encoded as bytes
+	assertEquals(2, QRCodeEncoder.encode("hello world", QRCodeCharacterMode.A, QRCodeErrorCorrection.ULTRA_HIGH)
+		.getVersion());
+	// 90 bytes : version 9 (98 bytes at level H)
+	assertEquals(53, QRCodeEncoder.encode(digits.substring(0, 90), QRCodeCharacterMode.BXXX,
+		QRCodeErrorCorrection.ULTRA_HIGH).getSize());
+    }
+
+    @Test
+    public void testFitModuleWidth() {
+	ZebraBarCode128 barcode = new ZebraBarCode128(70, 1000, TRACKING_NUMBER, 190, false, 4, 2);
+	assertEquals(Integer.valueOf(343 * 4), barcode.getWidthDots());
+	assertFalse(barcode.fitsWidth(600));
+	assertFalse(barcode.fitModuleWidth(300));
+	assertTrue(barcode.fitModuleWidth(700));
+	assertEquals(Integer.valueOf(2), barcode.getBarCodeWidth());
+
+	barcode.setSubsetOptimized(true);
+	assertTrue(barcode.fitModuleWidth(700));
+	assertEquals(Integer.valueOf(3), barcode.getBarCodeWidth());
+	assertEquals(Integer.valueOf(189 * 3), barcode.getWidthDots());
+	assertTrue(barcode.getZplCode().contains("^BY3,2,190\n"));
+
+	ZebraBarCode39 barcode39 = new ZebraBarCode39(10, 10, "ABC", 100, 2, 3);
+	assertEquals(Integer.valueOf(79 * 2), barcode39.getWidthDots());
+    }
+
+    @Test
+    public void testFitMagnification() {
+	ZebraQRCode qrCode = new ZebraQRCode("HELLO WORLD");
+	assertEquals(3, qrCode.getEffectiveMagnification(ZebraPPP.DPI_300));
+	assertEquals(63, qrCode.getWidthDots(ZebraPPP.DPI_300));
+	assertTrue(qrCode.fitsIn(63, ZebraPPP.DPI_300));
+	// The default magnification follows the resolution
+	assertEquals(42, qrCode.getWidthDots(ZebraPPP.DPI_203));
+	assertFalse(qrCode.fitsIn(63, ZebraPPP.DPI_600));
+	assertTrue(qrCode.fitMagnification(100));
+	assertEquals("4", qrCode.getMagnification());
+	assertEquals(84, qrCode.getWidthDots(ZebraPPP.DPI_600));
+	assertTrue(qrCode.getZplCode().startsWith("^BQN,2,4,M\n"));
+	assertFalse(qrCode.fitMagnification(20));
+	assertEquals("4", qrCode.getMagnification());
+
+	// The smaller symbol of the optimized encoding gets larger modules
+	String text = "HELLO WORLD 12345678901234567890123456789";
+	ZebraQRCode manual = new ZebraQRCode(text);
+	ZebraQRCode optimized = new ZebraQRCode(text);
+	optimized.setOptimizedEncoding(true);
+	assertTrue(manual.fitMagnification(100));
+	assertTrue(optimized.fitMagnification(100));
+	assertEquals("3", manual.getMagnification());
+	assertEquals("4", optimized.getMagnification());
+    }
+
+    @Test
+    public void testSymbolCache() {
+	BarCodeSymbolCache cache = new BarCodeSymbolCache(2);
+	LinearSymbol symbol = cache.getCode128("ABC");
+	assertSame(symbol, cache.getCode128("ABC"));
+	cache.getCode39("ABC", false);
+	cache.getQRCode("ABC", QRCodeCharacterMode.A, QRCodeErrorCorrection.STANDARD);
+	assertEquals(2, cache.getSize());
+	assertEquals(1, cache.getHitCount());
+	assertEquals(3, cache.getMissCount());
+    }
+}
@@ -0,0 +1,59 @@
+package com.finium.core.drivers.zebra.zpl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.finium.core.drivers.zebra.model.element.CompiledRecallFormat;
+import com.finium.core.drivers.zebra.model.element.RecallFormat;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
+
+/**
+ * Test recall formats compiled into slots
+ */
+public class CompiledRecallFormatTest {
+
+    @Test
+    public void testSameCodeAsRecallFormat() {
+	Map<String, String> fieldNumbers = new LinkedHashMap<String, String>();
+	fieldNumbers.put("FN1", "Camera");
+	fieldNumbers.put("FN2", "CA201212AA");
+	RecallFormat recallFormat = new RecallFormat("SHIP");
+	recallFormat.setFieldNumbers(fieldNumbers);
+
+	CompiledRecallFormat compiled = recallFormat.compile();
+	assertEquals(2, compiled.getSlotCount());
+	assertEquals(recallFormat.getZplCode(), compiled.getZplCode("Camera", "CA201212AA"));
+	assertEquals("^XA\n^XFR:SHIP.ZPL\n^FN1^FDCamera^FS\n^FN2^FDCA201212AA^FS\n^XZ\n",
+		compiled.getZplCode("Camera", "CA201212AA"));
+    }
+
+    @Test
+    public void testReusedValues() {
+	CompiledRecallFormat compiled = new CompiledRecallFormat("E:", "SHIP", ".ZPL", "FN1", "FN2");
+	int product = compiled.getSlotIndex("FN1");
+	int code = compiled.getSlotIndex("FN2");
+	assertEquals(-1, compiled.getSlotIndex("FN3"));
+
+	String[] values = compiled.newValues();
+	ZplWriter zplWriter = new ZplWriter();
+	values[product] = "Camera";
+	values[code] = "CA201212AA";
+	compiled.writeZpl(zplWriter, values);
+	assertEquals("^XA\n^XFE:SHIP.ZPL\n^FN1^FDCamera^FS\n^FN2^FDCA201212AA^FS\n^XZ\n", zplWriter.toString());
+
+	zplWriter.reset();
+	values[code] = null;
+	compiled.writeZpl(zplWriter, values);
+	assertEquals("^XA\n^XFE:SHIP.ZPL\n^FN1^FDCamera^FS\n^XZ\n", zplWriter.toString());
+    }
+
+    @Test
+    public void testDefaultImageName() {
+	assertEquals("UNKNOWN", new RecallFormat(" ").getImageName());
+	assertEquals("SHIP", new RecallFormat(" SHIP ").getImageName());
+    }
+}
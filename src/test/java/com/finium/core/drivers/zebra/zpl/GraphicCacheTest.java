@@ -0,0 +1,97 @@
+package com.finium.core.drivers.zebra.zpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.awt.image.BufferedImage;
+
+import org.junit.Test;
+
+import com.finium.core.drivers.zebra.model.EncodedGraphic;
+import com.finium.core.drivers.zebra.model.GraphicCache;
+import com.finium.core.drivers.zebra.model.MonochromeBitmap;
+import com.finium.core.drivers.zebra.model.element.ZebraGraphicField;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraDithering;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraGraphicCompression;
+
+/**
+ * Test encoded graphics cached by image content
+ */
+public class GraphicCacheTest {
+
+    private BufferedImage createImage(int pattern) {
+	BufferedImage image = new BufferedImage(40, 8, BufferedImage.TYPE_INT_ARGB);
+	for (int y = 0; y < 8; y++) {
+	    for (int x = 0; x < 40; x++) {
+		image.setRGB(x, y, (x + y + pattern) % 3 == 0 ? 0xff000000 : 0xffffffff);
+	    }
+	}
+	return image;
+    }
+
+    @Test
+    public void testHitsByImageContent() {
+	GraphicCache graphicCache = new GraphicCache();
+	EncodedGraphic logo = graphicCache.getEncodedGraphic(createImage(0), ZebraDithering.THRESHOLD, null);
+	assertSame(logo, graphicCache.getEncodedGraphic(createImage(0), ZebraDithering.THRESHOLD, null));
+	assertNotSame(logo, graphicCache.getEncodedGraphic(createImage(1), ZebraDithering.THRESHOLD, null));
+	assertNotSame(logo, graphicCache.getEncodedGraphic(createImage(0), ZebraDithering.THRESHOLD,
+		ZebraGraphicCompression.HEXADECIMAL));
+	assertNotSame(logo, graphicCache.getEncodedGraphic(createImage(0), ZebraDithering.ORDERED, null));
+
+	assertEquals(1, graphicCache.getHitCount());
+	assertEquals(4, graphicCache.getMissCount());
+	assertEquals(0.2, graphicCache.getHitRate(), 0.0001);
+	assertEquals(4, graphicCache.getSize());
+    }
+
+    @Test
+    public void testGraphicFieldFromEncodedGraphic() {
+	BufferedImage image = createImage(0);
+	GraphicCache graphicCache = new GraphicCache();
+	for (ZebraGraphicCompression compression : new ZebraGraphicCompression[] { null,
+		ZebraGraphicCompression.HEXADECIMAL, ZebraGraphicCompression.ACS, ZebraGraphicCompression.Z64 }) {
+	    EncodedGraphic encodedGraphic = graphicCache.getEncodedGraphic(image, ZebraDithering.THRESHOLD,
+		    compression);
+	    ZebraGraphicField expected = new ZebraGraphicField(10, 20, MonochromeBitmap.fromImage(image))
+		    .setCompression(compression);
+	    assertEquals(expected.getZplCode(), new ZebraGraphicField(10, 20, encodedGraphic).getZplCode());
+	}
+    }
+
+    @Test
+    public void testSizeOfRetainedData() {
+	MonochromeBitmap bitmap = MonochromeBitmap.fromImage(createImage(0));
+	EncodedGraphic z64 = new EncodedGraphic(bitmap, ZebraGraphicCompression.Z64);
+	// The encoding kept by the bitmap is shared, counted once
+	assertEquals(bitmap.getByteCount() + z64.getEncodedSize(), z64.getSize());
+	assertEquals(bitmap.getRetainedSize(), z64.getSize());
+	EncodedGraphic hexadecimal = new EncodedGraphic(MonochromeBitmap.fromImage(createImage(0)),
+		ZebraGraphicCompression.HEXADECIMAL);
+	assertEquals(bitmap.getByteCount() * 3, hexadecimal.getSize());
+    }
+
+    private EncodedGraphic getHexadecimal(GraphicCache graphicCache, int pattern) {
+	return graphicCache.getEncodedGraphic(createImage(pattern), ZebraDithering.THRESHOLD,
+		ZebraGraphicCompression.HEXADECIMAL);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+	long size = getHexadecimal(new GraphicCache(), 0).getSize();
+	GraphicCache graphicCache = new GraphicCache(2 * size + 1, true);
+	EncodedGraphic first = getHexadecimal(graphicCache, 0);
+	getHexadecimal(graphicCache, 1);
+	assertSame(first, getHexadecimal(graphicCache, 0));
+	getHexadecimal(graphicCache, 2);
+
+	assertEquals(1, graphicCache.getEvictionCount());
+	assertEquals(2, graphicCache.getSize());
+	assertEquals(2 * size, graphicCache.getCurrentBytes());
+	assertSame(first, getHexadecimal(graphicCache, 0));
+	getHexadecimal(graphicCache, 1);
+	assertEquals(2, graphicCache.getHitCount());
+	assertEquals(4, graphicCache.getMissCount());
+    }
+}
@@ -0,0 +1,227 @@
+package com.finium.core.drivers.zebra.zpl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.junit.Test;
+
+import com.finium.core.drivers.zebra.model.MonochromeBitmap;
+import com.finium.core.drivers.zebra.model.ZebraLabel;
+import com.finium.core.drivers.zebra.model.element.ZebraGraphicField;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraDithering;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraGraphicCompression;
+import com.finium.core.drivers.zebra.zpl.support.GraphicEncoder;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
+
+/**
+ * Test images converted to ^GF graphic fields
+ */
+public class GraphicFieldTest {
+
+    private BufferedImage createGradient(int width, int height) {
+	BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+	for (int y = 0; y < height; y++) {
+	    for (int x = 0; x < width; x++) {
+		int gray = x * 255 / (width - 1);
+		image.setRGB(x, y, 0xff000000 | gray << 16 | gray << 8 | gray);
+	    }
+	}
+	return image;
+    }
+
+    @Test
+    public void testGraphicField() {
+	BufferedImage image = new BufferedImage(10, 2, BufferedImage.TYPE_INT_ARGB);
+	for (int x = 0; x < 10; x++) {
+	    image.setRGB(x, 0, x % 2 == 0 ? 0xff000000 : 0xffffffff);
+	    image.setRGB(x, 1, 0x00000000);
+	}
+	ZebraGraphicField graphicField = new ZebraGraphicField(10, 20, image);
+	assertEquals("^FO10,20^GFA,4,4,2,AA80,^FS\n", graphicField.getZplCode());
+
+	graphicField.setCompression(ZebraGraphicCompression.HEXADECIMAL);
+	ZebraLabel zebraLabel = new ZebraLabel(912, 912);
+	zebraLabel.addElement(graphicField);
+	assertTrue(zebraLabel.getZplCode().contains("^GFA,4,4,2,AA800000^FS\n"));
+    }
+
+    @Test
+    public void testParallelThreshold() {
+	int width = 1100;
+	int height = MonochromeBitmap.PARALLEL_DOTS / width + 100;
+	MonochromeBitmap bitmap = MonochromeBitmap.fromImage(createGradient(width, height));
+	assertEquals(138, bitmap.getBytesPerRow());
+	for (int y = 0; y < height; y += 97) {
+	    for (int x = 0; x < width; x++) {
+		assertEquals(x * 255 / (width - 1) < MonochromeBitmap.DEFAULT_THRESHOLD, bitmap.isBlack(x, y));
+	    }
+	}
+    }
+
+    @Test
+    public void testDithering() {
+	BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+	for (int y = 0; y < 64; y++) {
+	    for (int x = 0; x < 64; x++) {
+		image.setRGB(x, y, 0x808080);
+	    }
+	}
+	assertEquals(0, countBlack(MonochromeBitmap.fromImage(image, ZebraDithering.THRESHOLD)));
+	int ordered = countBlack(MonochromeBitmap.fromImage(image, ZebraDithering.ORDERED));
+	int diffused = countBlack(MonochromeBitmap.fromImage(image, ZebraDithering.FLOYD_STEINBERG));
+	assertEquals(64 * 64 / 2, ordered);
+	assertTrue(Math.abs(diffused - 64 * 64 / 2) < 64);
+    }
+
+    @Test
+    public void testParallelDiffusion() {
+	int width = 1500;
+	int height = MonochromeBitmap.PARALLEL_DOTS / width + 50;
+	BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+	int[] grays = new int[width * height];
+	for (int y = 0; y < height; y++) {
+	    for (int x = 0; x < width; x++) {
+		int gray = (x * 7 + y * 3 + (x * y) % 23) & 0xff;
+		grays[y * width + x] = gray;
+		image.setRGB(x, y, gray << 16 | gray << 8 | gray);
+	    }
+	}
+	MonochromeBitmap bitmap = MonochromeBitmap.fromImage(image, ZebraDithering.FLOYD_STEINBERG);
+	int[] errors = new int[width + 2];
+	int[] nextErrors = new int[width + 2];
+	for (int y = 0; y < height; y++) {
+	    for (int x = 0; x < width; x++) {
+		int value = grays[y * width + x] + errors[x + 1];
+		boolean black = value < MonochromeBitmap.DEFAULT_THRESHOLD;
+		int error = black ? value : value - 255;
+		assertEquals(black, bitmap.isBlack(x, y));
+		errors[x + 2] += error * 7 / 16;
+		nextErrors[x] += error * 3 / 16;
+		nextErrors[x + 1] += error * 5 / 16;
+		nextErrors[x + 2] += error / 16;
+	    }
+	    int[] swap = errors;
+	    errors = nextErrors;
+	    nextErrors = swap;
+	    Arrays.fill(nextErrors, 0);
+	}
+    }
+
+    @Test
+    public void testToImage() {
+	MonochromeBitmap bitmap = MonochromeBitmap.fromImage(createGradient(61, 13), ZebraDithering.ORDERED);
+	BufferedImage image = bitmap.toImage();
+	assertEquals(BufferedImage.TYPE_BYTE_BINARY, image.getType());
+	for (int y = 0; y < 13; y++) {
+	    for (int x = 0; x < 61; x++) {
+		assertEquals(bitmap.isBlack(x, y) ? 0xff000000 : 0xffffffff, image.getRGB(x, y));
+	    }
+	}
+	assertEquals(bitmap, MonochromeBitmap.fromImage(image));
+    }
+
+    private int countBlack(MonochromeBitmap bitmap) {
+	int count = 0;
+	for (int y = 0; y < bitmap.getHeight(); y++) {
+	    for (int x = 0; x < bitmap.getWidth(); x++) {
+		count += bitmap.isBlack(x, y) ? 1 : 0;
+	    }
+	}
+	return count;
+    }
+
+    @Test
+    public void testAsciiCompression() {
+	byte[] data = new byte[] { 0, 0, 0, 0, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xf0, (byte) 0xff,
+		(byte) 0xff, (byte) 0xff, (byte) 0xf0, 0x12, 0x34, 0x00, 0x00 };
+	ZplWriter zplWriter = new ZplWriter();
+	GraphicEncoder.writeAsciiCompressed(zplWriter, data, 4);
+	assertEquals(",MF0:1234,", zplWriter.toString());
+
+	byte[] gradient = MonochromeBitmap.fromImage(createGradient(700, 40), ZebraDithering.ORDERED).getData();
+	zplWriter.reset();
+	GraphicEncoder.writeAsciiCompressed(zplWriter, gradient, 88);
+	assertArrayEquals(gradient, decodeAsciiCompressed(zplWriter.toString(), 88));
+    }
+
+    @Test
+    public void testZ64() throws DataFormatException {
+	MonochromeBitmap bitmap = MonochromeBitmap.fromImage(createGradient(700, 40), ZebraDithering.FLOYD_STEINBERG);
+	ZplWriter zplWriter = new ZplWriter();
+	bitmap.writeData(zplWriter, ZebraGraphicCompression.Z64);
+	String z64 = zplWriter.toString();
+	assertTrue(z64.startsWith(":Z64:"));
+	int crcIndex = z64.lastIndexOf(':');
+	String base64 = z64.substring(5, crcIndex);
+	assertEquals(String.format("%04x", crc16(base64)), z64.substring(crcIndex + 1));
+
+	Inflater inflater = new Inflater();
+	inflater.setInput(Base64.getDecoder().decode(base64));
+	byte[] inflated = new byte[bitmap.getByteCount()];
+	assertEquals(inflated.length, inflater.inflate(inflated));
+	assertArrayEquals(bitmap.getData(), inflated);
+    }
+
+    @Test
+    public void testSmallestCompression() {
+	MonochromeBitmap bitmap = MonochromeBitmap.fromImage(createGradient(700, 200));
+	ZebraGraphicCompression smallest = bitmap.getSmallestCompression();
+	for (ZebraGraphicCompression compression : ZebraGraphicCompression.values()) {
+	    assertTrue(bitmap.getEncodedSize(smallest) <= bitmap.getEncodedSize(compression));
+	}
+	assertTrue(bitmap.getEncodedSize(smallest) < bitmap.getByteCount() / 10);
+    }
+
+    private static int crc16(String text) {
+	int crc = 0;
+	for (char c : text.toCharArray()) {
+	    crc ^= c << 8;
+	    for (int bit = 0; bit < 8; bit++) {
+		crc = (crc & 0x8000) != 0 ? (crc << 1) ^ 0x1021 : crc << 1;
+	    }
+	    crc &= 0xffff;
+	}
+	return crc;
+    }
+
+    private static byte[] decodeAsciiCompressed(String code, int bytesPerRow) {
+	ByteArrayOutputStream digits = new ByteArrayOutputStream();
+	StringBuilder row = new StringBuilder();
+	String previousRow = null;
+	int count = 0;
+	for (char c : code.toCharArray()) {
+	    if (c >= 'G' && c <= 'Y') {
+		count += c - 'G' + 1;
+	    } else if (c >= 'g' && c <= 'z') {
+		count += (c - 'g' + 1) * 20;
+	    } else if (c == ',' || c == '!') {
+		while (row.length() < bytesPerRow * 2) {
+		    row.append(c == ',' ? '0' : 'F');
+		}
+	    } else if (c == ':') {
+		row.append(previousRow);
+	    } else {
+		for (int i = 0; i < Math.max(count, 1); i++) {
+		    row.append(c);
+		}
+		count = 0;
+	    }
+	    if (row.length() == bytesPerRow * 2) {
+		for (int i = 0; i < row.length(); i += 2) {
+		    digits.write(Integer.parseInt(row.substring(i, i + 2), 16));
+		}
+		previousRow = row.toString();
+		row.setLength(0);
+	    }
+	}
+	return digits.toByteArray();
+    }
+}
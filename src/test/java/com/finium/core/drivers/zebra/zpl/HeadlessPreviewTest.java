@@ -0,0 +1,202 @@
+package com.finium.core.drivers.zebra.zpl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.finium.core.drivers.zebra.model.FieldFont;
+import com.finium.core.drivers.zebra.model.LabelPreviewRenderer;
+import com.finium.core.drivers.zebra.model.MonochromeBitmap;
+import com.finium.core.drivers.zebra.model.PackedLabelRaster;
+import com.finium.core.drivers.zebra.model.ZebraLabel;
+import com.finium.core.drivers.zebra.model.element.ZebraBarCode128;
+import com.finium.core.drivers.zebra.model.element.ZebraGraficBox;
+import com.finium.core.drivers.zebra.model.element.ZebraGraphicField;
+import com.finium.core.drivers.zebra.model.element.ZebraQRCode;
+import com.finium.core.drivers.zebra.model.element.ZebraText;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraFont;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraRotation;
+
+/**
+ * Test the previews rendered without AWT
+ */
+public class HeadlessPreviewTest {
+
+    private static final String[] LETTER_H = { "#...#", "#...#", "#...#", "#####", "#...#", "#...#", "#...#" };
+
+    @Test
+    public void testSameDotsAsJava2D() {
+	ZebraLabel zebraLabel = new ZebraLabel(203, 203);
+	zebraLabel.addElement(new ZebraGraficBox(3, 3, 190, 190, 5, "B"));
+	zebraLabel.addElement(new ZebraGraficBox(-10, 100, 50, 7, 7, "B"));
+	zebraLabel.addElement(new ZebraBarCode128(20, 190, "ABC123", 40, false, 2, 3));
+	zebraLabel.addElement(new ZebraQRCode("HELLO WORLD", "3"));
+	assertArrayEquals(zebraLabel.getBitmapPreview().getData(), zebraLabel.getHeadlessPreview().getData());
+    }
+
+    @Test
+    public void testFillRect() {
+	PackedLabelRaster raster = new PackedLabelRaster(20, 3);
+	raster.fillRect(3, 0, 2, 1, true);
+	raster.fillRect(6, 1, 12, 1, true);
+	raster.fillRect(-5, 2, 100, 1, true);
+	raster.fillRect(10, 2, 3, 1, false);
+	assertArrayEquals(new byte[] { 0x18, 0, 0, 0x03, (byte) 0xff, (byte) 0xc0, (byte) 0xff, (byte) 0xc7, (byte) 0xf0 },
+		raster.getData());
+    }
+
+    @Test
+    public void testBitmapGlyphs() {
+	PackedLabelRaster raster = new PackedLabelRaster(40, 40);
+	FieldFont fontA = new FieldFont(ZebraFont.ZEBRA_A, ZebraRotation.NORMAL, 9, 5);
+	raster.drawText("HH", 2, 12, fontA);
+	for (int row = 0; row < 7; row++) {
+	    for (int column = 0; column < 5; column++) {
+		boolean black = LETTER_H[row].charAt(column) == '#';
+		assertEquals(black, raster.isBlack(2 + column, 5 + row));
+		// Second character after a gap of 1 dot
+		assertEquals(black, raster.isBlack(8 + column, 5 + row));
+	    }
+	}
+	assertEquals(11, raster.getTextWidth("HH", fontA));
+	// Cells and gaps of the matrix of each font
+	assertEquals(7 * 2 + 2 * 2 + 7 * 2,
+		raster.getTextWidth("HH", new FieldFont(ZebraFont.ZEBRA_B, ZebraRotation.NORMAL, 22, 14)));
+	assertEquals(12 + 10, raster.getTextWidth("HH", new FieldFont(ZebraFont.ZEBRA_ZERO, ZebraRotation.NORMAL, 15, 0)));
+	assertEquals(24 + 20, raster.getTextWidth("HH", new FieldFont(ZebraFont.ZEBRA_ZERO, ZebraRotation.NORMAL, 30, 0)));
+
+	// Turned clockwise around the origin
+	raster = new PackedLabelRaster(40, 40);
+	raster.drawText("H", 20, 2, fontA.withRotation(ZebraRotation.ROTATE_90));
+	for (int row = 0; row < 7; row++) {
+	    for (int column = 0; column < 5; column++) {
+		assertEquals(LETTER_H[row].charAt(column) == '#', raster.isBlack(26 - row, 2 + column));
+	    }
+	}
+
+	// Accented letters are drawn as their base letter
+	PackedLabelRaster accented = new PackedLabelRaster(40, 20);
+	accented.drawText("é", 2, 12, fontA);
+	PackedLabelRaster plain = new PackedLabelRaster(40, 20);
+	plain.drawText("e", 2, 12, fontA);
+	assertArrayEquals(plain.getData(), accented.getData());
+    }
+
+    @Test
+    public void testText() {
+	ZebraLabel zebraLabel = new ZebraLabel(400, 120);
+	zebraLabel.setDefaultZebraFont(ZebraFont.ZEBRA_ZERO);
+	zebraLabel.addElement(new ZebraText(10, 84, "Product:", 14));
+	MonochromeBitmap bitmap = zebraLabel.getHeadlessPreview();
+	int black = 0;
+	for (int y = 0; y < 120; y++) {
+	    for (int x = 0; x < 400; x++) {
+		if (bitmap.isBlack(x, y)) {
+		    black++;
+		    // 58 dots high, 45 above the baseline
+		    assertTrue(y >= 84 - 45 && y < 84 - 45 + 58);
+		    // Cells of 46 dots (58 * 12 / 15)
+		    assertTrue(x >= 10 && x < 10 + 8 * 46);
+		}
+	    }
+	}
+	assertTrue(black > 1000);
+	assertFalse(bitmap.isBlack(9, 60));
+    }
+
+    @Test
+    public void testWithoutAwt() throws Exception {
+	URL[] urls = { ZebraLabel.class.getProtectionDomain().getCodeSource().getLocation(),
+		HeadlessPreviewTest.class.getProtectionDomain().getCodeSource().getLocation() };
+	try (URLClassLoader loader = new AwtFreeClassLoader(urls)) {
+	    Object data = loader.loadClass(SampleLabels.class.getName()).getMethod("render").invoke(null);
+	    assertArrayEquals(SampleLabels.render(), (byte[]) data);
+	}
+    }
+
+    /**
+     * Labels rendered in a class loader without AWT
+     */
+    public static final class SampleLabels {
+
+	public static byte[] render() throws InterruptedException {
+	    ZebraLabel zebraLabel = new ZebraLabel(300, 300);
+	    zebraLabel.addElement(new ZebraText(10, 40, "Parcel"));
+	    zebraLabel.addElement(new ZebraGraficBox(3, 3, 190, 190, 5, "B"));
+	    zebraLabel.addElement(new ZebraBarCode128(10, 140, "P1000", 80, false, 2, 3));
+	    zebraLabel.addElement(new ZebraQRCode("HELLO", "3"));
+	    zebraLabel.addElement(new ZebraGraphicField(10, 200, new MonochromeBitmap(8, 1, new byte[] { 0x5a })));
+	    byte[][] data = new byte[1][];
+	    ExecutorService executor = Executors.newSingleThreadExecutor();
+	    try {
+		new LabelPreviewRenderer(executor, 1, true).renderBitmaps(Collections.singletonList(zebraLabel),
+			(index, label, bitmap) -> data[0] = bitmap.getData());
+	    } finally {
+		executor.shutdown();
+	    }
+	    return data[0];
+	}
+    }
+
+    /**
+     * Class loader defining the classes of the library again, failing to load
+     * any AWT class
+     */
+    private static final class AwtFreeClassLoader extends URLClassLoader {
+
+	AwtFreeClassLoader(URL[] urls) {
+	    super(urls, HeadlessPreviewTest.class.getClassLoader());
+	}
+
+	@Override
+	protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+	    if (name.startsWith("java.awt.")) {
+		throw new ClassNotFoundException(name);
+	    }
+	    if (!name.startsWith("com.finium.")) {
+		return super.loadClass(name, resolve);
+	    }
+	    synchronized (getClassLoadingLock(name)) {
+		Class<?> loaded = findLoadedClass(name);
+		if (loaded == null) {
+		    loaded = findClass(name);
+		}
+		if (resolve) {
+		    resolveClass(loaded);
+		}
+		return loaded;
+	    }
+	}
+    }
+
+    @Test
+    public void testBatch() throws InterruptedException {
+	List<ZebraLabel> zebraLabels = new ArrayList<ZebraLabel>();
+	for (int i = 0; i < 50; i++) {
+	    ZebraLabel zebraLabel = new ZebraLabel(300, 150);
+	    zebraLabel.addElement(new ZebraText(10, 40, "Parcel " + i));
+	    zebraLabel.addElement(new ZebraBarCode128(10, 140, "P" + (100000 + i), 80, false, 2, 3));
+	    zebraLabels.add(zebraLabel);
+	}
+	ExecutorService executor = Executors.newFixedThreadPool(4);
+	try {
+	    int count = new LabelPreviewRenderer(executor, 4, true).renderBitmaps(zebraLabels,
+		    (index, zebraLabel, bitmap) -> assertArrayEquals(zebraLabel.getHeadlessPreview().getData(),
+			    bitmap.getData()));
+	    assertEquals(50, count);
+	} finally {
+	    executor.shutdown();
+	}
+    }
+}
@@ -0,0 +1,82 @@
+package com.finium.core.drivers.zebra.zpl;
+
+import static com.finium.core.drivers.zebra.zpl.LabelFixtures.createTextLabel;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.finium.core.drivers.zebra.model.ZebraLabel;
+import com.finium.core.drivers.zebra.printer.AbstractZebraPrinter;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
+import com.finium.core.drivers.zebra.zpl.support.exceptions.ZebraPrintException;
+
+/**
+ * Test ^PQ coalescing of identical labels
+ */
+public class LabelCoalescingTest {
+
+    /**
+     * Client keeping the label counts
+     */
+    static class CountingClient extends PrinterStateTest.StatefulClient {
+
+	int labelCount;
+	int formatCount;
+
+	@Override
+	public void send(ZplWriter zplWriter, int labelCount, int formatCount) {
+	    this.labelCount += labelCount;
+	    this.formatCount += formatCount;
+	    send(zplWriter);
+	}
+    }
+
+    @Test
+    public void testCoalescing() throws ZebraPrintException {
+	CountingClient client = new CountingClient();
+	AbstractZebraPrinter printer = new AbstractZebraPrinter(client) {
+	};
+	printer.setCoalesceLabels(true);
+
+	ZebraLabel carton = createTextLabel("Carton");
+	List<ZebraLabel> zebraLabels = new ArrayList<ZebraLabel>();
+	for (int i = 0; i < 100; i++) {
+	    zebraLabels.add(carton);
+	}
+	zebraLabels.add(createTextLabel("Pallet"));
+	zebraLabels.add(createTextLabel("Carton"));
+	zebraLabels.add(createTextLabel("Carton"));
+	printer.printZpl(zebraLabels);
+
+	String cartonCode = carton.getZplCode();
+	String cartonWithoutEnd = cartonCode.substring(0, cartonCode.length() - "^XZ\n".length());
+	assertEquals(cartonWithoutEnd + "^PQ100\n^XZ\n" + createTextLabel("Pallet").getZplCode() + cartonWithoutEnd
+		+ "^PQ2\n^XZ\n", client.messages.get(0));
+	assertEquals(103, client.labelCount);
+	assertEquals(3, client.formatCount);
+    }
+
+    @Test
+    public void testCoalescingWithPrinterState() throws ZebraPrintException {
+	CountingClient client = new CountingClient();
+	AbstractZebraPrinter printer = new AbstractZebraPrinter(client) {
+	};
+	printer.setCoalesceLabels(true);
+	printer.setTrackPrinterState(true);
+
+	List<ZebraLabel> zebraLabels = new ArrayList<ZebraLabel>();
+	zebraLabels.add(createTextLabel("Carton"));
+	zebraLabels.add(createTextLabel("Carton"));
+	zebraLabels.add(createTextLabel("Pallet"));
+	printer.printZpl(zebraLabels);
+
+	String cartonCode = createTextLabel("Carton").getZplCode();
+	assertEquals(cartonCode.substring(0, cartonCode.length() - "^XZ\n".length()) + "^PQ2\n^XZ\n"
+		+ "^XA\n^FT10,84^FH\\^FDPallet^FS\n^XZ\n", client.messages.get(0));
+	assertEquals(3, client.labelCount);
+	assertEquals(2, client.formatCount);
+    }
+}
@@ -0,0 +1,65 @@
+package com.finium.core.drivers.zebra.zpl;
+
+import com.finium.core.drivers.zebra.model.ZebraLabel;
+import com.finium.core.drivers.zebra.model.element.ZebraBarCode128;
+import com.finium.core.drivers.zebra.model.element.ZebraGraficBox;
+import com.finium.core.drivers.zebra.model.element.ZebraQRCode;
+import com.finium.core.drivers.zebra.model.element.ZebraText;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraFont;
+
+/**
+ * Labels shared by the tests
+ */
+final class LabelFixtures {
+
+    /**
+     * Index of the product name in the elements of a product label
+     */
+    static final int PRODUCT = 2;
+
+    /**
+     * Index of the Code 128 in the elements of a product label
+     */
+    static final int BAR_CODE = 3;
+
+    /**
+     * Index of the QR code in the elements of a product label
+     */
+    static final int QR_CODE = 4;
+
+    private LabelFixtures() {
+    }
+
+    /**
+     * @return 912 x 912 dots product label in font 0 : a frame, the "Product:"
+     *         caption, the product name, its code as Code 128 and QR code
+     */
+    static ZebraLabel createProductLabel(String product, String code) {
+	return createProductLabel(85, product, code);
+    }
+
+    /**
+     * @param productY
+     *            position of the product name
+     * @return product label with the product name at a position
+     */
+    static ZebraLabel createProductLabel(int productY, String product, String code) {
+	ZebraLabel zebraLabel = new ZebraLabel(912, 912);
+	zebraLabel.setDefaultZebraFont(ZebraFont.ZEBRA_ZERO);
+	zebraLabel.addElement(new ZebraGraficBox(10, 10, 890, 890, 3, "B"));
+	zebraLabel.addElement(new ZebraText(10, 84, "Product:", 14));
+	zebraLabel.addElement(new ZebraText(395, productY, product, 14));
+	zebraLabel.addElement(new ZebraBarCode128(70, 400, code, 190, false, 4, 2));
+	zebraLabel.addElement(new ZebraQRCode(code));
+	return zebraLabel;
+    }
+
+    /**
+     * @return 912 x 912 dots label of a single text, in the default font 0 of
+     *         14 points
+     */
+    static ZebraLabel createTextLabel(String text) {
+	return new ZebraLabel(912, 912).setDefaultZebraFont(ZebraFont.ZEBRA_ZERO).setDefaultFontSize(14)
+		.addElement(new ZebraText(10, 84, text));
+    }
+}
@@ -0,0 +1,71 @@
+package com.finium.core.drivers.zebra.zpl;
+
+import static com.finium.core.drivers.zebra.zpl.LabelFixtures.createProductLabel;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+import com.finium.core.drivers.zebra.model.LabelTemplateCache;
+import com.finium.core.drivers.zebra.model.ZebraLabel;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
+
+/**
+ * Test cache of label templates
+ */
+public class LabelTemplateCacheTest {
+
+    private String render(LabelTemplateCache cache, ZebraLabel zebraLabel) {
+	ZplWriter zplWriter = new ZplWriter();
+	cache.writeZpl(zebraLabel, zplWriter);
+	return zplWriter.toString();
+    }
+
+    @Test
+    public void testFingerprint() {
+	assertEquals(createProductLabel(85, "Camera", "CA201212AA").getFingerprint(),
+		createProductLabel(85, "Qté", "0235600703875191").getFingerprint());
+	assertNotEquals(createProductLabel(85, "Camera", "CA201212AA").getFingerprint(),
+		createProductLabel(86, "Camera", "CA201212AA").getFingerprint());
+    }
+
+    @Test
+    public void testHitAndMiss() {
+	LabelTemplateCache cache = new LabelTemplateCache();
+	ZebraLabel first = createProductLabel(85, "Camera", "CA201212AA");
+	assertEquals(first.getZplCode(), render(cache, first));
+	ZebraLabel second = createProductLabel(85, "Qté", "0235600703875191");
+	assertEquals(second.getZplCode(), render(cache, second));
+	ZebraLabel moved = createProductLabel(90, "Phone", "42");
+	assertEquals(moved.getZplCode(), render(cache, moved));
+
+	assertEquals(1, cache.getHitCount());
+	assertEquals(2, cache.getMissCount());
+	assertEquals(0, cache.getEvictionCount());
+	assertEquals(2, cache.getSize());
+    }
+
+    @Test
+    public void testEviction() {
+	ZebraLabel zebraLabel = createProductLabel(85, "Camera", "CA201212AA");
+	LabelTemplateCache sizing = new LabelTemplateCache();
+	render(sizing, zebraLabel);
+	long entryBytes = sizing.getCurrentBytes();
+
+	// Room for two layouts only
+	LabelTemplateCache cache = new LabelTemplateCache(entryBytes * 2 + entryBytes / 2);
+	render(cache, createProductLabel(85, "a", "1"));
+	render(cache, createProductLabel(86, "b", "2"));
+	render(cache, createProductLabel(85, "c", "3"));
+	render(cache, createProductLabel(87, "d", "4"));
+	assertEquals(1, cache.getEvictionCount());
+	assertEquals(2, cache.getSize());
+
+	// Layout 86 was the least recently used one
+	render(cache, createProductLabel(85, "e", "5"));
+	render(cache, createProductLabel(86, "f", "6"));
+	assertEquals(2, cache.getHitCount());
+	assertEquals(4, cache.getMissCount());
+	assertEquals(2, cache.getEvictionCount());
+    }
+}
@@ -0,0 +1,51 @@
+package com.finium.core.drivers.zebra.zpl;
+
+import static com.finium.core.drivers.zebra.zpl.LabelFixtures.createProductLabel;
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.finium.core.drivers.zebra.model.LabelTemplate;
+import com.finium.core.drivers.zebra.model.ZebraElement;
+import com.finium.core.drivers.zebra.model.ZebraLabel;
+import com.finium.core.drivers.zebra.model.element.ZebraQRCode;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
+
+/**
+ * Test compiled label templates
+ */
+public class LabelTemplateTest {
+
+    private ZebraLabel createLabel(String product, String code) {
+	ZebraLabel zebraLabel = createProductLabel(product, code);
+	List<ZebraElement> zebraElements = zebraLabel.getZebraElements();
+	zebraElements.get(LabelFixtures.PRODUCT).setFieldName("product");
+	zebraElements.get(LabelFixtures.BAR_CODE).setFieldName("code");
+	zebraElements.get(LabelFixtures.QR_CODE).setFieldName("code");
+	return zebraLabel;
+    }
+
+    @Test
+    public void testTemplateMatchesLabel() {
+	LabelTemplate template = new LabelTemplate(createLabel("Camera", "CA201212AA"));
+	assertEquals(3, template.getSlotCount());
+	assertEquals(0, template.getSlotIndex("product"));
+	assertEquals(1, template.getSlotIndex("code"));
+	assertEquals(-1, template.getSlotIndex("Product:"));
+
+	Map<String, String> values = new HashMap<String, String>();
+	values.put("product", "Qté");
+	values.put("code", "0235600703875191");
+	assertEquals(createLabel("Qté", "0235600703875191").getZplCode(), template.getZplCode(values));
+
+	ZplWriter zplWriter = new ZplWriter();
+	template.writeZpl(zplWriter, "Phone", null, "42");
+	ZebraLabel expected = createLabel("Phone", "CA201212AA");
+	((ZebraQRCode) expected.getZebraElements().get(LabelFixtures.QR_CODE)).setText("42");
+	assertEquals(expected.getZplCode(), zplWriter.toString());
+    }
+}
@@ -0,0 +1,86 @@
+package com.finium.core.drivers.zebra.zpl;
+
+import static com.finium.core.drivers.zebra.zpl.LabelFixtures.createProductLabel;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+import com.finium.core.drivers.zebra.model.LabelTemplate;
+import com.finium.core.drivers.zebra.model.ZebraLabel;
+import com.finium.core.drivers.zebra.model.element.ZebraText;
+import com.finium.core.drivers.zebra.zpl.command.ZebraPrintMode;
+
+/**
+ * Test memoized rendering and label versions
+ */
+public class MemoizedLabelTest {
+
+    private ZebraLabel createLabel(ZebraText productText) {
+	ZebraLabel zebraLabel = createProductLabel("Camera", "CA201212AA");
+	zebraLabel.getZebraElements().set(LabelFixtures.PRODUCT, productText);
+	return zebraLabel;
+    }
+
+    private String render(ZebraLabel zebraLabel) {
+	zebraLabel.setMemoized(false);
+	String zplCode = zebraLabel.getZplCode();
+	zebraLabel.setMemoized(true);
+	return zplCode;
+    }
+
+    @Test
+    public void testMemoizedCodeFollowsChanges() {
+	ZebraText productText = new ZebraText(395, 85, "Camera", 14);
+	ZebraLabel zebraLabel = createLabel(productText).setMemoized(true);
+	String first = zebraLabel.getZplCode();
+	assertEquals(render(zebraLabel), first);
+	assertEquals(first, zebraLabel.getZplCode());
+
+	productText.setText("Phone");
+	assertEquals(render(zebraLabel), zebraLabel.getZplCode());
+	assertNotEquals(first, zebraLabel.getZplCode());
+
+	productText.setPositionX(20);
+	assertEquals(render(zebraLabel), zebraLabel.getZplCode());
+
+	zebraLabel.setZebraPrintMode(ZebraPrintMode.CUTTER);
+	assertEquals(render(zebraLabel), zebraLabel.getZplCode());
+
+	zebraLabel.setDefaultFontSize(14);
+	assertEquals(render(zebraLabel), zebraLabel.getZplCode());
+
+	zebraLabel.getZebraElements().add(new ZebraText(10, 84, "Product:", 14));
+	assertEquals(render(zebraLabel), zebraLabel.getZplCode());
+    }
+
+    @Test
+    public void testVersion() {
+	ZebraText sharedText = new ZebraText(395, 85, "Camera", 14);
+	ZebraLabel first = createLabel(sharedText);
+	ZebraLabel second = createLabel(sharedText);
+	long firstVersion = first.getVersion();
+	long secondVersion = second.getVersion();
+	assertEquals(firstVersion, first.getVersion());
+
+	sharedText.setText("Phone");
+	assertNotEquals(firstVersion, first.getVersion());
+	assertNotEquals(secondVersion, second.getVersion());
+
+	secondVersion = second.getVersion();
+	second.setWidthDots(800);
+	assertNotEquals(secondVersion, second.getVersion());
+
+	secondVersion = second.getVersion();
+	second.getPrinterOptions().setDefaultFontSize(11);
+	assertNotEquals(secondVersion, second.getVersion());
+    }
+
+    @Test
+    public void testTemplateOfMemoizedLabel() {
+	ZebraLabel zebraLabel = createLabel(new ZebraText(395, 85, "Camera", 14)).setMemoized(true);
+	zebraLabel.getZplCode();
+	LabelTemplate template = new LabelTemplate(zebraLabel, true);
+	assertEquals(4, template.getSlotCount());
+    }
+}
@@ -0,0 +1,108 @@
+package com.finium.core.drivers.zebra.zpl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.finium.core.drivers.zebra.listeners.ClientListener;
+import com.finium.core.drivers.zebra.listeners.DataListener;
+import com.finium.core.drivers.zebra.model.LabelTemplateCache;
+import com.finium.core.drivers.zebra.model.ZebraLabel;
+import com.finium.core.drivers.zebra.model.element.ZebraBarCode128;
+import com.finium.core.drivers.zebra.model.element.ZebraText;
+import com.finium.core.drivers.zebra.printer.AbstractZebraPrinter;
+import com.finium.core.drivers.zebra.printer.connection.ZebraConnectionClient;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraFont;
+import com.finium.core.drivers.zebra.zpl.support.exceptions.ZebraPrintException;
+
+/**
+ * Test parallel rendering of label batches
+ */
+public class ParallelRenderingTest {
+
+    /**
+     * Client keeping the messages instead of sending them
+     */
+    static class RecordingClient implements ZebraConnectionClient {
+
+	final List<String> messages = new ArrayList<String>();
+
+	@Override
+	public void addClientListener(ClientListener listener) {
+	}
+
+	@Override
+	public void removeClientListener(ClientListener listener) {
+	}
+
+	@Override
+	public void addDataListener(DataListener listener) {
+	}
+
+	@Override
+	public void removeDataListener(DataListener listener) {
+	}
+
+	@Override
+	public void connect() {
+	}
+
+	@Override
+	public void disconnect() {
+	}
+
+	@Override
+	public boolean isConnected() {
+	    return true;
+	}
+
+	@Override
+	public void send(String zplMessage) {
+	    messages.add(zplMessage);
+	}
+    }
+
+    private List<ZebraLabel> createLabels(int count) {
+	List<ZebraLabel> zebraLabels = new ArrayList<ZebraLabel>();
+	for (int i = 0; i < count; i++) {
+	    ZebraLabel zebraLabel = new ZebraLabel(912, 912);
+	    zebraLabel.setDefaultZebraFont(ZebraFont.ZEBRA_ZERO);
+	    zebraLabel.addElement(new ZebraText(10, 84, "Label " + i, 14));
+	    zebraLabel.addElement(new ZebraBarCode128(70, 400, "C" + i, 190, false, 4, 2));
+	    zebraLabels.add(zebraLabel);
+	}
+	return zebraLabels;
+    }
+
+    private String expected(List<ZebraLabel> zebraLabels) {
+	StringBuilder zpl = new StringBuilder();
+	for (ZebraLabel zebraLabel : zebraLabels) {
+	    zpl.append(zebraLabel.getZplCode());
+	}
+	return zpl.toString();
+    }
+
+    @Test
+    public void testParallelKeepsOrder() throws ZebraPrintException {
+	RecordingClient client = new RecordingClient();
+	AbstractZebraPrinter printer = new AbstractZebraPrinter(client) {
+	};
+	printer.setRenderPool(new ForkJoinPool(4));
+	printer.setParallelThreshold(10);
+
+	for (int count : new int[] { 5, 10, 64, 65, 1000 }) {
+	    List<ZebraLabel> zebraLabels = createLabels(count);
+	    printer.printZpl(zebraLabels);
+	    assertEquals(expected(zebraLabels), client.messages.get(client.messages.size() - 1));
+	}
+
+	printer.setTemplateCache(new LabelTemplateCache());
+	List<ZebraLabel> zebraLabels = createLabels(500);
+	printer.printZpl(zebraLabels);
+	assertEquals(expected(zebraLabels), client.messages.get(client.messages.size() - 1));
+    }
+}
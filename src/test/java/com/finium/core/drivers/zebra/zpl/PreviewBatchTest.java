@@ -0,0 +1,108 @@
+package com.finium.core.drivers.zebra.zpl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.finium.core.drivers.zebra.model.LabelPreviewRenderer;
+import com.finium.core.drivers.zebra.model.ZebraLabel;
+import com.finium.core.drivers.zebra.model.element.ZebraBarCode128;
+import com.finium.core.drivers.zebra.model.element.ZebraText;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraFont;
+
+/**
+ * Test the previews of batches of labels rendered in parallel
+ */
+public class PreviewBatchTest {
+
+    /**
+     * Label counting its previews not yet delivered
+     */
+    private static final class CountingLabel extends ZebraLabel {
+
+	private final AtomicInteger inFlight;
+
+	private final AtomicInteger maxInFlight;
+
+	CountingLabel(AtomicInteger inFlight, AtomicInteger maxInFlight) {
+	    super(400, 200);
+	    this.inFlight = inFlight;
+	    this.maxInFlight = maxInFlight;
+	}
+
+	@Override
+	public BufferedImage getMonochromePreview() {
+	    int count = inFlight.incrementAndGet();
+	    maxInFlight.accumulateAndGet(count, Math::max);
+	    return super.getMonochromePreview();
+	}
+    }
+
+    private static ZebraLabel createLabel(ZebraLabel zebraLabel, int number) {
+	zebraLabel.setDefaultZebraFont(ZebraFont.ZEBRA_ZERO);
+	zebraLabel.addElement(new ZebraText(10, 40, "Parcel " + number, 8));
+	zebraLabel.addElement(new ZebraBarCode128(10, 150, "P" + (100000 + number), 80, false, 2, 3));
+	return zebraLabel;
+    }
+
+    private static byte[] bits(BufferedImage image) {
+	return ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+    }
+
+    @Test
+    public void testBoundedAndOrdered() throws InterruptedException {
+	AtomicInteger inFlight = new AtomicInteger();
+	AtomicInteger maxInFlight = new AtomicInteger();
+	List<ZebraLabel> zebraLabels = new ArrayList<ZebraLabel>();
+	for (int i = 0; i < 200; i++) {
+	    zebraLabels.add(createLabel(new CountingLabel(inFlight, maxInFlight), i));
+	}
+	ExecutorService executor = Executors.newFixedThreadPool(4);
+	try {
+	    LabelPreviewRenderer renderer = new LabelPreviewRenderer(executor, 3, true);
+	    AtomicInteger next = new AtomicInteger();
+	    int count = renderer.render(zebraLabels, (index, zebraLabel, image) -> {
+		assertEquals(next.getAndIncrement(), index);
+		assertSame(zebraLabels.get(index), zebraLabel);
+		assertEquals(BufferedImage.TYPE_BYTE_BINARY, image.getType());
+		if (index % 50 == 0) {
+		    assertArrayEquals(bits(createLabel(new ZebraLabel(400, 200), index).getMonochromePreview()),
+			    bits(image));
+		}
+		inFlight.decrementAndGet();
+	    });
+	    assertEquals(200, count);
+	    assertEquals(200, next.get());
+	    assertTrue(maxInFlight.get() <= 3);
+	} finally {
+	    executor.shutdown();
+	}
+    }
+
+    @Test
+    public void testFailure() throws InterruptedException {
+	List<ZebraLabel> zebraLabels = new ArrayList<ZebraLabel>();
+	for (int i = 0; i < 20; i++) {
+	    zebraLabels.add(i == 5 ? new ZebraLabel() : createLabel(new ZebraLabel(400, 200), i));
+	}
+	AtomicInteger delivered = new AtomicInteger();
+	try {
+	    new LabelPreviewRenderer().render(zebraLabels, (index, zebraLabel, image) -> delivered.incrementAndGet());
+	    fail("A label without size can not be rendered");
+	} catch (UnsupportedOperationException e) {
+	    assertEquals(5, delivered.get());
+	}
+    }
+}
@@ -0,0 +1,158 @@
+package com.finium.core.drivers.zebra.zpl;
+
+import static com.finium.core.drivers.zebra.zpl.LabelFixtures.createTextLabel;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.finium.core.drivers.zebra.model.LabelTemplateCache;
+import com.finium.core.drivers.zebra.model.PrinterState;
+import com.finium.core.drivers.zebra.model.ZebraLabel;
+import com.finium.core.drivers.zebra.printer.AbstractZebraPrinter;
+import com.finium.core.drivers.zebra.printer.connection.SocketZebraConnectionClient;
+import com.finium.core.drivers.zebra.zpl.command.ZebraPrintMode;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
+import com.finium.core.drivers.zebra.zpl.support.exceptions.ZebraPrintException;
+
+/**
+ * Test setup commands are only sent when they change
+ */
+public class PrinterStateTest {
+
+    /**
+     * Client tracking the printer state
+     */
+    static class StatefulClient extends ParallelRenderingTest.RecordingClient {
+
+	final PrinterState printerState = new PrinterState();
+
+	@Override
+	public PrinterState getPrinterState() {
+	    return printerState;
+	}
+    }
+
+    @Test
+    public void testDelta() {
+	PrinterState printerState = new PrinterState();
+	ZebraLabel zebraLabel = createTextLabel("First");
+
+	ZplWriter zplWriter = new ZplWriter();
+	zebraLabel.writeZpl(zplWriter, printerState);
+	assertEquals(zebraLabel.getZplCode(), zplWriter.toString());
+
+	zplWriter.reset();
+	createTextLabel("Second").writeZpl(zplWriter, printerState);
+	assertEquals("^XA\n^FT10,84^FH\\^FDSecond^FS\n^XZ\n", zplWriter.toString());
+
+	zplWriter.reset();
+	ZebraLabel changed = createTextLabel("Third").setZebraPrintMode(ZebraPrintMode.CUTTER).setHeightDots(600);
+	changed.writeZpl(zplWriter, printerState);
+	assertEquals("^XA\n^MMC\n^LL600\n^FT10,84^FH\\^FDThird^FS\n^XZ\n", zplWriter.toString());
+
+	printerState.reset();
+	assertTrue(printerState.isUnknown());
+	zplWriter.reset();
+	changed.writeZpl(zplWriter, printerState);
+	assertEquals(changed.getZplCode(), zplWriter.toString());
+    }
+
+    @Test
+    public void testTemplateDelta() {
+	PrinterState printerState = new PrinterState();
+	PrinterState cacheState = new PrinterState();
+	LabelTemplateCache cache = new LabelTemplateCache();
+	for (String text : new String[] { "First", "Second", "Third" }) {
+	    ZplWriter expected = new ZplWriter();
+	    createTextLabel(text).writeZpl(expected, printerState);
+	    ZplWriter zplWriter = new ZplWriter();
+	    cache.writeZpl(createTextLabel(text), zplWriter, cacheState);
+	    assertEquals(expected.toString(), zplWriter.toString());
+	}
+	assertEquals(2, cache.getHitCount());
+    }
+
+    @Test
+    public void testPrinter() throws ZebraPrintException {
+	StatefulClient client = new StatefulClient();
+	AbstractZebraPrinter printer = new AbstractZebraPrinter(client) {
+	};
+	printer.setTrackPrinterState(true);
+
+	ZebraLabel first = createTextLabel("First");
+	printer.printZpl(first);
+	assertEquals(first.getZplCode(), client.messages.get(0));
+	printer.printZpl(createTextLabel("Second"));
+	assertEquals("^XA\n^FT10,84^FH\\^FDSecond^FS\n^XZ\n", client.messages.get(1));
+
+	// Raw zpl may change the setup
+	printer.printZpl("^XA^PW400^XZ");
+	ZebraLabel third = createTextLabel("Third");
+	printer.printZpl(third);
+	assertEquals(third.getZplCode(), client.messages.get(3));
+
+	// Parallel chunks start from an unknown state, except the first one
+	printer.setRenderPool(new ForkJoinPool(2));
+	printer.setParallelThreshold(1);
+	List<ZebraLabel> zebraLabels = new ArrayList<ZebraLabel>();
+	for (int i = 0; i < 100; i++) {
+	    zebraLabels.add(createTextLabel("Label " + i));
+	}
+	printer.printZpl(zebraLabels);
+	String zpl = client.messages.get(4);
+	assertEquals(1, zpl.split("\\^PW", -1).length - 1);
+	assertTrue(zpl.indexOf("^PW") > zpl.indexOf("Label 63") && zpl.indexOf("^PW") < zpl.indexOf("Label 64"));
+	printer.printZpl(createTextLabel("Last"));
+	assertEquals("^XA\n^FT10,84^FH\\^FDLast^FS\n^XZ\n", client.messages.get(5));
+    }
+
+    @Test
+    public void testRawZplResetsSocketState() throws IOException, InterruptedException, ZebraPrintException {
+	ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+	SocketZebraConnectionClient client = new SocketZebraConnectionClient("127.0.0.1",
+		serverSocket.getLocalPort());
+	try {
+	    serverSocket.setSoTimeout(5000);
+	    client.connect();
+	    Socket socket = serverSocket.accept();
+	    socket.setSoTimeout(5000);
+	    for (int i = 0; i < 500 && !client.isConnected(); i++) {
+		Thread.sleep(10);
+	    }
+	    assertTrue(client.isConnected());
+	    AbstractZebraPrinter printer = new AbstractZebraPrinter(client) {
+	    };
+	    printer.setTrackPrinterState(true);
+
+	    ZebraLabel first = createTextLabel("First");
+	    printer.printZpl(first);
+	    printer.printZpl(createTextLabel("Second"));
+	    // Raw zpl sent straight on the connection may change the setup
+	    client.send("^XA^PW400^XZ");
+	    assertTrue(client.getPrinterState().isUnknown());
+	    ZebraLabel third = createTextLabel("Third");
+	    printer.printZpl(third);
+
+	    String expected = first.getZplCode() + "^XA\n^FT10,84^FH\\^FDSecond^FS\n^XZ\n" + "^XA^PW400^XZ"
+		    + third.getZplCode();
+	    byte[] received = new byte[expected.length()];
+	    new DataInputStream(socket.getInputStream()).readFully(received);
+	    assertEquals(expected, new String(received, StandardCharsets.US_ASCII));
+	    socket.close();
+	} finally {
+	    client.disconnect();
+	    serverSocket.close();
+	}
+    }
+}
@@ -0,0 +1,74 @@
+package com.finium.core.drivers.zebra.zpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.finium.core.drivers.zebra.model.element.ZebraQRCode;
+import com.finium.core.drivers.zebra.zpl.enums.QRCodeCharacterMode;
+import com.finium.core.drivers.zebra.zpl.enums.QRCodeErrorCorrection;
+import com.finium.core.drivers.zebra.zpl.support.QRCodeEncoder;
+import com.finium.core.drivers.zebra.zpl.support.QRCodeSegmenter;
+
+/**
+ * Test the choice of the QR code modes giving the smallest symbol
+ */
+public class QRCodeSegmentationTest {
+
+    private static String digits(int count) {
+	StringBuilder digits = new StringBuilder();
+	for (int i = 0; i < count; i++) {
+	    digits.append(i % 10);
+	}
+	return digits.toString();
+    }
+
+    @Test
+    public void testSegments() {
+	String data = "ABC-" + digits(60);
+	List<QRCodeEncoder.Segment> segments = QRCodeSegmenter.segment(data, QRCodeErrorCorrection.STANDARD);
+	assertEquals(2, segments.size());
+	assertEquals(QRCodeCharacterMode.A, segments.get(0).getCharacterMode());
+	assertEquals("ABC-", segments.get(0).getData());
+	assertEquals(QRCodeCharacterMode.N, segments.get(1).getCharacterMode());
+	// 35 bits + 214 bits
+	assertEquals(249, QRCodeEncoder.getBitLength(segments, 3));
+	assertEquals(3, QRCodeEncoder.getVersion(segments, QRCodeErrorCorrection.STANDARD));
+
+	List<QRCodeEncoder.Segment> single = Collections
+		.singletonList(new QRCodeEncoder.Segment(QRCodeCharacterMode.A, data));
+	assertEquals(4, QRCodeEncoder.getVersion(single, QRCodeErrorCorrection.STANDARD));
+
+	// A few digits between letters are not worth a segment
+	assertEquals(1, QRCodeSegmenter.segment("AB12CD", QRCodeErrorCorrection.STANDARD).size());
+	// Lower case letters need bytes
+	segments = QRCodeSegmenter.segment("order " + digits(30), QRCodeErrorCorrection.STANDARD);
+	assertEquals(QRCodeCharacterMode.BXXX, segments.get(0).getCharacterMode());
+	assertEquals(QRCodeCharacterMode.N, segments.get(segments.size() - 1).getCharacterMode());
+    }
+
+    @Test
+    public void testOptimizedEncoding() {
+	ZebraQRCode qrCode = new ZebraQRCode("ABC-" + digits(60));
+	assertEquals(33, qrCode.getSymbol().getSize());
+	qrCode.setOptimizedEncoding(true);
+	assertEquals(29, qrCode.getSymbol().getSize());
+	assertEquals("A,ABC-" + digits(60), qrCode.getFieldData());
+	assertTrue(qrCode.getZplCode().contains("^FDMA,ABC-0123"));
+
+	qrCode.setText("12345678");
+	assertEquals("M,N12345678", qrCode.getFieldData());
+	assertTrue(qrCode.getZplCode().contains("^FDMM,N12345678^FS"));
+
+	qrCode.setText("hello");
+	assertEquals("M,B0005hello", qrCode.getFieldData());
+	assertEquals(21, qrCode.getSymbol().getSize());
+
+	qrCode.setErrorCorrection(QRCodeErrorCorrection.ULTRA_HIGH);
+	assertTrue(qrCode.getZplCode().contains("^FDHM,B0005hello^FS"));
+    }
+}
@@ -0,0 +1,174 @@
+package com.finium.core.drivers.zebra.zpl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+
+import org.junit.Test;
+
+import com.finium.core.drivers.zebra.model.MonochromeBitmap;
+import com.finium.core.drivers.zebra.model.ZebraLabel;
+import com.finium.core.drivers.zebra.model.element.ZebraAFontElement;
+import com.finium.core.drivers.zebra.model.element.ZebraBarCode128;
+import com.finium.core.drivers.zebra.model.element.ZebraBarCode39;
+import com.finium.core.drivers.zebra.model.element.ZebraGraficBox;
+import com.finium.core.drivers.zebra.model.element.ZebraGraphicField;
+import com.finium.core.drivers.zebra.model.element.ZebraQRCode;
+import com.finium.core.drivers.zebra.model.element.ZebraText;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraFont;
+import com.finium.core.drivers.zebra.zpl.support.LinearSymbol;
+import com.finium.core.drivers.zebra.zpl.support.MatrixSymbol;
+
+/**
+ * Test the preview drawn dot by dot
+ */
+public class RasterPreviewTest {
+
+    private static boolean isBlack(BufferedImage image, int x, int y) {
+	return (image.getRGB(x, y) & 0xffffff) == 0;
+    }
+
+    private static int countBlack(BufferedImage image, int left, int top, int right, int bottom) {
+	int count = 0;
+	for (int y = top; y < bottom; y++) {
+	    for (int x = left; x < right; x++) {
+		if (isBlack(image, x, y)) {
+		    count++;
+		}
+	    }
+	}
+	return count;
+    }
+
+    @Test
+    public void testBox() {
+	ZebraLabel zebraLabel = new ZebraLabel(100, 80);
+	zebraLabel.addElement(new ZebraGraficBox(10, 10, 50, 30, 3, "B"));
+	zebraLabel.addElement(new ZebraGraficBox(70, 10, 20, 20, 12, null));
+	BufferedImage image = zebraLabel.getImagePreview();
+	assertEquals(100, image.getWidth());
+	assertEquals(80, image.getHeight());
+	assertTrue(isBlack(image, 10, 10) && isBlack(image, 12, 20) && isBlack(image, 59, 39));
+	assertFalse(isBlack(image, 13, 13) || isBlack(image, 60, 40) || isBlack(image, 9, 9));
+	// Thicker than half the box : filled
+	assertEquals(400, countBlack(image, 70, 10, 90, 30));
+	assertEquals(50 * 30 - 44 * 24 + 400, countBlack(image, 0, 0, 100, 80));
+    }
+
+    @Test
+    public void testBarCodes() {
+	ZebraLabel zebraLabel = new ZebraLabel(800, 400);
+	ZebraBarCode128 barCode128 = new ZebraBarCode128(10, 100, "ABC123", 50, false, 2, 3);
+	zebraLabel.addElement(barCode128);
+	ZebraBarCode39 barCode39 = new ZebraBarCode39(10, 300, "CODE39", 60, 3, 3);
+	zebraLabel.addElement(barCode39);
+	BufferedImage image = zebraLabel.getImagePreview();
+
+	assertBars(image, barCode128.getSymbol(), 10, 75, 2, 3);
+	// Bars end at the origin
+	assertTrue(isBlack(image, 10, 50) && isBlack(image, 10, 99));
+	assertFalse(isBlack(image, 10, 49) || isBlack(image, 10, 100));
+
+	assertBars(image, barCode39.getSymbol(), 10, 270, 3, 3);
+	// Interpretation line below the bars
+	int width39 = barCode39.getWidthDots();
+	assertTrue(countBlack(image, 10, 302, 10 + width39, 340) > 0);
+	assertEquals(0, countBlack(image, 10 + width39, 0, 800, 400));
+    }
+
+    private static void assertBars(BufferedImage image, LinearSymbol symbol, int left, int y, int moduleWidth,
+	    int wideBarRatio) {
+	int x = left;
+	for (int i = 0; i < symbol.getElementCount(); i++) {
+	    int width = symbol.getElementWidthDots(i, moduleWidth, wideBarRatio);
+	    for (int dot = x; dot < x + width; dot++) {
+		assertEquals(symbol.isBar(i), isBlack(image, dot, y));
+	    }
+	    x += width;
+	}
+	assertFalse(isBlack(image, x, y));
+    }
+
+    @Test
+    public void testQRCode() {
+	ZebraLabel zebraLabel = new ZebraLabel(200, 200);
+	ZebraQRCode qrCode = new ZebraQRCode("HELLO WORLD", "4");
+	zebraLabel.addElement(qrCode);
+	BufferedImage image = zebraLabel.getImagePreview();
+	MatrixSymbol symbol = qrCode.getSymbol();
+	for (int y = 0; y < symbol.getSize(); y++) {
+	    for (int x = 0; x < symbol.getSize(); x++) {
+		assertEquals(symbol.isDark(x, y), isBlack(image, x * 4, y * 4));
+		assertEquals(symbol.isDark(x, y), isBlack(image, x * 4 + 3, y * 4 + 3));
+	    }
+	}
+	assertEquals(0, countBlack(image, 84, 0, 200, 200));
+    }
+
+    @Test
+    public void testTextAndGraphic() {
+	ZebraLabel zebraLabel = new ZebraLabel(400, 200);
+	zebraLabel.setDefaultZebraFont(ZebraFont.ZEBRA_ZERO);
+	zebraLabel.addElement(new ZebraText(10, 84, "Product:", 14));
+	zebraLabel.addElement(new ZebraAFontElement(ZebraFont.ZEBRA_A, 18, 10));
+	zebraLabel.addElement(new ZebraText(10, 150, "ABC"));
+	byte[] data = new byte[] { (byte) 0xff, 0, (byte) 0xff, 0 };
+	zebraLabel.addElement(new ZebraGraphicField(300, 150, new MonochromeBitmap(8, 4, data)));
+	BufferedImage image = zebraLabel.getImagePreview();
+
+	// Font 0, 58 dots high from its baseline
+	assertTrue(countBlack(image, 10, 26, 400, 85) > 100);
+	assertEquals(0, countBlack(image, 0, 0, 400, 20));
+	// Font A magnified twice, 3 characters of 12 dots
+	assertTrue(countBlack(image, 10, 132, 50, 151) > 20);
+	assertEquals(0, countBlack(image, 60, 100, 300, 200));
+	assertEquals(16, countBlack(image, 300, 150, 308, 154));
+	assertTrue(isBlack(image, 300, 150) && !isBlack(image, 300, 151));
+    }
+
+    @Test
+    public void testMonochromePreview() {
+	ZebraLabel zebraLabel = new ZebraLabel(203, 100);
+	zebraLabel.setDefaultZebraFont(ZebraFont.ZEBRA_ZERO);
+	zebraLabel.addElement(new ZebraText(10, 40, "Product:", 8));
+	zebraLabel.addElement(new ZebraBarCode128(10, 90, "ABC123", 40, false, 1, 3));
+	zebraLabel.addElement(new ZebraGraficBox(0, 0, 203, 100, 2, "B"));
+	BufferedImage argb = zebraLabel.getImagePreview();
+	BufferedImage monochrome = zebraLabel.getMonochromePreview();
+	assertEquals(BufferedImage.TYPE_BYTE_BINARY, monochrome.getType());
+	assertEquals(26 * 100, ((DataBufferByte) monochrome.getRaster().getDataBuffer()).getData().length);
+	for (int y = 0; y < 100; y++) {
+	    for (int x = 0; x < 203; x++) {
+		assertEquals(isBlack(argb, x, y), isBlack(monochrome, x, y));
+	    }
+	}
+
+	MonochromeBitmap bitmap = zebraLabel.getBitmapPreview();
+	assertEquals(203, bitmap.getWidth());
+	assertEquals(26, bitmap.getBytesPerRow());
+	for (int y = 0; y < 100; y++) {
+	    for (int x = 0; x < 203; x++) {
+		assertEquals(isBlack(argb, x, y), bitmap.isBlack(x, y));
+	    }
+	    // Padding dots are white
+	    assertEquals(0, bitmap.getData()[y * 26 + 25] & 0x1f);
+	}
+	assertTrue(new ZebraGraphicField(0, 0, bitmap).getZplCode().startsWith("^FO0,0^GFA,2600,2600,26,"));
+    }
+
+    @Test
+    public void testDeterministic() {
+	ZebraLabel zebraLabel = new ZebraLabel(912, 912);
+	zebraLabel.setDefaultZebraFont(ZebraFont.ZEBRA_ZERO);
+	zebraLabel.addElement(new ZebraText(10, 84, "Product:", 14));
+	zebraLabel.addElement(new ZebraBarCode39(10, 297, "CA201212AA", 118, 2, 2));
+	zebraLabel.addElement(new ZebraGraficBox(5, 5, 900, 900, 4, "B"));
+	BufferedImage first = zebraLabel.getImagePreview();
+	BufferedImage second = zebraLabel.getImagePreview();
+	assertArrayEquals(first.getRGB(0, 0, 912, 912, null, 0, 912), second.getRGB(0, 0, 912, 912, null, 0, 912));
+    }
+}
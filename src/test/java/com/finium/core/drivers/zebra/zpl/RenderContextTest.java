@@ -0,0 +1,81 @@
+package com.finium.core.drivers.zebra.zpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.finium.core.drivers.zebra.model.RenderContext;
+import com.finium.core.drivers.zebra.model.ZebraLabel;
+import com.finium.core.drivers.zebra.model.element.ZebraText;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraFont;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraPPP;
+
+/**
+ * Test rendering does not modify elements
+ */
+public class RenderContextTest {
+
+    @Test
+    public void testSharedElement() throws Exception {
+	ZebraText sharedText = new ZebraText(10, 84, "Shared", 14);
+
+	final ZebraLabel withFont = new ZebraLabel(912, 912);
+	withFont.setDefaultZebraFont(ZebraFont.ZEBRA_ZERO);
+	withFont.addElement(sharedText);
+	final ZebraLabel withoutFont = new ZebraLabel(912, 912);
+	withoutFont.addElement(sharedText);
+
+	final String expectedWithFont = "^XA\n^MMT\n^PW912\n^LL912\n^FT10,84^A0N,58,57^FH\\^FDShared^FS\n^XZ\n";
+	final String expectedWithoutFont = "^XA\n^MMT\n^PW912\n^LL912\n^FT10,84^FH\\^FDShared^FS\n^XZ\n";
+	assertEquals(expectedWithFont, withFont.getZplCode());
+	assertEquals(expectedWithoutFont, withoutFont.getZplCode());
+	assertNull(sharedText.getPrinterOptions());
+
+	ExecutorService executor = Executors.newFixedThreadPool(4);
+	try {
+	    List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+	    for (int t = 0; t < 8; t++) {
+		results.add(executor.submit(new Callable<Boolean>() {
+		    @Override
+		    public Boolean call() {
+			for (int i = 0; i < 2000; i++) {
+			    if (!expectedWithFont.equals(withFont.getZplCode())
+				    || !expectedWithoutFont.equals(withoutFont.getZplCode())) {
+				return false;
+			    }
+			}
+			return true;
+		    }
+		}));
+	    }
+	    for (Future<Boolean> result : results) {
+		assertEquals(Boolean.TRUE, result.get());
+	    }
+	} finally {
+	    executor.shutdown();
+	}
+    }
+
+    @Test
+    public void testRenderContextSnapshot() {
+	ZebraLabel zebraLabel = new ZebraLabel(912, 912);
+	zebraLabel.setDefaultZebraFont(ZebraFont.ZEBRA_ZERO);
+	RenderContext renderContext = zebraLabel.getRenderContext();
+	assertSame(renderContext, zebraLabel.getRenderContext());
+	assertEquals(ZebraPPP.DPI_300, renderContext.getZebraPPP());
+	assertEquals(ZebraFont.ZEBRA_ZERO, renderContext.getDefaultZebraFont());
+
+	zebraLabel.setDefaultFontSize(14);
+	assertEquals(Integer.valueOf(14), zebraLabel.getRenderContext().getDefaultFontSize());
+	assertNull(renderContext.getDefaultFontSize());
+    }
+}
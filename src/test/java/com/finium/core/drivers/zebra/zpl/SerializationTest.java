@@ -0,0 +1,108 @@
+package com.finium.core.drivers.zebra.zpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.finium.core.drivers.zebra.model.LabelTemplate;
+import com.finium.core.drivers.zebra.model.PrinterOptions;
+import com.finium.core.drivers.zebra.model.ZebraLabel;
+import com.finium.core.drivers.zebra.model.element.ZebraBarCode128;
+import com.finium.core.drivers.zebra.model.element.ZebraSerializedField;
+import com.finium.core.drivers.zebra.model.element.ZebraText;
+import com.finium.core.drivers.zebra.printer.AbstractZebraPrinter;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraPPP;
+import com.finium.core.drivers.zebra.zpl.support.exceptions.ZebraPrintException;
+
+/**
+ * Test fields serialized by the printer (^SN, ^SF) and label quantity (^PQ)
+ */
+public class SerializationTest {
+
+    private ZebraLabel createLabel() {
+	ZebraLabel zebraLabel = new ZebraLabel(912, 912);
+	zebraLabel.addElement(new ZebraText(10, 84, "Carton"));
+	zebraLabel.addElement(new ZebraSerializedField(new ZebraText(10, 200, "0001"), 1, true));
+	zebraLabel.addElement(new ZebraSerializedField(new ZebraBarCode128(70, 400, "CA0001", 190, false, 4, 2),
+		"%%DDDD", "1"));
+	zebraLabel.setQuantity(1000);
+	return zebraLabel;
+    }
+
+    @Test
+    public void testSerializedFields() {
+	String zplCode = createLabel().getZplCode();
+	assertTrue(zplCode.contains("^FT10,200^SN0001,1,Y^FS\n"));
+	assertTrue(zplCode.contains("^FDCA0001^SF%%DDDD,1^FS\n"));
+	assertTrue(zplCode.endsWith("^PQ1000\n^XZ\n"));
+	assertFalse(zplCode.contains("^FD0001"));
+    }
+
+    @Test
+    public void testSerializedFieldChange() {
+	ZebraText counter = new ZebraText(10, 200, "0001");
+	ZebraLabel zebraLabel = new ZebraLabel(912, 912).setMemoized(true);
+	zebraLabel.addElement(new ZebraSerializedField(counter, -1, false));
+	assertTrue(zebraLabel.getZplCode().contains("^SN0001,-1,N^FS"));
+
+	counter.setText("0500");
+	assertTrue(zebraLabel.getZplCode().contains("^SN0500,-1,N^FS"));
+    }
+
+    private ZebraLabel createCounterLabel(ZebraSerializedField counter) {
+	return new ZebraLabel(912, 912).addElement(counter);
+    }
+
+    @Test
+    public void testFingerprint() {
+	ZebraText text = new ZebraText(10, 200, "0001", 14);
+	text.setPrinterOptions(new PrinterOptions(ZebraPPP.DPI_600));
+	ZebraLabel zebraLabel = createCounterLabel(new ZebraSerializedField(text, 1, true));
+	assertEquals(createCounterLabel(new ZebraSerializedField(new ZebraText(10, 200, "0001", 14), 1, true))
+		.getFingerprint(), zebraLabel.getFingerprint());
+	assertNotEquals(createCounterLabel(new ZebraSerializedField(new ZebraText(10, 200, "0500", 14), 1, true))
+		.getFingerprint(), zebraLabel.getFingerprint());
+	assertNotEquals(createCounterLabel(new ZebraSerializedField(new ZebraText(10, 200, "0001", 14), 2, true))
+		.getFingerprint(), zebraLabel.getFingerprint());
+	assertNotEquals(createCounterLabel(new ZebraSerializedField(new ZebraText(10, 200, "0001", 14), 1, false))
+		.getFingerprint(), zebraLabel.getFingerprint());
+	assertNotEquals(createCounterLabel(new ZebraSerializedField(new ZebraText(10, 200, "0001", 14), "DDDD", "1"))
+		.getFingerprint(), zebraLabel.getFingerprint());
+	assertNotEquals(createCounterLabel(new ZebraSerializedField(new ZebraText(10, 200, "0001", 20), 1, true))
+		.getFingerprint(), zebraLabel.getFingerprint());
+    }
+
+    @Test
+    public void testTemplateKeepsSerialization() {
+	ZebraLabel zebraLabel = createLabel();
+	LabelTemplate template = new LabelTemplate(zebraLabel, true);
+	assertTrue(template.isLabelBindable());
+	assertEquals(1, template.getSlotCount());
+	assertEquals(zebraLabel.getZplCode(), template.getZplCode(new HashMap<String, String>()));
+    }
+
+    @Test
+    public void testNotCoalesced() throws ZebraPrintException {
+	LabelCoalescingTest.CountingClient client = new LabelCoalescingTest.CountingClient();
+	AbstractZebraPrinter printer = new AbstractZebraPrinter(client) {
+	};
+	printer.setCoalesceLabels(true);
+
+	List<ZebraLabel> zebraLabels = new ArrayList<ZebraLabel>();
+	zebraLabels.add(createLabel());
+	zebraLabels.add(createLabel());
+	printer.printZpl(zebraLabels);
+
+	String zplCode = createLabel().getZplCode();
+	assertEquals(zplCode + zplCode, client.messages.get(0));
+	assertEquals(2000, client.labelCount);
+	assertEquals(2, client.formatCount);
+    }
+}
@@ -0,0 +1,360 @@
+package com.finium.core.drivers.zebra.zpl;
+
+import static com.finium.core.drivers.zebra.zpl.LabelFixtures.createProductLabel;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.finium.core.drivers.zebra.model.FormatRegistry;
+import com.finium.core.drivers.zebra.model.LabelTemplate;
+import com.finium.core.drivers.zebra.model.MonochromeBitmap;
+import com.finium.core.drivers.zebra.model.StoredFormat;
+import com.finium.core.drivers.zebra.model.ZebraLabel;
+import com.finium.core.drivers.zebra.model.element.DownloadFormat;
+import com.finium.core.drivers.zebra.model.element.DownloadGraphic;
+import com.finium.core.drivers.zebra.model.element.ZebraRecallGraphic;
+import com.finium.core.drivers.zebra.model.element.ZebraText;
+import com.finium.core.drivers.zebra.printer.AbstractZebraPrinter;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
+import com.finium.core.drivers.zebra.zpl.support.exceptions.ZebraPrintException;
+
+/**
+ * Test labels printed with formats stored on the printer
+ */
+public class StoredFormatTest {
+
+    /**
+     * Client forgetting the stored formats when it connects again
+     */
+    static class RegistryClient extends ParallelRenderingTest.RecordingClient {
+
+	final FormatRegistry formatRegistry = new FormatRegistry();
+
+	@Override
+	public void connect() {
+	    formatRegistry.reset();
+	}
+
+	@Override
+	public FormatRegistry getFormatRegistry() {
+	    return formatRegistry;
+	}
+    }
+
+    /**
+     * @return path of the format compiled from the layout of a label
+     */
+    static String formatPath(ZebraLabel zebraLabel) {
+	return "R:" + StoredFormat.nameOf(new LabelTemplate(zebraLabel, true)) + ".ZPL";
+    }
+
+    @Test
+    public void testDownloadAndRecall() {
+	ZebraLabel zebraLabel = createProductLabel("Camera", "CA201212AA");
+	StoredFormat storedFormat = new StoredFormat(zebraLabel, "R:", "SHIP");
+	assertTrue(storedFormat.isLabelBindable());
+	assertEquals(4, storedFormat.getSlotCount());
+
+	ZplWriter download = new ZplWriter();
+	storedFormat.writeDownload(download);
+	String labelCode = zebraLabel.getZplCode();
+	String expectedDownload = "^XA\n^DFR:SHIP.ZPL^FS\n"
+		+ labelCode.substring("^XA\n".length())
+			.replace("^FH\\^FDProduct:", "^FN1")
+			.replace("^FH\\^FDCamera", "^FN2")
+			.replace("^FDCA201212AA", "^FN3")
+			.replace("^FDMM,ACA201212AA", "^FN4");
+	assertEquals(expectedDownload, download.toString());
+
+	ZplWriter recall = new ZplWriter();
+	storedFormat.writeRecall(recall, createProductLabel("Phone", "42"));
+	assertEquals("^XA\n^XFR:SHIP.ZPL^FS\n^FN1^FH\\^FDProduct:^FS\n^FN2^FH\\^FDPhone^FS\n^FN3^FD42^FS\n"
+		+ "^FN4^FDMM,A42^FS\n^XZ\n", recall.toString());
+    }
+
+    @Test
+    public void testPrinter() throws ZebraPrintException {
+	ParallelRenderingTest.RecordingClient client = new ParallelRenderingTest.RecordingClient();
+	AbstractZebraPrinter printer = new AbstractZebraPrinter(client) {
+	};
+	printer.setStoredFormatMode(true);
+	String path = formatPath(createProductLabel("Camera", "CA201212AA"));
+	assertTrue(path.matches("R:[0-9A-Z]{8}\\.ZPL"));
+
+	printer.printZpl(createProductLabel("Camera", "CA201212AA"));
+	assertTrue(client.messages.get(0).startsWith("^XA\n^DF" + path + "^FS\n"));
+	assertTrue(client.messages.get(0).endsWith("^XA\n^XF" + path + "^FS\n^FN1^FH\\^FDProduct:^FS\n"
+		+ "^FN2^FH\\^FDCamera^FS\n^FN3^FDCA201212AA^FS\n^FN4^FDMM,ACA201212AA^FS\n^XZ\n"));
+
+	printer.printZpl(createProductLabel("Phone", "42"));
+	assertEquals("^XA\n^XF" + path + "^FS\n^FN1^FH\\^FDProduct:^FS\n^FN2^FH\\^FDPhone^FS\n^FN3^FD42^FS\n"
+		+ "^FN4^FDMM,A42^FS\n^XZ\n",
+		client.messages.get(1));
+
+	ZebraLabel otherLayout = createProductLabel("Phone", "42").setHeightDots(600);
+	printer.printZpl(otherLayout);
+	assertNotEquals(path, formatPath(otherLayout));
+	assertTrue(client.messages.get(2).startsWith("^XA\n^DF" + formatPath(otherLayout) + "^FS\n"));
+    }
+
+    @Test
+    public void testDownloadedOncePerConnection() throws ZebraPrintException {
+	RegistryClient client = new RegistryClient();
+	AbstractZebraPrinter printer = new AbstractZebraPrinter(client) {
+	};
+	printer.setStoredFormatMode(true);
+	String path = formatPath(createProductLabel("Camera", "CA201212AA"));
+
+	printer.printZpl(createProductLabel("Camera", "CA201212AA"));
+	printer.printZpl(createProductLabel("Phone", "42"));
+	assertTrue(client.messages.get(0).startsWith("^XA\n^DF" + path + "^FS\n"));
+	assertTrue(client.messages.get(1).startsWith("^XA\n^XF" + path + "^FS\n"));
+	assertEquals(1, client.formatRegistry.getSize());
+
+	printer.connect();
+	printer.printZpl(createProductLabel("Phone", "42"));
+	assertTrue(client.messages.get(2).startsWith("^XA\n^DF" + path + "^FS\n"));
+    }
+
+    @Test
+    public void testPrinterRegistryReset() throws ZebraPrintException {
+	final boolean[] failing = { false };
+	ParallelRenderingTest.RecordingClient client = new ParallelRenderingTest.RecordingClient() {
+
+	    @Override
+	    public void send(String zplMessage) {
+		if (failing[0]) {
+		    throw new IllegalStateException("Connection lost");
+		}
+		super.send(zplMessage);
+	    }
+	};
+	AbstractZebraPrinter printer = new AbstractZebraPrinter(client) {
+	};
+	printer.setStoredFormatMode(true);
+	String download = "^XA\n^DF" + formatPath(createProductLabel("Camera", "CA201212AA")) + "^FS\n";
+
+	printer.printZpl(createProductLabel("Camera", "CA201212AA"));
+	printer.printZpl(createProductLabel("Phone", "42"));
+	assertTrue(client.messages.get(0).startsWith(download));
+	assertFalse(client.messages.get(1).startsWith(download));
+
+	printer.connect();
+	printer.printZpl(createProductLabel("Phone", "42"));
+	assertTrue(client.messages.get(2).startsWith(download));
+
+	printer.disconnect();
+	printer.printZpl(createProductLabel("Phone", "42"));
+	assertTrue(client.messages.get(3).startsWith(download));
+
+	failing[0] = true;
+	try {
+	    printer.printZpl(createProductLabel("Phone", "42"));
+	    fail();
+	} catch (IllegalStateException e) {
+	    // The format may not be stored
+	}
+	failing[0] = false;
+	printer.printZpl(createProductLabel("Phone", "42"));
+	assertTrue(client.messages.get(4).startsWith(download));
+	assertEquals(1, printer.getFormatRegistry().getSize());
+    }
+
+    @Test
+    public void testDownloadFormatSkippedWhenUnchanged() throws ZebraPrintException {
+	RegistryClient client = new RegistryClient();
+	AbstractZebraPrinter printer = new AbstractZebraPrinter(client) {
+	};
+	DownloadFormat downloadFormat = new DownloadFormat("SHIP", "^FO10,10^FN1^FS");
+
+	assertTrue(printer.downloadFormat(downloadFormat));
+	assertFalse(printer.downloadFormat(downloadFormat));
+	assertEquals(1, client.messages.size());
+	assertEquals("^XA\n^DFR:SHIP.ZPL^FS\n^FO10,10^FN1^FS\n^XZ\n", client.messages.get(0));
+
+	downloadFormat.setText("^FO20,20^FN1^FS");
+	assertTrue(printer.downloadFormat(downloadFormat));
+
+	printer.connect();
+	assertTrue(printer.downloadFormat(downloadFormat));
+	assertEquals(3, client.messages.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+	FormatRegistry formatRegistry = new FormatRegistry(300);
+	List<String> evictedPaths = new ArrayList<String>();
+	assertTrue(formatRegistry.storeFormat("R:A.ZPL", 1, 100, evictedPaths));
+	assertTrue(formatRegistry.storeFormat("R:B.ZPL", 2, 100, evictedPaths));
+	assertTrue(formatRegistry.storeFormat("R:C.ZPL", 3, 100, evictedPaths));
+	assertFalse(formatRegistry.storeFormat("R:A.ZPL", 1, 100, evictedPaths));
+	assertTrue(evictedPaths.isEmpty());
+
+	assertTrue(formatRegistry.storeFormat("R:D.ZPL", 4, 100, evictedPaths));
+	assertEquals(Arrays.asList("R:B.ZPL"), evictedPaths);
+	assertEquals(300, formatRegistry.getCurrentBytes());
+
+	evictedPaths.clear();
+	assertTrue(formatRegistry.storeFormat("R:E.ZPL", 5, 250, evictedPaths));
+	assertEquals(Arrays.asList("R:C.ZPL", "R:A.ZPL", "R:D.ZPL"), evictedPaths);
+	assertEquals(1, formatRegistry.getSize());
+	assertEquals(4, formatRegistry.getEvictionCount());
+	assertTrue(formatRegistry.isStored("R:E.ZPL", 5));
+	assertFalse(formatRegistry.isStored("R:A.ZPL", 1));
+    }
+
+    @Test
+    public void testEvictedFormatDeletedOnPrinter() throws ZebraPrintException {
+	RegistryClient client = new RegistryClient();
+	AbstractZebraPrinter printer = new AbstractZebraPrinter(client) {
+	};
+	printer.setStoredFormatMode(true);
+	ZebraLabel firstLayout = createProductLabel("Camera", "CA201212AA");
+	ZebraLabel secondLayout = createProductLabel("Camera", "CA201212AA").setHeightDots(600);
+	String firstPath = formatPath(firstLayout);
+	String secondPath = formatPath(secondLayout);
+	long firstSize = new StoredFormat(new LabelTemplate(firstLayout, true), "R:").getDownloadSize();
+	printer.getFormatRegistry().setMaxBytes(firstSize + 10);
+
+	printer.printZpl(firstLayout);
+	printer.printZpl(secondLayout);
+	assertTrue(client.messages.get(1)
+		.startsWith("^XA\n^ID" + firstPath + "^FS\n^XZ\n^XA\n^DF" + secondPath + "^FS\n"));
+
+	printer.printZpl(firstLayout);
+	assertTrue(client.messages.get(2)
+		.startsWith("^XA\n^ID" + secondPath + "^FS\n^XZ\n^XA\n^DF" + firstPath + "^FS\n"));
+	assertEquals(1, printer.getFormatRegistry().getSize());
+    }
+
+    private MonochromeBitmap createLogo(int width) {
+	BufferedImage image = new BufferedImage(width, 4, BufferedImage.TYPE_INT_ARGB);
+	for (int x = 0; x < width; x += 2) {
+	    image.setRGB(x, 0, 0xff000000);
+	}
+	return MonochromeBitmap.fromImage(image);
+    }
+
+    private ZebraLabel createLabel(MonochromeBitmap logo, int heightDots, String product) {
+	ZebraLabel zebraLabel = new ZebraLabel(912, heightDots);
+	zebraLabel.addElement(new ZebraRecallGraphic(10, 20, logo));
+	zebraLabel.addElement(new ZebraText(395, 85, product, 14));
+	return zebraLabel;
+    }
+
+    @Test
+    public void testBatchLargerThanBudget() throws ZebraPrintException {
+	RegistryClient client = new RegistryClient();
+	AbstractZebraPrinter printer = new AbstractZebraPrinter(client) {
+	};
+	printer.setStoredFormatMode(true);
+	printer.getFormatRegistry().setMaxBytes(1);
+	MonochromeBitmap firstLogo = createLogo(10);
+	MonochromeBitmap secondLogo = createLogo(20);
+	String firstPath = new DownloadGraphic(firstLogo).getPath();
+	String secondPath = new DownloadGraphic(secondLogo).getPath();
+	String firstFormatPath = formatPath(createLabel(firstLogo, 600, "Camera"));
+	String secondFormatPath = formatPath(createLabel(secondLogo, 700, "Phone"));
+
+	// Every object of the batch stays, the budget is exceeded until it is sent
+	printer.printZpl(Arrays.asList(createLabel(firstLogo, 600, "Camera"), createLabel(secondLogo, 700, "Phone"),
+		createLabel(firstLogo, 600, "Tablet")));
+	String batch = client.messages.get(0);
+	assertFalse(batch.contains("^ID"));
+	assertTrue(batch.contains("~DG" + firstPath) && batch.contains("~DG" + secondPath));
+	assertTrue(batch.contains("^DF" + firstFormatPath) && batch.contains("^DF" + secondFormatPath));
+	assertEquals(4, printer.getFormatRegistry().getSize());
+	assertFalse(printer.getFormatRegistry().isPinned(firstPath));
+
+	// Once sent, they are evicted by the next batch
+	MonochromeBitmap thirdLogo = createLogo(30);
+	printer.printZpl(createLabel(thirdLogo, 800, "Watch"));
+	String next = client.messages.get(1);
+	assertTrue(next.startsWith("^XA\n^ID"));
+	assertTrue(next.contains("^ID" + firstPath + "^FS") && next.contains("^ID" + firstFormatPath + "^FS"));
+	assertTrue(next.contains("^ID" + secondPath + "^FS") && next.contains("^ID" + secondFormatPath + "^FS"));
+	assertEquals(2, printer.getFormatRegistry().getSize());
+    }
+
+    @Test
+    public void testEvictedGraphicEvictsFormats() {
+	FormatRegistry formatRegistry = new FormatRegistry(250);
+	List<String> evictedPaths = new ArrayList<String>();
+	assertTrue(formatRegistry.storeFormat("R:G.GRF", 1, 100, evictedPaths));
+	assertTrue(formatRegistry.storeFormat("R:F.ZPL", 2, 10, Collections.singletonList("R:G.GRF"), evictedPaths));
+	assertTrue(formatRegistry.storeFormat("R:H.GRF", 3, 100, evictedPaths));
+	assertTrue(evictedPaths.isEmpty());
+
+	// The format recalling G would print without it
+	assertTrue(formatRegistry.storeFormat("R:I.GRF", 4, 100, evictedPaths));
+	assertEquals(Arrays.asList("R:G.GRF", "R:F.ZPL"), evictedPaths);
+	assertFalse(formatRegistry.isStored("R:F.ZPL", 2));
+
+	// The graphics of a format being stored are kept, even least recently used
+	evictedPaths.clear();
+	assertTrue(formatRegistry.storeFormat("R:K.ZPL", 5, 100, Collections.singletonList("R:H.GRF"), evictedPaths));
+	assertEquals(Arrays.asList("R:I.GRF"), evictedPaths);
+
+	// Pinned objects are never evicted, nor the graphics of pinned formats
+	evictedPaths.clear();
+	formatRegistry.pin(Collections.singletonList("R:K.ZPL"));
+	assertTrue(formatRegistry.storeFormat("R:L.GRF", 6, 100, evictedPaths));
+	assertTrue(evictedPaths.isEmpty());
+	assertEquals(300, formatRegistry.getCurrentBytes());
+	formatRegistry.unpin(Collections.singletonList("R:K.ZPL"));
+	assertTrue(formatRegistry.storeFormat("R:M.GRF", 7, 10, evictedPaths));
+	assertEquals(Arrays.asList("R:H.GRF", "R:K.ZPL"), evictedPaths);
+    }
+
+    @Test
+    public void testDownloadFormatKeepsItsGraphics() throws ZebraPrintException {
+	RegistryClient client = new RegistryClient();
+	AbstractZebraPrinter printer = new AbstractZebraPrinter(client) {
+	};
+	DownloadGraphic logo = new DownloadGraphic(createLogo(10));
+	DownloadFormat downloadFormat = new DownloadFormat("SHIP",
+		"^FO10,10^XG" + logo.getImageName() + ",1,1^FS^FO20,20^XGE:OTHER.GRF^FS");
+	assertEquals(Arrays.asList(logo.getPath(), "E:OTHER.GRF"),
+		new ArrayList<String>(downloadFormat.getGraphicPaths()));
+
+	printer.downloadGraphic(logo);
+	printer.getFormatRegistry().setMaxBytes(logo.getSize() + 1);
+	assertTrue(printer.downloadFormat(downloadFormat));
+	assertFalse(client.messages.get(1).contains("^ID"));
+
+	// Deleting the graphic deletes the format recalling it
+	assertTrue(printer.downloadGraphic(new DownloadGraphic(createLogo(20))));
+	assertTrue(client.messages.get(2).startsWith("^XA\n^ID" + logo.getPath() + "^FS\n^IDR:SHIP.ZPL^FS\n^XZ\n"));
+	assertTrue(printer.downloadFormat(downloadFormat));
+    }
+
+    @Test
+    public void testFormatNamesNeverReused() throws ZebraPrintException {
+	RegistryClient client = new RegistryClient();
+	AbstractZebraPrinter printer = new AbstractZebraPrinter(client) {
+	};
+	printer.setStoredFormatMode(true);
+	ZebraLabel firstLayout = createProductLabel("Camera", "CA201212AA").setHeightDots(100);
+	printer.printZpl(firstLayout);
+	for (int i = 0; i < AbstractZebraPrinter.MAX_STORED_FORMATS; i++) {
+	    printer.printZpl(createProductLabel("Camera", "CA201212AA").setHeightDots(200 + i));
+	}
+	assertEquals(AbstractZebraPrinter.MAX_STORED_FORMATS + 1, client.formatRegistry.getSize());
+
+	// The first layout was dropped by the printer, it compiles to the same
+	// format, still stored on the printer
+	int messageCount = client.messages.size();
+	printer.printZpl(createProductLabel("Phone", "42").setHeightDots(100));
+	assertTrue(client.messages.get(messageCount).startsWith("^XA\n^XF" + formatPath(firstLayout) + "^FS\n"));
+    }
+}
@@ -0,0 +1,133 @@
+package com.finium.core.drivers.zebra.zpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.finium.core.drivers.zebra.model.MonochromeBitmap;
+import com.finium.core.drivers.zebra.model.ZebraLabel;
+import com.finium.core.drivers.zebra.model.element.DownloadGraphic;
+import com.finium.core.drivers.zebra.model.element.ZebraRecallGraphic;
+import com.finium.core.drivers.zebra.model.element.ZebraText;
+import com.finium.core.drivers.zebra.printer.AbstractZebraPrinter;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraGraphicCompression;
+import com.finium.core.drivers.zebra.zpl.support.exceptions.ZebraPrintException;
+
+/**
+ * Test graphics downloaded once per printer with ~DG and recalled with ^XG
+ */
+public class StoredGraphicTest {
+
+    private MonochromeBitmap createBitmap(int pattern) {
+	BufferedImage image = new BufferedImage(10, 2, BufferedImage.TYPE_INT_ARGB);
+	for (int x = 0; x < 10; x++) {
+	    image.setRGB(x, 0, (x + pattern) % 2 == 0 ? 0xff000000 : 0xffffffff);
+	    image.setRGB(x, 1, 0x00000000);
+	}
+	return MonochromeBitmap.fromImage(image);
+    }
+
+    private ZebraLabel createLabel(MonochromeBitmap logo, String product) {
+	ZebraLabel zebraLabel = new ZebraLabel(912, 912);
+	zebraLabel.addElement(new ZebraRecallGraphic(10, 20, logo));
+	zebraLabel.addElement(new ZebraText(395, 85, product, 14));
+	return zebraLabel;
+    }
+
+    @Test
+    public void testDownloadAndRecall() {
+	MonochromeBitmap logo = createBitmap(0);
+	DownloadGraphic downloadGraphic = new DownloadGraphic(logo);
+	String imageName = downloadGraphic.getImageName();
+	assertTrue(imageName.matches("[0-9A-Z]{8}"));
+	assertEquals(imageName, DownloadGraphic.imageNameOf(createBitmap(0)));
+	assertNotEquals(imageName, DownloadGraphic.imageNameOf(createBitmap(1)));
+
+	assertEquals("~DGR:" + imageName + ".GRF,4,2,AA80,\n", downloadGraphic.getZplCode());
+	downloadGraphic.setCompression(ZebraGraphicCompression.HEXADECIMAL);
+	assertEquals("~DGR:" + imageName + ".GRF,4,2,AA800000\n", downloadGraphic.getZplCode());
+
+	ZebraRecallGraphic recallGraphic = new ZebraRecallGraphic(10, 20, logo);
+	assertEquals("^FO10,20^XGR:" + imageName + ".GRF,1,1^FS\n", recallGraphic.getZplCode());
+	recallGraphic.setMagnification(2, 3);
+	assertEquals("^FO10,20^XGR:" + imageName + ".GRF,2,3^FS\n", recallGraphic.getZplCode());
+    }
+
+    @Test
+    public void testDownloadedOncePerConnection() throws ZebraPrintException {
+	StoredFormatTest.RegistryClient client = new StoredFormatTest.RegistryClient();
+	AbstractZebraPrinter printer = new AbstractZebraPrinter(client) {
+	};
+	MonochromeBitmap logo = createBitmap(0);
+	String path = new DownloadGraphic(logo).getPath();
+
+	printer.printZpl(createLabel(logo, "Camera"));
+	printer.printZpl(createLabel(createBitmap(0), "Phone"));
+	assertTrue(client.messages.get(0).startsWith("~DG" + path + ",4,2,"));
+	assertTrue(client.messages.get(0).contains("^XA\n"));
+	assertTrue(client.messages.get(1).startsWith("^XA\n"));
+	assertTrue(client.messages.get(1).contains("^XG" + path + ",1,1^FS\n"));
+
+	printer.printZpl(Arrays.asList(createLabel(logo, "Camera"), createLabel(createBitmap(1), "Phone"),
+		createLabel(createBitmap(1), "Tablet")));
+	String batch = client.messages.get(2);
+	assertFalse(batch.contains("~DG" + path));
+	assertEquals(batch.indexOf("~DG"), batch.lastIndexOf("~DG"));
+	assertTrue(batch.startsWith("~DG"));
+	assertEquals(2, client.formatRegistry.getSize());
+
+	printer.connect();
+	printer.printZpl(createLabel(logo, "Camera"));
+	assertTrue(client.messages.get(3).startsWith("~DG" + path));
+    }
+
+    @Test
+    public void testDownloadGraphicSkippedWhenStored() throws ZebraPrintException {
+	StoredFormatTest.RegistryClient client = new StoredFormatTest.RegistryClient();
+	AbstractZebraPrinter printer = new AbstractZebraPrinter(client) {
+	};
+	DownloadGraphic downloadGraphic = new DownloadGraphic(createBitmap(0));
+	assertTrue(printer.downloadGraphic(downloadGraphic));
+	assertFalse(printer.downloadGraphic(new DownloadGraphic(createBitmap(0))));
+	assertEquals(1, client.messages.size());
+
+	printer.printZpl(createLabel(createBitmap(0), "Camera"));
+	assertTrue(client.messages.get(1).startsWith("^XA\n"));
+    }
+
+    @Test
+    public void testRecallAfterEviction() throws ZebraPrintException {
+	StoredFormatTest.RegistryClient client = new StoredFormatTest.RegistryClient();
+	AbstractZebraPrinter printer = new AbstractZebraPrinter(client) {
+	};
+	DownloadGraphic first = new DownloadGraphic(createBitmap(0));
+	DownloadGraphic second = new DownloadGraphic(createBitmap(1));
+	printer.getFormatRegistry().setMaxBytes(first.getSize() + 1);
+
+	printer.printZpl(createLabel(createBitmap(0), "Camera"));
+	printer.printZpl(createLabel(createBitmap(1), "Phone"));
+	assertTrue(client.messages.get(1)
+		.startsWith("^XA\n^ID" + first.getPath() + "^FS\n^XZ\n~DG" + second.getPath()));
+
+	// The evicted graphic is downloaded again before the label recalling it
+	printer.printZpl(createLabel(createBitmap(0), "Tablet"));
+	String message = client.messages.get(2);
+	assertTrue(message.startsWith("^XA\n^ID" + second.getPath() + "^FS\n^XZ\n~DG" + first.getPath()));
+	assertTrue(message.indexOf("~DG" + first.getPath()) < message.indexOf("^XG" + first.getPath()));
+
+	// A batch recalling both keeps both, whatever the budget
+	printer.printZpl(Arrays.asList(createLabel(createBitmap(0), "Camera"), createLabel(createBitmap(1), "Phone")));
+	String batch = client.messages.get(3);
+	assertFalse(batch.contains("^ID"));
+	assertTrue(batch.indexOf("~DG" + second.getPath()) < batch.indexOf("^XG" + second.getPath()));
+	assertTrue(batch.contains("^XG" + first.getPath()));
+	assertTrue(printer.getFormatRegistry().isStored(first.getPath(), createBitmap(0).getContentHash()));
+	assertTrue(printer.getFormatRegistry().isStored(second.getPath(), createBitmap(1).getContentHash()));
+    }
+}
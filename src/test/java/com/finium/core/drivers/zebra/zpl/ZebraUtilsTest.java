@@ -5,6 +5,7 @@ import static org.junit.Assert.assertEquals;
 import org.junit.Test;
 
 import com.finium.core.drivers.zebra.zpl.support.ZplUtils;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
 
 /**
  * Unit test for simple App.
@@ -25,4 +26,20 @@ public class ZebraUtilsTest {
 	assertEquals("^FT5,6\n", ZplUtils.zplCommandSautLigne("FT", 5, 6).toString());
 	assertEquals("^FT5,,6\n", ZplUtils.zplCommandSautLigne("FT", 5, null, 6).toString());
     }
+
+    /**
+     * Test primitive overloads writing into a writer
+     */
+    @Test
+    public void testZplCommandWriter() {
+	ZplWriter zplWriter = new ZplWriter();
+	ZplUtils.zplCommand(zplWriter, "FT", 5, 6);
+	ZplUtils.zplCommand(zplWriter, "GB", (Integer) null);
+	ZplUtils.zplVariable(zplWriter, 3);
+	ZplUtils.zplVariable(zplWriter, (Integer) null);
+	ZplUtils.zplVariable(zplWriter, true);
+	ZplUtils.zplVariable(zplWriter, false);
+	ZplUtils.zplVariable(zplWriter, 'B').newLine();
+	assertEquals("^FT5,6^GB,3,,Y,N,B\n", zplWriter.toString());
+    }
 }
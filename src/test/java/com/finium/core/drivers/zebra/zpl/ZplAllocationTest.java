@@ -0,0 +1,62 @@
+package com.finium.core.drivers.zebra.zpl;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Test;
+
+import com.finium.core.drivers.zebra.model.ZebraLabel;
+import com.finium.core.drivers.zebra.model.element.ZebraBarCode128;
+import com.finium.core.drivers.zebra.model.element.ZebraBarCode39;
+import com.finium.core.drivers.zebra.model.element.ZebraGraficBox;
+import com.finium.core.drivers.zebra.model.element.ZebraText;
+import com.finium.core.drivers.zebra.zpl.command.ZebraPrintMode;
+import com.finium.core.drivers.zebra.zpl.enums.ZebraFont;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
+
+/**
+ * Check that rendering a label into a reused writer does not allocate once
+ * warmed up.
+ */
+public class ZplAllocationTest {
+
+    private static final int ITERATIONS = 20000;
+
+    @Test
+    public void testLabelRendersWithoutGarbage() {
+	java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+	assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+	com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+	assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+	allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+	ZebraLabel zebraLabel = new ZebraLabel(912, 912);
+	zebraLabel.setZebraPrintMode(ZebraPrintMode.PEEL_OFF_SELECT);
+	zebraLabel.setDefaultZebraFont(ZebraFont.ZEBRA_ZERO);
+	zebraLabel.setDefaultFontSize(11);
+	zebraLabel.addElement(new ZebraGraficBox(10, 10, 890, 890, 3, "B"));
+	zebraLabel.addElement(new ZebraText(10, 84, "Product:", 14));
+	zebraLabel.addElement(new ZebraText(395, 85, "Qté", ZebraFont.ZEBRA_ZERO, 14));
+	zebraLabel.addElement(new ZebraBarCode128(70, 400, "0235600703875191516022937128", 190, false, 4, 2));
+	zebraLabel.addElement(new ZebraBarCode39(10, 700, "CA201212AA", 118, 2, 2));
+
+	ZplWriter zplWriter = new ZplWriter();
+	for (int i = 0; i < ITERATIONS; i++) {
+	    zplWriter.reset();
+	    zebraLabel.writeZpl(zplWriter);
+	}
+
+	long threadId = Thread.currentThread().getId();
+	long before = allocationBean.getThreadAllocatedBytes(threadId);
+	for (int i = 0; i < ITERATIONS; i++) {
+	    zplWriter.reset();
+	    zebraLabel.writeZpl(zplWriter);
+	}
+	long allocated = allocationBean.getThreadAllocatedBytes(threadId) - before;
+
+	// Only tolerate the noise of the measure itself, far below one byte per label
+	assertTrue("Rendering allocated " + allocated + " bytes", allocated < ITERATIONS / 10);
+    }
+}
@@ -0,0 +1,65 @@
+package com.finium.core.drivers.zebra.zpl;
+
+import static com.finium.core.drivers.zebra.zpl.LabelFixtures.createProductLabel;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.finium.core.drivers.zebra.model.ZebraLabel;
+import com.finium.core.drivers.zebra.zpl.support.ZplWriter;
+
+/**
+ * Test ZplWriter sinks
+ */
+public class ZplWriterTest {
+
+    @Test
+    public void testAppend() {
+	ZplWriter zplWriter = new ZplWriter(4);
+	zplWriter.append("^FT").append(-12).append(',').append(0).append(',').append(Integer.MAX_VALUE).append('é');
+	assertEquals("^FT-12,0,2147483647?", zplWriter.toString());
+
+	zplWriter.reset();
+	assertEquals(0, zplWriter.size());
+	zplWriter.append(new byte[] { '^', 'X', 'Z' }).newLine();
+	assertEquals("^XZ\n", zplWriter.toString());
+    }
+
+    /**
+     * Every sink must receive exactly the bytes getZplCode used to send
+     */
+    @Test
+    public void testSinks() {
+	ZebraLabel zebraLabel = createProductLabel("Qté", "0235600703875191516022937128");
+	byte[] expected = zebraLabel.getZplCode().getBytes(StandardCharsets.US_ASCII);
+
+	ZplWriter memoryWriter = new ZplWriter();
+	zebraLabel.writeZpl(memoryWriter);
+	assertArrayEquals(expected, memoryWriter.toByteArray());
+
+	ByteArrayOutputStream stream = new ByteArrayOutputStream();
+	ZplWriter streamWriter = new ZplWriter(stream);
+	zebraLabel.writeZpl(streamWriter);
+	streamWriter.flush();
+	assertArrayEquals(expected, stream.toByteArray());
+
+	ByteArrayOutputStream channelStream = new ByteArrayOutputStream();
+	ZplWriter channelWriter = new ZplWriter(Channels.newChannel(channelStream));
+	zebraLabel.writeZpl(channelWriter);
+	channelWriter.flush();
+	assertArrayEquals(expected, channelStream.toByteArray());
+
+	ByteBuffer byteBuffer = ByteBuffer.allocate(4096);
+	ZplWriter bufferWriter = new ZplWriter(byteBuffer);
+	zebraLabel.writeZpl(bufferWriter);
+	bufferWriter.flush();
+	assertArrayEquals(expected, Arrays.copyOf(byteBuffer.array(), byteBuffer.position()));
+    }
+}
@@ -5,6 +5,7 @@ import static org.junit.Assert.assertEquals;
 import org.junit.Test;
 
 import com.finium.core.drivers.zebra.model.element.ZebraBarCode128;
+import com.finium.core.drivers.zebra.zpl.support.Code128SubsetOptimizer;
 
 public class ZebraBarCode128Test {
 
@@ -14,4 +15,31 @@ public class ZebraBarCode128Test {
 	assertEquals("^FT70,1000\n^BY4,2,190\n^BCN,190,N,N,N\n^FD0235600703875191516022937128^FS\n",
 		barcode.getZplCode());
     }
+
+    @Test
+    public void testSubsetOptimizedZplOutput() {
+	ZebraBarCode128 barcode = new ZebraBarCode128(70, 1000, "0235600703875191516022937128", 190, false, 4, 2);
+	barcode.setSubsetOptimized(true);
+	assertEquals("^FT70,1000\n^BY4,2,190\n^BCN,190,N,N,N\n^FD>;0235600703875191516022937128^FS\n",
+		barcode.getZplCode());
+	barcode.setText("CA201212AA");
+	assertEquals("CA>5201212>6AA", barcode.getFieldData());
+    }
+
+    @Test
+    public void testSubsetOptimizer() {
+	assertEquals("ABC", Code128SubsetOptimizer.optimize("ABC"));
+	assertEquals(">;1234", Code128SubsetOptimizer.optimize("1234"));
+	// An odd run of digits starts in subset B
+	assertEquals("1>52345", Code128SubsetOptimizer.optimize("12345"));
+	// Three digits are not worth a switch
+	assertEquals("AB123", Code128SubsetOptimizer.optimize("AB123"));
+	assertEquals(">;1234>6AB", Code128SubsetOptimizer.optimize("1234AB"));
+	// Control characters need subset A
+	assertEquals(">9AB\tC", Code128SubsetOptimizer.optimize("AB\tC"));
+	assertEquals("ab>7\t", Code128SubsetOptimizer.optimize("ab\t"));
+	// Invocation codes written by the caller are kept
+	assertEquals(">:1234", Code128SubsetOptimizer.optimize(">:1234"));
+	assertEquals("", Code128SubsetOptimizer.optimize(""));
+    }
 }